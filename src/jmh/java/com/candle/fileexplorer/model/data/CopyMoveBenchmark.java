@@ -0,0 +1,70 @@
+package com.candle.fileexplorer.model.data;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures copying and moving a file with {@link DefaultFileItem}. Divide
+ * the file size by the time per operation for the throughput.
+ * Both folders are in the temporary directory, so moves stay on the same
+ * drive.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CopyMoveBenchmark {
+    @Param({"1048576", "67108864"})
+    public int fileBytes;
+
+    private Path directory;
+
+    private Path source;
+
+    private Path target;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void createFile() throws IOException {
+        directory = Files.createTempDirectory("files-copy-benchmark");
+        source = Files.createDirectory(directory.resolve("source"));
+        target = Files.createDirectory(directory.resolve("target"));
+
+        // Random contents, so nothing along the way can compress them.
+        byte[] contents = new byte[fileBytes];
+        new Random(42).nextBytes(contents);
+        file = Files.write(source.resolve("data.bin"), contents);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        FileUtils.deleteDirectory(directory.toFile());
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteCopy() throws IOException {
+        Files.deleteIfExists(target.resolve("data.bin"));
+    }
+
+    @Benchmark
+    public void copy() throws FileSystemException {
+        new DefaultFileItem(FileType.File, file.toString()).copyTo(target.toString());
+    }
+
+    @Benchmark
+    public void moveThereAndBack() throws FileSystemException {
+        new DefaultFileItem(FileType.File, file.toString()).moveTo(target.toString());
+        new DefaultFileItem(FileType.File, target.resolve("data.bin").toString())
+                .moveTo(source.toString());
+    }
+}
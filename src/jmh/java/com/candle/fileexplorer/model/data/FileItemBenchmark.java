@@ -0,0 +1,68 @@
+package com.candle.fileexplorer.model.data;
+
+import com.candle.fileexplorer.model.helpers.FileOperations;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures creating file items, with and without looking up their type on
+ * disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileItemBenchmark {
+    private Path directory;
+
+    private String filePath;
+
+    private String folderPath;
+
+    private String missingPath;
+
+    @Setup(Level.Trial)
+    public void createFiles() throws IOException {
+        directory = Files.createTempDirectory("files-item-benchmark");
+        filePath = Files.createFile(directory.resolve("notes.txt")).toString();
+        folderPath = Files.createDirectory(directory.resolve("Projects")).toString();
+        missingPath = directory.resolve("missing.txt").toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        FileUtils.deleteDirectory(directory.toFile());
+    }
+
+    @Benchmark
+    public FileItem constructWithType() {
+        return new DefaultFileItem(FileType.File, filePath);
+    }
+
+    @Benchmark
+    public FileItem constructDeterminingType() {
+        return new DefaultFileItem(folderPath);
+    }
+
+    @Benchmark
+    public FileType determineTypeOfFile() {
+        return FileOperations.determineType(filePath);
+    }
+
+    @Benchmark
+    public FileType determineTypeOfFolder() {
+        return FileOperations.determineType(folderPath);
+    }
+
+    @Benchmark
+    public FileType determineTypeOfMissingItem() {
+        return FileOperations.determineType(missingPath);
+    }
+}
@@ -0,0 +1,51 @@
+package com.candle.fileexplorer.model.helpers;
+
+import com.candle.fileexplorer.fixtures.FixtureTree;
+import com.candle.fileexplorer.fixtures.SizeDistribution;
+import com.candle.fileexplorer.model.data.FileItem;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures listing a directory with {@link DirectoryStructure}, at sizes
+ * from an ordinary folder up to one with a million entries. The folders are
+ * generated by {@link FixtureTree}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DirectoryListingBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int entries;
+
+    private FixtureTree tree;
+
+    @Setup(Level.Trial)
+    public void createDirectory() throws IOException {
+        // One in fifty entries is hidden, which is roughly what a home
+        // folder looks like.
+        tree = FixtureTree.builder().depth(0).filesPerFolder(entries).hiddenRatio(0.02)
+                .fileSizes(SizeDistribution.fixed(0)).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDirectory() throws IOException {
+        tree.close();
+    }
+
+    @Benchmark
+    public List<FileItem> listVisibleItems() {
+        return DirectoryStructure.getDirectoryContents(tree.getRoot().toString(), false);
+    }
+
+    @Benchmark
+    public List<FileItem> listAllItems() {
+        return DirectoryStructure.getDirectoryContents(tree.getRoot().toString(), true);
+    }
+}
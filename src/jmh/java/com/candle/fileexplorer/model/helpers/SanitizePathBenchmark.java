@@ -0,0 +1,27 @@
+package com.candle.fileexplorer.model.helpers;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link FileOperations#sanitizePath}, which runs for every item
+ * that's listed or created.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SanitizePathBenchmark {
+    @Param({"/home/user/Documents/report.pdf",
+            "~/Pictures/Holiday\\0402022/IMG_0001.jpg",
+            "C:\\Users\\user\\Documents\\report.pdf"})
+    public String path;
+
+    @Benchmark
+    public String sanitizePath() {
+        return FileOperations.sanitizePath(path);
+    }
+}
@@ -0,0 +1,60 @@
+package com.candle.fileexplorer.view.helpers;
+
+import com.candle.fileexplorer.model.data.CachedFileItem;
+import com.candle.fileexplorer.model.data.FileItem;
+import com.candle.fileexplorer.model.data.FileType;
+import com.candle.fileexplorer.view.enums.GridSortOrder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures sorting a listing in each of the grid's sort orders. The items
+ * carry their sizes and times, so only the sorting itself is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemSorterBenchmark {
+    @Param({"Name", "Modified", "Size"})
+    public GridSortOrder sortOrder;
+
+    @Param({"1000", "100000"})
+    public int items;
+
+    private List<FileItem> listing;
+
+    private HashMap<String, Long> folderSizes;
+
+    @Setup(Level.Trial)
+    public void createListing() {
+        Random random = new Random(42);
+        listing = new ArrayList<>(items);
+        folderSizes = new HashMap<>();
+        for (int i = 0; i < items; i++) {
+            String path = "/home/user/Documents/item-" + random.nextInt(1_000_000);
+            long modified = 1_600_000_000_000L + random.nextInt(Integer.MAX_VALUE);
+            if (i % 10 == 0) {
+                listing.add(new CachedFileItem(FileType.Folder, path, modified, -1));
+                // Some folders' sizes aren't known yet.
+                if (i % 20 == 0)
+                    folderSizes.put(path, (long) random.nextInt(Integer.MAX_VALUE));
+            } else {
+                listing.add(new CachedFileItem(FileType.File, path + ".txt", modified,
+                        random.nextInt(100_000_000)));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<FileItem> sort() {
+        return ItemSorter.sort(listing, sortOrder, path -> folderSizes.getOrDefault(path, -1L));
+    }
+}
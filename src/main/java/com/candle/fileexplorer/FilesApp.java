@@ -1,8 +1,11 @@
 package com.candle.fileexplorer;
 
+import com.candle.fileexplorer.core.Bootstrap;
 import com.candle.fileexplorer.core.ModelFactory;
 import com.candle.fileexplorer.core.ViewHandler;
 import com.candle.fileexplorer.core.ViewModelFactory;
+import com.candle.fileexplorer.view.helpers.IconCache;
+import com.candle.fileexplorer.viewmodel.QuickAccessViewModel;
 import javafx.application.Application;
 import javafx.stage.Stage;
 
@@ -10,16 +13,37 @@ import javafx.stage.Stage;
  * The 'main' class
  */
 public class FilesApp extends Application {
+    private ModelFactory modelFactory;
+
     @Override
     public void start(Stage primaryStage) throws Exception {
         // Create the management classes
-        ModelFactory modelFactory = new ModelFactory();
+        modelFactory = new ModelFactory();
         ViewModelFactory viewModelFactory = new ViewModelFactory(modelFactory);
 
         ViewHandler viewHandler = ViewHandler.getInstance();
         viewHandler.init(primaryStage, viewModelFactory);
 
+        // Reading the drives, decoding icons and reading the version don't
+        // depend on each other or on the window, so they run alongside it
+        // being built. The first listing is read by the grid in the
+        // background too.
+        Bootstrap bootstrap = new Bootstrap();
+        QuickAccessViewModel quickAccess =
+                viewModelFactory.getMainViewModel().getQuickAccessViewModel();
+        bootstrap.submit("Mount discovery", quickAccess::discoverDrives, quickAccess::showDrives);
+        bootstrap.run("Icon loading", IconCache::preload);
+        bootstrap.run("Version properties", viewModelFactory.getAboutViewModel()::loadFilesVersion);
+        bootstrap.shutdown();
+
         // Get things started.
         viewHandler.start();
     }
+
+    @Override
+    public void stop() {
+        // The filename index is only saved between passes otherwise.
+        if (modelFactory != null)
+            modelFactory.shutdown();
+    }
 }
@@ -1,5 +1,6 @@
 package com.candle.fileexplorer;
 
+import com.candle.fileexplorer.core.StartupTimer;
 import javafx.application.Application;
 
 /**
@@ -7,6 +8,7 @@ import javafx.application.Application;
  */
 public class StartFilesApp {
     public static void main(String[] args) {
+        StartupTimer.markLaunch();
         Application.launch(FilesApp.class);
     }
 }
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.candle.fileexplorer.core;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs the parts of starting up that don't depend on each other at the same
+ * time, so the main window can be shown as soon as its scene graph is
+ * built. Each task hands its result to the UI thread when it finishes, and
+ * the window fills in as they do.
+ */
+public class Bootstrap {
+    //region Private Members
+
+    private final ExecutorService executor;
+
+    //endregion
+
+    //region Constructors
+
+    public Bootstrap() {
+        int threads = Math.min(4, Math.max(2, Runtime.getRuntime().availableProcessors()));
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "Startup task");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Starts a task in the background.
+     *
+     * @param name       The name of the task, for reporting failures.
+     * @param task       The work to do off the UI thread.
+     * @param onUiThread Given the task's result on the UI thread.
+     */
+    public <T> CompletableFuture<T> submit(String name, Supplier<T> task,
+                                           Consumer<T> onUiThread) {
+        return CompletableFuture.supplyAsync(task, executor).whenComplete((result, error) -> {
+            if (error != null) {
+                System.err.println("Startup task \"" + name + "\" failed:");
+                error.printStackTrace();
+                return;
+            }
+            Platform.runLater(() -> onUiThread.accept(result));
+        });
+    }
+
+    /**
+     * Starts a task in the background that has nothing to hand back.
+     *
+     * @param name The name of the task, for reporting failures.
+     * @param task The work to do off the UI thread.
+     */
+    public CompletableFuture<Void> run(String name, Runnable task) {
+        return CompletableFuture.runAsync(task, executor).whenComplete((result, error) -> {
+            if (error != null) {
+                System.err.println("Startup task \"" + name + "\" failed:");
+                error.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Lets the tasks that were started finish, then stops the threads.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    //endregion
+}
@@ -0,0 +1,62 @@
+package com.candle.fileexplorer.core;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tells a scheduled task that it's no longer wanted. Tasks check it between
+ * steps and stop early; nothing is interrupted.
+ */
+public final class CancellationToken {
+    //region Private Members
+
+    private final AtomicBoolean cancelled;
+
+    //endregion
+
+    //region Constructors
+
+    public CancellationToken() {
+        this(new AtomicBoolean());
+    }
+
+    /**
+     * Creates a token that's cancelled when a flag is set, for work that
+     * already checks a flag of its own.
+     */
+    public CancellationToken(AtomicBoolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    /**
+     * Stops the task, if it's been cancelled, by throwing.
+     *
+     * @throws CancellationException If it's been cancelled.
+     */
+    public void throwIfCancelled() {
+        if (cancelled.get())
+            throw new CancellationException();
+    }
+
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    /**
+     * Gets the flag behind the token, for passing on to code that takes
+     * one.
+     */
+    public AtomicBoolean asFlag() {
+        return cancelled;
+    }
+
+    //endregion
+}
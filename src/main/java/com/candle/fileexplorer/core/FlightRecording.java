@@ -0,0 +1,94 @@
+package com.candle.fileexplorer.core;
+
+import com.candle.fileexplorer.model.helpers.FileOperations;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Starts and stops a Java Flight Recorder recording of the running app,
+ * with the JDK's "profile" settings and the app's own file events. The
+ * recording is saved in the cache directory when it's stopped, or when the
+ * app exits while it's running.
+ */
+public class FlightRecording {
+    //region Private Members
+
+    private static final DateTimeFormatter fileNameFormat =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static Recording recording;
+
+    private static Path destination;
+
+    //endregion
+
+    //region Constructors
+
+    private FlightRecording() {
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    public static synchronized boolean isRecording() {
+        return recording != null;
+    }
+
+    /**
+     * Starts recording, unless a recording is already running.
+     *
+     * @throws IOException If the recording's file can't be created, or the
+     *                     runtime doesn't support recording.
+     */
+    public static synchronized void start() throws IOException {
+        if (recording != null)
+            return;
+
+        Path folder = Path.of(FileOperations.getCacheDirectory(), "recordings");
+        Files.createDirectories(folder);
+        Path file = folder.resolve("files-" + LocalDateTime.now().format(fileNameFormat) + ".jfr");
+
+        Recording newRecording;
+        try {
+            newRecording = new Recording(Configuration.getConfiguration("profile"));
+        } catch (ParseException e) {
+            throw new IOException("Could not read the JFR settings", e);
+        } catch (IllegalStateException | SecurityException e) {
+            throw new IOException("Flight recording isn't available", e);
+        }
+        newRecording.setName("Files");
+        newRecording.setToDisk(true);
+        newRecording.setDestination(file);
+        newRecording.setDumpOnExit(true);
+        newRecording.start();
+
+        recording = newRecording;
+        destination = file;
+    }
+
+    /**
+     * Stops the recording and saves it.
+     *
+     * @return The file it was saved to, or null if nothing was recording.
+     */
+    public static synchronized Path stop() {
+        if (recording == null)
+            return null;
+
+        // The recording is written to its destination as it stops.
+        recording.stop();
+        recording.close();
+        recording = null;
+        return destination;
+    }
+
+    //endregion
+}
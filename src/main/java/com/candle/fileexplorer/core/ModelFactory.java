@@ -2,6 +2,16 @@ package com.candle.fileexplorer.core;
 
 import com.candle.fileexplorer.model.FilesModel;
 import com.candle.fileexplorer.model.DefaultFilesModel;
+import com.candle.fileexplorer.model.mounts.MountMonitor;
+import com.candle.fileexplorer.model.observer.EventDispatcher;
+import com.candle.fileexplorer.model.search.ContentSearcher;
+import com.candle.fileexplorer.model.search.DirectoryTrie;
+import com.candle.fileexplorer.model.search.FilenameIndexer;
+import com.candle.fileexplorer.model.usage.DriveSpaceMonitor;
+import com.candle.fileexplorer.model.usage.DuplicateFinder;
+import com.candle.fileexplorer.model.usage.FolderSizeCalculator;
+import com.candle.fileexplorer.model.usage.UsageScanner;
+import javafx.application.Platform;
 
 /**
  * The class that is responsible for creating the data models.
@@ -14,6 +24,46 @@ public class ModelFactory {
      */
     private FilesModel filesModel;
 
+    /**
+     * A reference to the background indexer used by the search view.
+     */
+    private FilenameIndexer filenameIndexer;
+
+    /**
+     * A reference to the searcher used for file contents.
+     */
+    private ContentSearcher contentSearcher;
+
+    /**
+     * A reference to the cache of directory names used for path completion.
+     */
+    private DirectoryTrie directoryTrie;
+
+    /**
+     * A reference to the background calculator for folder sizes.
+     */
+    private FolderSizeCalculator folderSizeCalculator;
+
+    /**
+     * A reference to the scanner used by the disk usage view.
+     */
+    private UsageScanner usageScanner;
+
+    /**
+     * A reference to the finder used by the duplicates view.
+     */
+    private DuplicateFinder duplicateFinder;
+
+    /**
+     * A reference to the monitor for the space on each drive.
+     */
+    private DriveSpaceMonitor driveSpaceMonitor;
+
+    /**
+     * A reference to the scheduler that runs background work.
+     */
+    private TaskScheduler taskScheduler;
+
     //endregion
 
     /**
@@ -21,7 +71,107 @@ public class ModelFactory {
      */
     public FilesModel getFilesModel() {
         if (filesModel == null)
-            filesModel = new DefaultFilesModel();
+            // Changes made within the same frame reach the view models as
+            // a single batch.
+            filesModel = new DefaultFilesModel(new EventDispatcher(Platform::runLater),
+                    getTaskScheduler().executor(TaskPriority.Interactive),
+                    getTaskScheduler().executor(TaskPriority.Transfer));
         return filesModel;
     }
+
+    /**
+     * Gets a reference to the scheduler for background work.
+     */
+    public TaskScheduler getTaskScheduler() {
+        if (taskScheduler == null)
+            taskScheduler = new TaskScheduler();
+        return taskScheduler;
+    }
+
+    /**
+     * Gets a reference to the filename indexer. The indexer is created in a
+     * stopped state.
+     */
+    public FilenameIndexer getFilenameIndexer() {
+        if (filenameIndexer == null)
+            filenameIndexer = new FilenameIndexer(getTaskScheduler().executor(TaskPriority.Indexing));
+        return filenameIndexer;
+    }
+
+    /**
+     * Gets a reference to the file content searcher.
+     */
+    public ContentSearcher getContentSearcher() {
+        if (contentSearcher == null)
+            contentSearcher = new ContentSearcher(
+                    getTaskScheduler().deviceExecutor(TaskPriority.Indexing),
+                    TaskPriority.Indexing.getPerDeviceLimit());
+        return contentSearcher;
+    }
+
+    /**
+     * Gets a reference to the cache of recently listed directory names.
+     */
+    public DirectoryTrie getDirectoryTrie() {
+        if (directoryTrie == null)
+            directoryTrie = new DirectoryTrie();
+        return directoryTrie;
+    }
+
+    /**
+     * Gets a reference to the folder size calculator.
+     */
+    public FolderSizeCalculator getFolderSizeCalculator() {
+        if (folderSizeCalculator == null)
+            folderSizeCalculator = new FolderSizeCalculator(
+                    getTaskScheduler().deviceExecutor(TaskPriority.Prefetch));
+        return folderSizeCalculator;
+    }
+
+    /**
+     * Gets a reference to the disk usage scanner.
+     */
+    public UsageScanner getUsageScanner() {
+        if (usageScanner == null)
+            usageScanner = new UsageScanner(getTaskScheduler().deviceExecutor(TaskPriority.Indexing));
+        return usageScanner;
+    }
+
+    /**
+     * Gets a reference to the duplicate file finder.
+     */
+    public DuplicateFinder getDuplicateFinder() {
+        if (duplicateFinder == null)
+            duplicateFinder = new DuplicateFinder(
+                    getTaskScheduler().deviceExecutor(TaskPriority.Indexing));
+        return duplicateFinder;
+    }
+
+    /**
+     * Gets a reference to the drive space monitor.
+     */
+    public DriveSpaceMonitor getDriveSpaceMonitor() {
+        if (driveSpaceMonitor == null)
+            driveSpaceMonitor = new DriveSpaceMonitor();
+        return driveSpaceMonitor;
+    }
+
+    /**
+     * Saves the state that's kept between runs and stops the background
+     * work, before the app exits.
+     */
+    public void shutdown() {
+        if (filenameIndexer != null)
+            filenameIndexer.stop();
+        if (taskScheduler != null)
+            taskScheduler.shutdown();
+    }
+
+    /**
+     * Gets a reference to the mount monitor, which is shared with the drive
+     * list. It's stopped until something starts it.
+     */
+    public MountMonitor getMountMonitor() {
+        return MountMonitor.getDefault();
+    }
 }
@@ -0,0 +1,283 @@
+package com.candle.fileexplorer.core;
+
+import com.candle.fileexplorer.model.metrics.Counter;
+import com.candle.fileexplorer.model.metrics.MetricsRegistry;
+import com.candle.fileexplorer.model.metrics.Timer;
+import javafx.scene.Scene;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the UI thread for stalls. A watchdog thread keeps posting a small
+ * task to the UI thread and times how long it waits to run. Once a task has
+ * waited longer than the threshold, the UI thread's stack is sampled until
+ * it runs, and the stall is written to a rolling log with the stack seen
+ * most often and what the thread was busy with, such as listing a
+ * directory or waiting for the trash command.
+ */
+public class StallDetector {
+    //region Private Members
+
+    /**
+     * How often the UI thread is checked on, in milliseconds.
+     */
+    private static final long pingInterval = 100;
+
+    /**
+     * How often the UI thread's stack is sampled during a stall, in
+     * milliseconds.
+     */
+    private static final long sampleInterval = 20;
+
+    /**
+     * The most stack frames written for a stall.
+     */
+    private static final int maxLoggedFrames = 40;
+
+    /**
+     * What the UI thread is doing when one of these methods is on its
+     * stack, checked from the top of the stack down. A null method matches
+     * any method of the class.
+     */
+    private static final List<CallSiteRule> callSiteRules = List.of(
+            new CallSiteRule("com.candle.fileexplorer.model.helpers.FileOperations",
+                    "runTrashShellCommand", "trash subprocess"),
+            new CallSiteRule("com.candle.fileexplorer.model.helpers.FileOperations",
+                    "trashDependencyExists", "trash subprocess"),
+            new CallSiteRule("com.candle.fileexplorer.model.helpers.FileOperations",
+                    "sendItemToTrash", "trash"),
+            new CallSiteRule("com.candle.fileexplorer.model.helpers.FileOperations",
+                    "openFileInDefaultApp", "opening a file"),
+            new CallSiteRule("com.candle.fileexplorer.model.helpers.DirectoryStructure",
+                    null, "listing"),
+            new CallSiteRule("com.candle.fileexplorer.model.data.DefaultFileItem",
+                    "copyTo", "copy"),
+            new CallSiteRule("com.candle.fileexplorer.model.data.DefaultFileItem",
+                    "moveTo", "move"),
+            new CallSiteRule("com.candle.fileexplorer.model.data.DefaultFileItem",
+                    "rename", "rename"),
+            new CallSiteRule("javafx.scene.input.Clipboard", null, "clipboard"),
+            new CallSiteRule("javafx.fxml.FXMLLoader", null, "FXML loading"));
+
+    private static final Timer pingLatency = MetricsRegistry.getDefault().timer(
+            "files_fx_ping_latency_seconds", "Time a task posted to the UI thread waits to run");
+
+    private static final Timer pulseTimer = MetricsRegistry.getDefault().timer(
+            "files_fx_pulse_seconds", "Time for the CSS and layout pass of each pulse");
+
+    private static final Counter stallCount = MetricsRegistry.getDefault().counter(
+            "files_fx_stalls_total", "Times the UI thread was blocked past the threshold");
+
+    private final Executor uiExecutor;
+
+    private final StallLog log;
+
+    private final long thresholdNanos;
+
+    private volatile Thread uiThread;
+
+    private volatile boolean running;
+
+    //endregion
+
+    //region Constructors
+
+    /**
+     * Creates a detector, which does nothing until it's started.
+     *
+     * @param uiExecutor      Runs tasks on the UI thread, such as
+     *                        Platform::runLater.
+     * @param logFile         The log stalls are written to. Up to three
+     *                        older logs of 1 MB each are kept next to it.
+     * @param thresholdMillis How long the UI thread has to be blocked for
+     *                        to count as a stall.
+     */
+    public StallDetector(Executor uiExecutor, Path logFile, long thresholdMillis) {
+        this.uiExecutor = uiExecutor;
+        this.log = new StallLog(logFile, 1024 * 1024, 3);
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Starts watching the UI thread on a background thread.
+     */
+    public synchronized void start() {
+        if (running)
+            return;
+        running = true;
+
+        Thread watchdog = new Thread(this::watch, "FX stall watchdog");
+        watchdog.setDaemon(true);
+        watchdog.start();
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * Times the CSS and layout pass of every pulse of a scene. Must be
+     * called on the UI thread.
+     */
+    public void watchPulses(Scene scene) {
+        long[] pulseStart = new long[1];
+        scene.addPreLayoutPulseListener(() -> pulseStart[0] = pulseTimer.start());
+        scene.addPostLayoutPulseListener(() -> pulseTimer.stop(pulseStart[0]));
+    }
+
+    /**
+     * Describes what a stack shows the thread doing.
+     *
+     * @return What the thread is doing, such as "listing", or "other" if it
+     * isn't a known slow operation.
+     */
+    static String classify(StackTraceElement[] stack) {
+        for (StackTraceElement frame : stack) {
+            for (CallSiteRule rule : callSiteRules) {
+                if (rule.matches(frame))
+                    return rule.description();
+            }
+        }
+        return "other";
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    private void watch() {
+        // The first ping tells the watchdog which thread to sample.
+        uiExecutor.execute(() -> uiThread = Thread.currentThread());
+
+        try {
+            while (running) {
+                ping();
+                Thread.sleep(pingInterval);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Posts a task to the UI thread and waits for it to run, sampling the
+     * UI thread's stack if that takes longer than the threshold.
+     */
+    private void ping() throws InterruptedException {
+        CountDownLatch ran = new CountDownLatch(1);
+        long sent = System.nanoTime();
+        uiExecutor.execute(ran::countDown);
+
+        StallSamples samples = null;
+        while (!ran.await(sampleInterval, TimeUnit.MILLISECONDS)) {
+            Thread thread = uiThread;
+            if (thread == null || System.nanoTime() - sent < thresholdNanos)
+                continue;
+            if (samples == null)
+                samples = new StallSamples(Instant.now());
+            samples.add(thread.getStackTrace());
+        }
+
+        long waited = pingLatency.stop(sent);
+        if (samples != null && samples.count > 0) {
+            stallCount.increment();
+            writeReport(samples, TimeUnit.NANOSECONDS.toMillis(waited));
+        }
+    }
+
+    private void writeReport(StallSamples samples, long stallMillis) {
+        StackTraceElement[] stack = samples.getMostCommonStack();
+        String callSite = "unknown";
+        for (StackTraceElement frame : stack) {
+            if (frame.getClassName().startsWith("com.candle.fileexplorer")) {
+                callSite = describe(frame);
+                break;
+            }
+        }
+
+        StringBuilder report = new StringBuilder();
+        report.append(samples.noticed).append(" stall of ").append(stallMillis)
+                .append(" ms in ").append(classify(stack)).append(" at ").append(callSite)
+                .append('\n');
+        report.append("  samples: ").append(samples.count).append(", this stack in ")
+                .append(samples.stacks.get(Arrays.asList(stack))).append('\n');
+        for (int i = 0; i < Math.min(stack.length, maxLoggedFrames); i++)
+            report.append("    at ").append(describe(stack[i])).append('\n');
+        if (stack.length > maxLoggedFrames)
+            report.append("    ... ").append(stack.length - maxLoggedFrames).append(" more\n");
+
+        try {
+            log.append(report.toString());
+        } catch (IOException e) {
+            System.err.println("Could not write the stall log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes a stack frame without the class loader and module that
+     * {@link StackTraceElement#toString()} puts in front of it.
+     */
+    private static String describe(StackTraceElement frame) {
+        return frame.getClassName() + "." + frame.getMethodName() + "(" + frame.getFileName()
+                + ":" + frame.getLineNumber() + ")";
+    }
+
+    //endregion
+
+    //region Helper Classes
+
+    /**
+     * The stacks of the UI thread sampled during one stall, with how often
+     * each one was seen.
+     */
+    private static class StallSamples {
+        private final Instant noticed;
+        private final Map<List<StackTraceElement>, Integer> stacks = new HashMap<>();
+        private int count;
+
+        StallSamples(Instant noticed) {
+            this.noticed = noticed;
+        }
+
+        void add(StackTraceElement[] stack) {
+            if (stack.length == 0)
+                return;
+            stacks.merge(Arrays.asList(stack), 1, Integer::sum);
+            count++;
+        }
+
+        StackTraceElement[] getMostCommonStack() {
+            List<StackTraceElement> mostCommon = List.of();
+            int mostSeen = 0;
+            for (Map.Entry<List<StackTraceElement>, Integer> stack : stacks.entrySet()) {
+                if (stack.getValue() > mostSeen) {
+                    mostCommon = stack.getKey();
+                    mostSeen = stack.getValue();
+                }
+            }
+            return mostCommon.toArray(new StackTraceElement[0]);
+        }
+    }
+
+    private record CallSiteRule(String className, String methodName, String description) {
+        boolean matches(StackTraceElement frame) {
+            return frame.getClassName().equals(className)
+                    && (methodName == null || frame.getMethodName().equals(methodName));
+        }
+    }
+
+    //endregion
+}
@@ -0,0 +1,73 @@
+package com.candle.fileexplorer.core;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A text log that's rolled over once it reaches a size, keeping a few of
+ * the older files next to it as "name.1", "name.2" and so on, newest first.
+ */
+class StallLog {
+    //region Private Members
+
+    private final Path file;
+
+    private final long maxBytes;
+
+    /**
+     * How many rolled over files are kept.
+     */
+    private final int keptFiles;
+
+    //endregion
+
+    //region Constructors
+
+    StallLog(Path file, long maxBytes, int keptFiles) {
+        this.file = file;
+        this.maxBytes = maxBytes;
+        this.keptFiles = keptFiles;
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Adds text to the end of the log, rolling it over first if the text
+     * would take it past its size.
+     */
+    synchronized void append(String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        Files.createDirectories(file.getParent());
+        if (Files.exists(file) && Files.size(file) + bytes.length > maxBytes)
+            rollOver();
+        Files.write(file, bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    private void rollOver() throws IOException {
+        Files.deleteIfExists(rolledFile(keptFiles));
+        for (int i = keptFiles - 1; i >= 1; i--) {
+            if (Files.exists(rolledFile(i)))
+                Files.move(rolledFile(i), rolledFile(i + 1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (keptFiles > 0)
+            Files.move(file, rolledFile(1), StandardCopyOption.REPLACE_EXISTING);
+        else
+            Files.delete(file);
+    }
+
+    private Path rolledFile(int number) {
+        return file.resolveSibling(file.getFileName() + "." + number);
+    }
+
+    //endregion
+}
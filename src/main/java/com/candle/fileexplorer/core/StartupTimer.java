@@ -0,0 +1,77 @@
+package com.candle.fileexplorer.core;
+
+import com.candle.fileexplorer.model.metrics.MetricsRegistry;
+import com.candle.fileexplorer.model.metrics.Timer;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Measures how long the app takes to paint its main window after the
+ * process starts.
+ */
+public class StartupTimer {
+    //region Private Members
+
+    private static final Timer firstPaintTimer = MetricsRegistry.getDefault().timer(
+            "files_startup_first_paint_seconds", "Time from the process starting to the main window's first paint");
+
+    /**
+     * When {@code main} was called, used if the operating system doesn't
+     * report when the process started.
+     */
+    private static Instant launchTime;
+
+    /**
+     * The time from the process starting to the first paint, or -1 if the
+     * window hasn't been painted yet.
+     */
+    private static long firstPaintMillis = -1;
+
+    //endregion
+
+    //region Constructors
+
+    private StartupTimer() {
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Records that {@code main} has been called.
+     */
+    public static synchronized void markLaunch() {
+        launchTime = Instant.now();
+    }
+
+    /**
+     * Records that the main window has been painted for the first time,
+     * and records how long it took. Later calls are ignored.
+     */
+    public static synchronized void markFirstPaint() {
+        if (firstPaintMillis >= 0)
+            return;
+
+        Instant start = ProcessHandle.current().info().startInstant().orElse(launchTime);
+        if (start == null)
+            return;
+        Duration elapsed = Duration.between(start, Instant.now());
+        firstPaintMillis = elapsed.toMillis();
+        firstPaintTimer.record(elapsed.toNanos());
+    }
+
+    /**
+     * Gets the time from the process starting to the main window's first
+     * paint.
+     *
+     * @return The time in milliseconds, or -1 if the window hasn't been
+     * painted yet.
+     */
+    public static synchronized long getFirstPaintMillis() {
+        return firstPaintMillis;
+    }
+
+    //endregion
+}
@@ -0,0 +1,111 @@
+package com.candle.fileexplorer.core;
+
+import javafx.fxml.FXMLLoader;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps a loaded, unused copy of the sub-views that are opened often, so
+ * their windows can be shown without parsing the FXML first.
+ * A scene graph can only be shown once, so taking a copy starts loading
+ * the next one in the background.
+ */
+class SubViewCache {
+    //region Private Members
+
+    private static final String viewFolder = "/com/candle/fileexplorer/view/";
+
+    /**
+     * The names of the views that a spare copy is kept of.
+     */
+    private final Set<String> cachedViews;
+
+    /**
+     * The spare copies that are ready to be shown, keyed by view name.
+     */
+    private final ConcurrentHashMap<String, FXMLLoader> spares;
+
+    private final ExecutorService loadExecutor;
+
+    //endregion
+
+    //region Constructors
+
+    /**
+     * Creates a cache that keeps a spare copy of the given views.
+     *
+     * @param viewNames The names of the views, WITHOUT the "View.fxml" part.
+     */
+    SubViewCache(Collection<String> viewNames) {
+        cachedViews = Set.copyOf(viewNames);
+        spares = new ConcurrentHashMap<>();
+        loadExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Sub-view preloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    //endregion
+
+    //region Methods
+
+    /**
+     * Loads a copy of every cached view in the background.
+     *
+     * @param onLoaded Runs on the loading thread once every view is loaded.
+     */
+    void preload(Runnable onLoaded) {
+        for (String viewName : cachedViews)
+            loadExecutor.execute(() -> loadSpare(viewName));
+        loadExecutor.execute(onLoaded);
+    }
+
+    /**
+     * Gets a loaded copy of a view, loading one straight away if there
+     * isn't a spare ready.
+     *
+     * @param viewName The name of the view, WITHOUT the "View.fxml" part.
+     * @return The loader that loaded the view, which holds its root and
+     * controller.
+     * @throws IOException If the view could not be found.
+     */
+    FXMLLoader take(String viewName) throws IOException {
+        FXMLLoader loader = spares.remove(viewName);
+        if (loader == null)
+            loader = load(viewName);
+        if (cachedViews.contains(viewName))
+            loadExecutor.execute(() -> loadSpare(viewName));
+        return loader;
+    }
+
+    /**
+     * Loads a view on the calling thread.
+     */
+    static FXMLLoader load(String viewName) throws IOException {
+        URL location = SubViewCache.class.getResource(viewFolder + viewName + "View.fxml");
+        if (location == null)
+            throw new IOException("There is no view named " + viewName);
+        FXMLLoader loader = new FXMLLoader(location);
+        loader.load();
+        return loader;
+    }
+
+    private void loadSpare(String viewName) {
+        if (spares.containsKey(viewName))
+            return;
+        try {
+            spares.putIfAbsent(viewName, load(viewName));
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    //endregion
+}
@@ -0,0 +1,81 @@
+package com.candle.fileexplorer.core;
+
+/**
+ * The kinds of background work the {@link TaskScheduler} keeps apart, most
+ * urgent first. Each kind has its own threads, so a long transfer or
+ * indexing run never holds up a listing the user is waiting for.
+ */
+public enum TaskPriority {
+    /**
+     * Work the user is waiting on, such as listing the directory being
+     * opened or filtering it.
+     */
+    Interactive(8, 4, Thread.NORM_PRIORITY),
+
+    /**
+     * Previews for the items on screen.
+     */
+    Thumbnail(4, 2, Thread.NORM_PRIORITY - 1),
+
+    /**
+     * Reading ahead of the user, such as listing folders before they're
+     * opened.
+     */
+    Prefetch(2, 1, Thread.NORM_PRIORITY - 2),
+
+    /**
+     * Copying and moving files.
+     */
+    Transfer(2, 1, Thread.MIN_PRIORITY + 1),
+
+    /**
+     * Walking whole folder trees, for searches, disk usage and duplicates.
+     */
+    Indexing(4, 2, Thread.MIN_PRIORITY);
+
+    //region Private Members
+
+    private final int threads;
+
+    private final int perDeviceLimit;
+
+    private final int threadPriority;
+
+    //endregion
+
+    //region Constructors
+
+    TaskPriority(int threads, int perDeviceLimit, int threadPriority) {
+        this.threads = threads;
+        this.perDeviceLimit = perDeviceLimit;
+        this.threadPriority = threadPriority;
+    }
+
+    //endregion
+
+    //region Accessors/Mutators
+
+    /**
+     * Gets how many tasks of this kind can run at once, when they run on
+     * platform threads.
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Gets how many tasks of this kind can use the same device at once.
+     */
+    public int getPerDeviceLimit() {
+        return perDeviceLimit;
+    }
+
+    /**
+     * Gets the priority of the platform threads that run this kind of task.
+     */
+    public int getThreadPriority() {
+        return threadPriority;
+    }
+
+    //endregion
+}
@@ -0,0 +1,352 @@
+package com.candle.fileexplorer.core;
+
+import com.candle.fileexplorer.model.io.DeviceExecutor;
+import com.candle.fileexplorer.model.io.DeviceKeys;
+import com.candle.fileexplorer.model.metrics.MetricsRegistry;
+import com.candle.fileexplorer.model.metrics.Timer;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the app's background work. Each {@link TaskPriority} has its own
+ * threads, and only a few tasks of each kind can use the same device at
+ * once, so a copy to a slow USB drive doesn't hold up listing the home
+ * folder. Tasks waiting for their device are queued rather than holding a
+ * thread, so tasks for other devices can still run. Tasks run on virtual
+ * threads when the runtime has them, and on a small pool of daemon threads
+ * for each kind of task otherwise.
+ * <p>
+ * Tasks are cancelled cooperatively: cancelling a task sets its
+ * {@link CancellationToken}, and a task that hasn't started yet is skipped.
+ */
+public class TaskScheduler {
+    //region Private Members
+
+    private static final Timer waitTimer = MetricsRegistry.getDefault().timer(
+            "files_scheduler_wait_seconds", "Time scheduled tasks wait before they run");
+
+    private final Map<TaskPriority, ExecutorService> lanes = new EnumMap<>(TaskPriority.class);
+
+    /**
+     * Limits how many tasks of each kind use each device at once, holding
+     * the tasks that are over the limit.
+     */
+    private final Map<DeviceLane, DeviceQueue> deviceQueues = new ConcurrentHashMap<>();
+
+    private final boolean virtualThreads;
+
+    //endregion
+
+    //region Constructors
+
+    /**
+     * Creates a scheduler, using virtual threads if the runtime has them.
+     */
+    public TaskScheduler() {
+        this(true);
+    }
+
+    /**
+     * Creates a scheduler.
+     *
+     * @param preferVirtualThreads Whether to use virtual threads if the
+     *                             runtime has them.
+     */
+    public TaskScheduler(boolean preferVirtualThreads) {
+        boolean allVirtual = preferVirtualThreads;
+        for (TaskPriority priority : TaskPriority.values()) {
+            ExecutorService lane = allVirtual ? createVirtualLane(priority) : null;
+            if (lane == null) {
+                allVirtual = false;
+                lane = createPlatformLane(priority);
+            }
+            lanes.put(priority, lane);
+        }
+        virtualThreads = allVirtual;
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Whether tasks run on virtual threads.
+     */
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Runs work in the background.
+     *
+     * @param priority The kind of work.
+     * @param location A path the work reads or writes, used to limit how
+     *                 much work happens on its device at once, or null if
+     *                 the work doesn't touch the disk.
+     * @param work     The work, which should check its token between steps.
+     * @return The task, which is completed with the work's result.
+     */
+    public <T> ScheduledTask<T> submit(TaskPriority priority, Path location, Work<T> work) {
+        return submit(priority, location, new CancellationToken(), work);
+    }
+
+    /**
+     * Runs work in the background, cancelling it when a flag is set. This
+     * suits work that already stops when its own flag is set.
+     *
+     * @param cancelled The flag that cancels the work.
+     * @see #submit(TaskPriority, Path, Work)
+     */
+    public <T> ScheduledTask<T> submit(TaskPriority priority, Path location,
+                                       AtomicBoolean cancelled, Work<T> work) {
+        return submit(priority, location, new CancellationToken(cancelled), work);
+    }
+
+    /**
+     * Gets an executor that runs tasks as a kind of work, for code that
+     * takes an executor.
+     */
+    public Executor executor(TaskPriority priority) {
+        return runnable -> submit(priority, null, token -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * Gets an executor that runs tasks as a kind of work, limited by the
+     * device of the path each task is given with.
+     */
+    public DeviceExecutor deviceExecutor(TaskPriority priority) {
+        return (location, runnable) -> submit(priority, location, token -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * Stops taking new tasks. Running tasks are left to finish, and tasks
+     * still waiting for their device are cancelled as places free up.
+     */
+    public void shutdown() {
+        lanes.values().forEach(ExecutorService::shutdown);
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    private <T> ScheduledTask<T> submit(TaskPriority priority, Path location,
+                                        CancellationToken token, Work<T> work) {
+        ScheduledTask<T> task = new ScheduledTask<>(token);
+        long submitted = System.nanoTime();
+        lanes.get(priority).execute(() -> run(task, priority, location, work, submitted));
+        return task;
+    }
+
+    /**
+     * Starts a task on its lane's thread if its device has room for it, and
+     * queues it for the device otherwise.
+     */
+    private <T> void run(ScheduledTask<T> task, TaskPriority priority, Path location,
+                         Work<T> work, long submitted) {
+        if (task.getToken().isCancelled()) {
+            task.cancel(false);
+            return;
+        }
+
+        // Finding the device reads from the disk, so it's done here rather
+        // than by the caller, which is usually the UI thread.
+        Object device = location == null ? DeviceKeys.noDevice : DeviceKeys.of(location);
+        DeviceQueue queue = deviceQueues.computeIfAbsent(new DeviceLane(priority, device),
+                key -> new DeviceQueue(device == DeviceKeys.noDevice
+                        ? priority.getThreads() : priority.getPerDeviceLimit()));
+
+        Runnable start = () -> runOnDevice(task, priority, queue, work, submitted);
+        if (queue.tryStart(new WaitingTask(task, start)))
+            start.run();
+    }
+
+    /**
+     * Runs a task that has its place on its device, then hands the place to
+     * the next task waiting for the device.
+     */
+    private <T> void runOnDevice(ScheduledTask<T> task, TaskPriority priority, DeviceQueue queue,
+                                 Work<T> work, long submitted) {
+        try {
+            waitTimer.record(System.nanoTime() - submitted);
+            if (task.getToken().isCancelled())
+                task.cancel(false);
+            else
+                task.complete(work.run(task.getToken()));
+        } catch (Throwable e) {
+            task.completeExceptionally(e);
+        } finally {
+            startNext(priority, queue);
+        }
+    }
+
+    /**
+     * Hands a finished task's place on its device to the next task waiting
+     * for it. Once the scheduler is shut down, the waiting tasks can't run,
+     * so they're cancelled instead.
+     */
+    private void startNext(TaskPriority priority, DeviceQueue queue) {
+        WaitingTask next = queue.finish();
+        if (next == null)
+            return;
+
+        try {
+            lanes.get(priority).execute(next.start());
+        } catch (RejectedExecutionException e) {
+            next.task().cancel(false);
+            for (WaitingTask waiting : queue.abandon())
+                waiting.task().cancel(false);
+        }
+    }
+
+    /**
+     * Creates an executor that starts a virtual thread for each task, by
+     * reflection so the app still runs on runtimes without them.
+     *
+     * @return The executor, or null if the runtime doesn't have virtual
+     * threads.
+     */
+    private static ExecutorService createVirtualLane(TaskPriority priority) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class)
+                    .invoke(builder, "Scheduler " + priority + " ", 0L);
+            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class
+                    .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Virtual threads are missing, or a preview feature that's off.
+            return null;
+        }
+    }
+
+    private static ExecutorService createPlatformLane(TaskPriority priority) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(priority.getThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "Scheduler " + priority + " " + count.getAndIncrement());
+            thread.setDaemon(true);
+            thread.setPriority(priority.getThreadPriority());
+            return thread;
+        });
+    }
+
+    //endregion
+
+    //region Helper Classes
+
+    /**
+     * Background work that can be cancelled.
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+        T run(CancellationToken token) throws Exception;
+    }
+
+    /**
+     * A task given to the scheduler. Cancelling it also sets its token.
+     */
+    public static class ScheduledTask<T> extends CompletableFuture<T> {
+        private final CancellationToken token;
+
+        ScheduledTask(CancellationToken token) {
+            this.token = token;
+        }
+
+        public CancellationToken getToken() {
+            return token;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            token.cancel();
+            return super.cancel(mayInterruptIfRunning);
+        }
+    }
+
+    private record DeviceLane(TaskPriority priority, Object device) {
+    }
+
+    /**
+     * A task waiting for a place on its device, and what starts it.
+     */
+    private record WaitingTask(ScheduledTask<?> task, Runnable start) {
+    }
+
+    /**
+     * The tasks of one kind running on one device, and those waiting for
+     * one of them to finish.
+     */
+    private static class DeviceQueue {
+        private final int limit;
+        private final ArrayDeque<WaitingTask> waiting = new ArrayDeque<>();
+        private int running;
+
+        private DeviceQueue(int limit) {
+            this.limit = limit;
+        }
+
+        /**
+         * Takes a place on the device for a task, or queues the task if
+         * there's none free.
+         *
+         * @return Whether the task can start now.
+         */
+        synchronized boolean tryStart(WaitingTask task) {
+            if (running < limit) {
+                running++;
+                return true;
+            }
+            waiting.add(task);
+            return false;
+        }
+
+        /**
+         * Gives up a finished task's place.
+         *
+         * @return The waiting task that takes the place over, or null if
+         * none is waiting.
+         */
+        synchronized WaitingTask finish() {
+            WaitingTask next = waiting.poll();
+            if (next == null)
+                running--;
+            return next;
+        }
+
+        /**
+         * Gives up the place that {@link #finish()} handed to a task that
+         * couldn't be started, and empties the queue.
+         *
+         * @return The tasks that were waiting.
+         */
+        synchronized List<WaitingTask> abandon() {
+            running--;
+            List<WaitingTask> abandoned = List.copyOf(waiting);
+            waiting.clear();
+            return abandoned;
+        }
+    }
+
+    //endregion
+}
@@ -1,6 +1,8 @@
 package com.candle.fileexplorer.core;
 
+import com.candle.fileexplorer.model.helpers.FileOperations;
 import com.candle.fileexplorer.view.*;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
@@ -10,6 +12,9 @@ import javafx.stage.Modality;
 import javafx.stage.Stage;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * The class that is responsible for creating and changing between views.
@@ -19,6 +24,18 @@ public class ViewHandler {
 
     private static ViewHandler instance;
 
+    /**
+     * Set to run the app once for recording the classes it loads at
+     * startup, after which it closes by itself.
+     */
+    private static final String trainingRunProperty = "files.trainingRun";
+
+    /**
+     * How long the UI thread can be blocked, in milliseconds, before it's
+     * written to the stall log.
+     */
+    private static final String stallThresholdProperty = "files.stallThresholdMillis";
+
     /**
      * A reference to the application window.
      */
@@ -28,11 +45,23 @@ public class ViewHandler {
      */
     private ViewModelFactory viewModelFactory;
 
+    /**
+     * Keeps a loaded copy of the small dialogs, so they open without
+     * parsing their FXML first.
+     */
+    private final SubViewCache subViewCache;
+
+    /**
+     * Watches every window for stalls, once the first one is open.
+     */
+    private StallDetector stallDetector;
+
     //endregion
 
     //region Constructor
 
     private ViewHandler() {
+        subViewCache = new SubViewCache(List.of("About", "NewFile", "Rename", "Error"));
     }
 
     //endregion
@@ -92,6 +121,7 @@ public class ViewHandler {
             stage.setMinWidth(550);
 
             scene.addEventFilter(KeyEvent.KEY_PRESSED, view::onKeyPressed);
+            stage.setOnHidden(e -> view.saveSession());
         }
 
         Image filesIcon = new Image(ViewHandler.class.getResourceAsStream(
@@ -100,6 +130,8 @@ public class ViewHandler {
 
         stage.setScene(scene);
         stage.show();
+        watchFirstPaint(scene);
+        watchStalls(scene);
     }
 
     /**
@@ -114,44 +146,65 @@ public class ViewHandler {
     public void openSubView(String viewToOpen, String arg) throws IOException {
         Stage subStage = new Stage();
         Scene scene;
-        Parent root = null;
-        FXMLLoader loader = new FXMLLoader();
+        FXMLLoader loader = subViewCache.take(viewToOpen);
+        Parent root = loader.getRoot();
 
         if ("About".equals(viewToOpen)) {
-            String location = "/com/candle/fileexplorer/view/AboutView.fxml";
-            loader.setLocation(ViewHandler.class.getResource(location));
-            root = loader.load();
-
             AboutController view = loader.getController();
             view.init(viewModelFactory.getAboutViewModel());
             subStage.setTitle("About Files");
         }
 
         if ("NewFile".equals(viewToOpen)) {
-            String location = "/com/candle/fileexplorer/view/NewFileView.fxml";
-            loader.setLocation(ViewHandler.class.getResource(location));
-            root = loader.load();
-
             NewFileController view = loader.getController();
             view.init(viewModelFactory.getNewFileViewModel());
             subStage.setTitle("New Item");
         }
 
         if ("Rename".equals(viewToOpen)) {
-            String location = "/com/candle/fileexplorer/view/RenameView.fxml";
-            loader.setLocation(ViewHandler.class.getResource(location));
-            root = loader.load();
-
             RenameController view = loader.getController();
             view.init(viewModelFactory.getRenameViewModel(), arg);
             subStage.setTitle("Rename Item");
         }
 
-        if ("Error".equals(viewToOpen)) {
-            String location = "/com/candle/fileexplorer/view/ErrorView.fxml";
-            loader.setLocation(ViewHandler.class.getResource(location));
-            root = loader.load();
+        if ("Search".equals(viewToOpen)) {
+            SearchController view = loader.getController();
+            view.init(viewModelFactory.getSearchViewModel());
+            subStage.setTitle("Search");
+        }
+
+        if ("DiskUsage".equals(viewToOpen)) {
+            DiskUsageController view = loader.getController();
+            view.init(viewModelFactory.getDiskUsageViewModel(), arg);
+            subStage.setTitle("Disk Usage - " + arg);
+            subStage.setOnHidden(e -> viewModelFactory.getDiskUsageViewModel().cancelScan());
+        }
+
+        if ("Duplicates".equals(viewToOpen)) {
+            DuplicatesController view = loader.getController();
+            view.init(viewModelFactory.getDuplicatesViewModel(), arg);
+            subStage.setTitle("Find Duplicates");
+            subStage.setOnHidden(e -> viewModelFactory.getDuplicatesViewModel().cancelSearch());
+        }
 
+        if ("Diagnostics".equals(viewToOpen)) {
+            DiagnosticsController view = loader.getController();
+            view.init(viewModelFactory.getDiagnosticsViewModel());
+            subStage.setTitle("Diagnostics");
+            subStage.setOnHidden(e -> view.stopRefreshing());
+        }
+
+        // The transfers window stays open while the user keeps browsing.
+        Modality modality = Modality.APPLICATION_MODAL;
+        if ("Transfers".equals(viewToOpen)) {
+            TransfersController view = loader.getController();
+            view.init(viewModelFactory.getTransfersViewModel());
+            subStage.setTitle("Transfers");
+            subStage.setOnHidden(e -> view.stopRefreshing());
+            modality = Modality.NONE;
+        }
+
+        if ("Error".equals(viewToOpen)) {
             ErrorController view = loader.getController();
             view.init(arg);
             subStage.setTitle("Error");
@@ -159,10 +212,52 @@ public class ViewHandler {
 
         scene = new Scene(root);
         subStage.setScene(scene);
-        subStage.initModality(Modality.APPLICATION_MODAL);
+        subStage.initModality(modality);
 
         subStage.show();
     }
 
     //endregion
+
+    //region Private Helper Methods
+
+    /**
+     * Times the pulses of a window, and starts watching the UI thread for
+     * stalls if it isn't watched yet.
+     */
+    private void watchStalls(Scene scene) {
+        if (stallDetector == null) {
+            Path logFile = Path.of(FileOperations.getCacheDirectory(), "stalls", "stalls.log");
+            stallDetector = new StallDetector(Platform::runLater, logFile,
+                    Long.getLong(stallThresholdProperty, 250));
+            stallDetector.start();
+        }
+        stallDetector.watchPulses(scene);
+    }
+
+    /**
+     * Waits for the main window's first pulse, then records how long
+     * startup took and loads the dialogs in the background.
+     */
+    private void watchFirstPaint(Scene scene) {
+        AtomicBoolean painted = new AtomicBoolean();
+        Runnable listener = new Runnable() {
+            @Override
+            public void run() {
+                if (painted.getAndSet(true))
+                    return;
+                // The listeners can't be changed while they're being run.
+                Platform.runLater(() -> scene.removePostLayoutPulseListener(this));
+
+                StartupTimer.markFirstPaint();
+                subViewCache.preload(() -> {
+                    if (Boolean.getBoolean(trainingRunProperty))
+                        Platform.runLater(Platform::exit);
+                });
+            }
+        };
+        scene.addPostLayoutPulseListener(listener);
+    }
+
+    //endregion
 }
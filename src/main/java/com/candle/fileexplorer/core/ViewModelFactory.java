@@ -1,5 +1,7 @@
 package com.candle.fileexplorer.core;
 
+import com.candle.fileexplorer.model.io.IoGovernor;
+import com.candle.fileexplorer.model.metrics.MetricsRegistry;
 import com.candle.fileexplorer.viewmodel.*;
 
 /**
@@ -11,7 +13,13 @@ public class ViewModelFactory {
     private final MainViewModel mainViewModel;
     private final NewFileViewModel newFileViewModel;
     private final RenameViewModel renameViewModel;
+    private final SearchViewModel searchViewModel;
+    private final ModelFactory modelFactory;
     private AboutViewModel aboutViewModel;
+    private DiskUsageViewModel diskUsageViewModel;
+    private DuplicatesViewModel duplicatesViewModel;
+    private DiagnosticsViewModel diagnosticsViewModel;
+    private TransfersViewModel transfersViewModel;
 
     //endregion
 
@@ -23,15 +31,24 @@ public class ViewModelFactory {
      * @param modelFactory A reference to the model factory.
      */
     public ViewModelFactory(ModelFactory modelFactory) {
+        this.modelFactory = modelFactory;
         FileGridViewModel fileGrid =
-                new FileGridViewModel(modelFactory.getFilesModel());
+                new FileGridViewModel(modelFactory.getFilesModel(),
+                        modelFactory.getDirectoryTrie(),
+                        modelFactory.getFolderSizeCalculator(),
+                        modelFactory.getTaskScheduler());
         QuickAccessViewModel quickAccess =
-                new QuickAccessViewModel(modelFactory.getFilesModel());
+                new QuickAccessViewModel(modelFactory.getFilesModel(),
+                        modelFactory.getDriveSpaceMonitor(), modelFactory.getMountMonitor());
         mainViewModel = new MainViewModel(fileGrid, quickAccess,
-                modelFactory.getFilesModel());
+                modelFactory.getFilesModel(), modelFactory.getDirectoryTrie(),
+                modelFactory.getTaskScheduler());
 
         newFileViewModel = new NewFileViewModel(modelFactory.getFilesModel());
         renameViewModel = new RenameViewModel(modelFactory.getFilesModel());
+        searchViewModel = new SearchViewModel(modelFactory.getFilesModel(),
+                modelFactory.getFilenameIndexer(),
+                modelFactory.getContentSearcher());
     }
 
     //endregion
@@ -48,6 +65,32 @@ public class ViewModelFactory {
         return aboutViewModel;
     }
 
+    public DiskUsageViewModel getDiskUsageViewModel() {
+        if (diskUsageViewModel == null)
+            diskUsageViewModel = new DiskUsageViewModel(modelFactory.getFilesModel(),
+                    modelFactory.getUsageScanner());
+        return diskUsageViewModel;
+    }
+
+    public DuplicatesViewModel getDuplicatesViewModel() {
+        if (duplicatesViewModel == null)
+            duplicatesViewModel = new DuplicatesViewModel(modelFactory.getFilesModel(),
+                    modelFactory.getDuplicateFinder(), modelFactory.getTaskScheduler());
+        return duplicatesViewModel;
+    }
+
+    public DiagnosticsViewModel getDiagnosticsViewModel() {
+        if (diagnosticsViewModel == null)
+            diagnosticsViewModel = new DiagnosticsViewModel(MetricsRegistry.getDefault());
+        return diagnosticsViewModel;
+    }
+
+    public TransfersViewModel getTransfersViewModel() {
+        if (transfersViewModel == null)
+            transfersViewModel = new TransfersViewModel(IoGovernor.getDefault());
+        return transfersViewModel;
+    }
+
     public NewFileViewModel getNewFileViewModel() {
         return newFileViewModel;
     }
@@ -56,5 +99,9 @@ public class ViewModelFactory {
         return renameViewModel;
     }
 
+    public SearchViewModel getSearchViewModel() {
+        return searchViewModel;
+    }
+
     //endregion
 }
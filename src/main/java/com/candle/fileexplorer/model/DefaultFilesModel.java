@@ -4,13 +4,26 @@ import com.candle.fileexplorer.model.data.ClipboardMode;
 import com.candle.fileexplorer.model.data.FileItem;
 import com.candle.fileexplorer.model.helpers.DirectoryStructure;
 import com.candle.fileexplorer.model.helpers.FileOperations;
+import com.candle.fileexplorer.model.history.ListingSnapshot;
+import com.candle.fileexplorer.model.history.NavigationHistory;
+import com.candle.fileexplorer.model.history.SessionState;
+import com.candle.fileexplorer.model.history.SnapshotBudget;
+import com.candle.fileexplorer.model.history.SnapshotSource;
 import com.candle.fileexplorer.model.observer.DataListener;
+import com.candle.fileexplorer.model.observer.EventDispatcher;
+import com.candle.fileexplorer.model.observer.ModelEvent;
+import com.candle.fileexplorer.model.observer.ModelEventListener;
+import com.candle.fileexplorer.model.profiling.FilesEvents;
 import com.candle.fileexplorer.model.data.DefaultFileItem;
 import com.candle.fileexplorer.model.data.FileType;
 
+import java.io.File;
 import java.nio.file.FileSystemException;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
  * The implementation of the files' data model.
@@ -24,21 +37,43 @@ public class DefaultFilesModel implements FilesModel {
     private final List<DataListener> listeners;
 
     /**
-     * A two-dimensional array that represents the directory histories for
-     * each tab.
+     * Delivers the typed events describing each change to their listeners.
      */
-    private final ArrayList<ArrayList<String>> directoryHistories;
+    private final EventDispatcher eventDispatcher;
 
     /**
-     * An array of strings representing the current file path for each tab.
+     * The directory history for each tab. The current directory of a tab is
+     * the current entry in its history.
      */
-    private final ArrayList<String> currentDirectories;
+    private final ArrayList<NavigationHistory> histories;
 
     /**
-     * An array of indices for the currently viewed directory in history for
-     * each tab.
+     * The most directories remembered by each tab's history.
      */
-    private final ArrayList<Integer> historyIndices;
+    private final int historyCapacity;
+
+    /**
+     * The memory budget shared by the listing snapshots in every history.
+     */
+    private final SnapshotBudget snapshotBudget;
+
+    /**
+     * Runs the slow work that's started from the UI thread, such as opening
+     * files in other apps.
+     */
+    private final Executor backgroundExecutor;
+
+    /**
+     * Runs the copies and moves of pastes started with
+     * {@link #pasteAll(List)}.
+     */
+    private final Executor transferExecutor;
+
+    /**
+     * Provides the snapshot of the current listing when the user navigates
+     * away from it, or null if listings aren't kept.
+     */
+    private SnapshotSource snapshotSource;
 
     /**
      * The index of the currently viewed tab.
@@ -54,11 +89,71 @@ public class DefaultFilesModel implements FilesModel {
 
     //region Constructors
 
+    /**
+     * Creates a model that delivers its typed events as soon as they
+     * happen.
+     */
     public DefaultFilesModel() {
+        this(new EventDispatcher());
+    }
+
+    /**
+     * Creates a model that delivers its typed events through the given
+     * dispatcher, remembering the last 10 directories in each tab.
+     */
+    public DefaultFilesModel(EventDispatcher eventDispatcher) {
+        this(eventDispatcher, DefaultFilesModel::runOnNewThread,
+                DefaultFilesModel::runOnNewThread);
+    }
+
+    /**
+     * Creates a model that delivers its typed events through the given
+     * dispatcher and runs its slow work on the given executors, remembering
+     * the last 10 directories in each tab.
+     */
+    public DefaultFilesModel(EventDispatcher eventDispatcher, Executor backgroundExecutor,
+                             Executor transferExecutor) {
+        this(eventDispatcher, 10, 64L * 1024 * 1024, backgroundExecutor, transferExecutor);
+    }
+
+    /**
+     * Creates a model that delivers its typed events through the given
+     * dispatcher.
+     *
+     * @param historyCapacity     The most directories remembered by each
+     *                            tab's history.
+     * @param snapshotBudgetBytes The most memory, in bytes, that the
+     *                            snapshots of visited listings may take up.
+     */
+    public DefaultFilesModel(EventDispatcher eventDispatcher, int historyCapacity,
+                             long snapshotBudgetBytes) {
+        this(eventDispatcher, historyCapacity, snapshotBudgetBytes,
+                DefaultFilesModel::runOnNewThread, DefaultFilesModel::runOnNewThread);
+    }
+
+    /**
+     * Creates a model that delivers its typed events through the given
+     * dispatcher.
+     *
+     * @param historyCapacity     The most directories remembered by each
+     *                            tab's history.
+     * @param snapshotBudgetBytes The most memory, in bytes, that the
+     *                            snapshots of visited listings may take up.
+     * @param backgroundExecutor  Runs the slow work that's started from the
+     *                            UI thread, such as opening files in other
+     *                            apps.
+     * @param transferExecutor    Runs the copies and moves of pastes.
+     */
+    public DefaultFilesModel(EventDispatcher eventDispatcher, int historyCapacity,
+                             long snapshotBudgetBytes, Executor backgroundExecutor,
+                             Executor transferExecutor) {
+        this.eventDispatcher = eventDispatcher;
+        this.historyCapacity = historyCapacity;
+        this.backgroundExecutor = backgroundExecutor;
+        this.transferExecutor = transferExecutor;
+        snapshotBudget = new SnapshotBudget(snapshotBudgetBytes);
         listeners = new ArrayList<>();
-        historyIndices = new ArrayList<>();
-        currentDirectories = new ArrayList<>();
-        directoryHistories = new ArrayList<>();
+        histories = new ArrayList<>();
         clipboardMode = ClipboardMode.Copy;
     }
 
@@ -73,8 +168,22 @@ public class DefaultFilesModel implements FilesModel {
 
     @Override
     public void setTabIndex(int newIndex) {
-        this.tabIndex = newIndex;
-        notifyDirectoryChange();
+        captureSnapshot();
+        switchTab(newIndex);
+    }
+
+    @Override
+    public int getTabCount() {
+        return histories.size();
+    }
+
+    @Override
+    public SessionState.TabState getTabState(int tabLocationIndex) {
+        if (tabLocationIndex == tabIndex)
+            captureSnapshot();
+        NavigationHistory history = histories.get(tabLocationIndex);
+        return new SessionState.TabState(history.getDirectories(), history.getIndex(),
+                null, history.getSnapshot());
     }
 
     @Override
@@ -84,7 +193,7 @@ public class DefaultFilesModel implements FilesModel {
 
     @Override
     public String getCurrentDirectory() {
-        return currentDirectories.get(tabIndex);
+        return getHistory().getCurrentDirectory();
     }
 
     @Override
@@ -94,14 +203,20 @@ public class DefaultFilesModel implements FilesModel {
 
         String cleanPath = FileOperations.sanitizePath(newDirectory);
         if (FileOperations.determineType(cleanPath) != FileType.File) {
-            currentDirectories.set(tabIndex, cleanPath);
+            captureSnapshot();
+            getHistory().visit(cleanPath);
             notifyDirectoryChange();
-            addDirectoryToHistory();
+            publishDirectoryChange();
         } else {
-            FileOperations.openFileInDefaultApp(newDirectory);
+            openInDefaultApp(newDirectory);
         }
     }
 
+    @Override
+    public void openInDefaultApp(String path) {
+        FileOperations.openFileInDefaultApp(path, backgroundExecutor);
+    }
+
     @Override
     public ClipboardMode getClipboardMode() {
         return clipboardMode;
@@ -121,32 +236,58 @@ public class DefaultFilesModel implements FilesModel {
         listeners.add(newListener);
     }
 
+    @Override
+    public void addEventListener(ModelEventListener newListener) {
+        eventDispatcher.addListener(newListener);
+    }
+
+    @Override
+    public void setSnapshotSource(SnapshotSource source) {
+        this.snapshotSource = source;
+    }
+
+    @Override
+    public ListingSnapshot getCurrentSnapshot() {
+        if (tabIndex >= histories.size())
+            return null;
+        return getHistory().getSnapshot();
+    }
+
     @Override
     public void addTab() {
-        int tabLocationIndex = (currentDirectories.size() == 0) ? 0 :
-                currentDirectories.size();
+        int tabLocationIndex = histories.size();
         String defaultLocation = System.getProperty("user.home");
 
-        directoryHistories.add(tabLocationIndex, new ArrayList<>(10));
-        directoryHistories.get(tabLocationIndex).add(defaultLocation);
-
-        currentDirectories.add(defaultLocation);
-        historyIndices.add(0);
+        captureSnapshot();
+        histories.add(new NavigationHistory(historyCapacity, defaultLocation, snapshotBudget));
+        switchTab(tabLocationIndex);
+    }
 
-        setTabIndex(tabLocationIndex);
+    @Override
+    public void restoreTab(SessionState.TabState state) {
+        int tabLocationIndex = histories.size();
+        NavigationHistory history = new NavigationHistory(historyCapacity,
+                state.directories(), state.historyIndex(), snapshotBudget);
+        // The snapshot only belongs to the current entry if it survived
+        // being trimmed to fit the history.
+        if (state.snapshot() != null
+                && history.getCurrentDirectory().equals(state.getCurrentDirectory()))
+            history.setSnapshot(state.snapshot());
+
+        captureSnapshot();
+        histories.add(history);
+        switchTab(tabLocationIndex);
     }
 
     @Override
     public void removeTab(int tabLocationIndex) {
-        currentDirectories.remove(tabLocationIndex);
-        directoryHistories.remove(tabLocationIndex);
-        historyIndices.remove(tabLocationIndex);
+        histories.remove(tabLocationIndex).clearSnapshots();
 
         if (getTabIndex() == tabLocationIndex)
-            setTabIndex(0);
+            switchTab(0);
         else {
             if (tabIndex > 0)
-                setTabIndex(tabIndex - 1);
+                switchTab(tabIndex - 1);
         }
     }
 
@@ -154,62 +295,124 @@ public class DefaultFilesModel implements FilesModel {
     public void createItem(FileType type, String name) {
         FileItem item = new DefaultFileItem(type,
                 getCurrentDirectory() + "/" + name);
-        if (item.writeToDisk())
+        if (item.writeToDisk()) {
             notifyDirectoryChange();
+            eventDispatcher.publish(new ModelEvent.ItemsAdded(getCurrentDirectory(),
+                    List.of(item.getItemDirectory())));
+        }
     }
 
     @Override
     public void renameItem(String path, String name) {
+        FilesEvents.Rename event = new FilesEvents.Rename();
+        event.begin();
         FileItem item = new DefaultFileItem(path);
-        if (item.rename(name))
-            notifyDirectoryChange();
+        boolean renamed = item.rename(name);
+        event.finish(path, renamed ? 1 : 0);
+        if (renamed) {
+            File oldFile = new File(item.getItemDirectory());
+            eventDispatcher.publish(new ModelEvent.ItemRenamed(oldFile.getParent(),
+                    oldFile.getPath(), new File(oldFile.getParentFile(), name).getPath()));
+        }
     }
 
     @Override
     public void trashItem(String path) {
+        FilesEvents.Trash event = new FilesEvents.Trash();
+        event.begin();
         FileItem item = new DefaultFileItem(path);
-        if (item.sendToTrash())
-            notifyDirectoryChange();
+        boolean trashed = item.sendToTrash();
+        event.finish(path, trashed ? 1 : 0);
+        if (trashed) {
+            File file = new File(item.getItemDirectory());
+            eventDispatcher.publish(new ModelEvent.ItemsRemoved(file.getParent(),
+                    List.of(file.getPath())));
+        }
     }
 
     @Override
     public void goForwardInDirectoryHistory() {
-        if (getHistoryIndex() < getHistory().size() - 1) {
-            setHistoryIndex(getHistoryIndex() + 1);
-            currentDirectories.set(tabIndex, getHistory().get(getHistoryIndex()));
+        if (getHistory().canGoForward()) {
+            captureSnapshot();
+            getHistory().goForward();
             notifyDirectoryChange();
+            publishDirectoryChange();
         }
     }
 
     @Override
     public void goBackwardInDirectoryHistory() {
-        if (getHistoryIndex() != 0) {
-            setHistoryIndex(getHistoryIndex() - 1);
-            currentDirectories.set(tabIndex, getHistory().get(getHistoryIndex()));
+        if (getHistory().canGoBack()) {
+            captureSnapshot();
+            getHistory().goBack();
             notifyDirectoryChange();
+            publishDirectoryChange();
         }
     }
 
     @Override
     public void paste(String sourcePath) throws FileSystemException {
-        switch (clipboardMode) {
-            case Cut -> {
-                FileItem cutItem = new DefaultFileItem(sourcePath);
-                cutItem.moveTo(getCurrentDirectory());
-                notifyDirectoryChange();
-            }
-            case Copy -> {
-                FileItem copyItem = new DefaultFileItem(sourcePath);
-                copyItem.copyTo(getCurrentDirectory());
-                notifyDirectoryChange();
+        pasteItem(sourcePath, clipboardMode, getCurrentDirectory());
+    }
+
+    @Override
+    public CompletableFuture<Void> pasteAll(List<String> sourcePaths) {
+        // The user can move on while the paste runs, so the destination is
+        // fixed now.
+        ClipboardMode mode = clipboardMode;
+        String targetDirectory = getCurrentDirectory();
+        return CompletableFuture.runAsync(() -> {
+            Exception firstFailure = null;
+            for (String sourcePath : sourcePaths) {
+                try {
+                    pasteItem(sourcePath, mode, targetDirectory);
+                } catch (FileSystemException | IllegalStateException e) {
+                    // Items that are in use or already in the directory are
+                    // skipped, and the rest are still pasted.
+                    if (firstFailure == null)
+                        firstFailure = e;
+                }
             }
-        }
+            if (firstFailure != null)
+                throw new CompletionException(firstFailure);
+        }, transferExecutor);
     }
 
     //endregion
 
     //region Private Helper Methods
 
+    /**
+     * Copies or moves an item into a directory, and tells the typed
+     * listeners. This can run on any thread.
+     */
+    private void pasteItem(String sourcePath, ClipboardMode mode, String targetDirectory)
+            throws FileSystemException {
+        FilesEvents.Paste event = new FilesEvents.Paste();
+        event.begin();
+        boolean pasted = false;
+        try {
+            switch (mode) {
+                case Cut -> {
+                    FileItem cutItem = new DefaultFileItem(sourcePath);
+                    cutItem.moveTo(targetDirectory);
+                    File source = new File(cutItem.getItemDirectory());
+                    eventDispatcher.publish(new ModelEvent.ItemsRemoved(source.getParent(),
+                            List.of(source.getPath())));
+                    publishPastedItem(source, targetDirectory);
+                }
+                case Copy -> {
+                    FileItem copyItem = new DefaultFileItem(sourcePath);
+                    copyItem.copyTo(targetDirectory);
+                    publishPastedItem(new File(copyItem.getItemDirectory()), targetDirectory);
+                }
+            }
+            pasted = true;
+        } finally {
+            event.finish(sourcePath, pasted ? 1 : 0);
+        }
+    }
+
     /**
      * Notifies all listeners that the current directory has been updated.
      */
@@ -219,55 +422,61 @@ public class DefaultFilesModel implements FilesModel {
     }
 
     /**
-     * Makes sure that the directory history data is up-to-date.
+     * Tells the typed listeners that the current tab moved to a new
+     * directory.
      */
-    private void addDirectoryToHistory() {
-        int maxStoredDirectories = 10;
-
-        // Is the index smaller than the number of stored dirs?
-        if (getHistoryIndex() < getHistory().size() - 1) {
-            // We'll have to overwrite future directories.
-            setHistoryIndex(getHistoryIndex() + 1);
-            getHistory().set(getHistoryIndex(), getCurrentDirectory());
-            getHistory().subList(getHistoryIndex() + 1, getHistory().size()).clear();
-            return;
-        }
+    private void publishDirectoryChange() {
+        eventDispatcher.publish(new ModelEvent.DirectoryChanged(tabIndex, getCurrentDirectory()));
+    }
 
-        // Is the number of stored dirs smaller than the max?
-        if (getHistory().size() < maxStoredDirectories) {
-            // We can just add a directory.
-            setHistoryIndex(getHistoryIndex() + 1);
-            getHistory().add(currentDirectories.get(tabIndex));
-            return;
-        }
+    /**
+     * Tells the typed listeners that a copy of the given item was pasted
+     * into a directory.
+     */
+    private void publishPastedItem(File source, String targetDirectory) {
+        String pastedPath = new File(targetDirectory, source.getName()).getPath();
+        eventDispatcher.publish(new ModelEvent.ItemsAdded(targetDirectory,
+                List.of(pastedPath)));
+    }
 
-        // If we're here, then both are at the max, so we'll overwrite the
-        // earliest directory.
-        Collections.rotate(getHistory(), -1);
-        getHistory().set(getHistoryIndex(), currentDirectories.get(tabIndex));
+    /**
+     * Makes the given tab the current one and tells the listeners.
+     */
+    private void switchTab(int newIndex) {
+        this.tabIndex = newIndex;
+        notifyDirectoryChange();
+        if (tabIndex < histories.size())
+            eventDispatcher.publish(new ModelEvent.TabSwitched(tabIndex, getCurrentDirectory()));
     }
 
     /**
-     * A helper method that returns the directory history for the currently
-     * viewed tab.
+     * Stores a snapshot of the current listing in the current history
+     * entry, before the user navigates away from it.
      */
-    private ArrayList<String> getHistory() {
-        return directoryHistories.get(tabIndex);
+    private void captureSnapshot() {
+        if (snapshotSource == null || tabIndex >= histories.size())
+            return;
+        ListingSnapshot snapshot = snapshotSource.takeSnapshot(getCurrentDirectory());
+        if (snapshot != null)
+            getHistory().setSnapshot(snapshot);
     }
 
     /**
-     * A helper method that returns the history index for the currently
+     * A helper method that returns the directory history for the currently
      * viewed tab.
      */
-    private int getHistoryIndex() {
-        return historyIndices.get(tabIndex);
+    private NavigationHistory getHistory() {
+        return histories.get(tabIndex);
     }
 
     /**
-     * A helper method that sets the history index for the currently viewed tab.
+     * Runs a task on its own daemon thread, for models created without
+     * executors.
      */
-    private void setHistoryIndex(int newValue) {
-        historyIndices.set(tabIndex, newValue);
+    private static void runOnNewThread(Runnable task) {
+        Thread thread = new Thread(task, "Files model background");
+        thread.setDaemon(true);
+        thread.start();
     }
 
     //endregion
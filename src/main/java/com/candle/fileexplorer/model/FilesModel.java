@@ -3,10 +3,16 @@ package com.candle.fileexplorer.model;
 import com.candle.fileexplorer.model.data.ClipboardMode;
 import com.candle.fileexplorer.model.data.FileItem;
 import com.candle.fileexplorer.model.data.FileType;
+import com.candle.fileexplorer.model.history.ListingSnapshot;
+import com.candle.fileexplorer.model.history.SessionState;
+import com.candle.fileexplorer.model.history.SnapshotSource;
 import com.candle.fileexplorer.model.observer.DataListener;
+import com.candle.fileexplorer.model.observer.ModelEventListener;
 
 import java.nio.file.FileSystemException;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The interface for the files' data model.
@@ -25,6 +31,17 @@ public interface FilesModel {
      */
     void setTabIndex(int newIndex);
 
+    /**
+     * Gets the number of open tabs.
+     */
+    int getTabCount();
+
+    /**
+     * Gets the history of the given tab and the latest snapshot of its
+     * current directory, so it can be saved with the session.
+     */
+    SessionState.TabState getTabState(int tabLocationIndex);
+
     /**
      * Gets a list of drive names on the computer.
      */
@@ -42,6 +59,28 @@ public interface FilesModel {
      */
     void setCurrentDirectory(String path);
 
+    /**
+     * Opens a file or folder in the user's default application, in the
+     * background.
+     *
+     * @param path The absolute path to the file/folder.
+     */
+    void openInDefaultApp(String path);
+
+    /**
+     * Gets the snapshot of the current directory's listing that was stored
+     * in the history when the user last left it.
+     *
+     * @return The snapshot, or null if there is none.
+     */
+    ListingSnapshot getCurrentSnapshot();
+
+    /**
+     * Sets the object asked for a snapshot of the current listing whenever
+     * the user navigates away from it.
+     */
+    void setSnapshotSource(SnapshotSource source);
+
     /**
      * Gets the current setting for data retrieved from the clipboard.
      */
@@ -62,12 +101,24 @@ public interface FilesModel {
      */
     void addListener(DataListener newListener);
 
+    /**
+     * Subscribes the specified object to the typed events describing each
+     * change made to the data model.
+     */
+    void addEventListener(ModelEventListener newListener);
+
     /**
      * Tells the model to set up additional values in the array lists for the
      * new tab.
      */
     void addTab();
 
+    /**
+     * Adds a tab with the history and snapshot of a saved one, and makes
+     * it the current tab.
+     */
+    void restoreTab(SessionState.TabState state);
+
     /**
      * Tells the model to discard the values in the array lists associated
      * with the given tab.
@@ -118,5 +169,19 @@ public interface FilesModel {
      */
     void paste(String sourcePath) throws FileSystemException;
 
+    /**
+     * Pastes files/folders to the current directory in the background,
+     * based on the current clipboard mode. Listeners hear about each item
+     * through the typed events as it's pasted.
+     *
+     * @param sourcePaths The original paths of the files/folders.
+     * @return Completes once every item has been tried. Items that are in
+     * use, or that would be pasted onto themselves, are skipped and the
+     * rest are still pasted; it then fails with the first of those
+     * failures, a {@link FileSystemException} or an
+     * {@link IllegalStateException} respectively.
+     */
+    CompletableFuture<Void> pasteAll(List<String> sourcePaths);
+
     //endregion
 }
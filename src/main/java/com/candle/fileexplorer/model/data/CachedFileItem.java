@@ -0,0 +1,53 @@
+package com.candle.fileexplorer.model.data;
+
+/**
+ * A file item whose size and modification time were read earlier, such as
+ * one restored from a saved session.
+ * The item can be shown and sorted without touching the disk, which keeps
+ * the first paint of a restored listing fast. The cached values are only
+ * as fresh as the listing they came from, so the listing should be read
+ * again in the background.
+ */
+public class CachedFileItem extends DefaultFileItem {
+    //region Private Members
+
+    private final long lastModifiedTime;
+
+    private final long size;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a file item with previously read values.
+     *
+     * @param fileType         The type of file item, be it a drive, folder, or
+     *                         file.
+     * @param path             The path to the file.
+     * @param lastModifiedTime The item's modification time when it was read.
+     * @param size             The item's size when it was read, or -1 for
+     *                         anything but a file.
+     */
+    public CachedFileItem(FileType fileType, String path, long lastModifiedTime, long size) {
+        super(fileType, path);
+        this.lastModifiedTime = lastModifiedTime;
+        this.size = size;
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    @Override
+    public long getLastModifiedTime() {
+        return lastModifiedTime;
+    }
+
+    @Override
+    public long getSize() {
+        return size;
+    }
+
+    //endregion
+}
@@ -1,6 +1,14 @@
 package com.candle.fileexplorer.model.data;
 
 import com.candle.fileexplorer.model.helpers.FileOperations;
+import com.candle.fileexplorer.model.io.DeviceKeys;
+import com.candle.fileexplorer.model.io.IoGovernor;
+import com.candle.fileexplorer.model.io.ThrottledCopy;
+import com.candle.fileexplorer.model.io.TransferJob;
+import com.candle.fileexplorer.model.metrics.Counter;
+import com.candle.fileexplorer.model.metrics.Histogram;
+import com.candle.fileexplorer.model.metrics.MetricsRegistry;
+import org.apache.commons.io.FileExistsException;
 import org.apache.commons.io.FileUtils;
 
 import java.io.File;
@@ -16,6 +24,24 @@ import java.nio.file.Files;
 public class DefaultFileItem implements FileItem {
     //region Private Members
 
+    private static final Counter copiedBytes = MetricsRegistry.getDefault().counter(
+            "files_copy_bytes_total", "Bytes copied by pasting");
+
+    private static final Counter movedBytes = MetricsRegistry.getDefault().counter(
+            "files_move_bytes_total", "Bytes moved by pasting");
+
+    /**
+     * Transfer speeds from 1 KB to about 2 TB per second. Moves within a
+     * drive are only renames, which copy nothing, so they aren't counted.
+     */
+    private static final Histogram copyThroughput = MetricsRegistry.getDefault().histogram(
+            "files_copy_bytes_per_second", "Throughput of each copy",
+            "bytes_per_second", 1024, 32);
+
+    private static final Histogram moveThroughput = MetricsRegistry.getDefault().histogram(
+            "files_move_bytes_per_second", "Throughput of each move",
+            "bytes_per_second", 1024, 32);
+
     /**
      * The type of item contained in this directory.
      */
@@ -67,6 +93,12 @@ public class DefaultFileItem implements FileItem {
             throw new IllegalStateException();
         }
 
+        if (fileType != FileType.Drive && !isOnSameDevice(targetDestination)) {
+            // Moving to another device copies everything, so it's throttled
+            // like a copy.
+            moveAcrossDevices(targetDestination);
+            return;
+        }
         switch (fileType) {
             case File -> {
                 try {
@@ -96,33 +128,15 @@ public class DefaultFileItem implements FileItem {
             throw new IllegalStateException();
         }
 
-        switch (fileType) {
-            case File -> {
-                try {
-                    FileUtils.copyFile(file, targetDestination);
-                } catch (FileSystemException e) {
-                    throw e;
-                } catch (FileNotFoundException ex) {
-                    // Gets called if the user tries to copy a file from the
-                    // clipboard that has been deleted
-                    // (i.e. file was deleted, but it's still sitting on the
-                    // clipboard).
-                    // It doesn't exist anymore, so there's no point in doing
-                    // anything.
-                } catch (IOException exc) {
-                    throw new RuntimeException(exc);
-                }
-            }
-            case Folder -> {
-                try {
-                    FileUtils.copyDirectory(file, targetDestination);
-                } catch (FileSystemException e) {
-                    throw e;
-                } catch (IOException ex) {
-                    throw new RuntimeException(ex);
-                }
-            }
+        long start = System.nanoTime();
+        TransferJob job = IoGovernor.getDefault().startTransfer("Copying " + file.getName(),
+                getKnownSize(), file.toPath(), targetDestination.toPath());
+        try {
+            copyItem(targetDestination, job);
+        } finally {
+            job.finish();
         }
+        recordTransfer(copiedBytes, copyThroughput, job.getTransferredBytes(), start);
     }
 
     @Override
@@ -196,6 +210,11 @@ public class DefaultFileItem implements FileItem {
         return file.lastModified();
     }
 
+    @Override
+    public long getSize() {
+        return (fileType == FileType.File) ? file.length() : -1;
+    }
+
     /**
      * The objects should be equal if the file and type match.
      */
@@ -210,4 +229,98 @@ public class DefaultFileItem implements FileItem {
     }
 
     //endregion
+
+    //region Private Helper Methods
+
+    /**
+     * Copies the item to the given destination through a transfer job.
+     */
+    private void copyItem(File targetDestination, TransferJob job) throws FileSystemException {
+        switch (fileType) {
+            case File -> {
+                try {
+                    ThrottledCopy.copyFile(file, targetDestination, job);
+                } catch (FileSystemException e) {
+                    throw e;
+                } catch (FileNotFoundException ex) {
+                    // Gets called if the user tries to copy a file from the
+                    // clipboard that has been deleted
+                    // (i.e. file was deleted, but it's still sitting on the
+                    // clipboard).
+                    // It doesn't exist anymore, so there's no point in doing
+                    // anything.
+                } catch (IOException exc) {
+                    throw new RuntimeException(exc);
+                }
+            }
+            case Folder -> {
+                try {
+                    ThrottledCopy.copyDirectory(file, targetDestination, job);
+                } catch (FileSystemException e) {
+                    throw e;
+                } catch (IOException ex) {
+                    throw new RuntimeException(ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the item to a destination on another device, by copying it
+     * through a transfer job and then deleting it.
+     */
+    private void moveAcrossDevices(File targetDestination) throws FileSystemException {
+        long start = System.nanoTime();
+        TransferJob job = IoGovernor.getDefault().startTransfer("Moving " + file.getName(),
+                getKnownSize(), file.toPath(), targetDestination.toPath());
+        try {
+            if (targetDestination.exists())
+                throw new FileExistsException("Destination '" + targetDestination + "' already exists");
+            if (fileType == FileType.Folder)
+                ThrottledCopy.copyDirectory(file, targetDestination, job);
+            else
+                ThrottledCopy.copyFile(file, targetDestination, job);
+            FileUtils.forceDelete(file);
+        } catch (FileSystemException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            job.finish();
+        }
+        recordTransfer(movedBytes, moveThroughput, job.getTransferredBytes(), start);
+    }
+
+    /**
+     * Checks whether a destination is on the same device as the item, in
+     * which case moving it there is only a rename.
+     */
+    private boolean isOnSameDevice(File targetDestination) {
+        return DeviceKeys.of(file.toPath()).equals(DeviceKeys.of(targetDestination.toPath()));
+    }
+
+    /**
+     * Gets the size of the item if it can be read without walking it. The
+     * bytes in a folder are counted as they're copied instead.
+     *
+     * @return The size in bytes, or -1 for folders.
+     */
+    private long getKnownSize() {
+        return (fileType == FileType.File) ? file.length() : -1;
+    }
+
+    /**
+     * Adds a finished copy or move to its metrics.
+     */
+    private static void recordTransfer(Counter total, Histogram throughput, long bytes,
+                                       long start) {
+        long elapsed = System.nanoTime() - start;
+        if (bytes <= 0)
+            return;
+        total.add(bytes);
+        if (elapsed > 0)
+            throughput.record(bytes * 1e9 / elapsed);
+    }
+
+    //endregion
 }
@@ -66,4 +66,10 @@ public interface FileItem {
      * Gets the time at which this item was last modified.
      */
     long getLastModifiedTime();
+
+    /**
+     * Gets the size of the file in bytes. Folders return -1, since their
+     * size has to be calculated from their contents.
+     */
+    long getSize();
 }
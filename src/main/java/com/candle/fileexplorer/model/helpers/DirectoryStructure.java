@@ -3,14 +3,46 @@ package com.candle.fileexplorer.model.helpers;
 import com.candle.fileexplorer.model.data.FileItem;
 import com.candle.fileexplorer.model.data.DefaultFileItem;
 import com.candle.fileexplorer.model.data.FileType;
+import com.candle.fileexplorer.model.io.IoGovernor;
+import com.candle.fileexplorer.model.metrics.Counter;
+import com.candle.fileexplorer.model.metrics.Histogram;
+import com.candle.fileexplorer.model.metrics.MetricsRegistry;
+import com.candle.fileexplorer.model.metrics.Timer;
+import com.candle.fileexplorer.model.mounts.MountEntry;
+import com.candle.fileexplorer.model.mounts.MountMonitor;
+import com.candle.fileexplorer.model.profiling.FilesEvents;
 
 import java.io.*;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
 
 /**
  * A helper class that gets information about file directories.
  */
 public class DirectoryStructure {
+    //region Private Members
+
+    private static final Timer listingTimer = MetricsRegistry.getDefault().timer(
+            "files_directory_listing_seconds", "Time to list the contents of one directory");
+
+    private static final Counter listedEntries = MetricsRegistry.getDefault().counter(
+            "files_directory_entries_total", "Entries read while listing directories");
+
+    /**
+     * Listing speeds from 10 to about 160 million entries per second.
+     */
+    private static final Histogram listingRate = MetricsRegistry.getDefault().histogram(
+            "files_directory_entries_per_second", "Entries read per second by each listing",
+            "entries_per_second", 10, 24);
+
+    //endregion
+
     //region Public Methods
 
     /**
@@ -41,31 +73,88 @@ public class DirectoryStructure {
         }
     }
 
+    /**
+     * Returns the drives in the given mount table, leaving out virtual and
+     * system file systems. A drive mounted at several places is listed once
+     * for each place, but a place is never listed twice.
+     */
+    public static ArrayList<FileItem> getDrives(List<MountEntry> mounts) {
+        LinkedHashSet<String> mountPoints = new LinkedHashSet<>();
+        for (MountEntry mount : mounts) {
+            if (mount.isDrive())
+                mountPoints.add(FileOperations.sanitizePath(mount.mountPoint()));
+        }
+
+        ArrayList<FileItem> drives = new ArrayList<>();
+        for (String mountPoint : mountPoints)
+            drives.add(new DefaultFileItem(FileType.Drive, mountPoint));
+        return drives;
+    }
+
     /**
      * Get the top level contents of a given directory.
      */
+    @SuppressWarnings("try")
     public static ArrayList<FileItem> getDirectoryContents(String path,
                                                            boolean showHiddenItems) {
         File currentDirectory = new File(FileOperations.sanitizePath(path));
         if (!currentDirectory.isDirectory())
             return new ArrayList<>();
 
+        FilesEvents.DirectoryListing event = new FilesEvents.DirectoryListing();
+        event.begin();
+        long start = listingTimer.start();
         ArrayList<FileItem> result = new ArrayList<>();
-        File[] contents = currentDirectory.listFiles();
-        if (contents != null && contents.length > 0) {
-            FileType type;
-            for (File subFile : contents) {
-                // Unless we're showing hidden files, skip to the next
-                // iteration if found.
-                if (!showHiddenItems) {
-                    if (subFile.isHidden())
-                        continue;
+        File[] contents;
+        // Copies and hashing on the same device hold off while this runs.
+        try (IoGovernor.Interaction ignored =
+                     IoGovernor.getDefault().beginInteractive(currentDirectory.toPath())) {
+            contents = currentDirectory.listFiles();
+            if (contents != null && contents.length > 0) {
+                FileType type;
+                for (File subFile : contents) {
+                    // Unless we're showing hidden files, skip to the next
+                    // iteration if found.
+                    if (!showHiddenItems) {
+                        if (subFile.isHidden())
+                            continue;
+                    }
+                    type = (subFile.isDirectory() ? FileType.Folder :
+                            FileType.File);
+                    result.add(new DefaultFileItem(type, subFile.getPath()));
                 }
-                type = (subFile.isDirectory() ? FileType.Folder :
-                        FileType.File);
-                result.add(new DefaultFileItem(type, subFile.getPath()));
             }
         }
+
+        long elapsed = listingTimer.stop(start);
+        event.finish(currentDirectory.getPath(), result.size());
+        if (contents != null) {
+            listedEntries.add(contents.length);
+            if (contents.length > 0 && elapsed > 0)
+                listingRate.record(contents.length * 1e9 / elapsed);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the names of the folders inside a given directory, without
+     * creating file items for them.
+     *
+     * @return The folder names, or an empty list if the directory can't be
+     * read.
+     */
+    @SuppressWarnings("try")
+    public static ArrayList<String> getSubDirectoryNames(String path) {
+        ArrayList<String> result = new ArrayList<>();
+        Path directory = Path.of(FileOperations.sanitizePath(path));
+        try (IoGovernor.Interaction ignored = IoGovernor.getDefault().beginInteractive(directory);
+             DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                     Files::isDirectory)) {
+            for (Path subDirectory : stream)
+                result.add(subDirectory.getFileName().toString());
+        } catch (IOException | DirectoryIteratorException | InvalidPathException e) {
+            // Missing or unreadable folders simply have no sub-folders.
+        }
         return result;
     }
 
@@ -75,70 +164,14 @@ public class DirectoryStructure {
 
     private static ArrayList<FileItem> getLinuxDrives() {
         // Unfortunately, listRoots() doesn't work on linux and only returns /.
-        // Instead, I have to go through /proc/mounts and look for /dev/sd*
-        // drives
-        String mountedDrives = "/proc/mounts";
-        String textToFind = "/dev/";
-
-        try {
-            // Define the file readers
-            FileReader fileReader = new FileReader(mountedDrives);
-            BufferedReader reader = new BufferedReader(fileReader);
-            // A string to store the lines
-            String line;
-            ArrayList<String> driveStrings = new ArrayList<>();
-            ArrayList<FileItem> files = new ArrayList<>();
-
-            while (true) {
-                try {
-                    // Loop until we've gone through all the lines.
-                    line = reader.readLine();
-                    if (line == null)
-                        break;
-
-                    int index = line.indexOf(textToFind);
-                    if (index != -1) {
-                        // Knowing that this is a /dev/... line, use spacers
-                        // to get the beginning and end of the name.
-                        int startIndex = line.indexOf(" ") + 1;
-                        int endIndex = line.indexOf(" ", startIndex);
-
-                        String driveName = line.substring(startIndex, endIndex);
-                        String sanitizedVersion = validateDrive(driveName);
-                        if (sanitizedVersion != null)
-                            driveStrings.add(sanitizedVersion);
-                    }
-
-                } catch (IOException e) {
-                    System.out.println("Error reading file line: " + e.getMessage());
-                }
-            }
-
-            for (String drive : driveStrings) {
-                files.add(new DefaultFileItem(FileType.Drive, drive));
-            }
-            return files;
-        } catch (FileNotFoundException e) {
-            System.out.println("Error: " + e.getMessage());
-        }
-        return null;
-    }
-
-    /**
-     * Checks to see if a given string returns a valid drive name by cutting
-     * out boot partitions.
-     */
-    private static String validateDrive(String drive) {
-        String[] badDriveNames = {"boot", "timeshift", "shm", "pts", "mqueue"
-                , "hugepages"};
-        for (String badName : badDriveNames)
-            if (drive.contains(badName))
-                return null;
-
-        // If everything worked, sanitize the string and return it.
-        return FileOperations.sanitizePath(drive);
+        // Instead, the drives are taken from the mount table, leaving out
+        // virtual and system file systems. The monitor's copy is used so
+        // the table isn't read and parsed again, and starting it keeps that
+        // copy up to date.
+        MountMonitor monitor = MountMonitor.getDefault();
+        monitor.start();
+        return getDrives(monitor.getMounts());
     }
 
-
     //endregion
 }
@@ -1,7 +1,9 @@
 package com.candle.fileexplorer.model.helpers;
 
 import com.candle.fileexplorer.model.data.FileType;
-import javafx.concurrent.Task;
+import com.candle.fileexplorer.model.metrics.Counter;
+import com.candle.fileexplorer.model.metrics.MetricsRegistry;
+import com.candle.fileexplorer.model.metrics.Timer;
 
 import java.awt.*;
 import java.io.BufferedReader;
@@ -10,6 +12,7 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.concurrent.Executor;
 
 /**
  * A helper class that contains static methods for various file utilities,
@@ -24,6 +27,12 @@ public class FileOperations {
             ".home") + "/.local/share/Trash";
     private static final String windowsTrashLocation = "C:/$Recycle.Bin/Recycle Bin";
 
+    private static final Timer trashTimer = MetricsRegistry.getDefault().timer(
+            "files_trash_seconds", "Time to send one item to the trash");
+
+    private static final Counter trashFailures = MetricsRegistry.getDefault().counter(
+            "files_trash_failures_total", "Items that couldn't be sent to the trash");
+
     //endregion
 
     //region Public Methods
@@ -72,25 +81,20 @@ public class FileOperations {
     /**
      * Opens a given file in the user's default application.
      *
-     * @param path The absolute path to the file.
+     * @param path     The absolute path to the file.
+     * @param executor Runs the opening, which can take a long time, off the
+     *                 UI thread.
      */
-    public static void openFileInDefaultApp(String path) {
-        // Opens the file in a new thread to prevent the application from
-        // hanging indefinitely.
-        Task<Void> task = new Task<>() {
-            @Override
-            protected Void call() {
-                try {
-                    Desktop.getDesktop().open(new File(path));
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-                return null;
+    public static void openFileInDefaultApp(String path, Executor executor) {
+        executor.execute(() -> {
+            try {
+                Desktop.getDesktop().open(new File(path));
+            } catch (IOException | UnsupportedOperationException e) {
+                // Headless sessions and desktops without a file handler
+                // can't open anything.
+                System.err.println("Could not open " + path + ": " + e.getMessage());
             }
-        };
-        Thread thread = new Thread(task);
-        thread.setDaemon(true);
-        thread.start();
+        });
     }
 
     /**
@@ -105,22 +109,67 @@ public class FileOperations {
         }
     }
 
+    /**
+     * Returns the folder used to store the application's cached data, such
+     * as the filename index. The folder is not guaranteed to exist yet.
+     */
+    public static String getCacheDirectory() {
+        String OS = System.getProperty("os.name");
+        if (OS.equals("Linux")) {
+            String xdgCache = System.getenv("XDG_CACHE_HOME");
+            if (xdgCache == null || xdgCache.isBlank())
+                xdgCache = System.getProperty("user.home") + "/.cache";
+            return sanitizePath(xdgCache + "/files");
+        } else {
+            String localAppData = System.getenv("LOCALAPPDATA");
+            if (localAppData == null || localAppData.isBlank())
+                localAppData = System.getProperty("user.home");
+            return sanitizePath(localAppData + "/Files/Cache");
+        }
+    }
+
+    /**
+     * Returns the folder where thumbnails are shared between programs, as
+     * the freedesktop.org thumbnail spec places it. Other systems have no
+     * such folder, so it's kept with the application's own cache there.
+     */
+    public static String getThumbnailDirectory() {
+        String OS = System.getProperty("os.name");
+        if (OS.equals("Linux")) {
+            String xdgCache = System.getenv("XDG_CACHE_HOME");
+            if (xdgCache == null || xdgCache.isBlank())
+                xdgCache = System.getProperty("user.home") + "/.cache";
+            return sanitizePath(xdgCache + "/thumbnails");
+        } else {
+            return sanitizePath(getCacheDirectory() + "/thumbnails");
+        }
+    }
+
     /**
      * Sends a given file/folder to the recycle bin.
      *
      * @param path The absolute path of the file/folder to be deleted.
      */
     public static boolean sendItemToTrash(String path) {
-        String OS = System.getProperty("os.name");
-        if (OS.equals("Linux")) {
-            ProcessBuilder builder = new ProcessBuilder();
-            if (trashDependencyExists(builder))
-                return runTrashShellCommand(builder, path);
-            else {
-                throw new IllegalStateException();
-            }
-        } else
-            return java.awt.Desktop.getDesktop().moveToTrash(new File(path));
+        long start = trashTimer.start();
+        boolean trashed = false;
+        try {
+            String OS = System.getProperty("os.name");
+            if (OS.equals("Linux")) {
+                ProcessBuilder builder = new ProcessBuilder();
+                if (trashDependencyExists(builder))
+                    trashed = runTrashShellCommand(builder, path);
+                else {
+                    throw new IllegalStateException();
+                }
+            } else
+                trashed = java.awt.Desktop.getDesktop().moveToTrash(new File(path));
+            return trashed;
+        } finally {
+            trashTimer.stop(start);
+            if (!trashed)
+                trashFailures.increment();
+        }
     }
 
     //endregion
@@ -0,0 +1,32 @@
+package com.candle.fileexplorer.model.history;
+
+import com.candle.fileexplorer.model.data.FileItem;
+
+import java.util.List;
+
+/**
+ * How a directory looked when the user left it, so going back to it can
+ * show the same listing straight away.
+ *
+ * @param items          The directory's items, before filtering.
+ * @param scrollPosition How far down the listing was scrolled, from 0 to 1.
+ * @param selectedPath   The path of the selected item, or null if nothing
+ *                       was selected.
+ */
+public record ListingSnapshot(List<FileItem> items, double scrollPosition, String selectedPath) {
+    /**
+     * A rough guess at the memory a listing takes up for each item, on top
+     * of the item's path.
+     */
+    private static final long bytesPerItem = 96;
+
+    /**
+     * Roughly estimates how much memory this snapshot takes up, in bytes.
+     */
+    public long estimateBytes() {
+        long bytes = 64;
+        for (FileItem item : items)
+            bytes += bytesPerItem + 2L * item.getItemDirectory().length();
+        return bytes;
+    }
+}
@@ -0,0 +1,238 @@
+package com.candle.fileexplorer.model.history;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The directories visited in a single tab, kept in a ring buffer with a
+ * fixed number of entries. Once it's full, visiting a new directory
+ * overwrites the oldest entry.
+ * Each entry can also hold a snapshot of its listing, whose memory is
+ * managed by a {@link SnapshotBudget} shared between tabs.
+ */
+public class NavigationHistory {
+    //region Private Members
+
+    /**
+     * The ring buffer of entries. The oldest one is at {@link #start}.
+     */
+    private final Entry[] entries;
+
+    private final SnapshotBudget budget;
+
+    /**
+     * The position in {@link #entries} of the oldest entry.
+     */
+    private int start;
+
+    /**
+     * The number of entries in the history.
+     */
+    private int count;
+
+    /**
+     * The current entry, counted from the oldest one.
+     */
+    private int index;
+
+    //endregion
+
+    //region Constructors
+
+    /**
+     * Creates a history that starts at the given directory.
+     *
+     * @param capacity  The most directories that are remembered.
+     * @param directory The first directory.
+     * @param budget    The memory budget for the entries' snapshots.
+     */
+    public NavigationHistory(int capacity, String directory, SnapshotBudget budget) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be at least 1");
+        entries = new Entry[capacity];
+        this.budget = budget;
+        entries[0] = new Entry(directory);
+        count = 1;
+    }
+
+    /**
+     * Recreates a history from its directories, such as when a saved
+     * session is restored. If there are more directories than fit, the
+     * oldest ones are dropped.
+     *
+     * @param capacity    The most directories that are remembered.
+     * @param directories The directories, oldest first. There must be at
+     *                    least one.
+     * @param index       The position of the current directory in the list.
+     * @param budget      The memory budget for the entries' snapshots.
+     */
+    public NavigationHistory(int capacity, List<String> directories, int index,
+                             SnapshotBudget budget) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be at least 1");
+        if (directories.isEmpty())
+            throw new IllegalArgumentException("directories must not be empty");
+        entries = new Entry[capacity];
+        this.budget = budget;
+
+        int dropped = Math.max(0, directories.size() - capacity);
+        for (int i = dropped; i < directories.size(); i++)
+            entries[count++] = new Entry(directories.get(i));
+        this.index = Math.min(Math.max(index - dropped, 0), count - 1);
+    }
+
+    //endregion
+
+    //region Accessors/Mutators
+
+    public String getCurrentDirectory() {
+        return current().directory;
+    }
+
+    /**
+     * Gets the snapshot stored for the current entry.
+     *
+     * @return The snapshot, or null if there is none.
+     */
+    public ListingSnapshot getSnapshot() {
+        return budget.get(current());
+    }
+
+    /**
+     * Stores a snapshot for the current entry.
+     */
+    public void setSnapshot(ListingSnapshot snapshot) {
+        budget.store(current(), snapshot);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Gets the position of the current entry, counted from the oldest one.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets every directory in the history, oldest first.
+     */
+    public List<String> getDirectories() {
+        ArrayList<String> directories = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            directories.add(entryAt(i).directory);
+        return directories;
+    }
+
+    public boolean canGoBack() {
+        return index > 0;
+    }
+
+    public boolean canGoForward() {
+        return index < count - 1;
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Adds a directory after the current entry, forgetting the entries that
+     * could have been gone forward to.
+     */
+    public void visit(String directory) {
+        for (int i = index + 1; i < count; i++) {
+            budget.release(entryAt(i));
+            entries[slot(i)] = null;
+        }
+        count = index + 1;
+
+        if (count == entries.length) {
+            // Full, so the oldest entry makes way.
+            budget.release(entryAt(0));
+            entries[start] = null;
+            start = slot(1);
+            count--;
+        }
+        entries[slot(count)] = new Entry(directory);
+        count++;
+        index = count - 1;
+    }
+
+    /**
+     * Moves to the previous entry.
+     *
+     * @return Whether there was one to move to.
+     */
+    public boolean goBack() {
+        if (!canGoBack())
+            return false;
+        index--;
+        return true;
+    }
+
+    /**
+     * Moves to the next entry.
+     *
+     * @return Whether there was one to move to.
+     */
+    public boolean goForward() {
+        if (!canGoForward())
+            return false;
+        index++;
+        return true;
+    }
+
+    /**
+     * Drops every snapshot in the history, such as when its tab is closed.
+     */
+    public void clearSnapshots() {
+        for (int i = 0; i < count; i++)
+            budget.release(entryAt(i));
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    private Entry current() {
+        return entryAt(index);
+    }
+
+    private Entry entryAt(int position) {
+        return entries[slot(position)];
+    }
+
+    /**
+     * Turns a position counted from the oldest entry into an array index.
+     */
+    private int slot(int position) {
+        return (start + position) % entries.length;
+    }
+
+    //endregion
+
+    //region Helper Classes
+
+    /**
+     * A visited directory, along with the snapshot of its listing if one
+     * has been stored.
+     */
+    public static class Entry {
+        final String directory;
+
+        /**
+         * Only set through {@link SnapshotBudget}, which keeps track of its
+         * memory.
+         */
+        ListingSnapshot snapshot;
+
+        Entry(String directory) {
+            this.directory = directory;
+        }
+    }
+
+    //endregion
+}
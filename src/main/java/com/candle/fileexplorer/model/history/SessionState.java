@@ -0,0 +1,40 @@
+package com.candle.fileexplorer.model.history;
+
+import java.util.List;
+
+/**
+ * The tabs that were open when the app was last closed, so they can be put
+ * back the next time it starts.
+ *
+ * @param tabs        The open tabs, in order.
+ * @param selectedTab The index of the tab that was being viewed.
+ */
+public record SessionState(List<TabState> tabs, int selectedTab) {
+    /**
+     * A single tab of a saved session.
+     *
+     * @param directories  The tab's history, oldest directory first.
+     * @param historyIndex The position of the tab's current directory in its
+     *                     history.
+     * @param sortOrder    The name of the order the tab's items were sorted
+     *                     in, or null to use the default.
+     * @param snapshot     The listing of the tab's current directory, or null
+     *                     if it wasn't kept.
+     */
+    public record TabState(List<String> directories, int historyIndex, String sortOrder,
+                           ListingSnapshot snapshot) {
+        /**
+         * Gets the directory the tab was showing.
+         */
+        public String getCurrentDirectory() {
+            return directories.get(historyIndex);
+        }
+
+        /**
+         * Gets a copy of this tab with the given sort order.
+         */
+        public TabState withSortOrder(String newSortOrder) {
+            return new TabState(directories, historyIndex, newSortOrder, snapshot);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.candle.fileexplorer.model.history;
+
+import com.candle.fileexplorer.model.data.CachedFileItem;
+import com.candle.fileexplorer.model.data.FileItem;
+import com.candle.fileexplorer.model.data.FileType;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes the session file, which holds the open tabs, their
+ * histories and the last listing of each tab.
+ * The listings are stored with each item's type, size and modification
+ * time, so a restored tab can be painted before its directory is read.
+ */
+public class SessionStore {
+    //region Private Members
+
+    /**
+     * The value written at the start of every session file.
+     */
+    private static final int fileMagic = 0x46534553;
+
+    /**
+     * The version of the session file format.
+     */
+    private static final int fileVersion = 1;
+
+    /**
+     * Listings with more items than this are left out of the session, since
+     * reading them back would take longer than listing the directory.
+     */
+    static final int maxSnapshotItems = 20_000;
+
+    //endregion
+
+    //region Constructors
+
+    private SessionStore() {
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Writes a session to the given file. The file is replaced atomically,
+     * so a crash while saving never leaves a half-written session behind.
+     *
+     * @param file    The location of the session file.
+     * @param session The session to save.
+     */
+    public static void save(Path file, SessionState session) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null)
+            Files.createDirectories(parent);
+
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream fileStream = Files.newOutputStream(tempFile);
+             DataOutputStream output =
+                     new DataOutputStream(new BufferedOutputStream(fileStream, 1 << 16))) {
+            output.writeInt(fileMagic);
+            output.writeInt(fileVersion);
+
+            output.writeInt(session.tabs().size());
+            output.writeInt(session.selectedTab());
+            for (SessionState.TabState tab : session.tabs()) {
+                output.writeInt(tab.directories().size());
+                for (String directory : tab.directories())
+                    writeString(output, directory);
+                output.writeInt(tab.historyIndex());
+                writeString(output, tab.sortOrder() == null ? "" : tab.sortOrder());
+                writeSnapshot(output, tab.snapshot());
+            }
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a session that was written by {@link #save(Path, SessionState)}.
+     *
+     * @param file The location of the session file.
+     * @return The loaded session.
+     * @throws IOException If the file could not be read or is not a valid
+     *                     session.
+     */
+    public static SessionState load(Path file) throws IOException {
+        try (InputStream fileStream = Files.newInputStream(file);
+             DataInputStream input =
+                     new DataInputStream(new BufferedInputStream(fileStream, 1 << 16))) {
+            if (input.readInt() != fileMagic || input.readInt() != fileVersion)
+                throw new IOException("Unrecognized session file: " + file);
+
+            int tabCount = readCount(input);
+            int selectedTab = input.readInt();
+            ArrayList<SessionState.TabState> tabs = new ArrayList<>();
+            for (int i = 0; i < tabCount; i++) {
+                int directoryCount = readCount(input);
+                if (directoryCount == 0)
+                    throw new IOException("Corrupt session file: " + file);
+                ArrayList<String> directories = new ArrayList<>();
+                for (int j = 0; j < directoryCount; j++)
+                    directories.add(readString(input));
+                int historyIndex = input.readInt();
+                if (historyIndex < 0 || historyIndex >= directoryCount)
+                    throw new IOException("Corrupt session file: " + file);
+                String sortOrder = readString(input);
+                ListingSnapshot snapshot = readSnapshot(input);
+                tabs.add(new SessionState.TabState(List.copyOf(directories), historyIndex,
+                        sortOrder.isEmpty() ? null : sortOrder, snapshot));
+            }
+            if (tabCount > 0 && (selectedTab < 0 || selectedTab >= tabCount))
+                selectedTab = 0;
+            return new SessionState(List.copyOf(tabs), selectedTab);
+        } catch (EOFException | IllegalArgumentException e) {
+            throw new IOException("Corrupt session file: " + file, e);
+        }
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    private static void writeSnapshot(DataOutputStream output, ListingSnapshot snapshot)
+            throws IOException {
+        if (snapshot == null || snapshot.items().size() > maxSnapshotItems) {
+            output.writeBoolean(false);
+            return;
+        }
+        output.writeBoolean(true);
+        output.writeDouble(snapshot.scrollPosition());
+        writeString(output, snapshot.selectedPath() == null ? "" : snapshot.selectedPath());
+        output.writeInt(snapshot.items().size());
+        for (FileItem item : snapshot.items()) {
+            output.writeByte(item.getFileType().ordinal());
+            writeString(output, item.getItemDirectory());
+            output.writeLong(item.getLastModifiedTime());
+            output.writeLong(item.getSize());
+        }
+    }
+
+    private static ListingSnapshot readSnapshot(DataInputStream input) throws IOException {
+        if (!input.readBoolean())
+            return null;
+        double scrollPosition = input.readDouble();
+        String selectedPath = readString(input);
+        int itemCount = readCount(input);
+        FileType[] types = FileType.values();
+        ArrayList<FileItem> items = new ArrayList<>(Math.min(itemCount, maxSnapshotItems));
+        for (int i = 0; i < itemCount; i++) {
+            int type = input.readUnsignedByte();
+            if (type >= types.length)
+                throw new IOException("Corrupt session file");
+            String path = readString(input);
+            long lastModifiedTime = input.readLong();
+            long size = input.readLong();
+            items.add(new CachedFileItem(types[type], path, lastModifiedTime, size));
+        }
+        return new ListingSnapshot(items, Math.min(Math.max(scrollPosition, 0), 1),
+                selectedPath.isEmpty() ? null : selectedPath);
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length < 0)
+            throw new IOException("Corrupt session file");
+        return new String(input.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private static int readCount(DataInputStream input) throws IOException {
+        int count = input.readInt();
+        if (count < 0)
+            throw new IOException("Corrupt session file");
+        return count;
+    }
+
+    //endregion
+}
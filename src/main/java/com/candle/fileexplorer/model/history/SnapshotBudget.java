@@ -0,0 +1,100 @@
+package com.candle.fileexplorer.model.history;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Limits the memory taken up by the listing snapshots in every tab's
+ * history. Once the budget is used up, the snapshots that were stored or
+ * restored the longest time ago are dropped first; their directories are
+ * simply read from disk again.
+ */
+public class SnapshotBudget {
+    //region Private Members
+
+    private final long maxBytes;
+
+    /**
+     * The estimated size of each entry's snapshot, least recently used
+     * first.
+     */
+    private final LinkedHashMap<NavigationHistory.Entry, Long> entries =
+            new LinkedHashMap<>(16, 0.75f, true);
+
+    private long usedBytes;
+
+    //endregion
+
+    //region Constructors
+
+    /**
+     * Creates a budget.
+     *
+     * @param maxBytes The most memory, in bytes, the snapshots may take up
+     *                 between them.
+     */
+    public SnapshotBudget(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    //endregion
+
+    //region Accessors/Mutators
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Stores a snapshot on a history entry, dropping older snapshots if the
+     * budget is exceeded. A snapshot that's larger than the whole budget
+     * isn't stored at all.
+     */
+    public synchronized void store(NavigationHistory.Entry entry, ListingSnapshot snapshot) {
+        release(entry);
+        long bytes = snapshot.estimateBytes();
+        if (bytes > maxBytes)
+            return;
+
+        entry.snapshot = snapshot;
+        entries.put(entry, bytes);
+        usedBytes += bytes;
+
+        Iterator<Map.Entry<NavigationHistory.Entry, Long>> iterator =
+                entries.entrySet().iterator();
+        while (usedBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<NavigationHistory.Entry, Long> oldest = iterator.next();
+            oldest.getKey().snapshot = null;
+            usedBytes -= oldest.getValue();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Gets an entry's snapshot, marking it as recently used.
+     *
+     * @return The snapshot, or null if there is none.
+     */
+    public synchronized ListingSnapshot get(NavigationHistory.Entry entry) {
+        entries.get(entry);
+        return entry.snapshot;
+    }
+
+    /**
+     * Drops an entry's snapshot, such as when the entry falls out of its
+     * history.
+     */
+    public synchronized void release(NavigationHistory.Entry entry) {
+        Long bytes = entries.remove(entry);
+        if (bytes != null)
+            usedBytes -= bytes;
+        entry.snapshot = null;
+    }
+
+    //endregion
+}
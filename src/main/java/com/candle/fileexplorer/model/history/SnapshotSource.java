@@ -0,0 +1,15 @@
+package com.candle.fileexplorer.model.history;
+
+/**
+ * Provides the snapshot of a directory's listing that is stored in the
+ * history when the user navigates away from it.
+ */
+public interface SnapshotSource {
+    /**
+     * Takes a snapshot of the given directory as it's shown right now.
+     *
+     * @return The snapshot, or null if the directory isn't the one being
+     * shown.
+     */
+    ListingSnapshot takeSnapshot(String directory);
+}
@@ -0,0 +1,28 @@
+package com.candle.fileexplorer.model.io;
+
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs background work that reads or writes a path, so the runner can limit
+ * how much work happens on each device at once.
+ */
+@FunctionalInterface
+public interface DeviceExecutor {
+    /**
+     * Runs a task in the background.
+     *
+     * @param location A path the task reads or writes, or null if it
+     *                 doesn't touch the disk.
+     * @param task     The task.
+     */
+    void execute(Path location, Runnable task);
+
+    /**
+     * Gets a device executor that hands every task to an executor, without
+     * limiting any device.
+     */
+    static DeviceExecutor of(Executor executor) {
+        return (location, task) -> executor.execute(task);
+    }
+}
@@ -0,0 +1,72 @@
+package com.candle.fileexplorer.model.io;
+
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+
+/**
+ * Works out which device a path is on, so work on different disks can be
+ * limited separately.
+ */
+public final class DeviceKeys {
+    //region Private Members
+
+    /**
+     * The key for work that doesn't touch a device.
+     */
+    public static final Object noDevice = "none";
+
+    //endregion
+
+    //region Constructors
+
+    private DeviceKeys() {
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Gets a key that's equal for every path on the same device. Paths that
+     * don't exist yet use the device of their nearest existing parent.
+     * This reads from the disk, so it mustn't be called on the UI thread.
+     *
+     * @return The key, or {@link #noDevice} if the path is null or no part
+     * of it can be read.
+     */
+    public static Object of(Path path) {
+        for (Path current = path; current != null; current = current.getParent()) {
+            try {
+                // Unix systems report a device number with a single stat,
+                // while finding the file store reads the mount table.
+                return Files.getAttribute(current, "unix:dev", LinkOption.NOFOLLOW_LINKS);
+            } catch (UnsupportedOperationException | IllegalArgumentException e) {
+                return fileStoreOf(current);
+            } catch (IOException e) {
+                // Try the parent.
+            }
+        }
+        return noDevice;
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    private static Object fileStoreOf(Path path) {
+        for (Path current = path; current != null; current = current.getParent()) {
+            try {
+                FileStore store = Files.getFileStore(current);
+                return store.name() + "|" + store;
+            } catch (IOException e) {
+                // Try the parent.
+            }
+        }
+        return noDevice;
+    }
+
+    //endregion
+}
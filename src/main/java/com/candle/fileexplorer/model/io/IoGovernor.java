@@ -0,0 +1,211 @@
+package com.candle.fileexplorer.model.io;
+
+import com.candle.fileexplorer.model.metrics.MetricsRegistry;
+import com.candle.fileexplorer.model.metrics.Timer;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shares each device between browsing and bulk work. Listings mark their
+ * device as busy while they run, and bulk work such as copying and hashing
+ * waits between chunks until the device has been quiet for a moment, so a
+ * large copy doesn't make listing the same disk take seconds. Bulk work
+ * never waits longer than a limit per chunk, so it still finishes while
+ * the user keeps browsing.
+ * <p>
+ * Copies and moves are also limited to a speed, which can be changed for
+ * each one while it runs.
+ */
+public class IoGovernor {
+    //region Private Members
+
+    /**
+     * The speed limit for new transfers, in bytes per second, or 0 for no
+     * limit.
+     */
+    private static final String rateLimitProperty = "files.transferBytesPerSecond";
+
+    private static final IoGovernor defaultGovernor =
+            new IoGovernor(Long.getLong(rateLimitProperty, 0), 150, 1000);
+
+    private static final Timer yieldTimer = MetricsRegistry.getDefault().timer(
+            "files_io_bulk_yield_seconds", "Time bulk work waited for browsing on the same device");
+
+    /**
+     * How often waiting bulk work checks the device again, in milliseconds.
+     */
+    private static final long pollInterval = 5;
+
+    private final Map<Object, DeviceActivity> devices = new ConcurrentHashMap<>();
+
+    private final List<TransferJob> transfers = new CopyOnWriteArrayList<>();
+
+    /**
+     * How long a device has to be left alone after browsing before bulk
+     * work carries on.
+     */
+    private final long quietNanos;
+
+    /**
+     * The longest bulk work waits for a device each time.
+     */
+    private final long maxYieldNanos;
+
+    private volatile long defaultRateLimit;
+
+    //endregion
+
+    //region Constructors
+
+    /**
+     * Creates a governor.
+     *
+     * @param defaultRateLimit The speed limit for new transfers, in bytes
+     *                         per second, or 0 for no limit.
+     * @param quietMillis      How long a device has to be left alone after
+     *                         browsing before bulk work carries on.
+     * @param maxYieldMillis   The longest bulk work waits for a device each
+     *                         time.
+     */
+    public IoGovernor(long defaultRateLimit, long quietMillis, long maxYieldMillis) {
+        this.defaultRateLimit = Math.max(0, defaultRateLimit);
+        quietNanos = TimeUnit.MILLISECONDS.toNanos(quietMillis);
+        maxYieldNanos = TimeUnit.MILLISECONDS.toNanos(maxYieldMillis);
+    }
+
+    //endregion
+
+    //region Accessors/Mutators
+
+    /**
+     * Gets the governor shared by the whole app. Its speed limit for new
+     * transfers starts at the "files.transferBytesPerSecond" system
+     * property.
+     */
+    public static IoGovernor getDefault() {
+        return defaultGovernor;
+    }
+
+    /**
+     * Gets the speed limit for new transfers, in bytes per second, or 0 for
+     * no limit.
+     */
+    public long getDefaultRateLimit() {
+        return defaultRateLimit;
+    }
+
+    public void setDefaultRateLimit(long bytesPerSecond) {
+        defaultRateLimit = Math.max(0, bytesPerSecond);
+    }
+
+    /**
+     * Gets the transfers that are running, oldest first.
+     */
+    public List<TransferJob> getTransfers() {
+        return new ArrayList<>(transfers);
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Marks the device of a path as being browsed until the returned
+     * interaction is closed. This reads from the disk once.
+     */
+    public Interaction beginInteractive(Path path) {
+        DeviceActivity activity = devices.computeIfAbsent(DeviceKeys.of(path),
+                key -> new DeviceActivity());
+        activity.active.incrementAndGet();
+        return () -> {
+            activity.lastEnded = System.nanoTime();
+            activity.active.decrementAndGet();
+        };
+    }
+
+    /**
+     * Waits while the device is being browsed, or was until a moment ago,
+     * up to the longest wait allowed. Bulk work calls this between chunks.
+     *
+     * @param device The device's key, from {@link DeviceKeys#of(Path)}.
+     * @throws InterruptedException If the thread is interrupted while
+     *                              waiting.
+     */
+    public void yieldToInteractive(Object device) throws InterruptedException {
+        DeviceActivity activity = devices.get(device);
+        if (activity == null || !activity.isBusy(System.nanoTime(), quietNanos))
+            return;
+
+        long start = System.nanoTime();
+        long now = start;
+        while (activity.isBusy(now, quietNanos) && now - start < maxYieldNanos) {
+            Thread.sleep(pollInterval);
+            now = System.nanoTime();
+        }
+        yieldTimer.record(now - start);
+    }
+
+    /**
+     * Starts a transfer at the current speed limit for new transfers.
+     *
+     * @param description What's being transferred, as shown to the user.
+     * @param totalBytes  The size of everything being transferred, or -1
+     *                    if it isn't known.
+     * @param locations   The paths read from and written to. Paths that
+     *                    don't exist yet use their nearest parent.
+     */
+    public TransferJob startTransfer(String description, long totalBytes, Path... locations) {
+        ArrayList<Object> jobDevices = new ArrayList<>();
+        for (Path location : locations) {
+            Object device = DeviceKeys.of(location);
+            if (!jobDevices.contains(device))
+                jobDevices.add(device);
+        }
+        TransferJob job = new TransferJob(this, description, totalBytes, jobDevices,
+                defaultRateLimit);
+        transfers.add(job);
+        return job;
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    void finished(TransferJob job) {
+        transfers.remove(job);
+    }
+
+    //endregion
+
+    //region Helper Classes
+
+    /**
+     * Browsing on a device, which lasts until it's closed.
+     */
+    @FunctionalInterface
+    public interface Interaction extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * How much browsing is happening on a device.
+     */
+    private static class DeviceActivity {
+        private final AtomicInteger active = new AtomicInteger();
+        private volatile long lastEnded = System.nanoTime() - TimeUnit.DAYS.toNanos(1);
+
+        boolean isBusy(long now, long quietNanos) {
+            return active.get() > 0 || now - lastEnded < quietNanos;
+        }
+    }
+
+    //endregion
+}
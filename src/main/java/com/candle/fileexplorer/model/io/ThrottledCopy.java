@@ -0,0 +1,126 @@
+package com.candle.fileexplorer.model.io;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Copies files a chunk at a time through a {@link TransferJob}, so the copy
+ * keeps to the job's speed limit and steps aside while the user browses
+ * the same devices. Like the Commons IO copies they replace, existing files
+ * are overwritten, folders are merged, and modification times are kept.
+ */
+public final class ThrottledCopy {
+    //region Private Members
+
+    /**
+     * The bytes copied between checks with the job.
+     */
+    private static final long chunkSize = 1024 * 1024;
+
+    //endregion
+
+    //region Constructors
+
+    private ThrottledCopy() {
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Copies a file, creating the folders above the copy if needed.
+     *
+     * @throws FileNotFoundException If the source doesn't exist.
+     */
+    public static void copyFile(File source, File target, TransferJob job) throws IOException {
+        if (!source.exists())
+            throw new FileNotFoundException("Source '" + source + "' does not exist");
+        Path targetParent = target.toPath().toAbsolutePath().getParent();
+        if (targetParent != null)
+            Files.createDirectories(targetParent);
+        copyContents(source.toPath(), target.toPath(), job);
+    }
+
+    /**
+     * Copies a folder and everything inside it. If the target is inside
+     * the source, it isn't copied into itself.
+     */
+    public static void copyDirectory(File source, File target, TransferJob job) throws IOException {
+        if (!source.isDirectory())
+            throw new FileNotFoundException("Source '" + source + "' does not exist");
+
+        Path sourceRoot = source.toPath().toAbsolutePath().normalize();
+        Path targetRoot = target.toPath().toAbsolutePath().normalize();
+        // Folder times are set once their contents are written, since
+        // adding files changes them.
+        Deque<Path[]> folderTimes = new ArrayDeque<>();
+        Files.walkFileTree(sourceRoot, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
+                    throws IOException {
+                if (dir.equals(targetRoot))
+                    return FileVisitResult.SKIP_SUBTREE;
+                Path copy = targetRoot.resolve(sourceRoot.relativize(dir));
+                Files.createDirectories(copy);
+                folderTimes.push(new Path[]{dir, copy});
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Path copy = targetRoot.resolve(sourceRoot.relativize(file));
+                if (attrs.isRegularFile())
+                    copyContents(file, copy, job);
+                else
+                    Files.copy(file, copy, StandardCopyOption.REPLACE_EXISTING,
+                            LinkOption.NOFOLLOW_LINKS);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        while (!folderTimes.isEmpty()) {
+            Path[] folder = folderTimes.pop();
+            Files.setLastModifiedTime(folder[1], Files.getLastModifiedTime(folder[0]));
+        }
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    private static void copyContents(Path source, Path target, TransferJob job) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE,
+                     StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                long count = Math.min(chunkSize, size - position);
+                job.throttle(count);
+                long copied = in.transferTo(position, count, out);
+                if (copied <= 0)
+                    break;
+                position += copied;
+                job.addTransferred(copied);
+            }
+        }
+        FileTime modified = Files.getLastModifiedTime(source);
+        Files.setLastModifiedTime(target, modified);
+    }
+
+    //endregion
+}
@@ -0,0 +1,97 @@
+package com.candle.fileexplorer.model.io;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits how fast bytes are read or written. Up to a second's worth of
+ * bytes can be taken at once; after that, each caller waits until enough
+ * time has passed for the bytes it took.
+ */
+public class TokenBucket {
+    //region Private Members
+
+    /**
+     * The most bytes a second, or 0 for no limit.
+     */
+    private long bytesPerSecond;
+
+    /**
+     * The bytes that can be taken without waiting. It goes below 0 when
+     * bytes are taken ahead of time, and callers wait until it's paid back.
+     */
+    private double available;
+
+    private long lastRefill;
+
+    //endregion
+
+    //region Constructors
+
+    /**
+     * Creates a bucket that starts full.
+     *
+     * @param bytesPerSecond The most bytes a second, or 0 for no limit.
+     */
+    public TokenBucket(long bytesPerSecond) {
+        this.bytesPerSecond = Math.max(0, bytesPerSecond);
+        available = this.bytesPerSecond;
+        lastRefill = System.nanoTime();
+    }
+
+    //endregion
+
+    //region Accessors/Mutators
+
+    public synchronized long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    /**
+     * Changes the limit. Bytes already taken are paid back at the new
+     * rate.
+     *
+     * @param bytesPerSecond The most bytes a second, or 0 for no limit.
+     */
+    public synchronized void setBytesPerSecond(long bytesPerSecond) {
+        refill();
+        this.bytesPerSecond = Math.max(0, bytesPerSecond);
+        available = Math.min(available, this.bytesPerSecond);
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Takes some bytes, waiting first if they'd go over the limit.
+     *
+     * @throws InterruptedException If the thread is interrupted while
+     *                              waiting.
+     */
+    public void acquire(long bytes) throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            if (bytesPerSecond == 0)
+                return;
+            refill();
+            available -= bytes;
+            waitNanos = available >= 0 ? 0
+                    : (long) (-available * TimeUnit.SECONDS.toNanos(1) / bytesPerSecond);
+        }
+        if (waitNanos > 0)
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    private void refill() {
+        long now = System.nanoTime();
+        double earned = (now - lastRefill) * (double) bytesPerSecond / TimeUnit.SECONDS.toNanos(1);
+        available = Math.min(bytesPerSecond, available + earned);
+        lastRefill = now;
+    }
+
+    //endregion
+}
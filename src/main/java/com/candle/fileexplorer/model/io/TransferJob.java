@@ -0,0 +1,163 @@
+package com.candle.fileexplorer.model.io;
+
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A copy or move that's running, with its progress, its current speed and
+ * its own speed limit. Jobs are started by the {@link IoGovernor}, which
+ * holds them back while the user is browsing the same devices.
+ */
+public class TransferJob {
+    //region Private Members
+
+    /**
+     * How long the current speed is measured over.
+     */
+    private static final long rateWindow = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private final IoGovernor governor;
+
+    private final String description;
+
+    private final long totalBytes;
+
+    /**
+     * The devices the job reads from and writes to.
+     */
+    private final List<Object> devices;
+
+    private final TokenBucket bucket;
+
+    private final AtomicLong transferredBytes;
+
+    private long windowStart;
+
+    private long windowBytes;
+
+    private volatile double bytesPerSecond;
+
+    private volatile boolean finished;
+
+    //endregion
+
+    //region Constructors
+
+    TransferJob(IoGovernor governor, String description, long totalBytes, List<Object> devices,
+                long rateLimit) {
+        this.governor = governor;
+        this.description = description;
+        this.totalBytes = totalBytes;
+        this.devices = devices;
+        bucket = new TokenBucket(rateLimit);
+        transferredBytes = new AtomicLong();
+        windowStart = System.nanoTime();
+    }
+
+    //endregion
+
+    //region Accessors/Mutators
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Gets the size of everything the job moves, or -1 if it isn't known.
+     */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getTransferredBytes() {
+        return transferredBytes.get();
+    }
+
+    /**
+     * Gets how fast the job has moved bytes over the last half second or
+     * so.
+     */
+    public double getBytesPerSecond() {
+        sampleRate();
+        return bytesPerSecond;
+    }
+
+    /**
+     * Gets the most bytes a second the job may move, or 0 for no limit.
+     */
+    public long getRateLimit() {
+        return bucket.getBytesPerSecond();
+    }
+
+    /**
+     * Changes the most bytes a second the job may move, which takes effect
+     * straight away.
+     *
+     * @param bytesPerSecond The limit, or 0 for no limit.
+     */
+    public void setRateLimit(long bytesPerSecond) {
+        bucket.setBytesPerSecond(bytesPerSecond);
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Waits until the next bytes can be moved: until the speed limit allows
+     * it, and until the user has stopped browsing the job's devices for a
+     * moment.
+     *
+     * @throws InterruptedIOException If the thread is interrupted while
+     *                                waiting.
+     */
+    public void throttle(long bytes) throws InterruptedIOException {
+        try {
+            bucket.acquire(bytes);
+            for (Object device : devices)
+                governor.yieldToInteractive(device);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to transfer " + description);
+        }
+    }
+
+    /**
+     * Counts bytes that have been moved.
+     */
+    public void addTransferred(long bytes) {
+        transferredBytes.addAndGet(bytes);
+        sampleRate();
+    }
+
+    /**
+     * Marks the job as done, which removes it from the governor's list.
+     */
+    public void finish() {
+        finished = true;
+        governor.finished(this);
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    private synchronized void sampleRate() {
+        long now = System.nanoTime();
+        long elapsed = now - windowStart;
+        if (elapsed < rateWindow)
+            return;
+        long bytes = transferredBytes.get();
+        bytesPerSecond = (bytes - windowBytes) * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+        windowStart = now;
+        windowBytes = bytes;
+    }
+
+    //endregion
+}
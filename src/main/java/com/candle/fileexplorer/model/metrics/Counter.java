@@ -0,0 +1,62 @@
+package com.candle.fileexplorer.model.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A total that only goes up, such as the number of bytes copied.
+ * It can be added to from any thread.
+ */
+public final class Counter implements Metric {
+    //region Private Members
+
+    private final String name;
+
+    private final String help;
+
+    private final LongAdder total = new LongAdder();
+
+    //endregion
+
+    //region Constructors
+
+    Counter(String name, String help) {
+        this.name = name;
+        this.help = help;
+    }
+
+    //endregion
+
+    //region Accessors/Mutators
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getHelp() {
+        return help;
+    }
+
+    public long get() {
+        return total.sum();
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    public void increment() {
+        total.increment();
+    }
+
+    /**
+     * Adds to the total. Negative amounts are ignored.
+     */
+    public void add(long amount) {
+        if (amount > 0)
+            total.add(amount);
+    }
+
+    //endregion
+}
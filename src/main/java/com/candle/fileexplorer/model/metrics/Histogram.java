@@ -0,0 +1,163 @@
+package com.candle.fileexplorer.model.metrics;
+
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how many recorded values fell into each of a fixed set of ranges,
+ * so percentiles can be estimated without keeping the values themselves.
+ * The ranges grow by a constant factor, which keeps the estimate within
+ * that factor of the real value at any scale. Values can be recorded from
+ * any thread.
+ */
+public final class Histogram implements Metric {
+    //region Private Members
+
+    private final String name;
+
+    private final String help;
+
+    /**
+     * What the values are measured in, such as "bytes_per_second".
+     */
+    private final String unit;
+
+    /**
+     * The upper bound of each range, smallest first. Values above the last
+     * one are counted in an extra range.
+     */
+    private final double[] bounds;
+
+    private final LongAdder[] bucketCounts;
+
+    private final DoubleAdder sum = new DoubleAdder();
+
+    private final DoubleAccumulator max = new DoubleAccumulator(Math::max, 0);
+
+    //endregion
+
+    //region Constructors
+
+    /**
+     * Creates a histogram whose ranges start at a bound and grow by a factor.
+     *
+     * @param firstBound The upper bound of the smallest range.
+     * @param factor     How much larger each bound is than the one before.
+     * @param count      The number of bounds.
+     */
+    Histogram(String name, String help, String unit, double firstBound, double factor, int count) {
+        this.name = name;
+        this.help = help;
+        this.unit = unit;
+
+        bounds = new double[count];
+        double bound = firstBound;
+        for (int i = 0; i < count; i++) {
+            bounds[i] = bound;
+            bound *= factor;
+        }
+        bucketCounts = new LongAdder[count + 1];
+        for (int i = 0; i < bucketCounts.length; i++)
+            bucketCounts[i] = new LongAdder();
+    }
+
+    //endregion
+
+    //region Accessors/Mutators
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getHelp() {
+        return help;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Records a value. Negative values and NaN are ignored.
+     */
+    public void record(double value) {
+        if (!(value >= 0))
+            return;
+
+        int low = 0;
+        int high = bounds.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (bounds[middle] < value)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        bucketCounts[low].increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Gets a copy of the counts recorded so far. Values recorded while the
+     * copy is taken may be left out of some totals.
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[bucketCounts.length];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = bucketCounts[i].sum();
+            total += counts[i];
+        }
+        return new Snapshot(bounds.clone(), counts, total, sum.sum(), max.get());
+    }
+
+    //endregion
+
+    //region Helper Classes
+
+    /**
+     * The counts of a histogram at one point in time.
+     *
+     * @param bounds       The upper bound of each range but the last.
+     * @param bucketCounts The number of values in each range, with one more
+     *                     entry than there are bounds.
+     * @param count        The number of values recorded.
+     * @param sum          The sum of the values.
+     * @param max          The largest value.
+     */
+    public record Snapshot(double[] bounds, long[] bucketCounts, long count, double sum,
+                           double max) {
+        public double getMean() {
+            return count == 0 ? 0 : sum / count;
+        }
+
+        /**
+         * Estimates the value that a share of the recorded values are at or
+         * below, as the upper bound of the range it falls into.
+         *
+         * @param quantile The share, from 0 to 1.
+         */
+        public double getPercentile(double quantile) {
+            if (count == 0)
+                return 0;
+            long rank = (long) Math.ceil(quantile * count);
+            long seen = 0;
+            for (int i = 0; i < bounds.length; i++) {
+                seen += bucketCounts[i];
+                if (seen >= Math.max(1, rank))
+                    return Math.min(bounds[i], max);
+            }
+            return max;
+        }
+    }
+
+    //endregion
+}
@@ -0,0 +1,18 @@
+package com.candle.fileexplorer.model.metrics;
+
+/**
+ * Something the app measures about itself, kept in a
+ * {@link MetricsRegistry}.
+ */
+public sealed interface Metric permits Counter, Histogram, Timer {
+    /**
+     * Gets the name the metric is exported under, such as
+     * "files_sort_seconds".
+     */
+    String getName();
+
+    /**
+     * Gets a short description of what is measured.
+     */
+    String getHelp();
+}
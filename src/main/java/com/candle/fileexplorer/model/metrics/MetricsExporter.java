@@ -0,0 +1,191 @@
+package com.candle.fileexplorer.model.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Writes the metrics of a registry out as JSON, or in the text format that
+ * Prometheus scrapes.
+ */
+public class MetricsExporter {
+    //region Public Members/Properties
+
+    /**
+     * The formats metrics can be written in.
+     */
+    public enum Format {
+        Json("json"),
+        Prometheus("prom");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        /**
+         * Gets the usual file extension, without the dot.
+         */
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    //endregion
+
+    //region Constructors
+
+    private MetricsExporter() {
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Writes every metric of a registry to a file, replacing it. The file is
+     * written next to the target first, so a reader never sees half of it.
+     */
+    public static void write(MetricsRegistry registry, Format format, Path file) throws IOException {
+        String text = format == Format.Json ? toJson(registry) : toPrometheus(registry);
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(temporary, text, StandardCharsets.UTF_8);
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+    }
+
+    /**
+     * Gets every metric as a JSON document. Histograms include their mean,
+     * a few percentiles and the count in each range.
+     */
+    public static String toJson(MetricsRegistry registry) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n  \"timestamp\": \"").append(Instant.now()).append("\",\n");
+        json.append("  \"metrics\": [");
+        boolean first = true;
+        for (Metric metric : registry.getMetrics()) {
+            json.append(first ? "\n" : ",\n");
+            first = false;
+            json.append("    {\"name\": ").append(quote(metric.getName()))
+                    .append(", \"help\": ").append(quote(metric.getHelp()));
+
+            if (metric instanceof Counter counter) {
+                json.append(", \"type\": \"counter\", \"value\": ").append(counter.get()).append('}');
+                continue;
+            }
+
+            Histogram.Snapshot snapshot;
+            String unit;
+            if (metric instanceof Timer timer) {
+                json.append(", \"type\": \"timer\"");
+                snapshot = timer.snapshot();
+                unit = "seconds";
+            } else {
+                Histogram histogram = (Histogram) metric;
+                json.append(", \"type\": \"histogram\"");
+                snapshot = histogram.snapshot();
+                unit = histogram.getUnit();
+            }
+            json.append(", \"unit\": ").append(quote(unit))
+                    .append(", \"count\": ").append(snapshot.count())
+                    .append(", \"sum\": ").append(number(snapshot.sum()))
+                    .append(", \"mean\": ").append(number(snapshot.getMean()))
+                    .append(", \"p50\": ").append(number(snapshot.getPercentile(0.5)))
+                    .append(", \"p95\": ").append(number(snapshot.getPercentile(0.95)))
+                    .append(", \"p99\": ").append(number(snapshot.getPercentile(0.99)))
+                    .append(", \"max\": ").append(number(snapshot.max()))
+                    .append(", \"buckets\": [");
+            for (int i = 0; i < snapshot.bucketCounts().length; i++) {
+                if (i > 0)
+                    json.append(", ");
+                String bound = i < snapshot.bounds().length
+                        ? number(snapshot.bounds()[i]) : "\"+Inf\"";
+                json.append("{\"le\": ").append(bound)
+                        .append(", \"count\": ").append(snapshot.bucketCounts()[i]).append('}');
+            }
+            json.append("]}");
+        }
+        json.append(first ? "]\n}\n" : "\n  ]\n}\n");
+        return json.toString();
+    }
+
+    /**
+     * Gets every metric in the Prometheus text format. Timers and histograms
+     * become Prometheus histograms, whose range counts include every smaller
+     * range.
+     */
+    public static String toPrometheus(MetricsRegistry registry) {
+        StringBuilder text = new StringBuilder();
+        for (Metric metric : registry.getMetrics()) {
+            String name = metric.getName();
+            text.append("# HELP ").append(name).append(' ')
+                    .append(metric.getHelp().replace("\\", "\\\\").replace("\n", "\\n"))
+                    .append('\n');
+
+            if (metric instanceof Counter counter) {
+                text.append("# TYPE ").append(name).append(" counter\n");
+                text.append(name).append(' ').append(counter.get()).append('\n');
+                continue;
+            }
+
+            Histogram.Snapshot snapshot = metric instanceof Timer timer
+                    ? timer.snapshot() : ((Histogram) metric).snapshot();
+            text.append("# TYPE ").append(name).append(" histogram\n");
+            long cumulative = 0;
+            for (int i = 0; i < snapshot.bucketCounts().length; i++) {
+                cumulative += snapshot.bucketCounts()[i];
+                String bound = i < snapshot.bounds().length ? number(snapshot.bounds()[i]) : "+Inf";
+                text.append(name).append("_bucket{le=\"").append(bound).append("\"} ")
+                        .append(cumulative).append('\n');
+            }
+            text.append(name).append("_sum ").append(number(snapshot.sum())).append('\n');
+            text.append(name).append("_count ").append(cumulative).append('\n');
+        }
+        return text.toString();
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (c < 0x20)
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    else
+                        quoted.append(c);
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * Formats a number the same way whatever the locale.
+     */
+    private static String number(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15)
+            return Long.toString((long) value);
+        return String.format(Locale.ROOT, "%.9g", value).replaceAll("0+(e|$)", "$1")
+                .replaceAll("\\.(e|$)", "$1");
+    }
+
+    //endregion
+}
@@ -0,0 +1,96 @@
+package com.candle.fileexplorer.model.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Holds the metrics the app keeps about itself, by name. Asking for a
+ * metric that doesn't exist yet creates it, so code can keep its metrics
+ * in static fields without any setup.
+ * <pre>{@code
+ * private static final Timer sortTimer = MetricsRegistry.getDefault()
+ *         .timer("files_sort_seconds", "Time to sort a listing");
+ * }</pre>
+ */
+public class MetricsRegistry {
+    //region Private Members
+
+    private static final MetricsRegistry defaultRegistry = new MetricsRegistry();
+
+    private final ConcurrentHashMap<String, Metric> metrics = new ConcurrentHashMap<>();
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Gets the registry the app's own metrics are kept in.
+     */
+    public static MetricsRegistry getDefault() {
+        return defaultRegistry;
+    }
+
+    /**
+     * Gets a counter, creating it if needed.
+     *
+     * @throws IllegalArgumentException If the name is taken by a different
+     *                                  kind of metric.
+     */
+    public Counter counter(String name, String help) {
+        return get(name, Counter.class, () -> new Counter(name, help));
+    }
+
+    /**
+     * Gets a timer, creating it if needed.
+     *
+     * @throws IllegalArgumentException If the name is taken by a different
+     *                                  kind of metric.
+     */
+    public Timer timer(String name, String help) {
+        return get(name, Timer.class, () -> new Timer(name, help));
+    }
+
+    /**
+     * Gets a histogram, creating it if needed. Its ranges start at a bound
+     * and each one is twice as wide as the one before.
+     *
+     * @param unit       What the values are measured in, such as
+     *                   "bytes_per_second".
+     * @param firstBound The upper bound of the smallest range.
+     * @param count      The number of ranges.
+     * @throws IllegalArgumentException If the name is taken by a different
+     *                                  kind of metric.
+     */
+    public Histogram histogram(String name, String help, String unit, double firstBound,
+                               int count) {
+        return get(name, Histogram.class,
+                () -> new Histogram(name, help, unit, firstBound, 2, count));
+    }
+
+    /**
+     * Gets every metric, sorted by name.
+     */
+    public List<Metric> getMetrics() {
+        ArrayList<Metric> sorted = new ArrayList<>(metrics.values());
+        sorted.sort(Comparator.comparing(Metric::getName));
+        return sorted;
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    private <T extends Metric> T get(String name, Class<T> type,
+                                     Supplier<T> create) {
+        Metric metric = metrics.computeIfAbsent(name, key -> create.get());
+        if (!type.isInstance(metric))
+            throw new IllegalArgumentException(name + " is already a "
+                    + metric.getClass().getSimpleName());
+        return type.cast(metric);
+    }
+
+    //endregion
+}
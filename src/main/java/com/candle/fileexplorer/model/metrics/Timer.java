@@ -0,0 +1,81 @@
+package com.candle.fileexplorer.model.metrics;
+
+/**
+ * Measures how long something takes, keeping the durations in a histogram
+ * of seconds.
+ * <pre>{@code
+ * long start = timer.start();
+ * ...
+ * timer.stop(start);
+ * }</pre>
+ */
+public final class Timer implements Metric {
+    //region Private Members
+
+    /**
+     * Durations from a microsecond to about 20 minutes, each range twice as
+     * long as the one before.
+     */
+    private final Histogram durations;
+
+    //endregion
+
+    //region Constructors
+
+    Timer(String name, String help) {
+        durations = new Histogram(name, help, "seconds", 1e-6, 2, 31);
+    }
+
+    //endregion
+
+    //region Accessors/Mutators
+
+    @Override
+    public String getName() {
+        return durations.getName();
+    }
+
+    @Override
+    public String getHelp() {
+        return durations.getHelp();
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Gets the time to pass to {@link #stop} once the measured work is
+     * done.
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the time since a call to {@link #start}.
+     *
+     * @return The time taken, in nanoseconds.
+     */
+    public long stop(long start) {
+        long elapsed = System.nanoTime() - start;
+        record(elapsed);
+        return elapsed;
+    }
+
+    /**
+     * Records a duration in nanoseconds.
+     */
+    public void record(long nanos) {
+        durations.record(nanos / 1e9);
+    }
+
+    /**
+     * Gets a copy of the durations recorded so far, in seconds.
+     */
+    public Histogram.Snapshot snapshot() {
+        return durations.snapshot();
+    }
+
+    //endregion
+}
@@ -0,0 +1,45 @@
+package com.candle.fileexplorer.model.mounts;
+
+/**
+ * A single mounted file system.
+ *
+ * @param device         The device or source that's mounted, such as
+ *                       "/dev/sdb1" or "tmpfs."
+ * @param mountPoint     The folder it's mounted at.
+ * @param fileSystemType The type of file system, such as "ext4."
+ * @param options        The comma-separated mount options.
+ */
+public record MountEntry(String device, String mountPoint, String fileSystemType,
+                         String options) {
+    /**
+     * Mount points containing any of these are system partitions rather
+     * than drives the user would want to browse.
+     */
+    private static final String[] systemMountNames = {"boot", "timeshift", "shm", "pts",
+            "mqueue", "hugepages"};
+
+    /**
+     * Checks whether this mount is a drive that should be listed under
+     * "Drives," rather than a virtual or system file system.
+     */
+    public boolean isDrive() {
+        if (!device.startsWith("/dev/"))
+            return false;
+        for (String name : systemMountNames) {
+            if (mountPoint.contains(name))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the file system was mounted read-only.
+     */
+    public boolean isReadOnly() {
+        for (String option : options.split(",")) {
+            if (option.equals("ro"))
+                return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,163 @@
+package com.candle.fileexplorer.model.mounts;
+
+import com.candle.fileexplorer.model.observer.MountListener;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a parsed copy of the mount table and tells its listeners when file
+ * systems are mounted or unmounted.
+ * The mount table is polled every couple of seconds. Reading it is cheap,
+ * and it's only parsed again when its contents actually change.
+ */
+public class MountMonitor {
+    //region Private Members
+
+    /**
+     * How often the mount table is checked, in milliseconds.
+     */
+    private static final long pollMillis = 2000;
+
+    private static final MountMonitor defaultMonitor = new MountMonitor();
+
+    /**
+     * The file the mount table is read from.
+     */
+    private final Path mountInfoPath;
+
+    private final ArrayList<MountListener> listeners = new ArrayList<>();
+
+    /**
+     * The mount table as it was last read, used to tell whether it changed.
+     */
+    private byte[] lastContents;
+
+    /**
+     * The parsed mount table.
+     */
+    private List<MountEntry> mounts = List.of();
+
+    private ScheduledExecutorService timer;
+
+    //endregion
+
+    //region Constructors
+
+    /**
+     * Creates a monitor for this process's mount table.
+     */
+    public MountMonitor() {
+        this(Path.of("/proc/self/mountinfo"));
+    }
+
+    /**
+     * Creates a monitor that reads the mount table from the given file.
+     */
+    public MountMonitor(Path mountInfoPath) {
+        this.mountInfoPath = mountInfoPath;
+    }
+
+    //endregion
+
+    //region Accessors/Mutators
+
+    /**
+     * Gets the mounts as they were last read. The table is read right away
+     * the first time this is called.
+     */
+    public synchronized List<MountEntry> getMounts() {
+        if (lastContents == null)
+            poll();
+        return mounts;
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Gets the monitor shared by the whole app, for this process's mount
+     * table.
+     */
+    public static MountMonitor getDefault() {
+        return defaultMonitor;
+    }
+
+    /**
+     * Subscribes the given object to mount and unmount events. Events are
+     * fired from a background thread.
+     */
+    public synchronized void addListener(MountListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Starts checking the mount table in the background. Does nothing if
+     * the mount table can't be read, such as on other operating systems.
+     */
+    public synchronized void start() {
+        if (timer != null || !Files.isReadable(mountInfoPath))
+            return;
+
+        getMounts();
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Mount monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleWithFixedDelay(this::poll, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops checking the mount table.
+     */
+    public synchronized void stop() {
+        if (timer != null)
+            timer.shutdownNow();
+        timer = null;
+    }
+
+    /**
+     * Reads the mount table, and if it changed since it was last read,
+     * parses it and fires an event for each mount that was added or
+     * removed.
+     */
+    public synchronized void poll() {
+        byte[] contents;
+        try {
+            contents = Files.readAllBytes(mountInfoPath);
+        } catch (IOException e) {
+            return;
+        }
+        if (Arrays.equals(contents, lastContents))
+            return;
+
+        boolean firstRead = lastContents == null;
+        lastContents = contents;
+        List<MountEntry> oldMounts = mounts;
+        mounts = List.copyOf(MountTable.parse(new String(contents, StandardCharsets.UTF_8)));
+        if (firstRead)
+            return;
+
+        HashSet<MountEntry> removed = new HashSet<>(oldMounts);
+        mounts.forEach(removed::remove);
+        HashSet<MountEntry> added = new HashSet<>(mounts);
+        oldMounts.forEach(added::remove);
+
+        for (MountListener listener : listeners) {
+            for (MountEntry entry : removed)
+                listener.mountRemoved(entry);
+            for (MountEntry entry : added)
+                listener.mountAdded(entry);
+        }
+    }
+
+    //endregion
+}
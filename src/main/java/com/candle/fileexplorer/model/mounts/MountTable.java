@@ -0,0 +1,88 @@
+package com.candle.fileexplorer.model.mounts;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses the kernel's mount table, in the format of
+ * <code>/proc/self/mountinfo</code>.
+ * Each line looks like this, where the fields before the lone "-" vary in
+ * number:
+ * <pre>
+ * 36 35 98:0 /mnt1 /mnt2 rw,noatime master:1 - ext3 /dev/root rw,errors=continue
+ * </pre>
+ */
+public class MountTable {
+    //region Public Methods
+
+    /**
+     * Parses the contents of a mountinfo file. Lines that can't be parsed
+     * are skipped.
+     */
+    public static List<MountEntry> parse(String mountInfo) {
+        ArrayList<MountEntry> entries = new ArrayList<>();
+        for (String line : mountInfo.split("\n")) {
+            MountEntry entry = parseLine(line);
+            if (entry != null)
+                entries.add(entry);
+        }
+        return entries;
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    private static MountEntry parseLine(String line) {
+        String[] fields = line.trim().split(" ");
+        if (fields.length < 10)
+            return null;
+
+        // The optional fields end with a lone "-", followed by the file
+        // system type, the source and the super block options.
+        int separator = -1;
+        for (int i = 6; i < fields.length; i++) {
+            if (fields[i].equals("-")) {
+                separator = i;
+                break;
+            }
+        }
+        if (separator < 0 || separator + 2 >= fields.length)
+            return null;
+
+        return new MountEntry(unescape(fields[separator + 2]), unescape(fields[4]),
+                fields[separator + 1], fields[5]);
+    }
+
+    /**
+     * Turns the octal escapes the kernel uses for spaces, tabs, newlines
+     * and backslashes (such as "\040") back into characters.
+     */
+    private static String unescape(String field) {
+        if (field.indexOf('\\') < 0)
+            return field;
+
+        StringBuilder result = new StringBuilder(field.length());
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '\\' && i + 3 < field.length() && isOctal(field, i + 1)) {
+                result.append((char) Integer.parseInt(field.substring(i + 1, i + 4), 8));
+                i += 3;
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    private static boolean isOctal(String field, int start) {
+        for (int i = start; i < start + 3; i++) {
+            char c = field.charAt(i);
+            if (c < '0' || c > '7')
+                return false;
+        }
+        return true;
+    }
+
+    //endregion
+}
@@ -0,0 +1,148 @@
+package com.candle.fileexplorer.model.observer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers model events to listeners, combining bursts of events into a
+ * single batch.
+ * Events published before the pending batch is delivered are merged into
+ * it: items added to (or removed from) the same directory become one event,
+ * and moving to a new directory or tab drops the earlier changes to that
+ * directory, since its listing will be read again anyway. Changes to other
+ * directories are kept, as other tabs may be showing them.
+ */
+public class EventDispatcher {
+    //region Private Members
+
+    private final List<ModelEventListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Runs the delivery of a batch. Delivering straight away sends each
+     * event on its own; posting the delivery to the UI thread combines
+     * everything published within the same frame.
+     */
+    private final Consumer<Runnable> deliveryScheduler;
+
+    /**
+     * The events waiting to be delivered.
+     */
+    private final ArrayList<ModelEvent> pending = new ArrayList<>();
+
+    /**
+     * Whether a delivery has been scheduled for the pending events.
+     */
+    private boolean deliveryScheduled;
+
+    //endregion
+
+    //region Constructors
+
+    /**
+     * Creates a dispatcher that delivers every event as soon as it's
+     * published.
+     */
+    public EventDispatcher() {
+        this(Runnable::run);
+    }
+
+    /**
+     * Creates a dispatcher that uses the given scheduler to deliver batches
+     * of events, such as <code>Platform::runLater</code>.
+     */
+    public EventDispatcher(Consumer<Runnable> deliveryScheduler) {
+        this.deliveryScheduler = deliveryScheduler;
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    public void addListener(ModelEventListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Adds an event to the pending batch, scheduling the batch's delivery
+     * if it isn't already scheduled.
+     */
+    public void publish(ModelEvent event) {
+        synchronized (pending) {
+            merge(event);
+            if (deliveryScheduled)
+                return;
+            deliveryScheduled = true;
+        }
+        deliveryScheduler.accept(this::deliver);
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    /**
+     * Delivers the pending batch to every listener.
+     */
+    private void deliver() {
+        List<ModelEvent> batch;
+        synchronized (pending) {
+            batch = List.copyOf(pending);
+            pending.clear();
+            deliveryScheduled = false;
+        }
+        if (batch.isEmpty())
+            return;
+        for (ModelEventListener listener : listeners)
+            listener.modelChanged(batch);
+    }
+
+    /**
+     * Adds an event to the pending batch, combining it with the events that
+     * are already there where possible.
+     */
+    private void merge(ModelEvent event) {
+        if (event.replacesListing()) {
+            // Reading the listing again picks up these changes, and only the
+            // latest move to another directory or tab matters.
+            pending.removeIf(earlier -> earlier.replacesListing()
+                    || earlier.directory().equals(event.directory()));
+            pending.add(event);
+            return;
+        }
+        for (ModelEvent earlier : pending) {
+            // The listing will be read again, which picks this change up.
+            if (earlier.replacesListing() && earlier.directory().equals(event.directory()))
+                return;
+        }
+        if (!pending.isEmpty()) {
+            ModelEvent last = pending.get(pending.size() - 1);
+
+            if (last instanceof ModelEvent.ItemsAdded added
+                    && event instanceof ModelEvent.ItemsAdded next
+                    && added.directory().equals(next.directory())) {
+                pending.set(pending.size() - 1, new ModelEvent.ItemsAdded(added.directory(),
+                        concat(added.paths(), next.paths())));
+                return;
+            }
+            if (last instanceof ModelEvent.ItemsRemoved removed
+                    && event instanceof ModelEvent.ItemsRemoved next
+                    && removed.directory().equals(next.directory())) {
+                pending.set(pending.size() - 1, new ModelEvent.ItemsRemoved(removed.directory(),
+                        concat(removed.paths(), next.paths())));
+                return;
+            }
+        }
+        pending.add(event);
+    }
+
+    private static List<String> concat(List<String> first, List<String> second) {
+        ArrayList<String> result = new ArrayList<>(first.size() + second.size());
+        result.addAll(first);
+        result.addAll(second);
+        return List.copyOf(result);
+    }
+
+    //endregion
+}
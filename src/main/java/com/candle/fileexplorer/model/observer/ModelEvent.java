@@ -0,0 +1,70 @@
+package com.candle.fileexplorer.model.observer;
+
+import java.util.List;
+
+/**
+ * A change made to the files' data model.
+ * Listeners can use the type of event to do as little work as possible,
+ * such as adding a single item to a listing instead of reading the whole
+ * directory again.
+ */
+public sealed interface ModelEvent {
+    /**
+     * The current tab moved to a different directory.
+     *
+     * @param tabIndex  The tab that moved.
+     * @param directory The directory it moved to.
+     */
+    record DirectoryChanged(int tabIndex, String directory) implements ModelEvent {
+    }
+
+    /**
+     * A different tab became the current one.
+     *
+     * @param tabIndex  The tab that's now current.
+     * @param directory The directory that tab is showing.
+     */
+    record TabSwitched(int tabIndex, String directory) implements ModelEvent {
+    }
+
+    /**
+     * Files or folders were created, pasted or moved into a directory.
+     *
+     * @param directory The directory that holds the new items.
+     * @param paths     The absolute paths of the new items.
+     */
+    record ItemsAdded(String directory, List<String> paths) implements ModelEvent {
+    }
+
+    /**
+     * Files or folders were trashed or moved out of a directory.
+     *
+     * @param directory The directory that held the items.
+     * @param paths     The absolute paths the items had.
+     */
+    record ItemsRemoved(String directory, List<String> paths) implements ModelEvent {
+    }
+
+    /**
+     * A file or folder was renamed.
+     *
+     * @param directory The directory that holds the item.
+     * @param oldPath   The item's path before it was renamed.
+     * @param newPath   The item's path now.
+     */
+    record ItemRenamed(String directory, String oldPath, String newPath) implements ModelEvent {
+    }
+
+    /**
+     * Gets the directory whose listing the event changes.
+     */
+    String directory();
+
+    /**
+     * Checks whether this event means a listing has to be read again from
+     * scratch, rather than updated item by item.
+     */
+    default boolean replacesListing() {
+        return this instanceof DirectoryChanged || this instanceof TabSwitched;
+    }
+}
@@ -0,0 +1,17 @@
+package com.candle.fileexplorer.model.observer;
+
+import java.util.List;
+
+/**
+ * A listener interface to be implemented by classes interested in the
+ * individual changes made to the data model, rather than just being told
+ * that something changed.
+ */
+public interface ModelEventListener {
+    /**
+     * An event that fires with the changes made since it last fired, in
+     * the order they were made. Bursts of changes are combined, so a batch
+     * that moves to a new directory only holds that move.
+     */
+    void modelChanged(List<ModelEvent> events);
+}
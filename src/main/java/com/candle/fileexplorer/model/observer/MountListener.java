@@ -0,0 +1,20 @@
+package com.candle.fileexplorer.model.observer;
+
+import com.candle.fileexplorer.model.mounts.MountEntry;
+
+/**
+ * A listener interface to be implemented by classes interested in file
+ * systems being mounted or unmounted.
+ */
+public interface MountListener {
+    /**
+     * An event that fires when a file system is mounted, such as when a
+     * USB drive is plugged in.
+     */
+    void mountAdded(MountEntry entry);
+
+    /**
+     * An event that fires when a file system is unmounted.
+     */
+    void mountRemoved(MountEntry entry);
+}
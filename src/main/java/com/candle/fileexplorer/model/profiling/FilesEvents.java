@@ -0,0 +1,99 @@
+package com.candle.fileexplorer.model.profiling;
+
+import jdk.jfr.*;
+
+/**
+ * The events the app adds to Java Flight Recorder recordings, so UI stalls
+ * can be matched up with the file operations behind them. Each one is timed
+ * from {@link Event#begin} to {@link FileOperationEvent#finish}.
+ * <pre>{@code
+ * FilesEvents.DirectoryListing event = new FilesEvents.DirectoryListing();
+ * event.begin();
+ * ...
+ * event.finish(path, items.size());
+ * }</pre>
+ * While nothing is recording, JFR turns the events into no-ops, so they can
+ * stay in hot paths.
+ */
+public final class FilesEvents {
+    //region Constructors
+
+    private FilesEvents() {
+    }
+
+    //endregion
+
+    //region Helper Classes
+
+    /**
+     * The fields every event of the app carries.
+     */
+    @Category("Files")
+    @StackTrace(false)
+    public abstract static class FileOperationEvent extends Event {
+        @Label("Path")
+        @Description("The file, folder or resource the operation was on")
+        String path;
+
+        @Label("Item Count")
+        @Description("How many items the operation handled")
+        int itemCount;
+
+        /**
+         * Ends the event and adds it to the recording, unless it's too short
+         * or nothing is recording.
+         */
+        public void finish(String path, int itemCount) {
+            end();
+            if (shouldCommit()) {
+                this.path = path;
+                this.itemCount = itemCount;
+                commit();
+            }
+        }
+    }
+
+    @Name("com.candle.files.DirectoryListing")
+    @Label("Directory Listing")
+    @Description("Reading the contents of a directory")
+    public static class DirectoryListing extends FileOperationEvent {
+    }
+
+    @Name("com.candle.files.Sort")
+    @Label("Sort")
+    @Description("Sorting a listing for the grid")
+    public static class Sort extends FileOperationEvent {
+    }
+
+    @Name("com.candle.files.GridRebuild")
+    @Label("Grid Rebuild")
+    @Description("Sorting a listing and laying out the grid for it")
+    public static class GridRebuild extends FileOperationEvent {
+    }
+
+    @Name("com.candle.files.FxmlLoad")
+    @Label("FXML Load")
+    @Description("Loading a view from its FXML file")
+    public static class FxmlLoad extends FileOperationEvent {
+    }
+
+    @Name("com.candle.files.Paste")
+    @Label("Paste")
+    @Description("Copying or moving an item into a folder")
+    public static class Paste extends FileOperationEvent {
+    }
+
+    @Name("com.candle.files.Trash")
+    @Label("Trash")
+    @Description("Sending an item to the trash")
+    public static class Trash extends FileOperationEvent {
+    }
+
+    @Name("com.candle.files.Rename")
+    @Label("Rename")
+    @Description("Renaming an item")
+    public static class Rename extends FileOperationEvent {
+    }
+
+    //endregion
+}
@@ -0,0 +1,118 @@
+package com.candle.fileexplorer.model.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * The text that a content search looks for, compiled once so it can be
+ * shared between the search threads.
+ * Plain ASCII text is matched directly against the file bytes. Regular
+ * expressions, and case-insensitive text that isn't ASCII, are matched
+ * against the decoded characters instead.
+ */
+public class ContentQuery {
+    //region Private Members
+
+    /**
+     * The bytes of the literal text, lowercased when the case is ignored.
+     * Null if the query needs a regular expression.
+     */
+    private final byte[] literal;
+
+    private final boolean ignoreCase;
+
+    /**
+     * How far the literal search can skip ahead for each possible byte at
+     * the end of the current window (the Boyer-Moore-Horspool shift table).
+     */
+    private final int[] shiftTable;
+
+    /**
+     * The compiled pattern. Null if the query is a plain literal.
+     */
+    private final Pattern pattern;
+
+    //endregion
+
+    //region Constructors
+
+    /**
+     * Creates a new content query.
+     *
+     * @param text       The text or regular expression to look for.
+     * @param regex      Whether the text is a regular expression.
+     * @param ignoreCase Whether upper and lower case letters should match
+     *                   each other.
+     * @throws java.util.regex.PatternSyntaxException If the regular
+     *                                                expression is invalid.
+     */
+    public ContentQuery(String text, boolean regex, boolean ignoreCase) {
+        if (text == null || text.isEmpty())
+            throw new IllegalArgumentException("The search text is empty.");
+
+        this.ignoreCase = ignoreCase;
+        boolean ascii = StandardCharsets.US_ASCII.newEncoder().canEncode(text);
+        if (!regex && (ascii || !ignoreCase) && !text.contains("\n")) {
+            String literalText = ignoreCase ? text.toLowerCase(Locale.ROOT) : text;
+            literal = literalText.getBytes(StandardCharsets.UTF_8);
+            shiftTable = createShiftTable(literal, ignoreCase);
+            pattern = null;
+        } else {
+            int flags = Pattern.MULTILINE;
+            if (ignoreCase)
+                flags |= Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+            literal = null;
+            shiftTable = null;
+            pattern = Pattern.compile(regex ? text : Pattern.quote(text), flags);
+        }
+    }
+
+    //endregion
+
+    //region Accessors/Mutators
+
+    /**
+     * Checks to see if the query can be matched against raw bytes.
+     */
+    public boolean isLiteral() {
+        return literal != null;
+    }
+
+    byte[] getLiteral() {
+        return literal;
+    }
+
+    boolean getIgnoreCase() {
+        return ignoreCase;
+    }
+
+    int[] getShiftTable() {
+        return shiftTable;
+    }
+
+    Pattern getPattern() {
+        return pattern;
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    private static int[] createShiftTable(byte[] literal, boolean ignoreCase) {
+        int[] table = new int[256];
+        Arrays.fill(table, literal.length);
+        for (int i = 0; i < literal.length - 1; i++) {
+            int value = literal[i] & 0xff;
+            table[value] = literal.length - 1 - i;
+            // The text is compared in lowercase, so an uppercase byte in
+            // the file has to shift by the same amount.
+            if (ignoreCase && value >= 'a' && value <= 'z')
+                table[value - 32] = literal.length - 1 - i;
+        }
+        return table;
+    }
+
+    //endregion
+}
@@ -0,0 +1,437 @@
+package com.candle.fileexplorer.model.search;
+
+import com.candle.fileexplorer.model.io.DeviceExecutor;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+
+/**
+ * Searches the contents of every file in a folder tree in parallel.
+ * Files are read through memory-mapped regions instead of streams, files
+ * that look binary are skipped, and each file stops being read as soon as
+ * its first match is found.
+ */
+public class ContentSearcher {
+    //region Private Members
+
+    /**
+     * The number of bytes mapped at a time. Regions always end on a line
+     * break (unless a single line is longer than this), so a match can never
+     * be split between two regions.
+     */
+    private static final int regionSize = 8 << 20;
+
+    /**
+     * The number of bytes at the start of a file that are checked for a
+     * NUL character to decide if the file is binary.
+     */
+    private static final int binaryCheckLength = 8192;
+
+    /**
+     * The maximum number of characters of a matching line to return.
+     */
+    private static final int maxLineLength = 300;
+
+    /**
+     * Runs the search of each file.
+     */
+    private final DeviceExecutor executor;
+
+    /**
+     * The maximum number of files that each search keeps queued up for the
+     * search threads, which keeps the folder walk from running far ahead of
+     * them.
+     */
+    private final int maxQueuedFiles;
+
+    //endregion
+
+    //region Constructors
+
+    /**
+     * Creates a searcher with the given number of search threads of its own.
+     */
+    public ContentSearcher(int threadCount) {
+        this(DeviceExecutor.of(Executors.newFixedThreadPool(threadCount, runnable -> {
+            Thread thread = new Thread(runnable, "Content search");
+            thread.setDaemon(true);
+            return thread;
+        })), threadCount);
+    }
+
+    /**
+     * Creates a searcher.
+     *
+     * @param executor    Runs the search of each file.
+     * @param parallelism The number of files the executor searches at once.
+     */
+    public ContentSearcher(DeviceExecutor executor, int parallelism) {
+        this.executor = executor;
+        maxQueuedFiles = Math.max(1, parallelism) * 4;
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Searches every file under the given folder, blocking until the search
+     * finishes or is cancelled.
+     *
+     * @see #start(Path, ContentQuery, boolean, Consumer, AtomicBoolean)
+     */
+    public int search(Path root, ContentQuery query, boolean includeHidden,
+                      Consumer<SearchResult> onMatch, AtomicBoolean cancelled) {
+        return start(root, query, includeHidden, onMatch, cancelled).join();
+    }
+
+    /**
+     * Starts searching every file under the given folder in the background.
+     * The folder is walked a directory at a time by the search tasks
+     * themselves: each file that finishes queues the next one, so no task
+     * waits for another.
+     *
+     * @param root          The folder to search.
+     * @param query         The text to look for.
+     * @param includeHidden Whether hidden files/folders should be searched.
+     * @param onMatch       Called with the first match in each file. This is
+     *                      called from the search threads, possibly at the
+     *                      same time.
+     * @param cancelled     Stops the search once it's set to true.
+     * @return The search, which is completed with the number of files that
+     * were searched.
+     */
+    public CompletableFuture<Integer> start(Path root, ContentQuery query, boolean includeHidden,
+                                            Consumer<SearchResult> onMatch,
+                                            AtomicBoolean cancelled) {
+        Search search = new Search(root, query, includeHidden, onMatch, cancelled);
+        // Even the first directory is read in the background.
+        search.running++;
+        try {
+            executor.execute(root, search::finishFile);
+        } catch (RejectedExecutionException e) {
+            search.result.complete(0);
+        }
+        return search.result;
+    }
+
+    /**
+     * Finds the first line of a file that matches the query.
+     *
+     * @param file      The file to search.
+     * @param query     The text to look for.
+     * @param cancelled Stops the search between regions once it's set to
+     *                  true.
+     * @return The match, or null if there isn't one or the file is binary.
+     */
+    public SearchResult findFirstMatch(Path file, ContentQuery query,
+                                       AtomicBoolean cancelled) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            long linesBefore = 0;
+
+            while (position < size && !cancelled.get()) {
+                long length = Math.min(regionSize, size - position);
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY,
+                        position, length);
+                if (position == 0 && isBinary(region))
+                    return null;
+
+                int end = (int) length;
+                if (position + length < size) {
+                    int lastBreak = lastIndexOf(region, end, (byte) '\n');
+                    if (lastBreak >= 0)
+                        end = lastBreak + 1;
+                }
+
+                SearchResult result = query.isLiteral() ?
+                        findLiteral(file, region, end, query, linesBefore) :
+                        findPattern(file, region, end, query, linesBefore);
+                if (result != null)
+                    return result;
+
+                position += end;
+                if (position < size)
+                    linesBefore += countLineBreaks(region, end);
+            }
+        }
+        return null;
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    /**
+     * Looks for the literal bytes of the query using the
+     * Boyer-Moore-Horspool algorithm, which skips over most of the bytes
+     * that can't be part of a match.
+     */
+    private static SearchResult findLiteral(Path file, MappedByteBuffer region,
+                                            int end, ContentQuery query,
+                                            long linesBefore) {
+        byte[] literal = query.getLiteral();
+        int[] shiftTable = query.getShiftTable();
+        boolean ignoreCase = query.getIgnoreCase();
+        int last = literal.length - 1;
+
+        int offset = 0;
+        while (offset <= end - literal.length) {
+            int i = last;
+            while (i >= 0 && toComparable(region.get(offset + i), ignoreCase) == literal[i])
+                i--;
+            if (i < 0)
+                return createResult(file, region, end, offset, linesBefore);
+            offset += shiftTable[region.get(offset + last) & 0xff];
+        }
+        return null;
+    }
+
+    /**
+     * Decodes the region and runs the query's regular expression over it.
+     */
+    private static SearchResult findPattern(Path file, MappedByteBuffer region,
+                                            int end, ContentQuery query,
+                                            long linesBefore) throws IOException {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer text = decoder.decode(region.duplicate().limit(end));
+
+        Matcher matcher = query.getPattern().matcher(text);
+        if (!matcher.find())
+            return null;
+
+        int start = matcher.start();
+        long lineNumber = linesBefore + 1;
+        int lineStart = 0;
+        for (int i = 0; i < start; i++) {
+            if (text.get(i) == '\n') {
+                lineNumber++;
+                lineStart = i + 1;
+            }
+        }
+        int lineEnd = lineStart;
+        while (lineEnd < text.limit() && text.get(lineEnd) != '\n')
+            lineEnd++;
+
+        String line = text.subSequence(lineStart,
+                Math.min(lineEnd, lineStart + maxLineLength)).toString();
+        return new SearchResult(file.toString(), lineNumber, line.strip());
+    }
+
+    /**
+     * Creates a result for a literal match at the given byte offset.
+     */
+    private static SearchResult createResult(Path file, MappedByteBuffer region,
+                                             int end, int offset, long linesBefore) {
+        long lineNumber = linesBefore + countLineBreaks(region, offset) + 1;
+        int lineStart = lastIndexOf(region, offset, (byte) '\n') + 1;
+        int lineEnd = offset;
+        while (lineEnd < end && region.get(lineEnd) != '\n')
+            lineEnd++;
+
+        byte[] bytes = new byte[Math.min(lineEnd - lineStart, maxLineLength)];
+        region.get(lineStart, bytes);
+        String line = new String(bytes, StandardCharsets.UTF_8);
+        return new SearchResult(file.toString(), lineNumber, line.strip());
+    }
+
+    private static byte toComparable(byte value, boolean ignoreCase) {
+        if (ignoreCase && value >= 'A' && value <= 'Z')
+            return (byte) (value + 32);
+        return value;
+    }
+
+    /**
+     * Checks the start of the file for a NUL character, which text files
+     * never contain.
+     */
+    private static boolean isBinary(MappedByteBuffer region) {
+        int length = Math.min(binaryCheckLength, region.limit());
+        for (int i = 0; i < length; i++) {
+            if (region.get(i) == 0)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the index of the last occurrence of a byte before the given end
+     * index, or -1 if it isn't found.
+     */
+    private static int lastIndexOf(MappedByteBuffer region, int end, byte value) {
+        for (int i = end - 1; i >= 0; i--) {
+            if (region.get(i) == value)
+                return i;
+        }
+        return -1;
+    }
+
+    private static long countLineBreaks(MappedByteBuffer region, int end) {
+        long count = 0;
+        for (int i = 0; i < end; i++) {
+            if (region.get(i) == '\n')
+                count++;
+        }
+        return count;
+    }
+
+    private static boolean isHidden(Path path) {
+        try {
+            return Files.isHidden(path);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    //endregion
+
+    //region Helper Classes
+
+    /**
+     * A search that's running. It keeps up to {@link #maxQueuedFiles} files
+     * queued on the executor, reading the next directory whenever it runs
+     * out of files.
+     */
+    private class Search {
+        private final Path root;
+        private final ContentQuery query;
+        private final boolean includeHidden;
+        private final Consumer<SearchResult> onMatch;
+        private final AtomicBoolean cancelled;
+
+        /**
+         * The directories that haven't been read yet, used as a stack so the
+         * tree is walked depth first.
+         */
+        private final ArrayDeque<Path> directories = new ArrayDeque<>();
+
+        /**
+         * The files from the directories read so far that haven't been
+         * queued yet.
+         */
+        private final ArrayDeque<Path> files = new ArrayDeque<>();
+
+        private final AtomicInteger searchedFiles = new AtomicInteger();
+
+        private final CompletableFuture<Integer> result = new CompletableFuture<>();
+
+        /**
+         * The number of tasks that are queued or running.
+         */
+        private int running;
+
+        Search(Path root, ContentQuery query, boolean includeHidden,
+               Consumer<SearchResult> onMatch, AtomicBoolean cancelled) {
+            this.root = root;
+            this.query = query;
+            this.includeHidden = includeHidden;
+            this.onMatch = onMatch;
+            this.cancelled = cancelled;
+            directories.push(root);
+        }
+
+        private void searchFile(Path file) {
+            try {
+                if (cancelled.get())
+                    return;
+                searchedFiles.incrementAndGet();
+                SearchResult match = findFirstMatch(file, query, cancelled);
+                if (match != null)
+                    onMatch.accept(match);
+            } catch (IOException e) {
+                // Unreadable files are skipped.
+            } finally {
+                finishFile();
+            }
+        }
+
+        /**
+         * Gives up a finished task's place in the queue and fills the queue
+         * up again, completing the search once nothing is left.
+         */
+        private synchronized void finishFile() {
+            running--;
+            Path file;
+            while (running < maxQueuedFiles && (file = nextFile()) != null) {
+                Path queued = file;
+                running++;
+                try {
+                    executor.execute(queued, () -> searchFile(queued));
+                } catch (RejectedExecutionException e) {
+                    running--;
+                    directories.clear();
+                    files.clear();
+                    break;
+                }
+            }
+            if (running == 0)
+                result.complete(searchedFiles.get());
+        }
+
+        /**
+         * Gets the next file to search, reading directories until one turns
+         * up.
+         *
+         * @return The file, or null if the walk is finished or cancelled.
+         */
+        private Path nextFile() {
+            while (!cancelled.get()) {
+                Path file = files.poll();
+                if (file != null)
+                    return file;
+                Path directory = directories.poll();
+                if (directory == null)
+                    return null;
+                readDirectory(directory);
+            }
+            return null;
+        }
+
+        private void readDirectory(Path directory) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for (Path child : stream) {
+                    // Symbolic links aren't followed, as in a file tree walk.
+                    BasicFileAttributes attributes;
+                    try {
+                        attributes = Files.readAttributes(child,
+                                BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (IOException e) {
+                        continue;
+                    }
+                    if (!includeHidden && isHidden(child))
+                        continue;
+                    if (attributes.isDirectory())
+                        directories.push(child);
+                    else if (attributes.isRegularFile() && attributes.size() > 0)
+                        files.add(child);
+                }
+            } catch (NotDirectoryException e) {
+                // A single file was given to search.
+                if (directory.equals(root) && Files.isRegularFile(directory))
+                    files.add(directory);
+            } catch (IOException | DirectoryIteratorException e) {
+                // Unreadable folders are skipped.
+            }
+        }
+    }
+
+    //endregion
+}
@@ -0,0 +1,197 @@
+package com.candle.fileexplorer.model.search;
+
+import java.util.*;
+
+/**
+ * An in-memory prefix trie of directory names, used to complete paths as
+ * they're typed.
+ * Each node is one segment of a path, and its children are kept sorted
+ * ignoring case, so every name starting with a prefix sits in a single
+ * range of the map. Only the most recently listed directories keep their
+ * children, which bounds the memory used on deep trees.
+ */
+public class DirectoryTrie {
+    //region Private Members
+
+    /**
+     * The node for the top of the file system. Its children are "/" on
+     * Linux and the drive letters on Windows.
+     */
+    private final Node root;
+
+    /**
+     * The directories whose children are known, in least recently used
+     * order.
+     */
+    private final LinkedHashMap<String, Node> listedDirectories;
+
+    //endregion
+
+    //region Constructors
+
+    /**
+     * Creates a trie that remembers the 2000 most recently listed
+     * directories.
+     */
+    public DirectoryTrie() {
+        this(2000);
+    }
+
+    /**
+     * Creates a trie that remembers the given number of listed directories.
+     */
+    public DirectoryTrie(int maxListedDirectories) {
+        root = new Node();
+        listedDirectories = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Node> eldest) {
+                if (size() <= maxListedDirectories)
+                    return false;
+                eldest.getValue().forgetChildren();
+                return true;
+            }
+        };
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Records the sub-folders of a directory, replacing anything that was
+     * recorded for it before.
+     *
+     * @param directory      The absolute path to the directory.
+     * @param subDirectories The names of the folders inside it.
+     */
+    public synchronized void putListing(String directory,
+                                        Collection<String> subDirectories) {
+        Node node = getNode(directory, true);
+        node.children.keySet().retainAll(new HashSet<>(subDirectories));
+        for (String name : subDirectories)
+            node.children.computeIfAbsent(name, k -> new Node());
+        node.listed = true;
+        listedDirectories.put(normalize(directory), node);
+    }
+
+    /**
+     * Checks to see if the children of a directory are known.
+     */
+    public synchronized boolean isListed(String directory) {
+        Node node = getNode(directory, false);
+        return node != null && node.listed;
+    }
+
+    /**
+     * Gets the names of the sub-folders of a directory that start with the
+     * given prefix, ignoring case.
+     *
+     * @param directory The absolute path to the directory.
+     * @param prefix    The start of the name that was typed.
+     * @param limit     The maximum number of names to return.
+     * @return The matching names in alphabetical order, or null if the
+     * directory hasn't been listed recently.
+     */
+    public synchronized List<String> complete(String directory, String prefix,
+                                              int limit) {
+        Node node = getNode(directory, false);
+        if (node == null || !node.listed)
+            return null;
+        // Looking the entry up marks it as recently used.
+        listedDirectories.get(normalize(directory));
+
+        // Upper case sorts first among names that only differ by case, so
+        // the range starts at the upper case prefix and ends at the first
+        // name that doesn't match.
+        ArrayList<String> result = new ArrayList<>();
+        String start = prefix.toUpperCase(Locale.ROOT);
+        for (String name : node.children.tailMap(start).keySet()) {
+            if (result.size() >= limit
+                    || !name.regionMatches(true, 0, prefix, 0, prefix.length()))
+                break;
+            result.add(name);
+        }
+        return result;
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    /**
+     * Walks down the trie to the node for the given path.
+     *
+     * @param create Whether missing nodes should be added along the way.
+     * @return The node, or null if it's missing and create is false.
+     */
+    private Node getNode(String path, boolean create) {
+        Node node = root;
+        for (String segment : getSegments(path)) {
+            Node child = node.children.get(segment);
+            if (child == null) {
+                if (!create)
+                    return null;
+                child = new Node();
+                node.children.put(segment, child);
+            }
+            node = child;
+        }
+        return node;
+    }
+
+    /**
+     * Splits a path into its segments. The Linux root is kept as a "/"
+     * segment so it has a node of its own.
+     */
+    private static List<String> getSegments(String path) {
+        ArrayList<String> segments = new ArrayList<>();
+        String normalized = normalize(path);
+        if (normalized.startsWith("/"))
+            segments.add("/");
+        for (String segment : normalized.split("/")) {
+            if (!segment.isEmpty())
+                segments.add(segment);
+        }
+        return segments;
+    }
+
+    /**
+     * Removes trailing separators, so "/home/user/" and "/home/user" share
+     * a cache entry.
+     */
+    private static String normalize(String path) {
+        String result = path.replace("\\", "/");
+        while (result.length() > 1 && result.endsWith("/"))
+            result = result.substring(0, result.length() - 1);
+        return result;
+    }
+
+    //endregion
+
+    //region Helper Classes
+
+    private static class Node {
+        /**
+         * The sub-folders of this node, sorted ignoring case. Names that
+         * only differ by case are still kept apart.
+         */
+        private final TreeMap<String, Node> children =
+                new TreeMap<>(String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder()));
+
+        /**
+         * Whether the children are a complete listing of the directory.
+         */
+        private boolean listed;
+
+        /**
+         * Drops the children that aren't needed to reach another listed
+         * directory, once this directory is no longer recent.
+         */
+        void forgetChildren() {
+            listed = false;
+            children.values().removeIf(child -> !child.listed && child.children.isEmpty());
+        }
+    }
+
+    //endregion
+}
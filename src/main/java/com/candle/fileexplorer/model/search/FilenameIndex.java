@@ -0,0 +1,578 @@
+package com.candle.fileexplorer.model.search;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * An in-memory trigram index of file names that can be saved to and loaded
+ * from disk.
+ * Every indexed path is given an integer id, and every three-character
+ * sequence in a (lowercase) file name points to the ids of the names that
+ * contain it. A substring query only has to intersect a few of these lists
+ * instead of walking the disk.
+ * The ids of removed paths are given to the next paths added, and the
+ * tables are packed again once most of their ids are unused, so an index
+ * that's kept up to date for a long time doesn't keep growing.
+ * All public methods are synchronized, so the index can be updated by a
+ * background indexer while the UI searches it.
+ */
+public class FilenameIndex {
+    //region Private Members
+
+    /**
+     * The value written at the start of every index file.
+     */
+    private static final int fileMagic = 0x46494458;
+
+    /**
+     * The version of the index file format.
+     */
+    private static final int fileVersion = 1;
+
+    /**
+     * The smallest table that's packed once most of its ids are unused.
+     * Smaller ones are left alone, since packing would gain little.
+     */
+    private static final int minCompactSize = 1024;
+
+    /**
+     * The absolute path for each id. Removed entries are set to null until
+     * their id is used again.
+     */
+    private final ArrayList<String> paths;
+
+    /**
+     * The lowercase file name for each id, used to verify trigram matches.
+     */
+    private final ArrayList<String> lowerNames;
+
+    /**
+     * A lookup table from absolute paths to ids.
+     */
+    private final HashMap<String, Integer> ids;
+
+    /**
+     * The ids of removed paths, which are used again before new ones.
+     */
+    private final IdList freeIds;
+
+    /**
+     * The ids of the names that contain each trigram, in ascending order.
+     */
+    private final HashMap<Long, IdList> trigrams;
+
+    /**
+     * The names of the indexed children of each directory.
+     */
+    private final HashMap<String, HashSet<String>> children;
+
+    /**
+     * The last modified time of each directory when its children were
+     * indexed.
+     */
+    private final HashMap<String, Long> directoryTimes;
+
+    //endregion
+
+    //region Constructors
+
+    public FilenameIndex() {
+        paths = new ArrayList<>();
+        lowerNames = new ArrayList<>();
+        ids = new HashMap<>();
+        freeIds = new IdList();
+        trigrams = new HashMap<>();
+        children = new HashMap<>();
+        directoryTimes = new HashMap<>();
+    }
+
+    //endregion
+
+    //region Accessors/Mutators
+
+    /**
+     * Gets the number of paths currently in the index.
+     */
+    public synchronized int size() {
+        return ids.size();
+    }
+
+    /**
+     * Gets the number of ids the tables have room for, used or not.
+     */
+    synchronized int getIdCapacity() {
+        return paths.size();
+    }
+
+    /**
+     * Gets the last modified time that was recorded when the children of
+     * the given directory were indexed.
+     *
+     * @return The time, or -1 if the directory has not been indexed.
+     */
+    public synchronized long getDirectoryTime(String directory) {
+        Long time = directoryTimes.get(directory);
+        return (time == null) ? -1 : time;
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Checks to see if the given path is in the index.
+     */
+    public synchronized boolean contains(String path) {
+        return ids.containsKey(path);
+    }
+
+    /**
+     * Adds a single path to the index. Does nothing if it's already there.
+     *
+     * @param path The absolute path to the file/folder.
+     */
+    public synchronized void add(String path) {
+        if (ids.containsKey(path))
+            return;
+
+        assignId(path);
+        String parent = getParent(path);
+        if (parent != null)
+            children.computeIfAbsent(parent, k -> new HashSet<>()).add(getName(path));
+    }
+
+    /**
+     * Removes a path from the index, along with everything that was indexed
+     * underneath it.
+     *
+     * @param path The absolute path to the file/folder.
+     */
+    public synchronized void remove(String path) {
+        removeTree(path);
+        if (paths.size() >= minCompactSize && freeIds.size() > paths.size() / 2)
+            compact();
+    }
+
+    /**
+     * Replaces the indexed children of a directory with the given names,
+     * removing any that disappeared and adding any that are new.
+     * Sub-folders that haven't been indexed before are remembered with a
+     * modification time of 0, so the next pass knows to list them.
+     *
+     * @param directory      The absolute path to the directory.
+     * @param names          The names of the items currently in the
+     *                       directory.
+     * @param subDirectories The names of the items that are folders.
+     * @param modifiedTime   The directory's last modified time when it was
+     *                       listed.
+     */
+    public synchronized void updateDirectory(String directory,
+                                             Collection<String> names,
+                                             Collection<String> subDirectories,
+                                             long modifiedTime) {
+        HashSet<String> current = new HashSet<>(names);
+        HashSet<String> existing = children.get(directory);
+        if (existing != null) {
+            for (String name : new ArrayList<>(existing)) {
+                if (!current.contains(name))
+                    remove(joinPath(directory, name));
+            }
+        }
+        for (String name : current)
+            add(joinPath(directory, name));
+
+        for (String name : subDirectories)
+            directoryTimes.putIfAbsent(joinPath(directory, name), 0L);
+
+        directoryTimes.put(directory, modifiedTime);
+    }
+
+    /**
+     * Gets the names of the indexed children of a directory that are
+     * folders themselves.
+     */
+    public synchronized List<String> getSubDirectories(String directory) {
+        ArrayList<String> result = new ArrayList<>();
+        HashSet<String> names = children.get(directory);
+        if (names == null)
+            return result;
+
+        for (String name : names) {
+            if (directoryTimes.containsKey(joinPath(directory, name)))
+                result.add(name);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the paths whose file name contains the given text, ignoring case.
+     *
+     * @param query The text to look for.
+     * @param limit The maximum number of results to return.
+     * @return A list of absolute paths, in the order of their ids.
+     */
+    public synchronized List<String> search(String query, int limit) {
+        ArrayList<String> results = new ArrayList<>();
+        if (query == null || query.isEmpty() || limit <= 0)
+            return results;
+
+        String lowerQuery = query.toLowerCase(Locale.ROOT);
+        long[] queryTrigrams = getTrigrams(lowerQuery);
+
+        // Short queries don't have any trigrams, so every name gets checked.
+        if (queryTrigrams.length == 0) {
+            for (int id = 0; id < lowerNames.size() && results.size() < limit; id++) {
+                String name = lowerNames.get(id);
+                if (name != null && name.contains(lowerQuery))
+                    results.add(paths.get(id));
+            }
+            return results;
+        }
+
+        // Intersect the candidate lists, starting with the smallest one.
+        IdList[] lists = new IdList[queryTrigrams.length];
+        for (int i = 0; i < queryTrigrams.length; i++) {
+            lists[i] = trigrams.get(queryTrigrams[i]);
+            if (lists[i] == null)
+                return results;
+        }
+        Arrays.sort(lists, Comparator.comparingInt(IdList::size));
+
+        IdList candidates = lists[0];
+        for (int i = 1; i < lists.length && !candidates.isEmpty(); i++)
+            candidates = candidates.intersect(lists[i]);
+
+        for (int i = 0; i < candidates.size() && results.size() < limit; i++) {
+            int id = candidates.get(i);
+            String name = lowerNames.get(id);
+            // The trigrams only narrow things down; the order of the
+            // characters still needs to be checked.
+            if (name != null && name.contains(lowerQuery))
+                results.add(paths.get(id));
+        }
+        return results;
+    }
+
+    /**
+     * Writes the index to the given file. The file is replaced atomically,
+     * so a crash while saving never leaves a half-written index behind.
+     *
+     * @param file The location of the index file.
+     */
+    public synchronized void save(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null)
+            Files.createDirectories(parent);
+
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream fileStream = Files.newOutputStream(tempFile);
+             DataOutputStream output =
+                     new DataOutputStream(new BufferedOutputStream(fileStream, 1 << 16))) {
+            output.writeInt(fileMagic);
+            output.writeInt(fileVersion);
+
+            output.writeInt(ids.size());
+            for (String path : paths) {
+                if (path != null)
+                    writeString(output, path);
+            }
+
+            output.writeInt(directoryTimes.size());
+            for (Map.Entry<String, Long> entry : directoryTimes.entrySet()) {
+                writeString(output, entry.getKey());
+                output.writeLong(entry.getValue());
+            }
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads an index that was written by {@link #save(Path)}. The file is
+     * memory-mapped, so large indices don't have to be copied through a
+     * stream buffer.
+     *
+     * @param file The location of the index file.
+     * @return The loaded index.
+     * @throws IOException If the file could not be read or is not a valid
+     *                     index.
+     */
+    public static FilenameIndex load(Path file) throws IOException {
+        FilenameIndex index = new FilenameIndex();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                    0, channel.size());
+            try {
+                if (buffer.getInt() != fileMagic || buffer.getInt() != fileVersion)
+                    throw new IOException("Unrecognized index file: " + file);
+
+                int pathCount = buffer.getInt();
+                for (int i = 0; i < pathCount; i++)
+                    index.add(readString(buffer));
+
+                int directoryCount = buffer.getInt();
+                for (int i = 0; i < directoryCount; i++) {
+                    String directory = readString(buffer);
+                    index.directoryTimes.put(directory, buffer.getLong());
+                }
+            } catch (RuntimeException e) {
+                // A truncated file shows up as a buffer underflow.
+                throw new IOException("Corrupt index file: " + file, e);
+            }
+        }
+        return index;
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    /**
+     * Gives a path an id, reusing the id of a removed path if there is one,
+     * and adds the id to the lists of its name's trigrams.
+     */
+    private void assignId(String path) {
+        String lowerName = getName(path).toLowerCase(Locale.ROOT);
+        int id;
+        if (freeIds.isEmpty()) {
+            id = paths.size();
+            paths.add(path);
+            lowerNames.add(lowerName);
+        } else {
+            id = freeIds.removeLast();
+            paths.set(id, path);
+            lowerNames.set(id, lowerName);
+        }
+        ids.put(path, id);
+
+        for (long trigram : getTrigrams(lowerName))
+            trigrams.computeIfAbsent(trigram, k -> new IdList()).insert(id);
+    }
+
+    /**
+     * Removes a path and everything underneath it, freeing their ids.
+     */
+    private void removeTree(String path) {
+        HashSet<String> subItems = children.remove(path);
+        if (subItems != null) {
+            for (String name : subItems)
+                removeTree(joinPath(path, name));
+        }
+        directoryTimes.remove(path);
+
+        Integer id = ids.remove(path);
+        if (id == null)
+            return;
+
+        for (long trigram : getTrigrams(lowerNames.get(id))) {
+            IdList list = trigrams.get(trigram);
+            if (list != null) {
+                list.delete(id);
+                if (list.isEmpty())
+                    trigrams.remove(trigram);
+            }
+        }
+        paths.set(id, null);
+        lowerNames.set(id, null);
+        freeIds.add(id);
+
+        String parent = getParent(path);
+        if (parent != null) {
+            HashSet<String> siblings = children.get(parent);
+            if (siblings != null)
+                siblings.remove(getName(path));
+        }
+    }
+
+    /**
+     * Numbers the paths again without gaps, so the tables shrink after a
+     * large part of the index was removed.
+     */
+    private void compact() {
+        ArrayList<String> livePaths = new ArrayList<>(ids.size());
+        for (String path : paths) {
+            if (path != null)
+                livePaths.add(path);
+        }
+
+        paths.clear();
+        lowerNames.clear();
+        ids.clear();
+        freeIds.clear();
+        trigrams.clear();
+        for (String path : livePaths)
+            assignId(path);
+        paths.trimToSize();
+        lowerNames.trimToSize();
+    }
+
+    /**
+     * Gets the position of the last separator in a path. Both the
+     * platform's separator and '/' are accepted, since the drive roots
+     * are given with either.
+     */
+    private static int lastSeparator(String path) {
+        return Math.max(path.lastIndexOf('/'), path.lastIndexOf(File.separatorChar));
+    }
+
+    /**
+     * Gets the last name in the path's name sequence.
+     */
+    private static String getName(String path) {
+        int separator = lastSeparator(path);
+        if (separator == -1 || separator == path.length() - 1)
+            return path;
+        return path.substring(separator + 1);
+    }
+
+    /**
+     * Gets everything before the last name in the path's name sequence.
+     *
+     * @return The parent path, or null if there isn't one.
+     */
+    private static String getParent(String path) {
+        int separator = lastSeparator(path);
+        if (separator == -1 || separator == path.length() - 1)
+            return null;
+        // Keep the separator for roots such as "/" and "C:\".
+        if (separator == 0 || path.charAt(separator - 1) == ':')
+            return path.substring(0, separator + 1);
+        return path.substring(0, separator);
+    }
+
+    /**
+     * Joins a directory path and a child name with a single separator.
+     */
+    static String joinPath(String directory, String name) {
+        return lastSeparator(directory) == directory.length() - 1 ? directory + name :
+                directory + File.separator + name;
+    }
+
+    /**
+     * Packs every distinct three-character sequence in the text into a long.
+     */
+    private static long[] getTrigrams(String text) {
+        if (text.length() < 3)
+            return new long[0];
+
+        long[] result = new long[text.length() - 2];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ((long) text.charAt(i) << 32)
+                    | ((long) text.charAt(i + 1) << 16)
+                    | text.charAt(i + 2);
+        }
+        return Arrays.stream(result).distinct().toArray();
+    }
+
+    private static void writeString(DataOutputStream output, String value)
+            throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(MappedByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    //endregion
+
+    //region Helper Classes
+
+    /**
+     * A growable list of primitive ids. The trigram lists are kept in
+     * ascending order.
+     */
+    private static class IdList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length)
+                values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        /**
+         * Adds an id in its place in the order, unless it's already there.
+         */
+        void insert(int value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index >= 0)
+                return;
+            index = -index - 1;
+            if (size == values.length)
+                values = Arrays.copyOf(values, size * 2);
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = value;
+            size++;
+        }
+
+        /**
+         * Removes an id from the list, if it's there.
+         */
+        void delete(int value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index < 0)
+                return;
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+        }
+
+        int removeLast() {
+            return values[--size];
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * Returns the ids that are in both lists.
+         */
+        IdList intersect(IdList other) {
+            IdList result = new IdList();
+            int i = 0;
+            int j = 0;
+            while (i < size && j < other.size) {
+                if (values[i] == other.values[j]) {
+                    result.add(values[i]);
+                    i++;
+                    j++;
+                } else if (values[i] < other.values[j]) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            return result;
+        }
+    }
+
+    //endregion
+}
@@ -0,0 +1,689 @@
+package com.candle.fileexplorer.model.search;
+
+import com.candle.fileexplorer.model.data.FileItem;
+import com.candle.fileexplorer.model.helpers.DirectoryStructure;
+import com.candle.fileexplorer.model.helpers.FileOperations;
+import com.candle.fileexplorer.model.io.DeviceKeys;
+import com.candle.fileexplorer.model.io.IoGovernor;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Builds and maintains a persistent {@link FilenameIndex} for the drives on
+ * the computer in the background.
+ * The first pass lists every directory. Later passes only compare directory
+ * modification times and re-list the directories that changed, and watch
+ * events from the most recently listed directories re-list just those
+ * directories between passes, along with any folders created in them.
+ * The passes run one at a time on an executor that's shared with other
+ * background work, and wait between runs without holding a thread. Before
+ * listing a directory, a pass waits while its device is being browsed.
+ */
+public class FilenameIndexer {
+    //region Private Members
+
+    /**
+     * Virtual file systems that should never be indexed.
+     */
+    private static final String[] excludedDirectories = {"/proc", "/sys",
+            "/dev", "/run"};
+
+    /**
+     * How long watch events are collected before they're handled together,
+     * in milliseconds, so a burst of changes re-lists each folder once.
+     */
+    private static final long watchDelayMillis = 500;
+
+    /**
+     * The location of the saved index.
+     */
+    private final Path indexFile;
+
+    /**
+     * Supplies the directories that the index should cover.
+     */
+    private final Supplier<List<String>> rootSupplier;
+
+    /**
+     * The number of minutes to wait between reconciliation passes.
+     */
+    private final long reconcileIntervalMinutes;
+
+    /**
+     * The maximum number of directories to register with the watch service,
+     * which keeps the indexer within the operating system's watch limits.
+     */
+    private final int maxWatchedDirectories;
+
+    /**
+     * The directory that each registered watch key belongs to.
+     */
+    private final Map<WatchKey, String> watchedDirectories;
+
+    /**
+     * The registered directories, kept beside the keys so checking whether
+     * a directory is watched doesn't search every key.
+     */
+    private final Set<String> watchedPaths;
+
+    /**
+     * The watched directories that reported changes since they were last
+     * handled. A pass for them is scheduled when the first one is added.
+     */
+    private final LinkedHashSet<String> changedDirectories = new LinkedHashSet<>();
+
+    /**
+     * The items created in the changed directories, which are indexed with
+     * everything under them if they're folders.
+     */
+    private final LinkedHashSet<String> createdItems = new LinkedHashSet<>();
+
+    /**
+     * The index that is being maintained.
+     */
+    private volatile FilenameIndex index;
+
+    /**
+     * Runs the passes that modify the index.
+     */
+    private final Executor executor;
+
+    /**
+     * The passes waiting to run. They're handed to the executor one at a
+     * time, so updates to the index never overlap.
+     */
+    private final ArrayDeque<Runnable> pendingPasses = new ArrayDeque<>();
+
+    /**
+     * Whether a pass has been handed to the executor and hasn't finished.
+     */
+    private boolean passRunning;
+
+    /**
+     * Incremented whenever the indexer stops, so passes that were queued or
+     * waiting for their next run before then are dropped.
+     */
+    private volatile int session;
+
+    /**
+     * Set while the indexer stops, which ends the running pass early.
+     */
+    private volatile boolean stopping;
+
+    private WatchService watchService;
+
+    private volatile boolean running;
+
+    /**
+     * Whether the index has been loaded from disk or built at least once.
+     */
+    private volatile boolean ready;
+
+    //endregion
+
+    //region Constructors
+
+    /**
+     * Creates an indexer for the drives returned by
+     * {@link DirectoryStructure#getDrives()}, saved in the application's
+     * cache folder.
+     *
+     * @param executor Runs the passes that modify the index.
+     */
+    public FilenameIndexer(Executor executor) {
+        this(Path.of(FileOperations.getCacheDirectory(), "filenames.index"),
+                FilenameIndexer::getDriveRoots, 30, 4096, executor);
+    }
+
+    /**
+     * Creates an indexer with the specified settings, which runs its passes
+     * on a thread of its own.
+     *
+     * @param indexFile                The location of the saved index.
+     * @param rootSupplier             Supplies the directories to index.
+     * @param reconcileIntervalMinutes The number of minutes between
+     *                                 reconciliation passes.
+     * @param maxWatchedDirectories    The maximum number of directories to
+     *                                 watch for changes.
+     */
+    public FilenameIndexer(Path indexFile, Supplier<List<String>> rootSupplier,
+                           long reconcileIntervalMinutes,
+                           int maxWatchedDirectories) {
+        this(indexFile, rootSupplier, reconcileIntervalMinutes, maxWatchedDirectories,
+                Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "Filename indexer");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }));
+    }
+
+    /**
+     * Creates an indexer with the specified settings.
+     *
+     * @param indexFile                The location of the saved index.
+     * @param rootSupplier             Supplies the directories to index.
+     * @param reconcileIntervalMinutes The number of minutes between
+     *                                 reconciliation passes.
+     * @param maxWatchedDirectories    The maximum number of directories to
+     *                                 watch for changes.
+     * @param executor                 Runs the passes that modify the index.
+     */
+    public FilenameIndexer(Path indexFile, Supplier<List<String>> rootSupplier,
+                           long reconcileIntervalMinutes,
+                           int maxWatchedDirectories, Executor executor) {
+        this.indexFile = indexFile;
+        this.rootSupplier = rootSupplier;
+        this.reconcileIntervalMinutes = reconcileIntervalMinutes;
+        this.maxWatchedDirectories = maxWatchedDirectories;
+        this.executor = executor;
+        watchedDirectories = Collections.synchronizedMap(new HashMap<>());
+        watchedPaths = Collections.synchronizedSet(new HashSet<>());
+        index = new FilenameIndex();
+    }
+
+    //endregion
+
+    //region Accessors/Mutators
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Checks to see if the index can answer queries yet.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Checks to see if an index was saved by a previous session.
+     */
+    public boolean hasSavedIndex() {
+        return Files.exists(indexFile);
+    }
+
+    /**
+     * Gets the number of paths that are currently indexed.
+     */
+    public int getIndexedCount() {
+        return index.size();
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Loads the saved index (if there is one) and starts keeping it up to
+     * date in the background.
+     */
+    public synchronized void start() {
+        if (running)
+            return;
+        running = true;
+
+        // A pass from before a stop may still be running, and it stops as
+        // long as the flag stays set, so it's only cleared once that pass
+        // is done.
+        schedulePass(() -> stopping = false);
+        schedulePass(this::loadSavedIndex);
+        schedulePass(this::reconcileAndSave);
+        startWatching();
+    }
+
+    /**
+     * Stops updating the index and saves its current state.
+     */
+    public synchronized void stop() {
+        if (!running)
+            return;
+        cancelPasses();
+        if (ready)
+            saveIndex();
+    }
+
+    /**
+     * Stops the indexer and removes the saved index from the disk, without
+     * saving it first. This doesn't wait for the running pass, so it can be
+     * called from the UI thread.
+     */
+    public synchronized void deleteIndex() {
+        if (running)
+            signalStop();
+        ready = false;
+        index = new FilenameIndex();
+        // The running pass could still save the index before it notices the
+        // stop, so the file is deleted by a pass that runs after it.
+        try {
+            schedulePass(this::removeIndexFile);
+        } catch (RuntimeException e) {
+            // The executor was shut down, so nothing else can save it.
+            removeIndexFile();
+        }
+    }
+
+    /**
+     * Finds the indexed paths whose file name contains the given text.
+     *
+     * @param query The text to look for, ignoring case.
+     * @param limit The maximum number of results to return.
+     */
+    public List<String> search(String query, int limit) {
+        return index.search(query, limit);
+    }
+
+    /**
+     * Walks the indexed roots once, re-listing every directory whose
+     * modification time has changed since it was last indexed.
+     * Unchanged directories are not listed again; the walk only descends
+     * into the sub-folders that are already known.
+     */
+    public void reconcile() {
+        reconcileFrom(rootSupplier.get());
+        ready = true;
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    /**
+     * Walks the tree under each of the given directories in breadth-first
+     * order, so the shallowest folders are the ones that get watched.
+     */
+    private void reconcileFrom(Collection<String> startDirectories) {
+        ArrayDeque<String> queue = new ArrayDeque<>(startDirectories);
+        HashSet<String> visited = new HashSet<>();
+
+        while (!queue.isEmpty() && !stopping) {
+            String directory = queue.poll();
+            if (!visited.add(directory))
+                continue;
+
+            try {
+                if (!refreshDirectory(directory))
+                    continue;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            for (String name : index.getSubDirectories(directory))
+                queue.add(FilenameIndex.joinPath(directory, name));
+        }
+    }
+
+    /**
+     * Re-lists a single directory if its modification time has changed
+     * since it was last indexed, and watches it.
+     *
+     * @return Whether the path is still a directory that can be indexed.
+     * @throws InterruptedException If the thread is interrupted while
+     *                              waiting for the device.
+     */
+    private boolean refreshDirectory(String directory) throws InterruptedException {
+        if (isExcluded(directory))
+            return false;
+
+        Path path = Path.of(directory);
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path,
+                    BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (IOException e) {
+            // It was removed (or can't be read) since the last pass.
+            index.remove(directory);
+            return false;
+        }
+        if (!attributes.isDirectory())
+            return false;
+
+        long modifiedTime = attributes.lastModifiedTime().toMillis();
+        if (index.getDirectoryTime(directory) != modifiedTime) {
+            // Browsing the same device goes first.
+            IoGovernor.getDefault().yieldToInteractive(DeviceKeys.of(path));
+            listDirectory(directory, modifiedTime);
+        }
+        watchDirectory(directory);
+        return true;
+    }
+
+    /**
+     * Re-lists the watched directories that changed, then indexes the
+     * folders created in them, which the index doesn't know yet.
+     */
+    private void applyWatchedChanges() {
+        ArrayList<String> changed;
+        ArrayList<String> created;
+        synchronized (changedDirectories) {
+            changed = new ArrayList<>(changedDirectories);
+            created = new ArrayList<>(createdItems);
+            changedDirectories.clear();
+            createdItems.clear();
+        }
+
+        for (String directory : changed) {
+            if (stopping)
+                return;
+            try {
+                refreshDirectory(directory);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        // Created files are skipped by the walk, since they aren't folders.
+        reconcileFrom(created);
+    }
+
+    /**
+     * Reads the contents of a single directory into the index.
+     */
+    private void listDirectory(String directory, long modifiedTime) {
+        ArrayList<String> names = new ArrayList<>();
+        ArrayList<String> subDirectories = new ArrayList<>();
+        try (DirectoryStream<Path> stream =
+                     Files.newDirectoryStream(Path.of(directory))) {
+            for (Path child : stream) {
+                String name = child.getFileName().toString();
+                names.add(name);
+                // Symbolic links aren't followed, which keeps loops out of
+                // the index.
+                if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS))
+                    subDirectories.add(name);
+            }
+        } catch (IOException | DirectoryIteratorException e) {
+            // Permission problems are expected on system folders.
+            return;
+        }
+        index.updateDirectory(directory, names, subDirectories, modifiedTime);
+    }
+
+    private void loadSavedIndex() {
+        if (!Files.exists(indexFile))
+            return;
+
+        try {
+            index = FilenameIndex.load(indexFile);
+            ready = true;
+        } catch (IOException e) {
+            System.err.println("The filename index could not be loaded and " +
+                    "will be rebuilt: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs a reconciliation pass, saves the index, and schedules the next
+     * pass.
+     */
+    private void reconcileAndSave() {
+        reconcile();
+        if (stopping)
+            return;
+        saveIndex();
+
+        int current = session;
+        CompletableFuture.delayedExecutor(reconcileIntervalMinutes, TimeUnit.MINUTES).execute(() -> {
+            if (session == current)
+                schedulePass(this::reconcileAndSave);
+        });
+    }
+
+    /**
+     * Stops the indexer, dropping the queued passes and telling the running
+     * one to end, without waiting for it.
+     */
+    private void signalStop() {
+        running = false;
+        stopping = true;
+        session++;
+        synchronized (changedDirectories) {
+            changedDirectories.clear();
+            createdItems.clear();
+        }
+        synchronized (pendingPasses) {
+            pendingPasses.clear();
+        }
+        stopWatching();
+    }
+
+    /**
+     * Stops the indexer and waits a few seconds for the running pass to
+     * end, so the index can be saved without it changing.
+     */
+    private void cancelPasses() {
+        signalStop();
+        synchronized (pendingPasses) {
+            // The running pass checks for the stop between directories.
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            try {
+                while (passRunning && System.nanoTime() < deadline)
+                    pendingPasses.wait(TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()) + 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Empties the index and deletes the saved copy.
+     */
+    private void removeIndexFile() {
+        ready = false;
+        index = new FilenameIndex();
+        try {
+            Files.deleteIfExists(indexFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Queues a pass to run after those already queued, unless the indexer
+     * stops first.
+     */
+    private void schedulePass(Runnable pass) {
+        int current = session;
+        synchronized (pendingPasses) {
+            pendingPasses.add(() -> {
+                if (session == current)
+                    pass.run();
+            });
+            if (passRunning)
+                return;
+            passRunning = true;
+        }
+        try {
+            executor.execute(this::runPendingPasses);
+        } catch (RuntimeException e) {
+            synchronized (pendingPasses) {
+                passRunning = false;
+                pendingPasses.clear();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Runs the queued passes one after another, until there are none left.
+     */
+    private void runPendingPasses() {
+        while (true) {
+            Runnable pass;
+            synchronized (pendingPasses) {
+                pass = pendingPasses.poll();
+                if (pass == null) {
+                    passRunning = false;
+                    pendingPasses.notifyAll();
+                    return;
+                }
+            }
+            try {
+                pass.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void saveIndex() {
+        try {
+            index.save(indexFile);
+        } catch (IOException e) {
+            System.err.println("The filename index could not be saved: " + e.getMessage());
+        }
+    }
+
+    private void startWatching() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            // Without watch events, the periodic passes still keep the
+            // index up to date.
+            return;
+        }
+        Thread watchThread = new Thread(this::processWatchEvents,
+                "Filename index watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    private void stopWatching() {
+        if (watchService == null)
+            return;
+
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        watchService = null;
+        watchedDirectories.clear();
+        watchedPaths.clear();
+    }
+
+    /**
+     * Registers a directory with the watch service, as long as the limit
+     * hasn't been reached yet.
+     */
+    private void watchDirectory(String directory) {
+        WatchService service = watchService;
+        if (service == null || watchedPaths.size() >= maxWatchedDirectories
+                || watchedPaths.contains(directory))
+            return;
+
+        try {
+            WatchKey key = Path.of(directory).register(service,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+            watchedDirectories.put(key, directory);
+            watchedPaths.add(directory);
+        } catch (IOException | ClosedWatchServiceException e) {
+            // Not being able to watch a folder only delays its updates
+            // until the next pass.
+        }
+    }
+
+    /**
+     * Waits for changes in the watched directories and queues them to be
+     * re-listed.
+     */
+    private void processWatchEvents() {
+        WatchService service = watchService;
+        while (running && service != null) {
+            WatchKey key;
+            try {
+                key = service.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            String directory = watchedDirectories.get(key);
+            boolean overflowed = false;
+            ArrayList<String> created = new ArrayList<>();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW)
+                    overflowed = true;
+                else if (directory != null && event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+                        && event.context() instanceof Path name)
+                    created.add(FilenameIndex.joinPath(directory, name.toString()));
+            }
+            if (!key.reset()) {
+                watchedDirectories.remove(key);
+                if (directory != null)
+                    watchedPaths.remove(directory);
+            }
+
+            try {
+                if (overflowed)
+                    schedulePass(this::reconcile);
+                else if (directory != null)
+                    queueWatchedChange(directory, created);
+            } catch (RuntimeException e) {
+                // The executor was shut down while the event was processed.
+                return;
+            }
+        }
+    }
+
+    /**
+     * Records a change in a watched directory, and schedules a pass to
+     * handle it after a short delay unless one is already waiting.
+     */
+    private void queueWatchedChange(String directory, List<String> created) {
+        synchronized (changedDirectories) {
+            boolean waiting = !changedDirectories.isEmpty();
+            changedDirectories.add(directory);
+            createdItems.addAll(created);
+            if (waiting)
+                return;
+        }
+
+        int current = session;
+        CompletableFuture.delayedExecutor(watchDelayMillis, TimeUnit.MILLISECONDS).execute(() -> {
+            if (session != current)
+                return;
+            try {
+                schedulePass(this::applyWatchedChanges);
+            } catch (RuntimeException e) {
+                // The executor was shut down in the meantime.
+            }
+        });
+    }
+
+    private static boolean isExcluded(String directory) {
+        for (String excluded : excludedDirectories) {
+            if (directory.equals(excluded) || directory.startsWith(excluded + "/"))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the paths of the drives on the computer.
+     */
+    private static List<String> getDriveRoots() {
+        ArrayList<String> roots = new ArrayList<>();
+        ArrayList<FileItem> drives = DirectoryStructure.getDrives();
+        if (drives == null)
+            return roots;
+
+        // The index joins paths with the platform's separator, so the roots
+        // use it too.
+        for (FileItem drive : drives)
+            roots.add(Path.of(FileOperations.sanitizePath(drive.getItemDirectory())).toString());
+        return roots;
+    }
+
+    //endregion
+}
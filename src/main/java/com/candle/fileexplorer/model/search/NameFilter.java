@@ -0,0 +1,106 @@
+package com.candle.fileexplorer.model.search;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Narrows a listing down to the names that match some typed text.
+ * A substring filter keeps the names that contain the text. A fuzzy filter
+ * keeps the names that contain its characters in order, with anything in
+ * between (so "dcmt" matches "Documents").
+ * Names are expected to be lowercased ahead of time, so typing doesn't
+ * allocate a new string per name on every keystroke.
+ */
+public class NameFilter {
+    //region Private Members
+
+    /**
+     * How many names are checked between cancellation checks.
+     */
+    private static final int cancelCheckInterval = 4096;
+
+    /**
+     * The lowercase text to look for.
+     */
+    private final String query;
+
+    private final boolean fuzzy;
+
+    //endregion
+
+    //region Constructors
+
+    /**
+     * Creates a new filter.
+     *
+     * @param query The typed text. Case is ignored.
+     * @param fuzzy Whether the characters only have to appear in order,
+     *              rather than next to each other.
+     */
+    public NameFilter(String query, boolean fuzzy) {
+        this.query = query.toLowerCase(Locale.ROOT);
+        this.fuzzy = fuzzy;
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Checks to see if a lowercase name matches this filter.
+     */
+    public boolean matches(String lowerName) {
+        if (!fuzzy)
+            return lowerName.contains(query);
+
+        int position = 0;
+        for (int i = 0; i < query.length(); i++) {
+            position = lowerName.indexOf(query.charAt(i), position);
+            if (position == -1)
+                return false;
+            position++;
+        }
+        return true;
+    }
+
+    /**
+     * Checks to see if every name that matches this filter also matches
+     * the given one. When that's the case, only the other filter's matches
+     * need to be checked, which is what happens whenever a character is
+     * added to the end of the text.
+     */
+    public boolean isNarrowerThan(NameFilter other) {
+        return other != null && fuzzy == other.fuzzy && query.startsWith(other.query);
+    }
+
+    /**
+     * Finds the positions of the matching names.
+     *
+     * @param lowerNames The lowercase names of the whole listing.
+     * @param candidates The positions to check, or null to check every
+     *                   name.
+     * @param cancelled  Checked every few thousand names; the filter stops
+     *                   early once it returns true.
+     * @return The positions of the matching names in ascending order, or
+     * null if the filter was cancelled.
+     */
+    public int[] apply(String[] lowerNames, int[] candidates,
+                       BooleanSupplier cancelled) {
+        int count = (candidates == null) ? lowerNames.length : candidates.length;
+        int[] result = new int[count];
+        int matches = 0;
+
+        for (int i = 0; i < count; i++) {
+            if (i % cancelCheckInterval == 0 && cancelled.getAsBoolean())
+                return null;
+
+            int index = (candidates == null) ? i : candidates[i];
+            if (matches(lowerNames[index]))
+                result[matches++] = index;
+        }
+        return Arrays.copyOf(result, matches);
+    }
+
+    //endregion
+}
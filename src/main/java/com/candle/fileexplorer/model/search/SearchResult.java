@@ -0,0 +1,36 @@
+package com.candle.fileexplorer.model.search;
+
+/**
+ * A single item found by a search.
+ *
+ * @param path       The absolute path to the file/folder that matched.
+ * @param lineNumber The line that matched, starting at 1, or 0 if the match
+ *                   was on the name.
+ * @param line       The text of the line that matched, or null if the match
+ *                   was on the name.
+ */
+public record SearchResult(String path, long lineNumber, String line) {
+    /**
+     * Creates a result for an item whose name matched.
+     */
+    public SearchResult(String path) {
+        this(path, 0, null);
+    }
+
+    /**
+     * Checks to see if this result came from the contents of a file.
+     */
+    public boolean isContentMatch() {
+        return lineNumber > 0;
+    }
+
+    /**
+     * Gets the text shown in the list of results.
+     */
+    @Override
+    public String toString() {
+        if (!isContentMatch())
+            return path;
+        return path + ":" + lineNumber + ": " + line;
+    }
+}
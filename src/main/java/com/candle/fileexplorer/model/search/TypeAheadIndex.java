@@ -0,0 +1,110 @@
+package com.candle.fileexplorer.model.search;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Finds the item to jump to when the user types the start of a name.
+ * The lowercase names are kept in a sorted array alongside their positions
+ * in the listing, so a lookup is a binary search rather than a walk over
+ * every item. The listing itself can be in any order.
+ */
+public class TypeAheadIndex {
+    //region Private Members
+
+    /**
+     * The lowercase names, sorted.
+     */
+    private final String[] keys;
+
+    /**
+     * The position in the listing of each entry in {@link #keys}.
+     */
+    private final int[] positions;
+
+    //endregion
+
+    //region Constructors
+
+    /**
+     * Creates an index over the given names.
+     *
+     * @param names The item names in the order they're shown.
+     */
+    public TypeAheadIndex(List<String> names) {
+        int count = names.size();
+        String[] lowerNames = new String[count];
+        boolean sorted = true;
+        for (int i = 0; i < count; i++) {
+            lowerNames[i] = names.get(i).toLowerCase(Locale.ROOT);
+            if (i > 0 && lowerNames[i - 1].compareTo(lowerNames[i]) > 0)
+                sorted = false;
+        }
+
+        keys = new String[count];
+        positions = new int[count];
+        if (sorted) {
+            // Listings sorted by name need no extra work.
+            System.arraycopy(lowerNames, 0, keys, 0, count);
+            Arrays.setAll(positions, i -> i);
+            return;
+        }
+
+        Integer[] order = new Integer[count];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, (a, b) -> lowerNames[a].compareTo(lowerNames[b]));
+        for (int i = 0; i < count; i++) {
+            keys[i] = lowerNames[order[i]];
+            positions[i] = order[i];
+        }
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Finds the first item in the listing whose name starts with the given
+     * text, ignoring case.
+     *
+     * @return The item's position in the listing, or -1 if no name starts
+     * with the text.
+     */
+    public int find(String prefix) {
+        String key = prefix.toLowerCase(Locale.ROOT);
+        int start = lowerBound(key);
+        if (start == keys.length || !keys[start].startsWith(key))
+            return -1;
+
+        // Every name with the prefix sorts before the prefix followed by the
+        // highest character, so the matches are a single range.
+        int end = lowerBound(key + Character.MAX_VALUE);
+        int first = positions[start];
+        for (int i = start + 1; i < end; i++)
+            first = Math.min(first, positions[i]);
+        return first;
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    /**
+     * Gets the index of the first key that isn't less than the given one.
+     */
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle].compareTo(key) < 0)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    //endregion
+}
@@ -0,0 +1,112 @@
+package com.candle.fileexplorer.model.thumbnails;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * A cache that holds values until they take up more memory than its budget,
+ * then drops the least recently used ones first.
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the cached values.
+ */
+public class ByteBoundedCache<K, V> {
+    //region Private Members
+
+    private final long maxBytes;
+
+    /**
+     * Estimates the memory taken up by a value, in bytes.
+     */
+    private final ToLongFunction<V> weigher;
+
+    /**
+     * The cached values, least recently used first.
+     */
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long usedBytes;
+
+    //endregion
+
+    //region Constructors
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxBytes The most memory, in bytes, the values may take up
+     *                 between them.
+     * @param weigher  Estimates the size of a value in bytes.
+     */
+    public ByteBoundedCache(long maxBytes, ToLongFunction<V> weigher) {
+        this.maxBytes = maxBytes;
+        this.weigher = weigher;
+    }
+
+    //endregion
+
+    //region Accessors/Mutators
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Gets a value, marking it as recently used.
+     *
+     * @return The value, or null if it isn't cached.
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        return (entry == null) ? null : entry.value;
+    }
+
+    /**
+     * Caches a value, dropping the least recently used ones if the budget
+     * is exceeded. A value that's larger than the whole budget isn't cached
+     * at all.
+     */
+    public synchronized void put(K key, V value) {
+        remove(key);
+        long bytes = weigher.applyAsLong(value);
+        if (bytes > maxBytes)
+            return;
+
+        entries.put(key, new Entry<>(value, bytes));
+        usedBytes += bytes;
+
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (usedBytes > maxBytes && iterator.hasNext()) {
+            usedBytes -= iterator.next().getValue().bytes;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Drops a value from the cache.
+     */
+    public synchronized void remove(K key) {
+        Entry<V> entry = entries.remove(key);
+        if (entry != null)
+            usedBytes -= entry.bytes;
+    }
+
+    //endregion
+
+    //region Helper Classes
+
+    private record Entry<V>(V value, long bytes) {
+    }
+
+    //endregion
+}
@@ -0,0 +1,282 @@
+package com.candle.fileexplorer.model.thumbnails;
+
+import com.candle.fileexplorer.model.helpers.FileOperations;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves thumbnails on disk the way the freedesktop.org thumbnail spec
+ * describes, so they're shared with other file managers. Each thumbnail is
+ * a PNG named after the MD5 hash of its file's URI, and carries the file's
+ * URI and modification time in its text chunks. A thumbnail whose time
+ * doesn't match the file any more is treated as missing.
+ */
+public class ThumbnailStore {
+    //region Public Members/Properties
+
+    /**
+     * The largest width or height of a thumbnail in the "normal" folder.
+     */
+    public static final int normalSize = 128;
+
+    //endregion
+
+    //region Private Members
+
+    private static final ThumbnailStore defaultStore =
+            new ThumbnailStore(Path.of(FileOperations.getThumbnailDirectory()));
+
+    private static final byte[] pngSignature = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+
+    /**
+     * The folder holding the "normal" and "large" folders.
+     */
+    private final Path cacheDirectory;
+
+    //endregion
+
+    //region Constructors
+
+    /**
+     * @param cacheDirectory The thumbnail folder, usually
+     *                       ~/.cache/thumbnails.
+     */
+    public ThumbnailStore(Path cacheDirectory) {
+        this.cacheDirectory = cacheDirectory.toAbsolutePath();
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    public static ThumbnailStore getDefault() {
+        return defaultStore;
+    }
+
+    /**
+     * Gets the URI that names a file in the spec, such as
+     * file:///home/user/photo.png.
+     */
+    public static String uriOf(Path file) {
+        return file.toAbsolutePath().normalize().toUri().toString();
+    }
+
+    /**
+     * Gets where the normal-sized thumbnail of a file belongs, whether or
+     * not it exists.
+     */
+    public Path locate(Path file) {
+        return cacheDirectory.resolve("normal").resolve(md5(uriOf(file)) + ".png");
+    }
+
+    /**
+     * Finds the thumbnail of a file, if there is one that was made since the
+     * file last changed.
+     *
+     * @param file         The file the thumbnail shows.
+     * @param lastModified The file's modification time, in milliseconds.
+     * @return The thumbnail, or null if there is none that's up to date.
+     */
+    public Path find(Path file, long lastModified) {
+        if (isThumbnail(file))
+            return null;
+
+        Path thumbnail = locate(file);
+        Map<String, String> text;
+        try {
+            text = readText(thumbnail);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            System.err.println("Could not read thumbnail " + thumbnail + ": " + e.getMessage());
+            return null;
+        }
+
+        String mtime = text.get("Thumb::MTime");
+        String uri = text.get("Thumb::URI");
+        boolean current = String.valueOf(TimeUnit.MILLISECONDS.toSeconds(lastModified)).equals(mtime)
+                && (uri == null || uri.equals(uriOf(file)));
+        return current ? thumbnail : null;
+    }
+
+    /**
+     * Saves the thumbnail of a file. It's written to a temporary file and
+     * moved into place, so other programs never read half of it.
+     *
+     * @param file         The file the thumbnail shows.
+     * @param lastModified The file's modification time when it was read,
+     *                     in milliseconds.
+     * @param width        The width of the thumbnail.
+     * @param height       The height of the thumbnail.
+     * @param argb         The thumbnail's pixels, row by row.
+     */
+    public void store(Path file, long lastModified, int width, int height, int[] argb)
+            throws IOException {
+        if (isThumbnail(file))
+            return;
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(0, 0, width, height, argb, 0, width);
+
+        Map<String, String> text = new HashMap<>();
+        text.put("Thumb::URI", uriOf(file));
+        text.put("Thumb::MTime", String.valueOf(TimeUnit.MILLISECONDS.toSeconds(lastModified)));
+        text.put("Software", "Files");
+        try {
+            text.put("Thumb::Size", String.valueOf(Files.size(file)));
+        } catch (IOException ignored) {
+            // The size is optional.
+        }
+
+        Path thumbnail = locate(file);
+        Path folder = createPrivateDirectory(thumbnail.getParent());
+        Path temporary = createPrivateFile(folder);
+        try {
+            writePng(image, text, temporary);
+            Files.move(temporary, thumbnail, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    /**
+     * Checks whether a file is inside the thumbnail folder, since the spec
+     * says thumbnails shouldn't get thumbnails of their own.
+     */
+    private boolean isThumbnail(Path file) {
+        return file.toAbsolutePath().normalize().startsWith(cacheDirectory);
+    }
+
+    /**
+     * Reads the text chunks of a PNG, which come before its image data.
+     */
+    private static Map<String, String> readText(Path png) throws IOException {
+        Map<String, String> text = new HashMap<>();
+        try (InputStream stream = Files.newInputStream(png);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+            byte[] signature = new byte[pngSignature.length];
+            in.readFully(signature);
+            if (!Arrays.equals(signature, pngSignature))
+                throw new IOException("Not a PNG file");
+
+            while (true) {
+                int length = in.readInt();
+                byte[] type = new byte[4];
+                in.readFully(type);
+                String chunk = new String(type, StandardCharsets.US_ASCII);
+                if (length < 0 || chunk.equals("IDAT") || chunk.equals("IEND"))
+                    return text;
+
+                if (chunk.equals("tEXt")) {
+                    byte[] data = new byte[length];
+                    in.readFully(data);
+                    int separator = 0;
+                    while (separator < data.length && data[separator] != 0)
+                        separator++;
+                    if (separator < data.length)
+                        text.put(new String(data, 0, separator, StandardCharsets.ISO_8859_1),
+                                new String(data, separator + 1, data.length - separator - 1,
+                                        StandardCharsets.ISO_8859_1));
+                } else {
+                    in.skipNBytes(length);
+                }
+                // The chunk's CRC.
+                in.skipNBytes(4);
+            }
+        } catch (EOFException e) {
+            throw new IOException("The PNG file is truncated", e);
+        }
+    }
+
+    private static void writePng(BufferedImage image, Map<String, String> text, Path target)
+            throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            IIOMetadata metadata = writer.getDefaultImageMetadata(
+                    ImageTypeSpecifier.createFromRenderedImage(image), param);
+
+            IIOMetadataNode textNode = new IIOMetadataNode("tEXt");
+            for (Map.Entry<String, String> entry : text.entrySet()) {
+                IIOMetadataNode textEntry = new IIOMetadataNode("tEXtEntry");
+                textEntry.setAttribute("keyword", entry.getKey());
+                textEntry.setAttribute("value", entry.getValue());
+                textNode.appendChild(textEntry);
+            }
+            IIOMetadataNode root = new IIOMetadataNode("javax_imageio_png_1.0");
+            root.appendChild(textNode);
+            metadata.mergeTree("javax_imageio_png_1.0", root);
+
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, metadata), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * Creates a folder that only the user can open, as the spec asks.
+     */
+    private static Path createPrivateDirectory(Path folder) throws IOException {
+        if (Files.isDirectory(folder))
+            return folder;
+        try {
+            return Files.createDirectories(folder,
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        } catch (UnsupportedOperationException e) {
+            return Files.createDirectories(folder);
+        }
+    }
+
+    /**
+     * Creates a temporary file that only the user can read.
+     */
+    private static Path createPrivateFile(Path folder) throws IOException {
+        try {
+            return Files.createTempFile(folder, "files-", ".png",
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } catch (UnsupportedOperationException e) {
+            return Files.createTempFile(folder, "files-", ".png");
+        }
+    }
+
+    private static String md5(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform has to support MD5.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    //endregion
+}
@@ -0,0 +1,23 @@
+package com.candle.fileexplorer.model.usage;
+
+/**
+ * A snapshot of how much space a drive has.
+ *
+ * @param totalBytes  The size of the drive, in bytes.
+ * @param usableBytes The bytes that are free for this user to write to.
+ */
+public record DriveSpace(long totalBytes, long usableBytes) {
+    /**
+     * Gets the bytes that are already taken up.
+     */
+    public long getUsedBytes() {
+        return Math.max(0, totalBytes - usableBytes);
+    }
+
+    /**
+     * Gets the fraction of the drive that's taken up, from 0 to 1.
+     */
+    public double getUsedFraction() {
+        return totalBytes <= 0 ? 0 : (double) getUsedBytes() / totalBytes;
+    }
+}
@@ -0,0 +1,142 @@
+package com.candle.fileexplorer.model.usage;
+
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Keeps track of the free space on a set of drives.
+ * Each drive is queried on its own thread, so a slow or hung mount (such as
+ * a network share that has gone away) only holds up its own result. A drive
+ * whose last query hasn't come back yet is skipped until it does, rather
+ * than piling up more stuck threads.
+ */
+public class DriveSpaceMonitor {
+    //region Private Members
+
+    /**
+     * How often the drives are queried again, in seconds.
+     */
+    private static final long refreshSeconds = 30;
+
+    /**
+     * Runs the queries. Threads are only created for drives that are being
+     * queried at the moment, and idle ones are let go after a minute.
+     */
+    private final ExecutorService queryPool;
+
+    /**
+     * Starts a round of queries on a timer.
+     */
+    private final ScheduledExecutorService timer;
+
+    /**
+     * The drives being watched.
+     */
+    private final List<String> drives = new ArrayList<>();
+
+    /**
+     * The drives with a query that hasn't finished yet.
+     */
+    private final Set<String> pendingDrives = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Told about each drive's space whenever it's been read.
+     */
+    private BiConsumer<String, DriveSpace> listener;
+
+    private ScheduledFuture<?> refreshTask;
+
+    //endregion
+
+    //region Constructors
+
+    public DriveSpaceMonitor() {
+        queryPool = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "Drive space query");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Drive space timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Starts watching the given drives, replacing the ones watched before,
+     * and queries them right away and then every {@link #refreshSeconds}
+     * seconds.
+     *
+     * @param drivePaths The mount points of the drives.
+     * @param listener   Called from a background thread with each drive's
+     *                   space.
+     */
+    public synchronized void watch(Collection<String> drivePaths,
+                                   BiConsumer<String, DriveSpace> listener) {
+        drives.clear();
+        drives.addAll(drivePaths);
+        this.listener = listener;
+
+        if (refreshTask != null)
+            refreshTask.cancel(false);
+        refreshTask = timer.scheduleWithFixedDelay(this::refresh, 0, refreshSeconds,
+                TimeUnit.SECONDS);
+    }
+
+    /**
+     * Queries every watched drive that isn't still busy with an earlier
+     * query.
+     */
+    public synchronized void refresh() {
+        for (String drive : drives) {
+            if (!pendingDrives.add(drive))
+                continue;
+            BiConsumer<String, DriveSpace> currentListener = listener;
+            queryPool.execute(() -> {
+                try {
+                    DriveSpace space = readSpace(Path.of(drive));
+                    if (space != null)
+                        currentListener.accept(drive, space);
+                } finally {
+                    pendingDrives.remove(drive);
+                }
+            });
+        }
+    }
+
+    /**
+     * Stops querying the drives.
+     */
+    public synchronized void stop() {
+        if (refreshTask != null)
+            refreshTask.cancel(false);
+        refreshTask = null;
+        drives.clear();
+    }
+
+    /**
+     * Reads the space on the drive that holds the given path.
+     *
+     * @return The drive's space, or null if it couldn't be read.
+     */
+    public static DriveSpace readSpace(Path path) {
+        try {
+            FileStore store = Files.getFileStore(path);
+            return new DriveSpace(store.getTotalSpace(), store.getUsableSpace());
+        } catch (IOException | SecurityException e) {
+            return null;
+        }
+    }
+
+    //endregion
+}
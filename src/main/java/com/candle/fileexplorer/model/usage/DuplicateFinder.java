@@ -0,0 +1,376 @@
+package com.candle.fileexplorer.model.usage;
+
+import com.candle.fileexplorer.model.io.DeviceExecutor;
+import com.candle.fileexplorer.model.io.DeviceKeys;
+import com.candle.fileexplorer.model.io.IoGovernor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Finds files with identical contents below a folder.
+ * Work is done in stages, and each one only looks at what the previous
+ * one couldn't rule out:
+ * <ol>
+ *     <li>Files are grouped by size, which needs no reading at all.</li>
+ *     <li>Files that share a size are hashed by their first and last 64 KB,
+ *     in parallel.</li>
+ *     <li>Files that still collide are hashed in full.</li>
+ * </ol>
+ * Files are read through memory maps. Hard links to the same file are only
+ * counted once, since they don't take up extra space. Each file is hashed as
+ * a task of its own, and each stage starts once the last task of the one
+ * before it finishes, so no task waits for another.
+ */
+public class DuplicateFinder {
+    //region Private Members
+
+    /**
+     * The number of bytes hashed at each end of a file in the second stage.
+     */
+    static final int sampleSize = 64 * 1024;
+
+    /**
+     * The largest region mapped at once while hashing a whole file.
+     */
+    private static final long mapChunkSize = 64L * 1024 * 1024;
+
+    /**
+     * Runs the folder walk and the hashing of each file.
+     */
+    private final DeviceExecutor executor;
+
+    //endregion
+
+    //region Constructors
+
+    /**
+     * Creates a finder with threads of its own.
+     *
+     * @param threads The number of files that can be hashed at once.
+     */
+    public DuplicateFinder(int threads) {
+        this(DeviceExecutor.of(Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "Duplicate hasher");
+            thread.setDaemon(true);
+            return thread;
+        })));
+    }
+
+    /**
+     * Creates a finder.
+     *
+     * @param executor Runs the folder walk and the hashing of each file.
+     */
+    public DuplicateFinder(DeviceExecutor executor) {
+        this.executor = executor;
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Searches a folder tree for duplicate files and waits for the search
+     * to finish.
+     *
+     * @return The number of files that were looked at.
+     * @see #start(Path, boolean, Consumer, AtomicBoolean)
+     */
+    public int find(Path root, boolean includeHidden, Consumer<DuplicateGroup> onGroup,
+                    AtomicBoolean cancelled) throws IOException {
+        try {
+            return start(root, includeHidden, onGroup, cancelled).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException ioException)
+                throw ioException.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * Starts searching a folder tree for duplicate files.
+     *
+     * @param root          The folder to search.
+     * @param includeHidden Whether hidden files and folders are searched.
+     * @param onGroup       Called with each group as soon as it's confirmed,
+     *                      possibly from several threads at once.
+     * @param cancelled     Checked between files; once it's set, the search
+     *                      stops early.
+     * @return The search, which is completed with the number of files that
+     * were looked at, or fails with an {@link UncheckedIOException} if the
+     * folder can't be walked.
+     */
+    public CompletableFuture<Integer> start(Path root, boolean includeHidden,
+                                            Consumer<DuplicateGroup> onGroup,
+                                            AtomicBoolean cancelled) {
+        // Stage 1: group by size.
+        HashMap<Long, List<Path>> sizeBuckets = new HashMap<>();
+        CompletableFuture<Integer> collected = new CompletableFuture<>();
+        executor.execute(root, () -> {
+            try {
+                collected.complete(collectFiles(root, includeHidden, sizeBuckets, cancelled));
+            } catch (IOException e) {
+                collected.completeExceptionally(new UncheckedIOException(e));
+            } catch (RuntimeException e) {
+                collected.completeExceptionally(e);
+            }
+        });
+
+        ConcurrentHashMap<HashKey, List<Path>> sampleGroups = new ConcurrentHashMap<>();
+        return collected.thenCompose(fileCount -> {
+            // Stage 2: hash both ends of every file that shares its size.
+            ArrayList<CompletableFuture<Void>> sampleTasks = new ArrayList<>();
+            for (Map.Entry<Long, List<Path>> bucket : sizeBuckets.entrySet()) {
+                if (bucket.getValue().size() < 2)
+                    continue;
+                long size = bucket.getKey();
+                for (Path file : bucket.getValue()) {
+                    sampleTasks.add(schedule(file, () -> {
+                        if (cancelled.get())
+                            return;
+                        byte[] hash = hashSample(file, size);
+                        if (hash != null) {
+                            sampleGroups.computeIfAbsent(new HashKey(size, hash),
+                                    k -> Collections.synchronizedList(new ArrayList<>())).add(file);
+                        }
+                    }));
+                }
+            }
+            return allOf(sampleTasks);
+        }).thenCompose(ignored -> {
+            // Stage 3: small files were hashed whole by the sample, so only
+            // the larger ones that still collide need a full hash.
+            ArrayList<CompletableFuture<Void>> fullTasks = new ArrayList<>();
+            for (Map.Entry<HashKey, List<Path>> group : sampleGroups.entrySet()) {
+                List<Path> files = group.getValue();
+                long size = group.getKey().size();
+                if (files.size() < 2 || cancelled.get())
+                    continue;
+                if (size <= 2L * sampleSize) {
+                    onGroup.accept(createGroup(size, files));
+                    continue;
+                }
+
+                fullTasks.add(schedule(files.get(0), () -> {
+                    HashMap<HashKey, List<Path>> fullGroups = new HashMap<>();
+                    for (Path file : files) {
+                        if (cancelled.get())
+                            return;
+                        byte[] hash = hashFile(file, size);
+                        if (hash != null)
+                            fullGroups.computeIfAbsent(new HashKey(size, hash), k -> new ArrayList<>()).add(file);
+                    }
+                    for (List<Path> duplicates : fullGroups.values()) {
+                        if (duplicates.size() > 1)
+                            onGroup.accept(createGroup(size, duplicates));
+                    }
+                }));
+            }
+            return allOf(fullTasks);
+        }).thenCombine(collected, (ignored, fileCount) -> fileCount);
+    }
+
+    /**
+     * Replaces a duplicate with a hard link to the file being kept. The link
+     * is created next to the duplicate first and then moved over it, so the
+     * duplicate is never lost if linking fails.
+     * The two files are compared again first, since either may have been
+     * edited after the search found them, and linking would lose the edit.
+     *
+     * @param kept      The copy that stays.
+     * @param duplicate The copy that becomes a link to it.
+     * @throws IOException If the files no longer match, are on different
+     *                     drives, or the file system doesn't support hard
+     *                     links.
+     */
+    public static void replaceWithHardLink(Path kept, Path duplicate) throws IOException {
+        if (Files.isSameFile(kept, duplicate))
+            return;
+        if (Files.mismatch(kept, duplicate) != -1)
+            throw new IOException(duplicate + " has changed since the search");
+        Path link = duplicate.resolveSibling(duplicate.getFileName() + ".link.tmp");
+        Files.createLink(link, kept);
+        try {
+            Files.move(link, duplicate, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(link);
+            throw e;
+        }
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    /**
+     * Walks the folder tree and groups the non-empty files by size.
+     *
+     * @return The number of files found.
+     */
+    private int collectFiles(Path root, boolean includeHidden,
+                             Map<Long, List<Path>> sizeBuckets,
+                             AtomicBoolean cancelled) throws IOException {
+        HashSet<Object> seenFiles = new HashSet<>();
+        int[] count = {0};
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (cancelled.get())
+                    return FileVisitResult.TERMINATE;
+                if (!includeHidden && !dir.equals(root) && isHidden(dir))
+                    return FileVisitResult.SKIP_SUBTREE;
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (!attrs.isRegularFile() || attrs.size() == 0)
+                    return FileVisitResult.CONTINUE;
+                if (!includeHidden && isHidden(file))
+                    return FileVisitResult.CONTINUE;
+                // A second hard link to a file that was already found takes
+                // up no extra space.
+                Object key = attrs.fileKey();
+                if (key != null && !seenFiles.add(key))
+                    return FileVisitResult.CONTINUE;
+
+                count[0]++;
+                sizeBuckets.computeIfAbsent(attrs.size(), k -> new ArrayList<>()).add(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return count[0];
+    }
+
+    /**
+     * Hashes the first and last {@link #sampleSize} bytes of a file. Files
+     * no larger than two samples are hashed whole.
+     *
+     * @return The hash, or null if the file couldn't be read.
+     */
+    private static byte[] hashSample(Path file, long size) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() != size)
+                return null;
+            MessageDigest digest = createDigest();
+            if (size <= 2L * sampleSize) {
+                digest.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+            } else {
+                digest.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, sampleSize));
+                digest.update(channel.map(FileChannel.MapMode.READ_ONLY,
+                        size - sampleSize, sampleSize));
+            }
+            return digest.digest();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Hashes a whole file, mapping it a chunk at a time.
+     *
+     * @return The hash, or null if the file couldn't be read.
+     */
+    private static byte[] hashFile(Path file, long size) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() != size)
+                return null;
+            MessageDigest digest = createDigest();
+            Object device = DeviceKeys.of(file);
+            for (long position = 0; position < size; position += mapChunkSize) {
+                // Browsing the same device goes first.
+                IoGovernor.getDefault().yieldToInteractive(device);
+                MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY,
+                        position, Math.min(mapChunkSize, size - position));
+                digest.update(chunk);
+            }
+            return digest.digest();
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean isHidden(Path path) {
+        Path name = path.getFileName();
+        return name != null && name.toString().startsWith(".");
+    }
+
+    private static DuplicateGroup createGroup(long size, List<Path> files) {
+        ArrayList<Path> sorted = new ArrayList<>(files);
+        Collections.sort(sorted);
+        return new DuplicateGroup(size, List.copyOf(sorted));
+    }
+
+    /**
+     * Runs a step of the search in the background. A step that fails is
+     * reported and counted as done, so the rest of the search carries on.
+     */
+    private CompletableFuture<Void> schedule(Path location, Runnable step) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        executor.execute(location, () -> {
+            try {
+                step.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            } finally {
+                done.complete(null);
+            }
+        });
+        return done;
+    }
+
+    private static CompletableFuture<Void> allOf(List<CompletableFuture<Void>> tasks) {
+        return CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0]));
+    }
+
+    //endregion
+
+    //region Helper Classes
+
+    /**
+     * A file size together with a hash of the file's contents.
+     */
+    private record HashKey(long size, byte[] hash) {
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof HashKey other && size == other.size
+                    && Arrays.equals(hash, other.hash);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(size) * 31 + Arrays.hashCode(hash);
+        }
+    }
+
+    //endregion
+}
@@ -0,0 +1,19 @@
+package com.candle.fileexplorer.model.usage;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A set of files with identical contents.
+ *
+ * @param size  The size of each file, in bytes.
+ * @param files The files, sorted by path.
+ */
+public record DuplicateGroup(long size, List<Path> files) {
+    /**
+     * Gets the space that would be freed by keeping a single copy.
+     */
+    public long getWastedBytes() {
+        return size * (files.size() - 1);
+    }
+}
@@ -0,0 +1,213 @@
+package com.candle.fileexplorer.model.usage;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The remembered contents of the directories whose sizes have been
+ * calculated, keyed by path.
+ * Each entry is only trusted while the directory's modification time stays
+ * the same. Adding, removing or renaming anything inside a directory
+ * changes that time, so unchanged directories can skip being listed again.
+ */
+public class FolderSizeCache {
+    //region Private Members
+
+    /**
+     * The value written at the start of every cache file.
+     */
+    private static final int fileMagic = 0x46535A43;
+
+    /**
+     * The version of the cache file format. Version 2 leaves out folders on
+     * other devices.
+     */
+    private static final int fileVersion = 2;
+
+    private final HashMap<String, Entry> entries;
+
+    /**
+     * Whether anything changed since the cache was loaded or last saved.
+     */
+    private boolean modified;
+
+    //endregion
+
+    //region Constructors
+
+    public FolderSizeCache() {
+        entries = new HashMap<>();
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Gets the remembered contents of a directory.
+     *
+     * @return The entry, or null if the directory isn't in the cache.
+     */
+    public synchronized Entry get(String directory) {
+        return entries.get(directory);
+    }
+
+    /**
+     * Remembers the contents of a directory.
+     */
+    public synchronized void put(String directory, Entry entry) {
+        Entry previous = entries.put(directory, entry);
+        if (!entry.equals(previous))
+            modified = true;
+    }
+
+    /**
+     * Forgets a directory and everything that was recorded below it.
+     */
+    public synchronized void removeTree(String directory) {
+        String prefix = directory.endsWith("/") ? directory : directory + "/";
+        modified |= entries.keySet().removeIf(path -> path.equals(directory)
+                || path.startsWith(prefix));
+    }
+
+    /**
+     * Gets the total size of a directory from its last calculation.
+     *
+     * @return The size in bytes, or -1 if it was never calculated.
+     */
+    public synchronized long getTotalSize(String directory) {
+        Entry entry = entries.get(directory);
+        return (entry == null) ? -1 : entry.totalBytes();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized boolean isModified() {
+        return modified;
+    }
+
+    /**
+     * Writes the cache to the given file. The file is replaced atomically,
+     * so a crash while saving never leaves a half-written cache behind.
+     *
+     * @param file The location of the cache file.
+     */
+    public synchronized void save(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null)
+            Files.createDirectories(parent);
+
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream fileStream = Files.newOutputStream(tempFile);
+             DataOutputStream output =
+                     new DataOutputStream(new BufferedOutputStream(fileStream, 1 << 16))) {
+            output.writeInt(fileMagic);
+            output.writeInt(fileVersion);
+
+            output.writeInt(entries.size());
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                Entry value = entry.getValue();
+                writeString(output, entry.getKey());
+                output.writeLong(value.modifiedTime());
+                output.writeLong(value.fileBytes());
+                output.writeLong(value.totalBytes());
+                output.writeInt(value.subDirectories().length);
+                for (String name : value.subDirectories())
+                    writeString(output, name);
+            }
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        modified = false;
+    }
+
+    /**
+     * Reads a cache that was written by {@link #save(Path)}.
+     *
+     * @param file The location of the cache file.
+     * @return The loaded cache.
+     * @throws IOException If the file could not be read or is not a valid
+     *                     cache.
+     */
+    public static FolderSizeCache load(Path file) throws IOException {
+        FolderSizeCache cache = new FolderSizeCache();
+        try (InputStream fileStream = Files.newInputStream(file);
+             DataInputStream input =
+                     new DataInputStream(new BufferedInputStream(fileStream, 1 << 16))) {
+            if (input.readInt() != fileMagic || input.readInt() != fileVersion)
+                throw new IOException("Unrecognized folder size cache: " + file);
+
+            int count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                String directory = readString(input);
+                long modifiedTime = input.readLong();
+                long fileBytes = input.readLong();
+                long totalBytes = input.readLong();
+                String[] subDirectories = new String[input.readInt()];
+                for (int j = 0; j < subDirectories.length; j++)
+                    subDirectories[j] = readString(input);
+                cache.entries.put(directory, new Entry(modifiedTime, fileBytes,
+                        subDirectories, totalBytes));
+            }
+        } catch (EOFException e) {
+            throw new IOException("Corrupt folder size cache: " + file, e);
+        }
+        return cache;
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length < 0)
+            throw new IOException("Corrupt folder size cache");
+        return new String(input.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    //endregion
+
+    //region Helper Classes
+
+    /**
+     * What was found in a directory the last time it was listed.
+     *
+     * @param modifiedTime   The directory's modification time when it was
+     *                       listed.
+     * @param fileBytes      The total size of the files directly inside it.
+     * @param subDirectories The names of the folders directly inside it.
+     * @param totalBytes     The size of everything below it, as of the last
+     *                       calculation.
+     */
+    public record Entry(long modifiedTime, long fileBytes, String[] subDirectories,
+                        long totalBytes) {
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Entry other && modifiedTime == other.modifiedTime
+                    && fileBytes == other.fileBytes && totalBytes == other.totalBytes
+                    && Arrays.equals(subDirectories, other.subDirectories);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(modifiedTime) * 31 + Long.hashCode(totalBytes);
+        }
+    }
+
+    //endregion
+}
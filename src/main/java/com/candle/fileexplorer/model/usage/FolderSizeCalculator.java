@@ -0,0 +1,407 @@
+package com.candle.fileexplorer.model.usage;
+
+import com.candle.fileexplorer.model.helpers.FileOperations;
+import com.candle.fileexplorer.model.io.DeviceExecutor;
+import com.candle.fileexplorer.model.io.DeviceKeys;
+import com.candle.fileexplorer.model.io.IoGovernor;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Calculates the total size of folders in the background.
+ * Each directory is a task of its own, so sibling folders are walked in
+ * parallel, and no task waits for another: a folder's total is added up by
+ * whichever of its sub-folders finishes last. Directories whose modification time hasn't changed since they
+ * were last listed reuse their remembered contents from a
+ * {@link FolderSizeCache}, which is saved between runs, so revisiting a
+ * tree only lists the directories that changed.
+ * The size of a folder is the apparent size of its files; symbolic links
+ * are not followed, and neither are folders on a different device from
+ * their parent, such as mounted drives. Directories are only listed once
+ * the device is no longer being browsed, as {@link IoGovernor} decides.
+ */
+public class FolderSizeCalculator {
+    //region Private Members
+
+    /**
+     * Virtual file systems that should never be walked.
+     */
+    private static final String[] excludedDirectories = {"/proc", "/sys",
+            "/dev", "/run"};
+
+    /**
+     * The location of the saved cache.
+     */
+    private final Path cacheFile;
+
+    /**
+     * Runs the task for each directory.
+     */
+    private final DeviceExecutor executor;
+
+    /**
+     * Incremented whenever outstanding requests are cancelled. Tasks that
+     * belong to an older generation stop as soon as they notice.
+     */
+    private final AtomicInteger generation;
+
+    /**
+     * The number of requested folders that haven't finished yet. The cache
+     * is saved whenever this drops to zero.
+     */
+    private final AtomicInteger pendingFolders;
+
+    private FolderSizeCache cache;
+
+    //endregion
+
+    //region Constructors
+
+    /**
+     * Creates a calculator that keeps its cache in the user's cache
+     * directory.
+     *
+     * @param executor Runs the task for each directory.
+     */
+    public FolderSizeCalculator(DeviceExecutor executor) {
+        this(Path.of(FileOperations.getCacheDirectory(), "folder-sizes.cache"), executor);
+    }
+
+    /**
+     * Creates a calculator with threads of its own.
+     *
+     * @param cacheFile The location of the saved cache.
+     * @param threads   The number of directories that can be read at once.
+     */
+    public FolderSizeCalculator(Path cacheFile, int threads) {
+        this(cacheFile, DeviceExecutor.of(Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "Folder sizes");
+            thread.setDaemon(true);
+            return thread;
+        })));
+    }
+
+    /**
+     * Creates a calculator.
+     *
+     * @param cacheFile The location of the saved cache.
+     * @param executor  Runs the task for each directory.
+     */
+    public FolderSizeCalculator(Path cacheFile, DeviceExecutor executor) {
+        this.cacheFile = cacheFile;
+        this.executor = executor;
+        generation = new AtomicInteger();
+        pendingFolders = new AtomicInteger();
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Gets the size of a folder from its last calculation, without touching
+     * the disk. The saved cache is read by the first request, so until then
+     * nothing is known.
+     *
+     * @return The size in bytes, or -1 if it isn't known yet.
+     */
+    public long getCachedSize(String folder) {
+        FolderSizeCache currentCache;
+        synchronized (this) {
+            currentCache = cache;
+        }
+        return (currentCache == null) ? -1 : currentCache.getTotalSize(normalize(folder));
+    }
+
+    /**
+     * Calculates the sizes of the given folders in the background, cancelling
+     * any folders that were requested before.
+     *
+     * @param folders The absolute paths to the folders.
+     * @param onSize  Called from a background thread with each folder's path
+     *                and size, as soon as that folder is done.
+     */
+    public void requestSizes(List<String> folders, BiConsumer<String, Long> onSize) {
+        int requestGeneration = generation.incrementAndGet();
+        pendingFolders.addAndGet(folders.size());
+
+        for (String folder : folders) {
+            Path path;
+            try {
+                path = Path.of(normalize(folder));
+            } catch (InvalidPathException e) {
+                // Nothing to measure.
+                if (pendingFolders.decrementAndGet() == 0)
+                    saveCache();
+                continue;
+            }
+            sizeOf(path, requestGeneration).whenComplete((size, error) -> {
+                try {
+                    if (error != null)
+                        error.printStackTrace();
+                    else if (size >= 0)
+                        onSize.accept(folder, size);
+                } finally {
+                    if (pendingFolders.decrementAndGet() == 0)
+                        saveCache();
+                }
+            });
+        }
+    }
+
+    /**
+     * Calculates the size of a folder and waits for the result.
+     *
+     * @return The size in bytes, or -1 if the calculation was cancelled.
+     */
+    public long calculate(String folder) {
+        int requestGeneration = generation.get();
+        return sizeOf(Path.of(normalize(folder)), requestGeneration).join();
+    }
+
+    /**
+     * Stops every calculation that is still running.
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Writes the cache to disk if anything changed.
+     */
+    public void saveCache() {
+        FolderSizeCache currentCache = getCache();
+        if (!currentCache.isModified())
+            return;
+        try {
+            currentCache.save(cacheFile);
+        } catch (IOException e) {
+            System.err.println("Could not save the folder size cache: " + e.getMessage());
+        }
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    /**
+     * Starts calculating the size of a directory.
+     *
+     * @return The size in bytes, or -1 if the calculation was cancelled.
+     */
+    private CompletableFuture<Long> sizeOf(Path directory, int requestGeneration) {
+        SizeTask task = new SizeTask(directory, requestGeneration);
+        executor.execute(directory, task);
+        return task.result;
+    }
+
+    /**
+     * Gets the cache, reading it from disk the first time it's needed.
+     */
+    private synchronized FolderSizeCache getCache() {
+        if (cache == null) {
+            if (Files.isRegularFile(cacheFile)) {
+                try {
+                    cache = FolderSizeCache.load(cacheFile);
+                } catch (IOException e) {
+                    System.err.println("Discarding the folder size cache: " + e.getMessage());
+                }
+            }
+            if (cache == null)
+                cache = new FolderSizeCache();
+        }
+        return cache;
+    }
+
+    private static String normalize(String folder) {
+        return Path.of(FileOperations.sanitizePath(folder)).toAbsolutePath()
+                .normalize().toString();
+    }
+
+    /**
+     * Gets the device number of a path on Unix systems.
+     *
+     * @return The device number, or null if it can't be read, in which case
+     * the path is treated as being on the same device.
+     */
+    private static Object getDevice(Path path) {
+        try {
+            return Files.getAttribute(path, "unix:dev", LinkOption.NOFOLLOW_LINKS);
+        } catch (IOException | UnsupportedOperationException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean isExcluded(String directory) {
+        for (String excluded : excludedDirectories) {
+            if (directory.equals(excluded) || directory.startsWith(excluded + "/"))
+                return true;
+        }
+        return false;
+    }
+
+    //endregion
+
+    //region Helper Classes
+
+    /**
+     * Calculates the size of one directory by adding its own files to the
+     * sizes of its sub-folders, which are calculated as tasks of their own.
+     */
+    private class SizeTask implements Runnable {
+        private final Path directory;
+
+        private final int requestGeneration;
+
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+
+        SizeTask(Path directory, int requestGeneration) {
+            this.directory = directory;
+            this.requestGeneration = requestGeneration;
+        }
+
+        @Override
+        public void run() {
+            try {
+                compute();
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        private void compute() {
+            if (generation.get() != requestGeneration) {
+                result.complete(-1L);
+                return;
+            }
+
+            String key = directory.toString();
+            if (isExcluded(key)) {
+                result.complete(0L);
+                return;
+            }
+
+            long modifiedTime;
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(directory,
+                        BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                if (!attributes.isDirectory()) {
+                    result.complete(attributes.isRegularFile() ? attributes.size() : 0L);
+                    return;
+                }
+                modifiedTime = attributes.lastModifiedTime().toMillis();
+            } catch (IOException e) {
+                result.complete(0L);
+                return;
+            }
+
+            FolderSizeCache currentCache = getCache();
+            FolderSizeCache.Entry cached = currentCache.get(key);
+            if (cached == null || cached.modifiedTime() != modifiedTime) {
+                Object device = DeviceKeys.of(directory);
+                try {
+                    // Browsing the same device goes first.
+                    IoGovernor.getDefault().yieldToInteractive(device);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    result.complete(-1L);
+                    return;
+                }
+                FolderSizeCache.Entry listed = list(modifiedTime, device);
+                if (listed == null) {
+                    result.complete(0L);
+                    return;
+                }
+                forgetRemovedFolders(currentCache, cached, listed);
+                cached = listed;
+            }
+            FolderSizeCache.Entry entry = cached;
+
+            // The sub-folders are always checked, since a change deep in the
+            // tree doesn't update the modification time of this directory.
+            String[] names = entry.subDirectories();
+            List<CompletableFuture<Long>> subSizes = new ArrayList<>(names.length);
+            for (String name : names)
+                subSizes.add(sizeOf(directory.resolve(name), requestGeneration));
+
+            CompletableFuture.allOf(subSizes.toArray(new CompletableFuture<?>[0])).whenComplete((ignored, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                    return;
+                }
+                long total = entry.fileBytes();
+                for (CompletableFuture<Long> subSize : subSizes) {
+                    long size = subSize.join();
+                    if (size < 0) {
+                        result.complete(-1L);
+                        return;
+                    }
+                    total += size;
+                }
+                currentCache.put(key, new FolderSizeCache.Entry(modifiedTime,
+                        entry.fileBytes(), entry.subDirectories(), total));
+                result.complete(total);
+            });
+        }
+
+        /**
+         * Reads the directory's contents from disk, leaving out sub-folders
+         * on other devices.
+         *
+         * @param device The directory's device, from {@link DeviceKeys#of(Path)}.
+         * @return The contents, or null if the directory can't be read.
+         */
+        private FolderSizeCache.Entry list(long modifiedTime, Object device) {
+            long fileBytes = 0;
+            ArrayList<String> subDirectories = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for (Path child : stream) {
+                    BasicFileAttributes attributes;
+                    try {
+                        attributes = Files.readAttributes(child,
+                                BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (IOException e) {
+                        continue;
+                    }
+                    if (attributes.isDirectory()) {
+                        Object childDevice = getDevice(child);
+                        if (childDevice == null || childDevice.equals(device))
+                            subDirectories.add(child.getFileName().toString());
+                    } else if (attributes.isRegularFile())
+                        fileBytes += attributes.size();
+                }
+            } catch (IOException | DirectoryIteratorException e) {
+                return null;
+            }
+            return new FolderSizeCache.Entry(modifiedTime, fileBytes,
+                    subDirectories.toArray(new String[0]), -1);
+        }
+
+        /**
+         * Drops the cached sub-trees of folders that are no longer there.
+         */
+        private void forgetRemovedFolders(FolderSizeCache currentCache,
+                                          FolderSizeCache.Entry oldEntry,
+                                          FolderSizeCache.Entry newEntry) {
+            if (oldEntry == null)
+                return;
+            HashSet<String> current = new HashSet<>(Arrays.asList(newEntry.subDirectories()));
+            for (String name : oldEntry.subDirectories()) {
+                if (!current.contains(name))
+                    currentCache.removeTree(directory.resolve(name).toString());
+            }
+        }
+    }
+
+    //endregion
+}
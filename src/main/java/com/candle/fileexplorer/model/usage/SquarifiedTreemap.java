@@ -0,0 +1,109 @@
+package com.candle.fileexplorer.model.usage;
+
+/**
+ * Lays out a treemap with the "squarified" algorithm by Bruls, Huizing and
+ * van Wijk. Rectangles are placed in rows along the shorter side of the
+ * remaining space, and a row only grows while that keeps its rectangles
+ * closer to squares, which keeps small items readable.
+ */
+public class SquarifiedTreemap {
+    //region Public Methods
+
+    /**
+     * Divides a rectangle between items in proportion to their sizes.
+     *
+     * @param sizes  The item sizes, largest first.
+     * @param x      The left edge of the space to fill.
+     * @param y      The top edge of the space to fill.
+     * @param width  The width of the space to fill.
+     * @param height The height of the space to fill.
+     * @return Four values for each item: its x, y, width and height. Items
+     * with a size of zero get an empty rectangle.
+     */
+    public static double[] layout(long[] sizes, double x, double y,
+                                  double width, double height) {
+        int count = sizes.length;
+        double[] rectangles = new double[count * 4];
+
+        double total = 0;
+        for (long size : sizes)
+            total += Math.max(0, size);
+        if (total == 0 || width <= 0 || height <= 0)
+            return rectangles;
+
+        double[] areas = new double[count];
+        double scale = width * height / total;
+        for (int i = 0; i < count; i++)
+            areas[i] = Math.max(0, sizes[i]) * scale;
+
+        int start = 0;
+        while (start < count && areas[start] > 0) {
+            double side = Math.min(width, height);
+
+            // Add items to the row until the worst aspect ratio gets worse.
+            int end = start + 1;
+            double rowArea = areas[start];
+            double worst = worstRatio(areas[start], areas[start], rowArea, side);
+            while (end < count && areas[end] > 0) {
+                double newArea = rowArea + areas[end];
+                double newWorst = worstRatio(areas[start], areas[end], newArea, side);
+                if (newWorst > worst)
+                    break;
+                rowArea = newArea;
+                worst = newWorst;
+                end++;
+            }
+
+            // Place the row along the shorter side, then shrink the space.
+            if (width >= height) {
+                double thickness = rowArea / height;
+                double offset = y;
+                for (int i = start; i < end; i++) {
+                    double length = areas[i] / thickness;
+                    setRectangle(rectangles, i, x, offset, thickness, length);
+                    offset += length;
+                }
+                x += thickness;
+                width -= thickness;
+            } else {
+                double thickness = rowArea / width;
+                double offset = x;
+                for (int i = start; i < end; i++) {
+                    double length = areas[i] / thickness;
+                    setRectangle(rectangles, i, offset, y, length, thickness);
+                    offset += length;
+                }
+                y += thickness;
+                height -= thickness;
+            }
+            start = end;
+        }
+        return rectangles;
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    /**
+     * Gets the worst aspect ratio in a row, which is decided by its largest
+     * and smallest items.
+     */
+    private static double worstRatio(double largest, double smallest,
+                                     double rowArea, double side) {
+        double sideSquared = side * side;
+        double areaSquared = rowArea * rowArea;
+        return Math.max(sideSquared * largest / areaSquared,
+                areaSquared / (sideSquared * smallest));
+    }
+
+    private static void setRectangle(double[] rectangles, int index, double x,
+                                     double y, double width, double height) {
+        rectangles[index * 4] = x;
+        rectangles[index * 4 + 1] = y;
+        rectangles[index * 4 + 2] = width;
+        rectangles[index * 4 + 3] = height;
+    }
+
+    //endregion
+}
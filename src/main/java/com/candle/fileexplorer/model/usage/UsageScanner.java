@@ -0,0 +1,236 @@
+package com.candle.fileexplorer.model.usage;
+
+import com.candle.fileexplorer.model.io.DeviceExecutor;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Scans a drive or folder into a {@link UsageTree}, reading directories in
+ * parallel in the background. Each directory is a task of its own, and the
+ * scan is done once the last of them finishes, so no task waits for
+ * another.
+ * Symbolic links are not followed, and the scan stays on the file system
+ * it started on, so scanning "/" doesn't wander into other drives.
+ */
+public class UsageScanner {
+    //region Private Members
+
+    /**
+     * Virtual file systems that should never be scanned.
+     */
+    private static final String[] excludedDirectories = {"/proc", "/sys",
+            "/dev", "/run"};
+
+    /**
+     * How many files are scanned between progress reports.
+     */
+    private static final long progressInterval = 10000;
+
+    /**
+     * Runs the task for each directory.
+     */
+    private final DeviceExecutor executor;
+
+    //endregion
+
+    //region Constructors
+
+    /**
+     * Creates a scanner with threads of its own.
+     *
+     * @param threads The number of directories that can be read at once.
+     */
+    public UsageScanner(int threads) {
+        this(DeviceExecutor.of(Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "Disk usage scanner");
+            thread.setDaemon(true);
+            return thread;
+        })));
+    }
+
+    /**
+     * Creates a scanner.
+     *
+     * @param executor Runs the task for each directory.
+     */
+    public UsageScanner(DeviceExecutor executor) {
+        this.executor = executor;
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Scans everything below a directory and waits for the scan to finish.
+     *
+     * @see #start(Path, AtomicBoolean, LongConsumer)
+     */
+    public UsageTree scan(Path root, AtomicBoolean cancelled, LongConsumer progress) {
+        return start(root, cancelled, progress).join();
+    }
+
+    /**
+     * Starts scanning everything below a directory.
+     *
+     * @param root      The directory to scan.
+     * @param cancelled Checked before each directory is read. Once it's set,
+     *                  the scan stops and finishes with what it found so
+     *                  far.
+     * @param progress  Called now and then from the scanning threads with
+     *                  the number of files found so far.
+     * @return The scan, which is completed with the finished tree.
+     */
+    public CompletableFuture<UsageTree> start(Path root, AtomicBoolean cancelled,
+                                              LongConsumer progress) {
+        Path absoluteRoot = root.toAbsolutePath().normalize();
+        UsageTree tree = new UsageTree(absoluteRoot.toString());
+        Scan scan = new Scan(tree, getDevice(absoluteRoot), cancelled, progress, executor);
+        scan.submit(new DirectoryTask(scan, absoluteRoot, UsageTree.root));
+        return scan.result();
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    /**
+     * Gets the id of the device a directory is stored on.
+     *
+     * @return The id, or null if the file system doesn't report one.
+     */
+    private static Object getDevice(Path directory) {
+        try {
+            return Files.getAttribute(directory, "unix:dev", LinkOption.NOFOLLOW_LINKS);
+        } catch (IOException | UnsupportedOperationException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean isExcluded(String directory) {
+        for (String excluded : excludedDirectories) {
+            if (directory.equals(excluded) || directory.startsWith(excluded + "/"))
+                return true;
+        }
+        return false;
+    }
+
+    //endregion
+
+    //region Helper Classes
+
+    /**
+     * The state shared by every directory of one scan.
+     *
+     * @param pendingDirectories The directories that have been found but
+     *                           not read yet.
+     */
+    private record Scan(UsageTree tree, Object rootDevice, AtomicBoolean cancelled,
+                        LongConsumer progress, AtomicLong fileCount,
+                        AtomicInteger pendingDirectories, CompletableFuture<UsageTree> result,
+                        DeviceExecutor executor) {
+        Scan(UsageTree tree, Object rootDevice, AtomicBoolean cancelled,
+             LongConsumer progress, DeviceExecutor executor) {
+            this(tree, rootDevice, cancelled, progress, new AtomicLong(), new AtomicInteger(),
+                    new CompletableFuture<>(), executor);
+        }
+
+        void addFiles(long count) {
+            long before = fileCount.getAndAdd(count);
+            if (before / progressInterval != (before + count) / progressInterval)
+                progress.accept(before + count);
+        }
+
+        void submit(DirectoryTask task) {
+            pendingDirectories.incrementAndGet();
+            executor.execute(task.directory, task);
+        }
+
+        /**
+         * Finishes the scan once the last directory is read.
+         */
+        void finishDirectory() {
+            if (pendingDirectories.decrementAndGet() == 0) {
+                tree.finish();
+                result.complete(tree);
+            }
+        }
+    }
+
+    /**
+     * Reads one directory, records its files, and scans its sub-folders as
+     * tasks of their own.
+     */
+    private static class DirectoryTask implements Runnable {
+        private final Scan scan;
+
+        private final Path directory;
+
+        private final int id;
+
+        DirectoryTask(Scan scan, Path directory, int id) {
+            this.scan = scan;
+            this.directory = directory;
+            this.id = id;
+        }
+
+        @Override
+        public void run() {
+            try {
+                compute();
+            } finally {
+                scan.finishDirectory();
+            }
+        }
+
+        private void compute() {
+            if (scan.cancelled().get() || isExcluded(directory.toString()))
+                return;
+
+            long fileBytes = 0;
+            long fileCount = 0;
+            ArrayList<DirectoryTask> subTasks = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for (Path child : stream) {
+                    BasicFileAttributes attributes;
+                    try {
+                        attributes = Files.readAttributes(child,
+                                BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (IOException e) {
+                        continue;
+                    }
+
+                    if (attributes.isDirectory()) {
+                        if (scan.rootDevice() != null
+                                && !scan.rootDevice().equals(getDevice(child)))
+                            continue;
+                        int childId = scan.tree().addDirectory(id,
+                                child.getFileName().toString());
+                        subTasks.add(new DirectoryTask(scan, child, childId));
+                    } else {
+                        fileBytes += attributes.size();
+                        fileCount++;
+                    }
+                }
+            } catch (IOException | DirectoryIteratorException e) {
+                // Unreadable folders count as empty.
+            }
+
+            scan.tree().setFiles(id, fileBytes, fileCount);
+            scan.addFiles(fileCount);
+            for (DirectoryTask subTask : subTasks)
+                scan.submit(subTask);
+        }
+    }
+
+    //endregion
+}
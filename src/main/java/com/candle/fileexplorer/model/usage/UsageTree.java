@@ -0,0 +1,221 @@
+package com.candle.fileexplorer.model.usage;
+
+import java.util.Arrays;
+
+/**
+ * The directories found by a disk usage scan, stored as parallel primitive
+ * arrays indexed by directory id.
+ * Files are never stored on their own; each directory only counts the
+ * bytes and number of files directly inside it. That keeps a scan of ten
+ * million files down to the memory needed for its directories.
+ * Directories are added while the scan runs, from any thread. Once
+ * {@link #finish()} is called, the counts include everything below each
+ * directory and the children of each directory are sorted largest first.
+ */
+public class UsageTree {
+    //region Public Members/Properties
+
+    /**
+     * The id of the scanned directory.
+     */
+    public static final int root = 0;
+
+    //endregion
+
+    //region Private Members
+
+    /**
+     * The absolute path to the scanned directory.
+     */
+    private final String rootPath;
+
+    private int count;
+
+    private String[] names;
+
+    /**
+     * The id of each directory's parent. The root's parent is -1.
+     */
+    private int[] parents;
+
+    private long[] bytes;
+
+    private long[] files;
+
+    /**
+     * Where each directory's children start in {@link #childIds}, built by
+     * {@link #finish()}. The children of id i are at
+     * [childStart[i], childStart[i + 1]).
+     */
+    private int[] childStart;
+
+    private int[] childIds;
+
+    //endregion
+
+    //region Constructors
+
+    /**
+     * Creates a tree that holds only the root directory.
+     *
+     * @param rootPath The absolute path to the scanned directory.
+     */
+    public UsageTree(String rootPath) {
+        this.rootPath = rootPath;
+        int capacity = 1024;
+        names = new String[capacity];
+        parents = new int[capacity];
+        bytes = new long[capacity];
+        files = new long[capacity];
+
+        names[root] = rootPath;
+        parents[root] = -1;
+        count = 1;
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Adds a directory below an existing one.
+     *
+     * @return The id of the new directory. Ids are always larger than the
+     * id of their parent.
+     */
+    public synchronized int addDirectory(int parent, String name) {
+        if (childStart != null)
+            throw new IllegalStateException("The tree is already finished.");
+        if (count == names.length) {
+            int capacity = names.length * 2;
+            names = Arrays.copyOf(names, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            bytes = Arrays.copyOf(bytes, capacity);
+            files = Arrays.copyOf(files, capacity);
+        }
+        names[count] = name;
+        parents[count] = parent;
+        return count++;
+    }
+
+    /**
+     * Records the files found directly inside a directory.
+     */
+    public synchronized void setFiles(int id, long fileBytes, long fileCount) {
+        bytes[id] = fileBytes;
+        files[id] = fileCount;
+    }
+
+    /**
+     * Adds up the sizes from the bottom of the tree and sorts the children
+     * of every directory by size. Nothing can be added afterwards.
+     */
+    public synchronized void finish() {
+        if (childStart != null)
+            return;
+
+        // Children always have larger ids than their parents, so walking
+        // the ids backwards visits every child before its parent.
+        int[] childCounts = new int[count + 1];
+        for (int id = count - 1; id > root; id--) {
+            bytes[parents[id]] += bytes[id];
+            files[parents[id]] += files[id];
+            childCounts[parents[id]]++;
+        }
+
+        childStart = new int[count + 1];
+        for (int id = 0; id < count; id++)
+            childStart[id + 1] = childStart[id] + childCounts[id];
+        childIds = new int[Math.max(0, count - 1)];
+        int[] next = Arrays.copyOf(childStart, count);
+        for (int id = root + 1; id < count; id++)
+            childIds[next[parents[id]]++] = id;
+
+        for (int id = 0; id < count; id++) {
+            int start = childStart[id];
+            int end = childStart[id + 1];
+            if (end - start > 1)
+                sortBySize(start, end);
+        }
+
+        // Trim the arrays to what was used.
+        names = Arrays.copyOf(names, count);
+        parents = Arrays.copyOf(parents, count);
+        bytes = Arrays.copyOf(bytes, count);
+        files = Arrays.copyOf(files, count);
+    }
+
+    public String getRootPath() {
+        return rootPath;
+    }
+
+    /**
+     * Gets the number of directories in the tree.
+     */
+    public synchronized int size() {
+        return count;
+    }
+
+    public synchronized String getName(int id) {
+        return names[id];
+    }
+
+    public synchronized int getParent(int id) {
+        return parents[id];
+    }
+
+    /**
+     * Gets the size of a directory. Before the tree is finished, this only
+     * counts the files directly inside it.
+     */
+    public synchronized long getBytes(int id) {
+        return bytes[id];
+    }
+
+    /**
+     * Gets the number of files in a directory. Before the tree is finished,
+     * this only counts the files directly inside it.
+     */
+    public synchronized long getFileCount(int id) {
+        return files[id];
+    }
+
+    /**
+     * Gets the ids of a directory's children, largest first.
+     */
+    public synchronized int[] getChildren(int id) {
+        if (childStart == null)
+            throw new IllegalStateException("The tree isn't finished yet.");
+        return Arrays.copyOfRange(childIds, childStart[id], childStart[id + 1]);
+    }
+
+    /**
+     * Gets the absolute path to a directory.
+     */
+    public synchronized String getPath(int id) {
+        if (id == root)
+            return rootPath;
+        StringBuilder path = new StringBuilder();
+        for (int current = id; current != root; current = parents[current])
+            path.insert(0, "/" + names[current]);
+        return rootPath.endsWith("/") ? rootPath + path.substring(1) : rootPath + path;
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    /**
+     * Sorts a range of {@link #childIds} by size, largest first.
+     */
+    private void sortBySize(int start, int end) {
+        Integer[] range = new Integer[end - start];
+        for (int i = start; i < end; i++)
+            range[i - start] = childIds[i];
+        Arrays.sort(range, (a, b) -> Long.compare(bytes[b], bytes[a]));
+        for (int i = start; i < end; i++)
+            childIds[i] = range[i - start];
+    }
+
+    //endregion
+}
@@ -0,0 +1,162 @@
+package com.candle.fileexplorer.view;
+
+import com.candle.fileexplorer.model.helpers.FileOperations;
+import com.candle.fileexplorer.model.metrics.MetricsExporter;
+import com.candle.fileexplorer.viewmodel.DiagnosticsViewModel;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.fxml.FXML;
+import javafx.scene.control.*;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+
+import java.io.File;
+import java.util.function.Function;
+
+/**
+ * The view class for the "diagnostics" sub-window.
+ * The app's metrics are listed in a table that updates every second, and
+ * can be saved as JSON or in the Prometheus text format.
+ */
+public class DiagnosticsController {
+    //region Private Members
+
+    //region GUI Elements
+
+    @FXML
+    private TableView<DiagnosticsViewModel.Row> metricsTable;
+
+    @FXML
+    private TableColumn<DiagnosticsViewModel.Row, String> nameColumn;
+
+    @FXML
+    private TableColumn<DiagnosticsViewModel.Row, String> countColumn;
+
+    @FXML
+    private TableColumn<DiagnosticsViewModel.Row, String> meanColumn;
+
+    @FXML
+    private TableColumn<DiagnosticsViewModel.Row, String> medianColumn;
+
+    @FXML
+    private TableColumn<DiagnosticsViewModel.Row, String> p95Column;
+
+    @FXML
+    private TableColumn<DiagnosticsViewModel.Row, String> maxColumn;
+
+    @FXML
+    private Label statusLabel;
+
+    //endregion
+
+    private DiagnosticsViewModel viewModel;
+
+    private Timeline refreshTimeline;
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Initializes the window and starts updating the metrics.
+     */
+    public void init(DiagnosticsViewModel viewModel) {
+        this.viewModel = viewModel;
+
+        statusLabel.textProperty().bind(viewModel.statusProperty());
+        setColumn(nameColumn, DiagnosticsViewModel.Row::name);
+        setColumn(countColumn, DiagnosticsViewModel.Row::count);
+        setColumn(meanColumn, DiagnosticsViewModel.Row::mean);
+        setColumn(medianColumn, DiagnosticsViewModel.Row::median);
+        setColumn(p95Column, DiagnosticsViewModel.Row::p95);
+        setColumn(maxColumn, DiagnosticsViewModel.Row::max);
+        metricsTable.setRowFactory(table -> new TableRow<>() {
+            @Override
+            protected void updateItem(DiagnosticsViewModel.Row row, boolean empty) {
+                super.updateItem(row, empty);
+                setTooltip(empty || row == null ? null : new Tooltip(row.help()));
+            }
+        });
+        metricsTable.setItems(viewModel.getRows());
+
+        viewModel.refresh();
+        refreshTimeline = new Timeline(new KeyFrame(Duration.seconds(1),
+                event -> refreshKeepingSelection()));
+        refreshTimeline.setCycleCount(Animation.INDEFINITE);
+        refreshTimeline.play();
+    }
+
+    /**
+     * Stops updating the metrics once the window is closed.
+     */
+    public void stopRefreshing() {
+        if (refreshTimeline != null)
+            refreshTimeline.stop();
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    @FXML
+    private void onKeyPressed(KeyEvent event) {
+        if (event.getCode() == KeyCode.ESCAPE) {
+            Stage stage = (Stage) metricsTable.getScene().getWindow();
+            stage.close();
+        }
+    }
+
+    @FXML
+    private void exportJson() {
+        export(MetricsExporter.Format.Json);
+    }
+
+    @FXML
+    private void exportPrometheus() {
+        export(MetricsExporter.Format.Prometheus);
+    }
+
+    /**
+     * Asks where to save the metrics, then saves them there.
+     */
+    private void export(MetricsExporter.Format format) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export Metrics");
+        chooser.setInitialFileName("files-metrics." + format.getExtension());
+        File cacheDirectory = new File(FileOperations.getCacheDirectory());
+        if (cacheDirectory.isDirectory())
+            chooser.setInitialDirectory(cacheDirectory);
+
+        File file = chooser.showSaveDialog(metricsTable.getScene().getWindow());
+        if (file != null)
+            viewModel.export(format, file.toPath());
+    }
+
+    /**
+     * Updates the rows without losing the selected metric.
+     */
+    private void refreshKeepingSelection() {
+        DiagnosticsViewModel.Row selected = metricsTable.getSelectionModel().getSelectedItem();
+        viewModel.refresh();
+        if (selected == null)
+            return;
+        for (DiagnosticsViewModel.Row row : viewModel.getRows()) {
+            if (row.name().equals(selected.name())) {
+                metricsTable.getSelectionModel().select(row);
+                return;
+            }
+        }
+    }
+
+    private static void setColumn(TableColumn<DiagnosticsViewModel.Row, String> column,
+                                  Function<DiagnosticsViewModel.Row, String> value) {
+        column.setCellValueFactory(cell -> new ReadOnlyStringWrapper(value.apply(cell.getValue())));
+    }
+
+    //endregion
+}
@@ -1,13 +1,20 @@
 package com.candle.fileexplorer.view;
 
+import com.candle.fileexplorer.core.ViewHandler;
+import com.candle.fileexplorer.model.usage.DriveSpace;
 import com.candle.fileexplorer.viewmodel.DirectoryButtonViewModel;
+import javafx.css.PseudoClass;
 import javafx.event.ActionEvent;
-import javafx.scene.control.Button;
-import javafx.scene.control.ContextMenu;
-import javafx.scene.control.MenuItem;
+import javafx.geometry.Pos;
+import javafx.scene.control.*;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import org.apache.commons.io.FileUtils;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 
@@ -27,6 +34,11 @@ public class DirectoryButtonController extends Button {
      */
     private final DirectoryButtonViewModel viewModel;
 
+    /**
+     * Set on the usage bar of a drive that's at least 90% full.
+     */
+    private static final PseudoClass nearlyFull = PseudoClass.getPseudoClass("nearly-full");
+
     //endregion
 
     //region Constructor
@@ -49,6 +61,66 @@ public class DirectoryButtonController extends Button {
 
     //endregion
 
+    //region Public Methods
+
+    /**
+     * Adds a context menu that opens the disk usage view for this button's
+     * directory. Used for the drive buttons.
+     */
+    public void addDiskUsageMenu() {
+        MenuItem diskUsageItem = new MenuItem("Analyze Disk Usage...");
+        diskUsageItem.setOnAction(e -> {
+            try {
+                ViewHandler.getInstance().openSubView("DiskUsage",
+                        viewModel.getDirectoryPath());
+            } catch (IOException ex) {
+                ex.printStackTrace();
+            }
+        });
+        this.setContextMenu(new ContextMenu(diskUsageItem));
+    }
+
+    /**
+     * Shows a bar under the drive's name with how full it is, along with
+     * the free and total space. Both stay hidden until the drive's space has
+     * been read.
+     */
+    public void addDriveSpaceBar() {
+        ProgressBar usageBar = new ProgressBar(0);
+        usageBar.getStyleClass().add("drive-usage");
+        usageBar.setMaxWidth(Double.MAX_VALUE);
+        Label spaceLabel = new Label();
+        spaceLabel.getStyleClass().add("drive-space");
+
+        VBox details = new VBox(2, new Label(viewModel.getDirectoryName()), usageBar, spaceLabel);
+        HBox.setHgrow(details, Priority.ALWAYS);
+        HBox content = new HBox(5, getGraphic(), details);
+        content.setAlignment(Pos.TOP_LEFT);
+        setText(null);
+        setGraphic(content);
+
+        Runnable update = () -> {
+            DriveSpace space = viewModel.driveSpaceProperty().get();
+            usageBar.setVisible(space != null);
+            usageBar.setManaged(space != null);
+            spaceLabel.setVisible(space != null);
+            spaceLabel.setManaged(space != null);
+            if (space == null)
+                return;
+
+            usageBar.setProgress(space.getUsedFraction());
+            // Flag drives that are nearly full, the way most file managers do.
+            usageBar.pseudoClassStateChanged(nearlyFull, space.getUsedFraction() >= 0.9);
+            spaceLabel.setText(viewModel.getDriveSpaceDescription());
+            setTooltip(new Tooltip(FileUtils.byteCountToDisplaySize(space.getUsedBytes())
+                    + " used of " + FileUtils.byteCountToDisplaySize(space.totalBytes())));
+        };
+        viewModel.driveSpaceProperty().addListener((observable, oldValue, newValue) -> update.run());
+        update.run();
+    }
+
+    //endregion
+
     //region Private Methods
 
     /**
@@ -0,0 +1,258 @@
+package com.candle.fileexplorer.view;
+
+import com.candle.fileexplorer.model.usage.SquarifiedTreemap;
+import com.candle.fileexplorer.viewmodel.DiskUsageViewModel;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.ListChangeListener;
+import javafx.collections.transformation.SortedList;
+import javafx.fxml.FXML;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.*;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.stage.Stage;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * The view class for the "disk usage" sub-window.
+ * The contents of the current directory are drawn as a treemap, with the
+ * same entries listed in a sortable table next to it.
+ */
+public class DiskUsageController {
+    //region Private Members
+
+    //region GUI Elements
+
+    @FXML
+    private Button upButton;
+
+    @FXML
+    private Button rescanButton;
+
+    @FXML
+    private Button stopButton;
+
+    @FXML
+    private Label pathLabel;
+
+    @FXML
+    private Label statusLabel;
+
+    @FXML
+    private Pane treemapPane;
+
+    @FXML
+    private Canvas treemapCanvas;
+
+    @FXML
+    private TableView<DiskUsageViewModel.Entry> entriesTable;
+
+    @FXML
+    private TableColumn<DiskUsageViewModel.Entry, String> nameColumn;
+
+    @FXML
+    private TableColumn<DiskUsageViewModel.Entry, Long> sizeColumn;
+
+    @FXML
+    private TableColumn<DiskUsageViewModel.Entry, Long> filesColumn;
+
+    //endregion
+
+    /**
+     * The colors used for the treemap rectangles, in turn.
+     */
+    private static final Color[] palette = {
+            Color.web("#5B8DEF"), Color.web("#F2994A"), Color.web("#6FCF97"),
+            Color.web("#EB5757"), Color.web("#BB6BD9"), Color.web("#56CCF2"),
+            Color.web("#F2C94C"), Color.web("#9B9B9B")};
+
+    private DiskUsageViewModel viewModel;
+
+    /**
+     * Where each entry was drawn, as returned by
+     * {@link SquarifiedTreemap#layout}.
+     */
+    private double[] rectangles = new double[0];
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Initializes the window and starts scanning the given path.
+     */
+    public void init(DiskUsageViewModel viewModel, String path) {
+        this.viewModel = viewModel;
+
+        pathLabel.textProperty().bind(viewModel.currentPathProperty());
+        statusLabel.textProperty().bind(viewModel.statusProperty());
+        stopButton.disableProperty().bind(viewModel.scanningProperty().not());
+        rescanButton.disableProperty().bind(viewModel.scanningProperty());
+
+        nameColumn.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().name()));
+        sizeColumn.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().bytes()));
+        filesColumn.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().files()));
+        sizeColumn.setCellFactory(column -> new TableCell<>() {
+            @Override
+            protected void updateItem(Long bytes, boolean empty) {
+                super.updateItem(bytes, empty);
+                setText(empty || bytes == null ? null : FileUtils.byteCountToDisplaySize(bytes));
+            }
+        });
+        // Sorting the table mustn't reorder the view model's list, which
+        // the treemap needs largest first.
+        SortedList<DiskUsageViewModel.Entry> sortedEntries =
+                new SortedList<>(viewModel.getEntries());
+        sortedEntries.comparatorProperty().bind(entriesTable.comparatorProperty());
+        entriesTable.setItems(sortedEntries);
+
+        // Keep the canvas the size of its pane, and redraw whenever either
+        // the size or the entries change.
+        treemapCanvas.widthProperty().bind(treemapPane.widthProperty());
+        treemapCanvas.heightProperty().bind(treemapPane.heightProperty());
+        treemapCanvas.widthProperty().addListener((observable, oldValue, newValue) -> drawTreemap());
+        treemapCanvas.heightProperty().addListener((observable, oldValue, newValue) -> drawTreemap());
+        viewModel.getEntries().addListener(
+                (ListChangeListener<DiskUsageViewModel.Entry>) c -> {
+                    upButton.setDisable(!viewModel.canGoUp());
+                    drawTreemap();
+                });
+        upButton.setDisable(true);
+
+        viewModel.scan(path);
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    @FXML
+    private void onKeyPressed(KeyEvent event) {
+        switch (event.getCode()) {
+            case ESCAPE -> closeWindow();
+            case BACK_SPACE -> viewModel.goUp();
+            case ENTER -> viewModel.openEntry(entriesTable.getSelectionModel().getSelectedItem());
+        }
+    }
+
+    @FXML
+    private void goUp() {
+        viewModel.goUp();
+    }
+
+    @FXML
+    private void rescan() {
+        viewModel.rescan();
+    }
+
+    @FXML
+    private void stopScan() {
+        viewModel.cancelScan();
+    }
+
+    /**
+     * Selects the clicked entry in the table. A double click opens it, and
+     * a middle click shows it in the main window.
+     */
+    @FXML
+    private void handleTreemapClick(MouseEvent event) {
+        DiskUsageViewModel.Entry entry = getEntryAt(event.getX(), event.getY());
+        if (entry == null)
+            return;
+
+        entriesTable.getSelectionModel().select(entry);
+        entriesTable.scrollTo(entry);
+        openEntry(entry, event);
+    }
+
+    @FXML
+    private void handleTableClick(MouseEvent event) {
+        openEntry(entriesTable.getSelectionModel().getSelectedItem(), event);
+    }
+
+    private void openEntry(DiskUsageViewModel.Entry entry, MouseEvent event) {
+        if (entry == null)
+            return;
+        if (event.getButton() == MouseButton.MIDDLE) {
+            viewModel.showInFiles(entry);
+            closeWindow();
+        } else if (event.getClickCount() == 2) {
+            viewModel.openEntry(entry);
+        }
+    }
+
+    /**
+     * Draws the entries of the current directory, largest first, with their
+     * names on the rectangles that are big enough to hold them.
+     */
+    private void drawTreemap() {
+        GraphicsContext graphics = treemapCanvas.getGraphicsContext2D();
+        double width = treemapCanvas.getWidth();
+        double height = treemapCanvas.getHeight();
+        graphics.clearRect(0, 0, width, height);
+
+        // The entries are kept largest first, which is the order the
+        // layout expects.
+        int count = viewModel.getEntries().size();
+        long[] sizes = new long[count];
+        for (int i = 0; i < count; i++)
+            sizes[i] = viewModel.getEntries().get(i).bytes();
+        rectangles = SquarifiedTreemap.layout(sizes, 0, 0, width, height);
+
+        graphics.setFont(Font.font(12));
+        graphics.setTextBaseline(VPos.TOP);
+        for (int i = 0; i < count; i++) {
+            double x = rectangles[i * 4];
+            double y = rectangles[i * 4 + 1];
+            double w = rectangles[i * 4 + 2];
+            double h = rectangles[i * 4 + 3];
+            if (w < 1 || h < 1)
+                continue;
+
+            graphics.setFill(palette[i % palette.length]);
+            graphics.fillRect(x, y, w, h);
+            graphics.setStroke(Color.WHITE);
+            graphics.strokeRect(x, y, w, h);
+
+            if (w > 60 && h > 34) {
+                DiskUsageViewModel.Entry entry = viewModel.getEntries().get(i);
+                graphics.setFill(Color.WHITE);
+                graphics.fillText(entry.name(), x + 4, y + 4, w - 8);
+                graphics.fillText(FileUtils.byteCountToDisplaySize(entry.bytes()),
+                        x + 4, y + 18, w - 8);
+            }
+        }
+    }
+
+    /**
+     * Finds the entry drawn at the given point on the canvas.
+     */
+    private DiskUsageViewModel.Entry getEntryAt(double x, double y) {
+        int count = Math.min(viewModel.getEntries().size(), rectangles.length / 4);
+        for (int i = 0; i < count; i++) {
+            double left = rectangles[i * 4];
+            double top = rectangles[i * 4 + 1];
+            if (x >= left && y >= top && x < left + rectangles[i * 4 + 2]
+                    && y < top + rectangles[i * 4 + 3])
+                return viewModel.getEntries().get(i);
+        }
+        return null;
+    }
+
+    /**
+     * Stops the scan and closes the "Disk Usage" window.
+     */
+    private void closeWindow() {
+        viewModel.cancelScan();
+        Stage stage = (Stage) treemapPane.getScene().getWindow();
+        stage.close();
+    }
+
+    //endregion
+}
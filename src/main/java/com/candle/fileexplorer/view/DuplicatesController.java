@@ -0,0 +1,219 @@
+package com.candle.fileexplorer.view;
+
+import com.candle.fileexplorer.core.ViewHandler;
+import com.candle.fileexplorer.model.usage.DuplicateGroup;
+import com.candle.fileexplorer.viewmodel.DuplicatesViewModel;
+import javafx.collections.ListChangeListener;
+import javafx.fxml.FXML;
+import javafx.scene.control.*;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.stage.Stage;
+import org.apache.commons.io.FileUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+
+/**
+ * The view class for the "find duplicates" sub-window.
+ * Each group of identical files is shown as a branch of the tree, with the
+ * copies as its leaves.
+ */
+public class DuplicatesController {
+    //region Private Members
+
+    //region GUI Elements
+
+    @FXML
+    private TextField folderField;
+
+    @FXML
+    private CheckBox hiddenCheckBox;
+
+    @FXML
+    private Button searchButton;
+
+    @FXML
+    private Button stopButton;
+
+    @FXML
+    private Label statusLabel;
+
+    @FXML
+    private TreeView<Object> groupsTree;
+
+    @FXML
+    private Button trashSelectedButton;
+
+    @FXML
+    private Button trashOthersButton;
+
+    @FXML
+    private Button linkButton;
+
+    //endregion
+
+    private DuplicatesViewModel viewModel;
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Initializes the window and starts searching the given folder.
+     */
+    public void init(DuplicatesViewModel viewModel, String path) {
+        this.viewModel = viewModel;
+
+        folderField.textProperty().bindBidirectional(viewModel.folderProperty());
+        hiddenCheckBox.selectedProperty().bindBidirectional(viewModel.includeHiddenProperty());
+        statusLabel.textProperty().bind(viewModel.statusProperty());
+        stopButton.disableProperty().bind(viewModel.searchingProperty().not());
+        searchButton.disableProperty().bind(viewModel.searchingProperty());
+
+        groupsTree.setRoot(new TreeItem<>());
+        groupsTree.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        groupsTree.setCellFactory(tree -> new TreeCell<>() {
+            @Override
+            protected void updateItem(Object item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null)
+                    setText(null);
+                else if (item instanceof DuplicateGroup group)
+                    setText(group.files().size() + " × "
+                            + FileUtils.byteCountToDisplaySize(group.size())
+                            + " (" + FileUtils.byteCountToDisplaySize(group.getWastedBytes())
+                            + " wasted)");
+                else
+                    setText(item.toString());
+            }
+        });
+        viewModel.getGroups().addListener((ListChangeListener<DuplicateGroup>) c -> updateTree());
+
+        viewModel.folderProperty().setValue(path);
+        viewModel.search();
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    @FXML
+    private void onKeyPressed(KeyEvent event) {
+        switch (event.getCode()) {
+            case ESCAPE -> closeWindow();
+            case DELETE -> trashSelected();
+        }
+    }
+
+    @FXML
+    private void search() {
+        viewModel.search();
+    }
+
+    @FXML
+    private void stopSearch() {
+        viewModel.cancelSearch();
+    }
+
+    /**
+     * Sends the selected copies to the trash. Selecting a whole group trashes
+     * every copy but the first, so one copy is always kept.
+     */
+    @FXML
+    private void trashSelected() {
+        LinkedHashSet<Path> files = new LinkedHashSet<>();
+        for (TreeItem<Object> item : groupsTree.getSelectionModel().getSelectedItems()) {
+            if (item == null)
+                continue;
+            if (item.getValue() instanceof DuplicateGroup group)
+                files.addAll(group.files().subList(1, group.files().size()));
+            else if (item.getValue() instanceof Path file)
+                files.add(file);
+        }
+        viewModel.trashFiles(files).thenAccept(failures -> reportFailures(failures, "trashed"));
+    }
+
+    @FXML
+    private void trashOthers() {
+        viewModel.trashExtraCopies(getSelectedGroups())
+                .thenAccept(failures -> reportFailures(failures, "trashed"));
+    }
+
+    @FXML
+    private void linkOthers() {
+        viewModel.linkExtraCopies(getSelectedGroups())
+                .thenAccept(failures -> reportFailures(failures, "replaced with hard links"));
+    }
+
+    /**
+     * A double click on a file shows it in the main window.
+     */
+    @FXML
+    private void handleTreeClick(MouseEvent event) {
+        TreeItem<Object> item = groupsTree.getSelectionModel().getSelectedItem();
+        if (item == null || !(item.getValue() instanceof Path file))
+            return;
+        if (event.getButton() == MouseButton.PRIMARY && event.getClickCount() == 2) {
+            viewModel.showInFiles(file);
+            closeWindow();
+        }
+    }
+
+    /**
+     * Gets the groups that are selected, or that hold a selected file.
+     */
+    private ArrayList<DuplicateGroup> getSelectedGroups() {
+        LinkedHashSet<DuplicateGroup> groups = new LinkedHashSet<>();
+        for (TreeItem<Object> item : groupsTree.getSelectionModel().getSelectedItems()) {
+            if (item == null)
+                continue;
+            if (item.getValue() instanceof DuplicateGroup group)
+                groups.add(group);
+            else if (item.getParent() != null
+                    && item.getParent().getValue() instanceof DuplicateGroup group)
+                groups.add(group);
+        }
+        return new ArrayList<>(groups);
+    }
+
+    /**
+     * Rebuilds the tree from the view model's groups.
+     */
+    private void updateTree() {
+        ArrayList<TreeItem<Object>> branches = new ArrayList<>();
+        for (DuplicateGroup group : viewModel.getGroups()) {
+            TreeItem<Object> branch = new TreeItem<>(group);
+            for (Path file : group.files())
+                branch.getChildren().add(new TreeItem<>(file));
+            branch.setExpanded(true);
+            branches.add(branch);
+        }
+        groupsTree.getRoot().getChildren().setAll(branches);
+    }
+
+    private void reportFailures(int failures, String action) {
+        if (failures == 0)
+            return;
+        try {
+            ViewHandler.getInstance().openSubView("Error", failures
+                    + (failures == 1 ? " file" : " files") + " could not be " + action + ".");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Stops the search and closes the "Find Duplicates" window.
+     */
+    private void closeWindow() {
+        viewModel.cancelSearch();
+        Stage stage = (Stage) groupsTree.getScene().getWindow();
+        stage.close();
+    }
+
+    //endregion
+}
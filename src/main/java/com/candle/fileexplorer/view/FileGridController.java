@@ -2,12 +2,19 @@ package com.candle.fileexplorer.view;
 
 import com.candle.fileexplorer.model.data.FileItem;
 import com.candle.fileexplorer.model.data.FileType;
-import com.candle.fileexplorer.model.helpers.FileOperations;
+import com.candle.fileexplorer.model.metrics.MetricsRegistry;
+import com.candle.fileexplorer.model.metrics.Timer;
+import com.candle.fileexplorer.model.profiling.FilesEvents;
+import com.candle.fileexplorer.model.search.TypeAheadIndex;
 import com.candle.fileexplorer.view.enums.GridSortOrder;
 import com.candle.fileexplorer.view.helpers.ContextMenuActions;
+import com.candle.fileexplorer.view.helpers.IconCache;
+import com.candle.fileexplorer.view.helpers.ItemSorter;
+import com.candle.fileexplorer.view.helpers.ThumbnailLoader;
 import com.candle.fileexplorer.viewmodel.FileGridViewModel;
-import javafx.collections.FXCollections;
+import javafx.application.Platform;
 import javafx.collections.ListChangeListener;
+import javafx.collections.MapChangeListener;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -16,12 +23,13 @@ import javafx.scene.Node;
 import javafx.scene.control.ContextMenu;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.image.Image;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
 import javafx.scene.input.MouseEvent;
-import javafx.scene.layout.GridPane;
+import javafx.scene.layout.Pane;
 
-import java.io.File;
 import java.io.IOException;
-import java.util.Comparator;
+import java.util.*;
 
 /**
  * The view class for the grid of files/folders in the GUI.
@@ -35,22 +43,94 @@ public class FileGridController extends ScrollPane {
     @FXML
     private ContextMenu contextMenu;
 
+    /**
+     * The pane holding the item views. Its height covers every row, but
+     * only the rows near the viewport have views in them.
+     */
     @FXML
-    private GridPane gridPane;
+    private Pane itemPane;
 
     //endregion
 
     /**
-     * The UI element that is currently focused.
+     * The width and height of an item view, in pixels.
+     */
+    private static final double cellSize = 128;
+
+    /**
+     * The space between item views, and around the edges of the grid.
+     */
+    private static final double cellGap = 10;
+
+    /**
+     * The number of rows above and below the viewport that also get views,
+     * so small scrolls don't show empty space.
+     */
+    private static final int overscanRows = 1;
+
+    /**
+     * How long a pause in typing starts a new type-ahead search, in
+     * milliseconds.
+     */
+    private static final long typeAheadTimeout = 1000;
+
+    /**
+     * Times sorting a listing and laying out the views for the part of it
+     * that's on screen.
      */
-    private Node focusedNode;
+    private static final Timer gridBuildTimer = MetricsRegistry.getDefault().timer(
+            "files_grid_build_seconds", "Time to sort a listing and lay out its grid");
+
+    /**
+     * The position in {@link #sortedItems} of the selected item, or -1 if
+     * nothing is selected.
+     */
+    private int focusedIndex = -1;
 
     private final ContextMenuActions contextMenuActions;
 
     /**
      * The number of columns to be used in the grid pane.
      */
-    private int maxColumns;
+    private int maxColumns = 1;
+
+    /**
+     * The view model's items, in the order they're shown.
+     */
+    private List<FileItem> sortedItems = new ArrayList<>();
+
+    /**
+     * The item views currently on screen, by their position in
+     * {@link #sortedItems}.
+     */
+    private final HashMap<Integer, FileItemController> visibleCells = new HashMap<>();
+
+    /**
+     * Item views that scrolled out of sight, kept to be reused.
+     */
+    private final ArrayDeque<FileItemController> spareCells = new ArrayDeque<>();
+
+    /**
+     * The lookup used for type-ahead. Built the first time a name is typed
+     * after the items change.
+     */
+    private TypeAheadIndex typeAheadIndex;
+
+    /**
+     * The text typed so far for type-ahead.
+     */
+    private final StringBuilder typeAheadText = new StringBuilder();
+
+    /**
+     * When the last type-ahead character was typed.
+     */
+    private long lastTypeAheadTime;
+
+    /**
+     * Whether a re-sort for newly calculated folder sizes is already
+     * waiting to run.
+     */
+    private boolean resortPending;
 
     /**
      * The order used to sort grid items.
@@ -66,14 +146,18 @@ public class FileGridController extends ScrollPane {
      * The file thumbnail image for use in file items that are of the type
      * "File."
      */
-    Image fileThumbnail = new Image("/com/candle/fileexplorer/images/64/File" +
-            ".png", 64, 64, true, false, true);
+    Image fileThumbnail = IconCache.get(IconCache.fileIcon, IconCache.thumbnailSize);
     /**
      * The folder thumbnail image for use in file items that are of the type
      * "Folder."
      */
-    Image folderThumbnail = new Image("/com/candle/fileexplorer/images/64" +
-            "/Folder.png", 64, 64, true, false, true);
+    Image folderThumbnail = IconCache.get(IconCache.folderIcon, IconCache.thumbnailSize);
+
+    /**
+     * Makes the previews of images, which replace the file thumbnail once
+     * they're ready.
+     */
+    private ThumbnailLoader thumbnails;
 
     //endregion
 
@@ -98,6 +182,10 @@ public class FileGridController extends ScrollPane {
 
     //region Accessors/Mutators
 
+    public GridSortOrder getSortOrder() {
+        return sortOrder;
+    }
+
     public void setSortOrder(GridSortOrder sortOrder) {
         this.sortOrder = sortOrder;
         updateGridContents();
@@ -114,30 +202,53 @@ public class FileGridController extends ScrollPane {
      */
     public void init(FileGridViewModel viewModel) {
         this.viewModel = viewModel;
+        thumbnails = ThumbnailLoader.getDefault(viewModel.getThumbnailExecutor());
 
         // Bind and setup contents
         setWidthEventHandlers();
+        vvalueProperty().addListener((observable, oldValue, newValue) -> {
+            layoutVisibleCells();
+            viewModel.scrollPositionProperty().set(getScrollFraction());
+        });
+        // The view model sets these when it restores a listing from the
+        // history.
+        viewModel.scrollPositionProperty().addListener((observable, oldValue, newValue) -> {
+            if (newValue.doubleValue() != getScrollFraction())
+                setVvalue(getVmin() + (getVmax() - getVmin()) * newValue.doubleValue());
+        });
+        viewModel.selectedPathProperty().addListener((observable, oldValue, newValue) -> {
+            FileItem selected = getSelectedFileItem();
+            if (newValue != null && (selected == null
+                    || !newValue.equals(selected.getItemDirectory())))
+                restoreSelection();
+        });
+        addEventFilter(KeyEvent.KEY_PRESSED, this::handleKeyPressed);
+        addEventFilter(KeyEvent.KEY_TYPED, this::handleKeyTyped);
         viewModel.getItems().addListener(this::listListener);
+        viewModel.getFolderSizes().addListener(this::folderSizeListener);
         updateGridContents();
 
         // Create context menu
         this.setContextMenu(contextMenu);
     }
 
-    public FileItemController getSelectedFileItem() {
-        Node focusedItem = gridPane.getScene().getFocusOwner();
-        if (focusedItem instanceof FileItemController)
-            return (FileItemController) focusedItem;
-        else
+    /**
+     * Gets the item that is currently selected in the grid.
+     *
+     * @return The item, or null if nothing is selected.
+     */
+    public FileItem getSelectedFileItem() {
+        if (focusedIndex < 0 || focusedIndex >= sortedItems.size())
             return null;
+        return sortedItems.get(focusedIndex);
     }
 
     /**
-     * Refreshes the contents of the view.
+     * Refreshes the contents of the view. The grid is redrawn when the
+     * view model's items change.
      */
     public void refresh() {
         viewModel.updateContents();
-        updateGridContents();
     }
 
     //endregion
@@ -217,9 +328,10 @@ public class FileGridController extends ScrollPane {
     private void openItemInDefaultApp(ActionEvent event) {
         String itemPath = getFocusedItemPath();
         if (!itemPath.equals(""))
-            contextMenuActions.openItemInDefaultApp(itemPath);
+            contextMenuActions.openItemInDefaultApp(itemPath, viewModel.getFilesModel());
         else
-            contextMenuActions.openItemInDefaultApp(viewModel.getCurrentDirectory());
+            contextMenuActions.openItemInDefaultApp(viewModel.getCurrentDirectory(),
+                    viewModel.getFilesModel());
     }
 
     //endregion
@@ -229,16 +341,20 @@ public class FileGridController extends ScrollPane {
      */
     @FXML
     private void handleMouseClick(MouseEvent event) {
-        focusedNode = getGridFileItem(event);
-        if (focusedNode == null)
+        Node clickedNode = getGridFileItem(event);
+        if (clickedNode == null)
             return;
+        for (Map.Entry<Integer, FileItemController> cell : visibleCells.entrySet()) {
+            if (cell.getValue() == clickedNode)
+                setFocusedIndex(cell.getKey());
+        }
 
         int openItemClickCount = 2;
         int selectedItemClickCount = 1;
 
         // Select the item.
         if (event.getClickCount() == selectedItemClickCount) {
-            focusedNode.requestFocus();
+            clickedNode.requestFocus();
         }
         // Open the item.
         else if (event.getClickCount() == openItemClickCount) {
@@ -246,6 +362,78 @@ public class FileGridController extends ScrollPane {
         }
     }
 
+    /**
+     * Moves the selection with the arrow, page and home/end keys, and
+     * opens the selected item with enter.
+     * This is a filter, so the scroll pane doesn't scroll on its own.
+     */
+    private void handleKeyPressed(KeyEvent event) {
+        if (sortedItems.isEmpty() || event.isShortcutDown() || event.isAltDown())
+            return;
+
+        int pageSize = maxColumns * Math.max(1, (int) (getViewportBounds().getHeight() / (cellSize + cellGap)));
+        int current = Math.max(focusedIndex, 0);
+        int target;
+        switch (event.getCode()) {
+            case LEFT -> target = current - 1;
+            case RIGHT -> target = (focusedIndex < 0) ? 0 : current + 1;
+            case UP -> target = current - maxColumns;
+            case DOWN -> target = (focusedIndex < 0) ? 0 : current + maxColumns;
+            case PAGE_UP -> target = current - pageSize;
+            case PAGE_DOWN -> target = current + pageSize;
+            case HOME -> target = 0;
+            case END -> target = sortedItems.size() - 1;
+            case ENTER -> {
+                if (focusedIndex >= 0)
+                    viewModel.setCurrentDirectory(getFocusedItemPath());
+                event.consume();
+                return;
+            }
+            default -> {
+                return;
+            }
+        }
+
+        // Up and down stay in the same column when there's no row to go to.
+        if (target < 0)
+            target = (event.getCode() == KeyCode.UP) ? current : 0;
+        if (target >= sortedItems.size()) {
+            target = (event.getCode() == KeyCode.DOWN)
+                    ? current : sortedItems.size() - 1;
+        }
+        selectItem(target);
+        event.consume();
+    }
+
+    /**
+     * Jumps to the first item whose name starts with the typed text.
+     * Typing again within a second adds to the text; otherwise the search
+     * starts over.
+     */
+    private void handleKeyTyped(KeyEvent event) {
+        String character = event.getCharacter();
+        if (sortedItems.isEmpty() || event.isShortcutDown() || event.isAltDown()
+                || character.isEmpty() || Character.isISOControl(character.charAt(0)))
+            return;
+
+        long now = System.currentTimeMillis();
+        if (now - lastTypeAheadTime > typeAheadTimeout)
+            typeAheadText.setLength(0);
+        lastTypeAheadTime = now;
+        typeAheadText.append(character);
+
+        if (typeAheadIndex == null) {
+            ArrayList<String> names = new ArrayList<>(sortedItems.size());
+            for (FileItem item : sortedItems)
+                names.add(item.getFileName());
+            typeAheadIndex = new TypeAheadIndex(names);
+        }
+        int index = typeAheadIndex.find(typeAheadText.toString());
+        if (index >= 0)
+            selectItem(index);
+        event.consume();
+    }
+
     //endregion
 
     //region Private Helper Methods
@@ -256,7 +444,7 @@ public class FileGridController extends ScrollPane {
      * @return The path, if found. Returns an empty string otherwise.
      */
     private String getFocusedItemPath() {
-        FileItemController item = (FileItemController) focusedNode;
+        FileItem item = getSelectedFileItem();
         if (item != null)
             return item.getItemDirectory();
         else
@@ -273,54 +461,250 @@ public class FileGridController extends ScrollPane {
     }
 
     /**
-     * Iterates through elements in the view model as it adds them to the
-     * grid view.
-     * Currently, the function re-adds everything when updated.
-     * TODO: Optimize the grid construction in the future.
+     * Shows a newly calculated folder size on the folder's view, if it has
+     * one. When sorting by size, the grid is sorted again once per pulse
+     * rather than once per folder.
+     */
+    private void folderSizeListener(MapChangeListener.Change<? extends String, ? extends Long> c) {
+        if (!c.wasAdded())
+            return;
+        for (FileItemController cell : visibleCells.values()) {
+            if (cell.getItemDirectory().equals(c.getKey()))
+                cell.setSize(c.getValueAdded());
+        }
+
+        if (sortOrder == GridSortOrder.Size && !resortPending) {
+            resortPending = true;
+            Platform.runLater(() -> {
+                resortPending = false;
+                resortKeepingSelection();
+            });
+        }
+    }
+
+    /**
+     * Sorts the grid again, keeping the same item selected.
+     */
+    private void resortKeepingSelection() {
+        FileItem selected = getSelectedFileItem();
+        updateGridContents();
+        if (selected != null) {
+            int index = sortedItems.indexOf(selected);
+            if (index >= 0)
+                selectItem(index);
+        }
+    }
+
+    /**
+     * Sorts the view model's items and resizes the grid to fit them.
+     * Item views are only created for the rows that are on screen; see
+     * {@link #layoutVisibleCells()}.
      */
     private void updateGridContents() {
-        gridPane.getChildren().clear();
+        FilesEvents.GridRebuild event = new FilesEvents.GridRebuild();
+        event.begin();
+        long start = gridBuildTimer.start();
+        sortedItems = sortItems(viewModel.getItems());
+        typeAheadIndex = null;
+        focusedIndex = -1;
+        resizeGrid();
+        restoreSelection();
+        gridBuildTimer.stop(start);
+        event.finish(viewModel.getCurrentDirectory(), sortedItems.size());
+    }
 
-        int columnNumber = 0;
-        int rowNumber = 0;
+    /**
+     * Selects the item the view model has as selected, if it's listed,
+     * without scrolling to it. The item's view only takes the keyboard
+     * focus if the grid already has it.
+     */
+    private void restoreSelection() {
+        String selectedPath = viewModel.selectedPathProperty().getValue();
+        if (selectedPath == null)
+            return;
+        for (int i = 0; i < sortedItems.size(); i++) {
+            if (!sortedItems.get(i).getItemDirectory().equals(selectedPath))
+                continue;
+
+            focusedIndex = i;
+            FileItemController cell = visibleCells.get(i);
+            if (cell != null && hasFocusInside())
+                cell.requestFocus();
+            return;
+        }
+    }
 
-        for (FileItem item : sortItems(viewModel.getItems())) {
-            // For each item, create a new view and add it to the grid at the
-            // specified column and row indexes.
-            FileItemController fileItemView = createFileView();
-            fileItemView.init(item, (item.getFileType() == FileType.File) ?
-                    fileThumbnail : folderThumbnail);
-            gridPane.add(fileItemView, columnNumber, rowNumber);
+    /**
+     * Checks whether the keyboard focus is on the grid or one of its item
+     * views.
+     */
+    private boolean hasFocusInside() {
+        if (getScene() == null)
+            return false;
+        for (Node node = getScene().getFocusOwner(); node != null; node = node.getParent()) {
+            if (node == this)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Sets the selected item, and tells the view model about it.
+     */
+    private void setFocusedIndex(int index) {
+        focusedIndex = index;
+        FileItem selected = getSelectedFileItem();
+        viewModel.selectedPathProperty().setValue(
+                (selected == null) ? null : selected.getItemDirectory());
+    }
+
+    /**
+     * Sets the grid's height for the current number of columns and places
+     * the item views again.
+     */
+    private void resizeGrid() {
+        // Every view now shows the wrong item, so they all go back to the
+        // pool and get rebound.
+        for (FileItemController cell : visibleCells.values())
+            releaseCell(cell);
+        visibleCells.clear();
+
+        int rows = (sortedItems.size() + maxColumns - 1) / maxColumns;
+        itemPane.setPrefHeight(cellGap + rows * (cellSize + cellGap));
+        layoutVisibleCells();
+    }
 
-            // Increment the column indexes.
-            columnNumber++;
-            if (columnNumber == maxColumns) {
-                columnNumber = 0;
-                rowNumber++;
+    /**
+     * Gives a view to every item in the rows near the viewport, and takes
+     * them away from the items that scrolled out of sight.
+     */
+    private void layoutVisibleCells() {
+        if (viewModel == null)
+            return;
+
+        double rowHeight = cellSize + cellGap;
+        double viewportHeight = getViewportBounds().getHeight();
+        double scrollTop = getScrollTop();
+
+        int firstRow = Math.max(0, (int) ((scrollTop - cellGap) / rowHeight) - overscanRows);
+        int lastRow = (int) ((scrollTop + viewportHeight) / rowHeight) + overscanRows;
+        int firstIndex = firstRow * maxColumns;
+        int lastIndex = Math.min(sortedItems.size() - 1, (lastRow + 1) * maxColumns - 1);
+        // The overscan rows get views too, but their previews can wait.
+        int firstOnScreen = Math.max(0, (int) ((scrollTop - cellGap) / rowHeight)) * maxColumns;
+        int lastOnScreen = ((int) ((scrollTop + viewportHeight) / rowHeight) + 1) * maxColumns - 1;
+
+        Iterator<Map.Entry<Integer, FileItemController>> iterator =
+                visibleCells.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, FileItemController> cell = iterator.next();
+            if (cell.getKey() < firstIndex || cell.getKey() > lastIndex) {
+                releaseCell(cell.getValue());
+                iterator.remove();
+            } else {
+                thumbnails.setOnScreen(cell.getValue(),
+                        cell.getKey() >= firstOnScreen && cell.getKey() <= lastOnScreen);
             }
         }
 
+        for (int index = firstIndex; index <= lastIndex; index++) {
+            if (visibleCells.containsKey(index))
+                continue;
+
+            FileItem item = sortedItems.get(index);
+            FileItemController cell = spareCells.isEmpty() ? createFileView() : spareCells.pop();
+            cell.init(item, (item.getFileType() == FileType.File) ?
+                    fileThumbnail : folderThumbnail);
+            if (item.getFileType() != FileType.File)
+                cell.setSize(viewModel.getFolderSize(item.getItemDirectory()));
+            else if (ThumbnailLoader.canPreview(item.getFileName()))
+                thumbnails.request(cell, item.getItemDirectory(), item.getLastModifiedTime(),
+                        index >= firstOnScreen && index <= lastOnScreen, cell::setPreview);
+            cell.relocate(cellGap + (index % maxColumns) * (cellSize + cellGap),
+                    cellGap + (index / maxColumns) * rowHeight);
+            cell.setVisible(true);
+            visibleCells.put(index, cell);
+        }
+    }
+
+    /**
+     * Hides an item view and puts it back in the pool, dropping its preview
+     * if that's still loading. If it had the keyboard focus, the grid takes
+     * it so key presses still arrive here.
+     */
+    private void releaseCell(FileItemController cell) {
+        thumbnails.cancel(cell);
+        if (cell.isFocused())
+            requestFocus();
+        cell.setVisible(false);
+        spareCells.push(cell);
+    }
+
+    /**
+     * Selects the item at the given position, scrolling it into view first
+     * so that it has a view to focus.
+     */
+    private void selectItem(int index) {
+        setFocusedIndex(index);
+        scrollToItem(index);
+        layoutVisibleCells();
+
+        FileItemController cell = visibleCells.get(index);
+        if (cell != null)
+            cell.requestFocus();
+    }
+
+    /**
+     * Scrolls the least amount needed for the item's row to be in view.
+     */
+    private void scrollToItem(int index) {
+        double viewportHeight = getViewportBounds().getHeight();
+        double scrollRange = itemPane.getPrefHeight() - viewportHeight;
+        if (scrollRange <= 0)
+            return;
+
+        double rowTop = cellGap + (index / maxColumns) * (cellSize + cellGap);
+        double scrollTop = getScrollTop();
+        if (rowTop - cellGap < scrollTop)
+            scrollTop = rowTop - cellGap;
+        else if (rowTop + cellSize + cellGap > scrollTop + viewportHeight)
+            scrollTop = rowTop + cellSize + cellGap - viewportHeight;
+        else
+            return;
+
+        setVvalue(getVmin() + (getVmax() - getVmin())
+                * Math.max(0, Math.min(1, scrollTop / scrollRange)));
+    }
+
+    /**
+     * Gets how far down the grid is scrolled, from 0 to 1.
+     */
+    private double getScrollFraction() {
+        if (getVmax() == getVmin())
+            return 0;
+        return (getVvalue() - getVmin()) / (getVmax() - getVmin());
+    }
+
+    /**
+     * Gets how far down the grid is scrolled, in pixels.
+     */
+    private double getScrollTop() {
+        double scrollRange = itemPane.getPrefHeight() - getViewportBounds().getHeight();
+        if (scrollRange <= 0 || getVmax() == getVmin())
+            return 0;
+        return (getVvalue() - getVmin()) / (getVmax() - getVmin()) * scrollRange;
     }
 
     /**
      * Using the defined sort order, this function reorganizes a list of
      * FileItemViewModels.
      */
-    private ObservableList<FileItem> sortItems(ObservableList<FileItem> items) {
-        // I duplicate the array to prevent the function from making changes
-        // to the underlying view model's data. (Otherwise, this causes a
-        // stack overflow error).
-        ObservableList<FileItem> newItemList =
-                FXCollections.observableArrayList(items);
-
-        switch (sortOrder) {
-            // Sorts based on the alphabetical name of each item.
-            case Name ->
-                    newItemList.sort((o1, o2) -> o1.getFileName().compareToIgnoreCase(o2.getFileName()));
-            // Sorts based on the last modified date of each item.
-            case Modified -> newItemList.sort(Comparator.comparing(FileItem::getLastModifiedTime));
-        }
-        return newItemList;
+    private List<FileItem> sortItems(ObservableList<FileItem> items) {
+        FilesEvents.Sort event = new FilesEvents.Sort();
+        event.begin();
+        List<FileItem> sorted = ItemSorter.sort(items, sortOrder, viewModel::getFolderSize);
+        event.finish(viewModel.getCurrentDirectory(), sorted.size());
+        return sorted;
     }
 
     /**
@@ -329,7 +713,10 @@ public class FileGridController extends ScrollPane {
     private FileItemController createFileView() {
         // Create the view
         FileItemController fileItemView = new FileItemController();
+        fileItemView.setManaged(false);
         // Load the FXML file
+        FilesEvents.FxmlLoad event = new FilesEvents.FxmlLoad();
+        event.begin();
         FXMLLoader loader = new FXMLLoader();
         loader.setLocation(getClass().getResource("/com/candle/fileexplorer" +
                 "/view/FileItemView.fxml"));
@@ -343,6 +730,9 @@ public class FileGridController extends ScrollPane {
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+        fileItemView.resize(cellSize, cellSize);
+        itemPane.getChildren().add(fileItemView);
+        event.finish("FileItemView.fxml", itemPane.getChildren().size());
         return fileItemView;
     }
 
@@ -353,10 +743,10 @@ public class FileGridController extends ScrollPane {
     private Node getGridFileItem(MouseEvent event) {
         Node clickedNode = event.getPickResult().getIntersectedNode();
         // Get a child element of the grid.
-        if (clickedNode != gridPane) {
+        if (clickedNode != itemPane) {
             // Walk up the hierarchy to get a direct sub-item of the grid
             Node parent = clickedNode.getParent();
-            while (parent != gridPane) {
+            while (parent != itemPane) {
                 clickedNode = parent;
                 parent = clickedNode.getParent();
             }
@@ -370,9 +760,14 @@ public class FileGridController extends ScrollPane {
      * always has the correct number of columns.
      */
     private void setWidthEventHandlers() {
-        this.widthProperty().addListener((observable, oldValue, newValue) -> {
-            maxColumns = (int) (newValue.doubleValue() / 145);
-            updateGridContents();
+        this.viewportBoundsProperty().addListener((observable, oldValue, newValue) -> {
+            int columns = Math.max(1, (int) ((newValue.getWidth() - cellGap) / (cellSize + cellGap)));
+            if (columns != maxColumns) {
+                maxColumns = columns;
+                resizeGrid();
+            } else {
+                layoutVisibleCells();
+            }
         });
     }
 
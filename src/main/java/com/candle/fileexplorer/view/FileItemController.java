@@ -6,6 +6,7 @@ import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.VBox;
+import org.apache.commons.io.FileUtils;
 
 import java.io.File;
 
@@ -27,6 +28,12 @@ public class FileItemController extends VBox {
     @FXML
     private ImageView filePreview;
 
+    /**
+     * The size of a folder, shown once it has been calculated.
+     */
+    @FXML
+    private Label fileSize;
+
     private FileItem fileItem;
 
     //endregion
@@ -42,8 +49,31 @@ public class FileItemController extends VBox {
         // Bind data
         fileName.textProperty().setValue(fileItem.getFileName());
         filePreview.imageProperty().setValue(image);
+        setSize(-1);
 
-        this.getStyleClass().add("vbox");
+        // Views are reused as the grid scrolls, so the class may already
+        // be there.
+        if (!this.getStyleClass().contains("vbox"))
+            this.getStyleClass().add("vbox");
+    }
+
+    /**
+     * Shows the size of the item under its name.
+     *
+     * @param bytes The size in bytes, or -1 to hide it.
+     */
+    public void setSize(long bytes) {
+        boolean known = bytes >= 0;
+        fileSize.setText(known ? FileUtils.byteCountToDisplaySize(bytes) : "");
+        fileSize.setVisible(known);
+        fileSize.setManaged(known);
+    }
+
+    /**
+     * Shows a preview of the file in place of its icon.
+     */
+    public void setPreview(Image image) {
+        filePreview.imageProperty().setValue(image);
     }
 
     public String getItemDirectory() {
@@ -1,13 +1,18 @@
 package com.candle.fileexplorer.view;
 
 import com.candle.fileexplorer.FilesApp;
+import com.candle.fileexplorer.core.FlightRecording;
 import com.candle.fileexplorer.core.ViewHandler;
+import com.candle.fileexplorer.model.data.FileItem;
+import com.candle.fileexplorer.model.history.SessionState;
 import com.candle.fileexplorer.view.enums.GridSortOrder;
 import com.candle.fileexplorer.view.helpers.ContextMenuActions;
 import com.candle.fileexplorer.viewmodel.MainViewModel;
 import javafx.application.Platform;
+import javafx.collections.ListChangeListener;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
+import javafx.geometry.Side;
 import javafx.scene.control.*;
 import javafx.scene.input.*;
 import javafx.scene.layout.BorderPane;
@@ -33,6 +38,10 @@ public class MainController {
     @FXML
     private TabPane tabPane;
 
+    /**
+     * The grid of each tab, in the same order as the tabs. Each tab also
+     * holds its grid as its user data.
+     */
     private ArrayList<FileGridController> gridViews;
 
     /**
@@ -45,9 +54,26 @@ public class MainController {
     @FXML
     private TextField locationBar;
 
+    /**
+     * The box used to narrow the current listing down by name.
+     */
+    @FXML
+    private TextField filterField;
+
+    @FXML
+    private CheckMenuItem fuzzyFilterItem;
+
+    @FXML
+    private CheckMenuItem recordingItem;
+
     @FXML
     private ToggleGroup sortByGroup;
 
+    /**
+     * The drop-down list of path suggestions shown under the location bar.
+     */
+    private ContextMenu locationSuggestionsMenu;
+
     //endregion
 
     /**
@@ -77,11 +103,25 @@ public class MainController {
         // Bind data here
         quickAccessView.init(viewModel.getQuickAccessViewModel());
         locationBar.textProperty().bindBidirectional(viewModel.currentDirectoryProperty());
+        setupLocationSuggestions();
+        setupFilter();
 
         // Setup tabs
         tabPane.getSelectionModel().selectedItemProperty().addListener(
                 (observable, oldValue, newValue) -> tabChanged());
-        addTab(new ActionEvent());
+        if (!restoreSession())
+            addTab(new ActionEvent());
+    }
+
+    /**
+     * Saves the open tabs and their sort orders, so they can be restored
+     * the next time the app starts.
+     */
+    public void saveSession() {
+        ArrayList<String> sortOrders = new ArrayList<>();
+        for (Tab tab : tabPane.getTabs())
+            sortOrders.add(((FileGridController) tab.getUserData()).getSortOrder().name());
+        viewModel.saveSession(sortOrders);
     }
 
     /**
@@ -148,9 +188,35 @@ public class MainController {
      */
     @FXML
     private void locationBarUpdated(ActionEvent event) {
+        locationSuggestionsMenu.hide();
         viewModel.userUpdatedDirectory();
     }
 
+    /**
+     * Shows the search window for the application.
+     */
+    @FXML
+    private void openSearch(ActionEvent event) {
+        try {
+            ViewHandler.getInstance().openSubView("Search", "");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Shows the duplicate finder, starting at the current directory.
+     */
+    @FXML
+    private void openDuplicates(ActionEvent event) {
+        try {
+            ViewHandler.getInstance().openSubView("Duplicates",
+                    viewModel.getFilesModel().getCurrentDirectory());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
     // (The "create new item," "cut," "copy," and "paste" methods are located
     // in the menu section.)
 
@@ -196,7 +262,7 @@ public class MainController {
 
     @FXML
     private void rename(ActionEvent event) {
-        FileItemController fileItemView =
+        FileItem fileItemView =
                 getCurrentGridView().getSelectedFileItem();
         if (fileItemView == null)
             return;
@@ -206,7 +272,7 @@ public class MainController {
 
     @FXML
     private void trashItem(ActionEvent event) {
-        FileItemController fileItemView =
+        FileItem fileItemView =
                 getCurrentGridView().getSelectedFileItem();
         if (fileItemView == null)
             return;
@@ -235,7 +301,7 @@ public class MainController {
 
     @FXML
     private void cut(ActionEvent event) {
-        FileItemController itemView =
+        FileItem itemView =
                 getCurrentGridView().getSelectedFileItem();
         if (itemView == null)
             return;
@@ -246,7 +312,7 @@ public class MainController {
 
     @FXML
     private void copy(ActionEvent event) {
-        FileItemController itemView =
+        FileItem itemView =
                 getCurrentGridView().getSelectedFileItem();
         if (itemView == null)
             return;
@@ -257,7 +323,7 @@ public class MainController {
 
     @FXML
     private void copyLocation(ActionEvent event) {
-        FileItemController itemView =
+        FileItem itemView =
                 getCurrentGridView().getSelectedFileItem();
         if (itemView == null)
             return;
@@ -270,6 +336,18 @@ public class MainController {
         contextMenuActions.pasteItem(viewModel.getFilesModel());
     }
 
+    /**
+     * Shows the copies and moves that are running, with their speeds.
+     */
+    @FXML
+    private void openTransfers(ActionEvent event) {
+        try {
+            ViewHandler.getInstance().openSubView("Transfers", "");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
     //endregion
 
     //region View
@@ -289,6 +367,11 @@ public class MainController {
         contextMenuActions.sortBy(getCurrentGridView(), GridSortOrder.Modified);
     }
 
+    @FXML
+    private void sortBySize(ActionEvent event) {
+        contextMenuActions.sortBy(getCurrentGridView(), GridSortOrder.Size);
+    }
+
     /**
      * Toggles the presence of hidden file items.
      */
@@ -297,6 +380,15 @@ public class MainController {
         viewModel.toggleHiddenItems();
     }
 
+    /**
+     * Moves the keyboard focus to the filter box.
+     */
+    @FXML
+    private void focusFilter(ActionEvent event) {
+        filterField.requestFocus();
+        filterField.selectAll();
+    }
+
     //endregion
 
     //region Go
@@ -307,6 +399,44 @@ public class MainController {
 
     //region Help
 
+    /**
+     * Starts or stops a flight recording of the application. Once it stops,
+     * the folder it was saved in is opened with the recording selected.
+     */
+    @FXML
+    private void toggleRecording(ActionEvent event) {
+        if (!recordingItem.isSelected()) {
+            // The item stays disabled while the recording is written out.
+            recordingItem.setDisable(true);
+            viewModel.stopFlightRecording(() -> recordingItem.setDisable(false));
+            return;
+        }
+
+        try {
+            FlightRecording.start();
+        } catch (IOException e) {
+            recordingItem.setSelected(false);
+            try {
+                ViewHandler.getInstance().openSubView("Error",
+                        "A flight recording couldn't be started: " + e.getMessage());
+            } catch (IOException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Shows the metrics the application keeps about its own speed.
+     */
+    @FXML
+    private void openDiagnostics(ActionEvent event) {
+        try {
+            ViewHandler.getInstance().openSubView("Diagnostics", "");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
     /**
      * Shows the about page for the application.
      */
@@ -327,6 +457,70 @@ public class MainController {
 
     //region Private Helper Methods
 
+    /**
+     * Sets up the path suggestions that appear under the location bar while
+     * the user is typing in it.
+     */
+    private void setupLocationSuggestions() {
+        locationSuggestionsMenu = new ContextMenu();
+
+        // The text also changes when the user navigates somewhere else, so
+        // only typed text asks for suggestions.
+        locationBar.textProperty().addListener((observable, oldValue, newValue) -> {
+            if (locationBar.isFocused())
+                viewModel.updateLocationSuggestions(newValue);
+        });
+        locationBar.focusedProperty().addListener((observable, oldValue, newValue) -> {
+            if (!newValue)
+                locationSuggestionsMenu.hide();
+        });
+        viewModel.getLocationSuggestions().addListener(
+                (ListChangeListener<String>) c -> showLocationSuggestions());
+    }
+
+    /**
+     * Binds the filter box and the fuzzy toggle to the grid's view model.
+     * Escape clears the filter and hands the focus back to the grid.
+     */
+    private void setupFilter() {
+        filterField.textProperty().bindBidirectional(
+                viewModel.getFileGridViewModel().filterProperty());
+        fuzzyFilterItem.selectedProperty().bindBidirectional(
+                viewModel.getFileGridViewModel().fuzzyFilterProperty());
+        filterField.setOnKeyPressed(e -> {
+            if (e.getCode() == KeyCode.ESCAPE) {
+                filterField.clear();
+                getCurrentGridView().requestFocus();
+                e.consume();
+            }
+        });
+    }
+
+    /**
+     * Rebuilds the suggestion drop-down from the view model's list.
+     */
+    private void showLocationSuggestions() {
+        locationSuggestionsMenu.getItems().clear();
+        if (viewModel.getLocationSuggestions().isEmpty() || !locationBar.isFocused()) {
+            locationSuggestionsMenu.hide();
+            return;
+        }
+
+        for (String path : viewModel.getLocationSuggestions()) {
+            MenuItem item = new MenuItem(path);
+            item.setMnemonicParsing(false);
+            item.setOnAction(e -> {
+                // Keep the trailing separator so the next folder level is
+                // suggested straight away.
+                locationBar.setText(path + "/");
+                locationBar.positionCaret(locationBar.getText().length());
+            });
+            locationSuggestionsMenu.getItems().add(item);
+        }
+        if (!locationSuggestionsMenu.isShowing())
+            locationSuggestionsMenu.show(locationBar, Side.BOTTOM, 0, 0);
+    }
+
     /**
      * A helper method that creates a new tab object with a file grid view.
      */
@@ -335,6 +529,7 @@ public class MainController {
         newTab.textProperty().bind(viewModel.getLastTabNameProperty());
         FileGridController tabView = new FileGridController(contextMenuActions);
         gridViews.add(tabView);
+        newTab.setUserData(tabView);
 
         tabView.init(viewModel.getFileGridViewModel());
         newTab.setOnCloseRequest(e -> {
@@ -345,6 +540,46 @@ public class MainController {
         return newTab;
     }
 
+    /**
+     * Puts back the tabs that were open when the app was last closed. Each
+     * tab shows its saved listing straight away, while its directory is
+     * read again in the background.
+     *
+     * @return Whether a session was restored.
+     */
+    private boolean restoreSession() {
+        SessionState session = viewModel.loadSession();
+        if (session == null || session.tabs().isEmpty())
+            return false;
+
+        for (SessionState.TabState state : session.tabs()) {
+            viewModel.restoreTab(state);
+            Tab newTab = createTabView();
+            contextMenuActions.sortBy((FileGridController) newTab.getUserData(),
+                    parseSortOrder(state.sortOrder()));
+            tabPane.getTabs().add(newTab);
+        }
+        tabPane.getSelectionModel().select(session.selectedTab());
+        // Adding the first tab selected it while the model had moved on to
+        // the last one, so the model is brought back in line explicitly.
+        tabChanged();
+        return true;
+    }
+
+    /**
+     * Gets the sort order with the given name, or sorting by name if it
+     * isn't recognized.
+     */
+    private static GridSortOrder parseSortOrder(String name) {
+        if (name != null) {
+            for (GridSortOrder sortOrder : GridSortOrder.values()) {
+                if (sortOrder.name().equals(name))
+                    return sortOrder;
+            }
+        }
+        return GridSortOrder.Name;
+    }
+
     /**
      * A helper method that runs when the user attempts to close a tab.
      *
@@ -354,6 +589,7 @@ public class MainController {
         if (tabPane.getTabs().size() > 1) {
             int index = tabPane.getTabs().indexOf(tab);
             viewModel.closeTab(index);
+            gridViews.remove(index);
             tabPane.getTabs().remove(tab);
         }
     }
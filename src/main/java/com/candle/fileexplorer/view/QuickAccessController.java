@@ -1,7 +1,9 @@
 package com.candle.fileexplorer.view;
 
+import com.candle.fileexplorer.view.helpers.IconCache;
 import com.candle.fileexplorer.viewmodel.DirectoryButtonViewModel;
 import com.candle.fileexplorer.viewmodel.QuickAccessViewModel;
+import javafx.collections.ListChangeListener;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.control.ContextMenu;
@@ -34,6 +36,12 @@ public class QuickAccessController extends ScrollPane {
      */
     private QuickAccessViewModel viewModel;
 
+    /**
+     * The heading above the drive buttons, which are always the last items
+     * in the list.
+     */
+    private Label driveLabel;
+
     //endregion
 
     //region Constructor
@@ -89,9 +97,12 @@ public class QuickAccessController extends ScrollPane {
         quickAccessList.getChildren().add(spacer);
 
         // Drives
-        Label driveLabel = new Label("Drives");
+        driveLabel = new Label("Drives");
         quickAccessList.getChildren().add(driveLabel);
         addDriveButtons();
+        // Drives can be plugged in or removed while the app is open.
+        viewModel.getDriveVms().addListener(
+                (ListChangeListener<DirectoryButtonViewModel>) c -> addDriveButtons());
     }
 
     /**
@@ -99,8 +110,7 @@ public class QuickAccessController extends ScrollPane {
      * "Documents" to the list view.
      */
     private void addQuickAccessButtons() {
-        String folderPath = "/com/candle/fileexplorer/images/16/Folder.png";
-        Image folderImage = new Image(folderPath);
+        Image folderImage = IconCache.get(IconCache.smallFolderIcon);
 
         String[] quickAccessItems = {"Home", "Desktop", "Downloads",
                 "Documents", "Pictures", "Music"};
@@ -115,13 +125,21 @@ public class QuickAccessController extends ScrollPane {
     }
 
     /**
-     * Adds the drive buttons to the list view.
+     * Adds the drive buttons to the list view, replacing any that are
+     * already there.
      */
     private void addDriveButtons() {
-        String drivePath = "/com/candle/fileexplorer/images/16/Drive.png";
-        Image driveImage = new Image(drivePath);
+        Image driveImage = IconCache.get(IconCache.smallDriveIcon);
 
-        viewModel.getDriveVms().forEach(vm -> quickAccessList.getChildren().add(new DirectoryButtonController(vm, driveImage)));
+        int firstDrive = quickAccessList.getChildren().indexOf(driveLabel) + 1;
+        quickAccessList.getChildren().remove(firstDrive, quickAccessList.getChildren().size());
+
+        viewModel.getDriveVms().forEach(vm -> {
+            DirectoryButtonController button = new DirectoryButtonController(vm, driveImage);
+            button.addDiskUsageMenu();
+            button.addDriveSpaceBar();
+            quickAccessList.getChildren().add(button);
+        });
     }
 
     /**
@@ -0,0 +1,136 @@
+package com.candle.fileexplorer.view;
+
+import com.candle.fileexplorer.model.search.SearchResult;
+import com.candle.fileexplorer.viewmodel.SearchViewModel;
+import javafx.application.Platform;
+import javafx.fxml.FXML;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.RadioButton;
+import javafx.scene.control.TextField;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseEvent;
+import javafx.stage.Stage;
+
+/**
+ * The view class for the "search" sub-window.
+ */
+public class SearchController {
+    //region Private Members
+
+    //region GUI Elements
+
+    @FXML
+    private TextField queryField;
+
+    @FXML
+    private CheckBox indexCheckBox;
+
+    @FXML
+    private RadioButton contentsButton;
+
+    @FXML
+    private CheckBox regexCheckBox;
+
+    @FXML
+    private CheckBox matchCaseCheckBox;
+
+    @FXML
+    private Label statusLabel;
+
+    @FXML
+    private ListView<SearchResult> resultsList;
+
+    //endregion
+
+    private SearchViewModel viewModel;
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Initializes the search window with the given view model.
+     */
+    public void init(SearchViewModel viewModel) {
+        this.viewModel = viewModel;
+
+        queryField.textProperty().bindBidirectional(viewModel.queryProperty());
+        indexCheckBox.selectedProperty().bindBidirectional(viewModel.indexEnabledProperty());
+        contentsButton.selectedProperty().bindBidirectional(viewModel.searchContentsProperty());
+        regexCheckBox.selectedProperty().bindBidirectional(viewModel.regexProperty());
+        matchCaseCheckBox.selectedProperty().bindBidirectional(viewModel.matchCaseProperty());
+        regexCheckBox.disableProperty().bind(contentsButton.selectedProperty().not());
+        matchCaseCheckBox.disableProperty().bind(contentsButton.selectedProperty().not());
+        statusLabel.textProperty().bind(viewModel.statusProperty());
+        resultsList.setItems(viewModel.getResults());
+
+        // The index answers in milliseconds, so every keystroke can search
+        // it. Content searches wait for the enter key instead.
+        queryField.textProperty().addListener((observable, oldValue,
+                                               newValue) -> {
+            if (viewModel.isSearchAsYouType())
+                viewModel.search();
+        });
+        if (viewModel.isSearchAsYouType())
+            viewModel.search();
+
+        Platform.runLater(() -> queryField.requestFocus());
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    @FXML
+    private void onKeyPressed(KeyEvent event) {
+        switch (event.getCode()) {
+            case ENTER -> {
+                if (queryField.isFocused() && !viewModel.isSearchAsYouType())
+                    viewModel.search();
+                else
+                    openSelectedResult();
+            }
+            case ESCAPE -> closeWindow();
+            case DOWN -> {
+                if (queryField.isFocused() && !resultsList.getItems().isEmpty()) {
+                    resultsList.requestFocus();
+                    resultsList.getSelectionModel().selectFirst();
+                    event.consume();
+                }
+            }
+        }
+    }
+
+    @FXML
+    private void handleResultClick(MouseEvent event) {
+        if (event.getClickCount() == 2)
+            openSelectedResult();
+    }
+
+    /**
+     * Takes the user to the selected result and closes the window.
+     */
+    private void openSelectedResult() {
+        SearchResult selected = resultsList.getSelectionModel().getSelectedItem();
+        if (selected == null && !resultsList.getItems().isEmpty())
+            selected = resultsList.getItems().get(0);
+        if (selected == null)
+            return;
+
+        viewModel.openResult(selected);
+        closeWindow();
+    }
+
+    /**
+     * Closes the "Search" window.
+     */
+    private void closeWindow() {
+        viewModel.cancelSearch();
+        Stage stage = (Stage) queryField.getScene().getWindow();
+        stage.close();
+    }
+
+    //endregion
+}
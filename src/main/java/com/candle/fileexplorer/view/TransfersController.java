@@ -0,0 +1,140 @@
+package com.candle.fileexplorer.view;
+
+import com.candle.fileexplorer.viewmodel.TransfersViewModel;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.fxml.FXML;
+import javafx.scene.control.*;
+import javafx.scene.control.cell.ProgressBarTableCell;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The view class for the "transfers" sub-window.
+ * The running copies and moves are listed with their progress and speed,
+ * which update twice a second. A speed limit can be set for new transfers
+ * and for the selected ones.
+ */
+public class TransfersController {
+    //region Private Members
+
+    //region GUI Elements
+
+    @FXML
+    private TableView<TransfersViewModel.Row> transfersTable;
+
+    @FXML
+    private TableColumn<TransfersViewModel.Row, String> descriptionColumn;
+
+    @FXML
+    private TableColumn<TransfersViewModel.Row, Double> progressColumn;
+
+    @FXML
+    private TableColumn<TransfersViewModel.Row, String> transferredColumn;
+
+    @FXML
+    private TableColumn<TransfersViewModel.Row, String> speedColumn;
+
+    @FXML
+    private TableColumn<TransfersViewModel.Row, String> limitColumn;
+
+    @FXML
+    private TextField limitField;
+
+    @FXML
+    private Label statusLabel;
+
+    //endregion
+
+    private TransfersViewModel viewModel;
+
+    private Timeline refreshTimeline;
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Initializes the window and starts updating the transfers.
+     */
+    public void init(TransfersViewModel viewModel) {
+        this.viewModel = viewModel;
+
+        statusLabel.textProperty().bind(viewModel.statusProperty());
+        limitField.textProperty().bindBidirectional(viewModel.rateLimitProperty());
+        setColumn(descriptionColumn, TransfersViewModel.Row::description);
+        setColumn(transferredColumn, TransfersViewModel.Row::progressText);
+        setColumn(speedColumn, TransfersViewModel.Row::speed);
+        setColumn(limitColumn, TransfersViewModel.Row::limit);
+        progressColumn.setCellValueFactory(cell ->
+                new ReadOnlyObjectWrapper<>(cell.getValue().progress()));
+        progressColumn.setCellFactory(ProgressBarTableCell.forTableColumn());
+        transfersTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        transfersTable.setItems(viewModel.getRows());
+
+        viewModel.refresh();
+        refreshTimeline = new Timeline(new KeyFrame(Duration.millis(500),
+                event -> refreshKeepingSelection()));
+        refreshTimeline.setCycleCount(Animation.INDEFINITE);
+        refreshTimeline.play();
+    }
+
+    /**
+     * Stops updating the transfers once the window is closed.
+     */
+    public void stopRefreshing() {
+        if (refreshTimeline != null)
+            refreshTimeline.stop();
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    @FXML
+    private void onKeyPressed(KeyEvent event) {
+        if (event.getCode() == KeyCode.ESCAPE) {
+            Stage stage = (Stage) transfersTable.getScene().getWindow();
+            stage.close();
+        }
+    }
+
+    /**
+     * Sets the typed speed limit for new transfers and the selected ones.
+     */
+    @FXML
+    private void applyLimit() {
+        viewModel.applyRateLimit(new ArrayList<>(transfersTable.getSelectionModel().getSelectedItems()));
+    }
+
+    /**
+     * Updates the rows without losing the selected transfers.
+     */
+    private void refreshKeepingSelection() {
+        List<TransfersViewModel.Row> selected =
+                new ArrayList<>(transfersTable.getSelectionModel().getSelectedItems());
+        viewModel.refresh();
+        for (TransfersViewModel.Row row : viewModel.getRows()) {
+            for (TransfersViewModel.Row previous : selected) {
+                if (row.job() == previous.job())
+                    transfersTable.getSelectionModel().select(row);
+            }
+        }
+    }
+
+    private static void setColumn(TableColumn<TransfersViewModel.Row, String> column,
+                                  Function<TransfersViewModel.Row, String> value) {
+        column.setCellValueFactory(cell -> new ReadOnlyStringWrapper(value.apply(cell.getValue())));
+    }
+
+    //endregion
+}
@@ -6,4 +6,5 @@ package com.candle.fileexplorer.view.enums;
 public enum GridSortOrder {
     Name,
     Modified,
+    Size,
 }
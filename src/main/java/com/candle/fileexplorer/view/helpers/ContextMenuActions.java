@@ -3,16 +3,20 @@ package com.candle.fileexplorer.view.helpers;
 import com.candle.fileexplorer.core.ViewHandler;
 import com.candle.fileexplorer.model.FilesModel;
 import com.candle.fileexplorer.model.data.ClipboardMode;
-import com.candle.fileexplorer.model.helpers.FileOperations;
 import com.candle.fileexplorer.view.FileGridController;
 import com.candle.fileexplorer.view.enums.GridSortOrder;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.scene.input.Clipboard;
 import javafx.scene.input.ClipboardContent;
+import javafx.util.Duration;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.FileSystemException;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * A helper class that is used by the context menus to perform operations.
@@ -186,17 +190,22 @@ public class ContextMenuActions {
             return;
         }
         if (pathCanBeModified(dataModel.getCurrentDirectory())) {
-            try {
-                pasteContentsList(itemList, dataModel);
-            } catch (IllegalStateException e) {
-                try {
-                    String dependencyError = "There is a file/folder with an identical name " +
-                            "in this directory.";
-                    ViewHandler.getInstance().openSubView("Error", dependencyError);
-                } catch (IOException ex) {
-                    throw new RuntimeException(ex);
-                }
-            }
+            ArrayList<String> sourcePaths = new ArrayList<>();
+            for (File item : itemList)
+                sourcePaths.add(item.getAbsolutePath());
+            CompletableFuture<Void> paste = dataModel.pasteAll(sourcePaths);
+            paste.whenComplete((ignored, error) -> {
+                if (error != null)
+                    Platform.runLater(() -> showPasteError(error));
+            });
+
+            // Pastes that take a while show their progress.
+            PauseTransition transferDelay = new PauseTransition(Duration.seconds(1));
+            transferDelay.setOnFinished(event -> {
+                if (!paste.isDone())
+                    openTransfers();
+            });
+            transferDelay.play();
         } else {
             try {
                 ViewHandler.getInstance().openSubView("Error", "The selected " +
@@ -221,10 +230,11 @@ public class ContextMenuActions {
     /**
      * Opens the specified file/folder in the user's default application.
      *
-     * @param path The absolute path to the file/folder.
+     * @param path      The absolute path to the file/folder.
+     * @param dataModel The model that runs the opening in the background.
      */
-    public void openItemInDefaultApp(String path) {
-        FileOperations.openFileInDefaultApp(path);
+    public void openItemInDefaultApp(String path, FilesModel dataModel) {
+        dataModel.openInDefaultApp(path);
     }
 
     //endregion
@@ -257,29 +267,43 @@ public class ContextMenuActions {
     }
 
     /**
-     * Tells the data model to paste a specified list of items to the current
-     * directory.
+     * Tells the user why a paste didn't finish.
      *
-     * @param itemList A list of file items
+     * @param error The exception the paste failed with.
      */
-    private void pasteContentsList(ArrayList<File> itemList,
-                                   FilesModel dataModel) {
-        for (File item : itemList) {
-            try {
-                dataModel.paste(item.getAbsolutePath());
-            } catch (FileSystemException e) {
-                try {
-                    ViewHandler.getInstance().openSubView("Error",
-                            "The file/folder you are trying to paste is " +
-                                    "currently in use by another application. " +
-                                    "This may result in the copy process completing " +
-                                    "incorrectly.\n\n" +
-                                    "In order to ensure that the files are pasted properly, " +
-                                    "please close the other app and try again.");
-                } catch (IOException ex) {
-                    throw new RuntimeException(ex);
-                }
-            }
+    private void showPasteError(Throwable error) {
+        Throwable cause = (error instanceof CompletionException && error.getCause() != null)
+                ? error.getCause() : error;
+        String message;
+        if (cause instanceof IllegalStateException) {
+            message = "There is a file/folder with an identical name in this directory.";
+        } else if (cause instanceof FileSystemException) {
+            message = "The file/folder you are trying to paste is " +
+                    "currently in use by another application. " +
+                    "This may result in the copy process completing " +
+                    "incorrectly.\n\n" +
+                    "In order to ensure that the files are pasted properly, " +
+                    "please close the other app and try again.";
+        } else {
+            cause.printStackTrace();
+            return;
+        }
+
+        try {
+            ViewHandler.getInstance().openSubView("Error", message);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Shows the transfers that are running, with their speeds.
+     */
+    private void openTransfers() {
+        try {
+            ViewHandler.getInstance().openSubView("Transfers", "");
+        } catch (IOException e) {
+            e.printStackTrace();
         }
     }
 
@@ -0,0 +1,78 @@
+package com.candle.fileexplorer.view.helpers;
+
+import javafx.scene.image.Image;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The icons shared by the views, each decoded once no matter how many
+ * tabs or buttons show it.
+ */
+public class IconCache {
+    //region Public Members/Properties
+
+    public static final String fileIcon = "/com/candle/fileexplorer/images/64/File.png";
+    public static final String folderIcon = "/com/candle/fileexplorer/images/64/Folder.png";
+    public static final String smallFolderIcon = "/com/candle/fileexplorer/images/16/Folder.png";
+    public static final String smallDriveIcon = "/com/candle/fileexplorer/images/16/Drive.png";
+
+    /**
+     * The size that the grid's thumbnails are scaled to.
+     */
+    public static final int thumbnailSize = 64;
+
+    //endregion
+
+    //region Private Members
+
+    /**
+     * The decoded images, keyed by path and size.
+     */
+    private static final ConcurrentHashMap<String, Image> images = new ConcurrentHashMap<>();
+
+    //endregion
+
+    //region Constructors
+
+    private IconCache() {
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Gets an icon at its own size.
+     *
+     * @param path The path to the image in the resources.
+     */
+    public static Image get(String path) {
+        return get(path, 0);
+    }
+
+    /**
+     * Gets an icon scaled to fit in a square, decoding it if it isn't
+     * cached yet.
+     *
+     * @param path The path to the image in the resources.
+     * @param size The width and height to fit the icon in, or 0 to keep its
+     *             own size.
+     */
+    public static Image get(String path, int size) {
+        return images.computeIfAbsent(path + "@" + size,
+                key -> new Image(path, size, size, true, false, false));
+    }
+
+    /**
+     * Decodes the icons shown when the main window opens. This can run on
+     * a background thread while the window is being built.
+     */
+    public static void preload() {
+        get(fileIcon, thumbnailSize);
+        get(folderIcon, thumbnailSize);
+        get(smallFolderIcon);
+        get(smallDriveIcon);
+    }
+
+    //endregion
+}
@@ -0,0 +1,74 @@
+package com.candle.fileexplorer.view.helpers;
+
+import com.candle.fileexplorer.model.data.FileItem;
+import com.candle.fileexplorer.model.data.FileType;
+import com.candle.fileexplorer.model.metrics.MetricsRegistry;
+import com.candle.fileexplorer.model.metrics.Timer;
+import com.candle.fileexplorer.view.enums.GridSortOrder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Puts the items of a listing in the order the grid shows them in.
+ */
+public class ItemSorter {
+    //region Private Members
+
+    private static final Timer sortTimer = MetricsRegistry.getDefault().timer(
+            "files_sort_seconds", "Time to sort the items of a listing");
+
+    //endregion
+
+    //region Constructors
+
+    private ItemSorter() {
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Sorts a copy of the given items, leaving the original collection as
+     * it was.
+     *
+     * @param items      The items to sort.
+     * @param sortOrder  The order to sort them in.
+     * @param folderSize Gets the size of the folder at a path, or -1 if it
+     *                   isn't known yet.
+     * @return The sorted copy.
+     */
+    public static List<FileItem> sort(Collection<FileItem> items, GridSortOrder sortOrder,
+                                      ToLongFunction<String> folderSize) {
+        long start = sortTimer.start();
+        ArrayList<FileItem> sorted = new ArrayList<>(items);
+
+        switch (sortOrder) {
+            // Sorts based on the alphabetical name of each item.
+            case Name ->
+                    sorted.sort((o1, o2) -> o1.getFileName().compareToIgnoreCase(o2.getFileName()));
+            // Sorts based on the last modified date of each item.
+            case Modified -> sorted.sort(Comparator.comparing(FileItem::getLastModifiedTime));
+            // Sorts the largest items first. Folders whose size isn't known
+            // yet go last. The sizes are read once up front, since a file's
+            // size is a disk access.
+            case Size -> {
+                HashMap<FileItem, Long> sizes = new HashMap<>();
+                for (FileItem item : sorted) {
+                    sizes.put(item, (item.getFileType() == FileType.File) ? item.getSize()
+                            : folderSize.applyAsLong(item.getItemDirectory()));
+                }
+                sorted.sort(Comparator.comparingLong((FileItem item) -> sizes.get(item)).reversed());
+            }
+        }
+        sortTimer.stop(start);
+        return sorted;
+    }
+
+    //endregion
+}
@@ -0,0 +1,327 @@
+package com.candle.fileexplorer.view.helpers;
+
+import com.candle.fileexplorer.core.TaskPriority;
+import com.candle.fileexplorer.model.io.DeviceExecutor;
+import com.candle.fileexplorer.model.metrics.Counter;
+import com.candle.fileexplorer.model.metrics.MetricsRegistry;
+import com.candle.fileexplorer.model.metrics.Timer;
+import com.candle.fileexplorer.model.thumbnails.ByteBoundedCache;
+import com.candle.fileexplorer.model.thumbnails.ThumbnailStore;
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelReader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Makes the previews shown in place of the file icon for images. The
+ * images are decoded in the background at thumbnail size, so the full
+ * picture is never held in memory, and only a few at a time so a folder
+ * of photos doesn't take every core. Requests for views on screen start
+ * before those for views just outside it.
+ * <p>
+ * Previews are kept in memory up to a budget, and saved on disk in the
+ * shared thumbnail folder, where thumbnails made by other file managers
+ * are picked up too. Only images with neither are decoded from the
+ * original file.
+ * <p>
+ * This is only used on the JavaFX thread, where the images also report
+ * their progress, so it needs no locking.
+ */
+public class ThumbnailLoader {
+    //region Private Members
+
+    private static ThumbnailLoader defaultLoader;
+
+    /**
+     * The types of file that JavaFX can decode.
+     */
+    private static final Set<String> imageExtensions = Set.of("png", "jpg", "jpeg", "gif", "bmp");
+
+    private static final Timer decodeTimer = MetricsRegistry.getDefault().timer(
+            "files_thumbnail_decode_seconds", "Time to load and scale a thumbnail");
+
+    private static final Counter cancelledCount = MetricsRegistry.getDefault().counter(
+            "files_thumbnail_cancelled_total", "Thumbnails dropped because their view scrolled away");
+
+    private static final Counter memoryHits = MetricsRegistry.getDefault().counter(
+            "files_thumbnail_memory_hits_total", "Thumbnails found in memory");
+
+    private static final Counter diskHits = MetricsRegistry.getDefault().counter(
+            "files_thumbnail_disk_hits_total", "Thumbnails read from the shared thumbnail folder");
+
+    /**
+     * The most images that are decoded at once.
+     */
+    private final int maxDecoding;
+
+    /**
+     * The requests that haven't started, by the view that made them, in
+     * the order they were made.
+     */
+    private final LinkedHashMap<Object, Request> waiting = new LinkedHashMap<>();
+
+    /**
+     * The requests being decoded, by the view that made them.
+     */
+    private final HashMap<Object, Request> decoding = new HashMap<>();
+
+    /**
+     * The previews that were shown recently, by path and modification time.
+     */
+    private final ByteBoundedCache<String, Image> memoryCache;
+
+    private final ThumbnailStore store;
+
+    /**
+     * Runs the lookups and saves in the thumbnail folder.
+     */
+    private final DeviceExecutor diskExecutor;
+
+    //endregion
+
+    //region Constructors
+
+    /**
+     * @param maxDecoding  The most images to decode at once.
+     * @param cacheBytes   The most memory, in bytes, the previews kept in
+     *                     memory may take up.
+     * @param store        The thumbnail folder on disk.
+     * @param diskExecutor Runs the lookups and saves in the thumbnail
+     *                     folder.
+     */
+    public ThumbnailLoader(int maxDecoding, long cacheBytes, ThumbnailStore store,
+                           DeviceExecutor diskExecutor) {
+        this.maxDecoding = Math.max(1, maxDecoding);
+        this.store = store;
+        this.diskExecutor = diskExecutor;
+        memoryCache = new ByteBoundedCache<>(cacheBytes,
+                image -> (long) (image.getWidth() * image.getHeight() * 4));
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Gets the loader shared by every grid, so the limit on decoding holds
+     * across tabs.
+     *
+     * @param diskExecutor Runs the lookups and saves in the thumbnail
+     *                     folder. Only the first call, which creates the
+     *                     loader, uses it.
+     */
+    public static ThumbnailLoader getDefault(DeviceExecutor diskExecutor) {
+        if (defaultLoader == null)
+            defaultLoader = new ThumbnailLoader(TaskPriority.Thumbnail.getThreads(),
+                    Long.getLong("files.thumbnailCacheBytes", 96L * 1024 * 1024),
+                    ThumbnailStore.getDefault(), diskExecutor);
+        return defaultLoader;
+    }
+
+    /**
+     * Checks whether a file is an image that can get a preview.
+     *
+     * @param fileName The name of the file with its extension.
+     */
+    public static boolean canPreview(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 && imageExtensions.contains(fileName.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Asks for the preview of an image. Any earlier request from the same
+     * view is dropped, since the view now shows another item.
+     *
+     * @param owner        The view that will show the preview.
+     * @param path         The path to the image.
+     * @param lastModified The image's modification time, in milliseconds.
+     * @param onScreen     Whether the view can be seen, rather than only
+     *                     being near the viewport.
+     * @param onLoaded     Called with the preview once it's ready, straight
+     *                     away if it's in memory. It isn't called if the
+     *                     image can't be read.
+     */
+    public void request(Object owner, String path, long lastModified, boolean onScreen,
+                        Consumer<Image> onLoaded) {
+        cancel(owner);
+        String key = path + "@" + lastModified;
+        Image cached = memoryCache.get(key);
+        if (cached != null) {
+            memoryHits.increment();
+            onLoaded.accept(cached);
+            return;
+        }
+
+        waiting.put(owner, new Request(owner, key, Path.of(path), lastModified, onScreen, onLoaded));
+        startWaiting();
+    }
+
+    /**
+     * Moves a waiting request ahead of, or behind, those for views on
+     * screen after the grid scrolls.
+     */
+    public void setOnScreen(Object owner, boolean onScreen) {
+        Request request = waiting.get(owner);
+        if (request != null)
+            request.onScreen = onScreen;
+    }
+
+    /**
+     * Drops the request made by a view, stopping its image if it's being
+     * decoded.
+     */
+    public void cancel(Object owner) {
+        if (waiting.remove(owner) != null)
+            cancelledCount.increment();
+
+        Request request = decoding.remove(owner);
+        if (request != null) {
+            // It may still be looking in the thumbnail folder.
+            if (request.image != null)
+                request.image.cancel();
+            cancelledCount.increment();
+            startWaiting();
+        }
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    /**
+     * Starts waiting requests while there's room, those on screen first.
+     */
+    private void startWaiting() {
+        while (decoding.size() < maxDecoding && !waiting.isEmpty()) {
+            Request next = null;
+            for (Request request : waiting.values()) {
+                if (request.onScreen) {
+                    next = request;
+                    break;
+                }
+            }
+            if (next == null)
+                next = waiting.values().iterator().next();
+
+            waiting.remove(next.owner);
+            decoding.put(next.owner, next);
+            start(next);
+        }
+    }
+
+    /**
+     * Looks for a saved thumbnail of the image, then decodes either that
+     * or the image itself.
+     */
+    private void start(Request request) {
+        long start = decodeTimer.start();
+        diskExecutor.execute(request.file, () -> {
+            Path saved = store.find(request.file, request.lastModified);
+            Platform.runLater(() -> decode(request, saved, start));
+        });
+    }
+
+    /**
+     * @param saved The thumbnail saved on disk, or null to decode the image
+     *              itself.
+     */
+    private void decode(Request request, Path saved, long start) {
+        if (decoding.get(request.owner) != request)
+            return;
+
+        // Saved thumbnails only need scaling down to the grid's size, while
+        // new ones are made at the size shared with other programs.
+        request.fromDisk = saved != null;
+        int size = request.fromDisk ? IconCache.thumbnailSize : ThumbnailStore.normalSize;
+        String uri = (request.fromDisk ? saved : request.file).toUri().toString();
+        request.image = new Image(uri, size, size, true, true, true);
+        request.image.progressProperty().addListener((observable, oldValue, newValue) ->
+                finishIfDone(request, start));
+        request.image.widthProperty().addListener((observable, oldValue, newValue) ->
+                finishIfDone(request, start));
+        request.image.errorProperty().addListener((observable, oldValue, newValue) ->
+                finishIfDone(request, start));
+
+        // Small images can be done before the listeners are added.
+        finishIfDone(request, start);
+    }
+
+    private void finishIfDone(Request request, long start) {
+        Image image = request.image;
+        boolean done = image.isError() || (image.getProgress() >= 1 && image.getWidth() > 0);
+        // The request may also have been cancelled, or already finished by
+        // another listener.
+        if (!done || decoding.get(request.owner) != request)
+            return;
+
+        decoding.remove(request.owner);
+        if (!image.isError()) {
+            decodeTimer.stop(start);
+            if (request.fromDisk)
+                diskHits.increment();
+            else
+                save(request);
+            memoryCache.put(request.key, image);
+            request.onLoaded.accept(image);
+        }
+        startWaiting();
+    }
+
+    /**
+     * Saves a new thumbnail in the thumbnail folder. The pixels are read
+     * here, but written out in the background.
+     */
+    private void save(Request request) {
+        PixelReader reader = request.image.getPixelReader();
+        if (reader == null)
+            return;
+
+        int width = (int) request.image.getWidth();
+        int height = (int) request.image.getHeight();
+        int[] pixels = new int[width * height];
+        reader.getPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+        diskExecutor.execute(store.locate(request.file), () -> {
+            try {
+                store.store(request.file, request.lastModified, width, height, pixels);
+            } catch (IOException e) {
+                System.err.println("Could not save the thumbnail of " + request.file + ": "
+                        + e.getMessage());
+            }
+        });
+    }
+
+    //endregion
+
+    //region Helper Classes
+
+    private static class Request {
+        private final Object owner;
+        private final String key;
+        private final Path file;
+        private final long lastModified;
+        private final Consumer<Image> onLoaded;
+        private boolean onScreen;
+        private boolean fromDisk;
+        private Image image;
+
+        private Request(Object owner, String key, Path file, long lastModified, boolean onScreen,
+                        Consumer<Image> onLoaded) {
+            this.owner = owner;
+            this.key = key;
+            this.file = file;
+            this.lastModified = lastModified;
+            this.onScreen = onScreen;
+            this.onLoaded = onLoaded;
+        }
+    }
+
+    //endregion
+}
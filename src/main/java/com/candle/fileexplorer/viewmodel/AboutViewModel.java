@@ -6,12 +6,51 @@ import java.io.InputStream;
 import java.util.Properties;
 
 public class AboutViewModel {
+    //region Private Members
+
+    /**
+     * The version of the application, once it has been read.
+     */
+    private volatile String filesVersion;
+
+    //endregion
+
     //region Public Methods
 
     /**
      * Gets the version of the application.
      */
     public String getFilesVersion() {
+        if (filesVersion == null)
+            loadFilesVersion();
+        return filesVersion;
+    }
+
+    /**
+     * Reads the version of the application from its properties file, so
+     * {@link #getFilesVersion()} doesn't have to. Can be called from a
+     * background thread.
+     */
+    public void loadFilesVersion() {
+        filesVersion = readFilesVersion();
+    }
+
+    /**
+     * Gets the version of the Javafx runtime.
+     */
+    public String getJavaFxVersion() {
+        return System.getProperty("javafx.runtime.version");
+    }
+
+    public String getJavaVersion() {
+        return System.getProperty("java.version");
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    private String readFilesVersion() {
         Properties properties;
         InputStream stream;
         String version = null;
@@ -32,16 +71,5 @@ public class AboutViewModel {
         return version;
     }
 
-    /**
-     * Gets the version of the Javafx runtime.
-     */
-    public String getJavaFxVersion() {
-        return System.getProperty("javafx.runtime.version");
-    }
-
-    public String getJavaVersion() {
-        return System.getProperty("java.version");
-    }
-
     //endregion
 }
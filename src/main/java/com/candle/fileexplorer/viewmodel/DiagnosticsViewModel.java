@@ -0,0 +1,144 @@
+package com.candle.fileexplorer.viewmodel;
+
+import com.candle.fileexplorer.model.metrics.*;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import org.apache.commons.io.FileUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Locale;
+
+/**
+ * The view model for the diagnostics view, which shows the metrics the app
+ * keeps about listing, sorting, drawing the grid and moving files, and
+ * saves them to a file.
+ */
+public class DiagnosticsViewModel {
+    //region Public Members/Properties
+
+    /**
+     * The result of the last export.
+     */
+    private final StringProperty statusProperty;
+
+    //endregion
+
+    //region Private Members
+
+    private final MetricsRegistry registry;
+
+    private final ObservableList<Row> rows;
+
+    //endregion
+
+    //region Constructors
+
+    public DiagnosticsViewModel(MetricsRegistry registry) {
+        this.registry = registry;
+        statusProperty = new SimpleStringProperty("");
+        rows = FXCollections.observableArrayList();
+    }
+
+    //endregion
+
+    //region Accessors/Mutators
+
+    public StringProperty statusProperty() {
+        return statusProperty;
+    }
+
+    public ObservableList<Row> getRows() {
+        return rows;
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Reads the current value of every metric into the rows.
+     */
+    public void refresh() {
+        ArrayList<Row> updated = new ArrayList<>();
+        for (Metric metric : registry.getMetrics())
+            updated.add(createRow(metric));
+        rows.setAll(updated);
+    }
+
+    /**
+     * Writes every metric to a file.
+     *
+     * @return Whether the file was written.
+     */
+    public boolean export(MetricsExporter.Format format, Path file) {
+        try {
+            MetricsExporter.write(registry, format, file);
+            statusProperty.setValue("Saved to " + file);
+            return true;
+        } catch (IOException e) {
+            statusProperty.setValue("Could not save " + file + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    private static Row createRow(Metric metric) {
+        if (metric instanceof Counter counter) {
+            String value = metric.getName().contains("bytes")
+                    ? FileUtils.byteCountToDisplaySize(counter.get())
+                    : String.format("%,d", counter.get());
+            return new Row(metric.getName(), metric.getHelp(), value, "", "", "", "");
+        }
+
+        Histogram.Snapshot snapshot;
+        String unit;
+        if (metric instanceof Timer timer) {
+            snapshot = timer.snapshot();
+            unit = "seconds";
+        } else {
+            Histogram histogram = (Histogram) metric;
+            snapshot = histogram.snapshot();
+            unit = histogram.getUnit();
+        }
+        if (snapshot.count() == 0)
+            return new Row(metric.getName(), metric.getHelp(), "0", "", "", "", "");
+        return new Row(metric.getName(), metric.getHelp(), String.format("%,d", snapshot.count()),
+                format(snapshot.getMean(), unit), format(snapshot.getPercentile(0.5), unit),
+                format(snapshot.getPercentile(0.95), unit), format(snapshot.max(), unit));
+    }
+
+    /**
+     * Formats a value in the units people expect for it.
+     */
+    private static String format(double value, String unit) {
+        return switch (unit) {
+            case "seconds" -> value < 1
+                    ? String.format(Locale.ROOT, "%.2f ms", value * 1000)
+                    : String.format(Locale.ROOT, "%.2f s", value);
+            case "bytes_per_second" -> FileUtils.byteCountToDisplaySize((long) value) + "/s";
+            case "entries_per_second" -> String.format("%,.0f/s", value);
+            default -> String.format(Locale.ROOT, "%.2f", value);
+        };
+    }
+
+    //endregion
+
+    //region Helper Classes
+
+    /**
+     * A metric as shown in the table, with its values already formatted.
+     * Counters only have a count.
+     */
+    public record Row(String name, String help, String count, String mean, String median,
+                      String p95, String max) {
+    }
+
+    //endregion
+}
@@ -4,6 +4,10 @@ import com.candle.fileexplorer.model.FilesModel;
 import com.candle.fileexplorer.model.data.FileItem;
 import com.candle.fileexplorer.model.helpers.DirectoryStructure;
 import com.candle.fileexplorer.model.helpers.FileOperations;
+import com.candle.fileexplorer.model.usage.DriveSpace;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import org.apache.commons.io.FileUtils;
 
 /**
  * The view model for the directory button class.
@@ -21,6 +25,12 @@ public class DirectoryButtonViewModel {
      */
     private final FileItem fileItem;
 
+    /**
+     * The space on this button's drive, or null if it isn't a drive or its
+     * space hasn't been read yet.
+     */
+    private final ObjectProperty<DriveSpace> driveSpaceProperty;
+
     //endregion
 
     //region Constructor
@@ -32,6 +42,15 @@ public class DirectoryButtonViewModel {
     public DirectoryButtonViewModel(FilesModel dataModel, FileItem item) {
         this.dataModel = dataModel;
         this.fileItem = item;
+        driveSpaceProperty = new SimpleObjectProperty<>();
+    }
+
+    //endregion
+
+    //region Accessors/Mutators
+
+    public ObjectProperty<DriveSpace> driveSpaceProperty() {
+        return driveSpaceProperty;
     }
 
     //endregion
@@ -50,6 +69,13 @@ public class DirectoryButtonViewModel {
         }
     }
 
+    /**
+     * Gets the absolute path to the directory.
+     */
+    public String getDirectoryPath() {
+        return fileItem.getItemDirectory();
+    }
+
     /**
      * Tells the data model to take the user to the specified directory.
      */
@@ -57,6 +83,17 @@ public class DirectoryButtonViewModel {
         dataModel.setCurrentDirectory(fileItem.getItemDirectory());
     }
 
+    /**
+     * Describes the drive's space, such as "120 GB free of 500 GB."
+     */
+    public String getDriveSpaceDescription() {
+        DriveSpace space = driveSpaceProperty.get();
+        if (space == null)
+            return "";
+        return FileUtils.byteCountToDisplaySize(space.usableBytes()) + " free of "
+                + FileUtils.byteCountToDisplaySize(space.totalBytes());
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == null)
@@ -0,0 +1,287 @@
+package com.candle.fileexplorer.viewmodel;
+
+import com.candle.fileexplorer.model.FilesModel;
+import com.candle.fileexplorer.model.usage.UsageScanner;
+import com.candle.fileexplorer.model.usage.UsageTree;
+import javafx.application.Platform;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import org.apache.commons.io.FileUtils;
+
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The view model for the disk usage view.
+ * A drive or folder is scanned on a background thread, and the user can
+ * then walk down the resulting tree, seeing the sub-folders of one
+ * directory at a time.
+ */
+public class DiskUsageViewModel {
+    //region Public Members/Properties
+
+    /**
+     * The path of the directory whose contents are shown.
+     */
+    private final StringProperty currentPathProperty;
+
+    /**
+     * A short description of the scan's progress or result.
+     */
+    private final StringProperty statusProperty;
+
+    /**
+     * Whether a scan is running.
+     */
+    private final BooleanProperty scanningProperty;
+
+    //endregion
+
+    //region Private Members
+
+    private final FilesModel dataModel;
+
+    private final UsageScanner scanner;
+
+    /**
+     * The contents of the current directory, largest first.
+     */
+    private final ObservableList<Entry> entries;
+
+    /**
+     * The result of the last finished scan.
+     */
+    private UsageTree tree;
+
+    /**
+     * The id of the directory whose contents are shown.
+     */
+    private int currentNode;
+
+    /**
+     * The path that was scanned last, used when scanning again.
+     */
+    private String scannedPath;
+
+    /**
+     * Set to stop the scan that is currently running.
+     */
+    private AtomicBoolean cancelled;
+
+    //endregion
+
+    //region Constructors
+
+    public DiskUsageViewModel(FilesModel dataModel, UsageScanner scanner) {
+        this.dataModel = dataModel;
+        this.scanner = scanner;
+
+        currentPathProperty = new SimpleStringProperty("");
+        statusProperty = new SimpleStringProperty("");
+        scanningProperty = new SimpleBooleanProperty(false);
+        entries = FXCollections.observableArrayList();
+    }
+
+    //endregion
+
+    //region Accessors/Mutators
+
+    public StringProperty currentPathProperty() {
+        return currentPathProperty;
+    }
+
+    public StringProperty statusProperty() {
+        return statusProperty;
+    }
+
+    public BooleanProperty scanningProperty() {
+        return scanningProperty;
+    }
+
+    public ObservableList<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Checks to see if the shown directory has a parent in the scanned tree.
+     */
+    public boolean canGoUp() {
+        return tree != null && currentNode != UsageTree.root;
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Scans a drive or folder in the background, replacing the previous
+     * result once it's done.
+     *
+     * @param path The absolute path to the drive or folder.
+     */
+    public void scan(String path) {
+        cancelScan();
+        Path root;
+        try {
+            root = Path.of(path);
+        } catch (InvalidPathException e) {
+            statusProperty.setValue("Invalid path: " + path);
+            return;
+        }
+
+        scannedPath = path;
+        AtomicBoolean scanCancelled = new AtomicBoolean();
+        cancelled = scanCancelled;
+        scanningProperty.set(true);
+        tree = null;
+        entries.clear();
+        currentPathProperty.setValue(path);
+        statusProperty.setValue("Scanning...");
+
+        // Progress arrives from every scanning thread, so only one update
+        // waits for the UI thread at a time.
+        AtomicLong latestCount = new AtomicLong();
+        AtomicBoolean updatePending = new AtomicBoolean();
+        long startTime = System.nanoTime();
+        // Each directory is read as a task of its own, so nothing waits on
+        // a scheduler thread for the scan to finish.
+        scanner.start(root, scanCancelled, fileCount -> {
+            latestCount.set(fileCount);
+            if (updatePending.compareAndSet(false, true)) {
+                Platform.runLater(() -> {
+                    updatePending.set(false);
+                    if (cancelled == scanCancelled && !scanCancelled.get())
+                        statusProperty.setValue("Scanning... (" + latestCount.get() + " files so far)");
+                });
+            }
+        }).whenComplete((result, error) -> {
+            long seconds = (System.nanoTime() - startTime) / 1_000_000_000L;
+            if (error == null)
+                Platform.runLater(() -> finishScan(result, scanCancelled, seconds));
+            else
+                Platform.runLater(() -> {
+                    if (cancelled == scanCancelled)
+                        statusProperty.setValue("Stopped");
+                });
+        });
+    }
+
+    /**
+     * Scans the last drive or folder again.
+     */
+    public void rescan() {
+        if (scannedPath != null)
+            scan(scannedPath);
+    }
+
+    /**
+     * Stops the scan that is currently running, if any.
+     */
+    public void cancelScan() {
+        if (cancelled != null)
+            cancelled.set(true);
+        scanningProperty.set(false);
+    }
+
+    /**
+     * Shows the contents of the given sub-folder.
+     */
+    public void openEntry(Entry entry) {
+        if (tree == null || entry == null || entry.id() < 0)
+            return;
+        showNode(entry.id());
+    }
+
+    /**
+     * Shows the contents of the parent of the current directory.
+     */
+    public void goUp() {
+        if (canGoUp())
+            showNode(tree.getParent(currentNode));
+    }
+
+    /**
+     * Takes the main window to the folder behind the given entry.
+     */
+    public void showInFiles(Entry entry) {
+        if (tree == null || entry == null)
+            return;
+        dataModel.setCurrentDirectory(tree.getPath(entry.id() < 0 ? currentNode : entry.id()));
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    private void finishScan(UsageTree result, AtomicBoolean scanCancelled, long seconds) {
+        if (cancelled != scanCancelled)
+            return;
+        cancelled = null;
+        scanningProperty.set(false);
+
+        tree = result;
+        showNode(UsageTree.root);
+        String status = tree.getFileCount(UsageTree.root) + " files, " + tree.size()
+                + " folders, " + FileUtils.byteCountToDisplaySize(tree.getBytes(UsageTree.root))
+                + " in " + seconds + "s";
+        if (scanCancelled.get())
+            status = "Stopped early: " + status;
+        statusProperty.setValue(status);
+    }
+
+    /**
+     * Fills the entries with the sub-folders of a directory. The files
+     * directly inside it are shown as one extra entry, so the entries add up
+     * to the directory's size.
+     */
+    private void showNode(int id) {
+        currentNode = id;
+        currentPathProperty.setValue(tree.getPath(id));
+
+        ArrayList<Entry> result = new ArrayList<>();
+        long childBytes = 0;
+        long childFiles = 0;
+        for (int child : tree.getChildren(id)) {
+            result.add(new Entry(child, tree.getName(child), tree.getBytes(child),
+                    tree.getFileCount(child)));
+            childBytes += tree.getBytes(child);
+            childFiles += tree.getFileCount(child);
+        }
+
+        long ownBytes = tree.getBytes(id) - childBytes;
+        long ownFiles = tree.getFileCount(id) - childFiles;
+        if (ownFiles > 0) {
+            Entry files = new Entry(-1, "(Files in this folder)", ownBytes, ownFiles);
+            int index = 0;
+            while (index < result.size() && result.get(index).bytes() >= ownBytes)
+                index++;
+            result.add(index, files);
+        }
+        entries.setAll(result);
+    }
+
+    //endregion
+
+    //region Helper Classes
+
+    /**
+     * One row of the disk usage view.
+     *
+     * @param id    The folder's id in the scanned tree, or -1 for the files
+     *              directly inside the current directory.
+     * @param name  The folder's name.
+     * @param bytes The total size of everything below it.
+     * @param files The number of files below it.
+     */
+    public record Entry(int id, String name, long bytes, long files) {
+    }
+
+    //endregion
+}
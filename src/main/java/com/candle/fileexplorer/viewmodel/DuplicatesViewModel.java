@@ -0,0 +1,431 @@
+package com.candle.fileexplorer.viewmodel;
+
+import com.candle.fileexplorer.core.TaskPriority;
+import com.candle.fileexplorer.core.TaskScheduler;
+import com.candle.fileexplorer.model.FilesModel;
+import com.candle.fileexplorer.model.usage.DuplicateFinder;
+import com.candle.fileexplorer.model.usage.DuplicateGroup;
+import javafx.application.Platform;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import org.apache.commons.io.FileUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The view model for the duplicate finder view.
+ * A folder tree is searched on a background thread, and groups of identical
+ * files are streamed into the list as they're confirmed. The user can then
+ * trash the extra copies, or replace them with hard links to one copy.
+ */
+public class DuplicatesViewModel {
+    //region Public Members/Properties
+
+    /**
+     * The folder to search.
+     */
+    private final StringProperty folderProperty;
+
+    /**
+     * A short description of the search's progress or result.
+     */
+    private final StringProperty statusProperty;
+
+    /**
+     * Whether a search is running.
+     */
+    private final BooleanProperty searchingProperty;
+
+    /**
+     * Whether hidden files and folders are searched.
+     */
+    private final BooleanProperty includeHiddenProperty;
+
+    //endregion
+
+    //region Private Members
+
+    private final FilesModel dataModel;
+
+    private final DuplicateFinder finder;
+
+    /**
+     * The groups of identical files found so far, most wasted space first.
+     */
+    private final ObservableList<DuplicateGroup> groups;
+
+    /**
+     * Set to stop the search that is currently running.
+     */
+    private AtomicBoolean cancelled;
+
+    /**
+     * The files that are being sent to the trash in the background. They
+     * stay in their groups until that's done, but never count as the copy
+     * that's kept.
+     */
+    private final HashSet<Path> trashing = new HashSet<>();
+
+    /**
+     * Runs the searches.
+     */
+    private final TaskScheduler scheduler;
+
+    //endregion
+
+    //region Constructors
+
+    public DuplicatesViewModel(FilesModel dataModel, DuplicateFinder finder,
+                               TaskScheduler scheduler) {
+        this.dataModel = dataModel;
+        this.finder = finder;
+        this.scheduler = scheduler;
+
+        folderProperty = new SimpleStringProperty("");
+        statusProperty = new SimpleStringProperty("");
+        searchingProperty = new SimpleBooleanProperty(false);
+        includeHiddenProperty = new SimpleBooleanProperty(false);
+        groups = FXCollections.observableArrayList();
+    }
+
+    //endregion
+
+    //region Accessors/Mutators
+
+    public StringProperty folderProperty() {
+        return folderProperty;
+    }
+
+    public StringProperty statusProperty() {
+        return statusProperty;
+    }
+
+    public BooleanProperty searchingProperty() {
+        return searchingProperty;
+    }
+
+    public BooleanProperty includeHiddenProperty() {
+        return includeHiddenProperty;
+    }
+
+    public ObservableList<DuplicateGroup> getGroups() {
+        return groups;
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Searches the chosen folder for duplicates in the background.
+     */
+    public void search() {
+        cancelSearch();
+        groups.clear();
+
+        Path root;
+        try {
+            root = Path.of(folderProperty.getValue());
+        } catch (InvalidPathException e) {
+            statusProperty.setValue("Invalid folder: " + folderProperty.getValue());
+            return;
+        }
+
+        AtomicBoolean searchCancelled = new AtomicBoolean();
+        cancelled = searchCancelled;
+        searchingProperty.set(true);
+        statusProperty.setValue("Searching " + root + "...");
+
+        // Groups arrive from several hashing threads, so they're handed to
+        // the UI thread in batches, with at most one batch waiting at a time.
+        ConcurrentLinkedQueue<DuplicateGroup> pending = new ConcurrentLinkedQueue<>();
+        AtomicBoolean flushScheduled = new AtomicBoolean();
+        boolean includeHidden = includeHiddenProperty.get();
+        finder.start(root, includeHidden, group -> {
+            pending.add(group);
+            if (flushScheduled.compareAndSet(false, true))
+                Platform.runLater(() -> {
+                    flushScheduled.set(false);
+                    addGroups(pending, searchCancelled);
+                });
+        }, searchCancelled).whenComplete((fileCount, error) -> {
+            int finalCount = (error == null) ? fileCount : -1;
+            Platform.runLater(() -> {
+                addGroups(pending, searchCancelled);
+                finishSearch(searchCancelled, finalCount);
+            });
+        });
+    }
+
+    /**
+     * Stops the search that is currently running, if any.
+     */
+    public void cancelSearch() {
+        if (cancelled != null)
+            cancelled.set(true);
+        cancelled = null;
+        searchingProperty.set(false);
+    }
+
+    /**
+     * Sends the given files to the trash in the background, and removes them
+     * from their groups. If every copy in a group that isn't already being
+     * trashed is given, the first of those is kept, so the file itself is
+     * never lost. Each file is compared with a kept copy again just before
+     * it's trashed, and is left alone if either has changed since the
+     * search.
+     *
+     * @return The number of files that couldn't be trashed, once they're
+     * done. It completes on the UI thread.
+     */
+    public CompletableFuture<Integer> trashFiles(Collection<Path> files) {
+        Map<Path, Path> toTrash = keepOneCopy(files);
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        if (toTrash.isEmpty()) {
+            result.complete(0);
+            return result;
+        }
+
+        trashing.addAll(toTrash.keySet());
+        statusProperty.setValue("Moving " + toTrash.size() + " files to the trash...");
+        scheduler.submit(TaskPriority.Transfer, toTrash.keySet().iterator().next(), token -> {
+            ArrayList<Path> trashed = new ArrayList<>();
+            toTrash.forEach((file, kept) -> {
+                if (kept != null && !isSameContent(kept, file)) {
+                    System.err.println("Not trashing " + file + ", which has changed since the search");
+                    return;
+                }
+                dataModel.trashItem(file.toString());
+                if (!Files.exists(file, LinkOption.NOFOLLOW_LINKS))
+                    trashed.add(file);
+            });
+            return trashed;
+        }).whenComplete((trashed, error) -> Platform.runLater(() -> {
+            if (error != null)
+                error.printStackTrace();
+            trashing.removeAll(toTrash.keySet());
+            List<Path> done = (trashed == null) ? List.of() : trashed;
+            removeFiles(done);
+            result.complete(toTrash.size() - done.size());
+        }));
+        return result;
+    }
+
+    /**
+     * Sends every copy but the first of each group to the trash.
+     *
+     * @return The number of files that couldn't be trashed, once they're
+     * done.
+     */
+    public CompletableFuture<Integer> trashExtraCopies(Collection<DuplicateGroup> selectedGroups) {
+        ArrayList<Path> extras = new ArrayList<>();
+        for (DuplicateGroup group : selectedGroups)
+            extras.addAll(group.files().subList(1, group.files().size()));
+        return trashFiles(extras);
+    }
+
+    /**
+     * Replaces every copy but the first of each group with a hard link to
+     * the first one, in the background. The groups are removed, since they
+     * no longer waste any space.
+     *
+     * @return The number of files that couldn't be replaced, once they're
+     * done. It completes on the UI thread.
+     */
+    public CompletableFuture<Integer> linkExtraCopies(Collection<DuplicateGroup> selectedGroups) {
+        List<DuplicateGroup> toLink = List.copyOf(selectedGroups);
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        if (toLink.isEmpty()) {
+            result.complete(0);
+            return result;
+        }
+
+        statusProperty.setValue("Replacing copies with hard links...");
+        int[] failures = {0};
+        scheduler.submit(TaskPriority.Transfer, toLink.get(0).files().get(0), token -> {
+            ArrayList<DuplicateGroup> linked = new ArrayList<>();
+            for (DuplicateGroup group : toLink) {
+                Path kept = group.files().get(0);
+                boolean groupFailed = false;
+                for (Path duplicate : group.files().subList(1, group.files().size())) {
+                    try {
+                        DuplicateFinder.replaceWithHardLink(kept, duplicate);
+                    } catch (IOException | UnsupportedOperationException e) {
+                        System.err.println("Could not link " + duplicate + ": " + e.getMessage());
+                        groupFailed = true;
+                        failures[0]++;
+                    }
+                }
+                if (!groupFailed)
+                    linked.add(group);
+            }
+            return linked;
+        }).whenComplete((linked, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                error.printStackTrace();
+                failures[0]++;
+            }
+            if (linked != null)
+                groups.removeAll(linked);
+            updateSummary();
+            result.complete(failures[0]);
+        }));
+        return result;
+    }
+
+    /**
+     * Shows the folder that holds the given file in the main window.
+     */
+    public void showInFiles(Path file) {
+        Path parent = file.getParent();
+        if (parent != null)
+            dataModel.setCurrentDirectory(parent.toString());
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    /**
+     * Moves the groups found so far into the list, keeping the ones that
+     * waste the most space first.
+     */
+    private void addGroups(Queue<DuplicateGroup> pending, AtomicBoolean searchCancelled) {
+        if (cancelled != searchCancelled)
+            return;
+
+        ArrayList<DuplicateGroup> batch = new ArrayList<>();
+        DuplicateGroup group;
+        while ((group = pending.poll()) != null)
+            batch.add(group);
+        if (batch.isEmpty())
+            return;
+
+        Comparator<DuplicateGroup> mostWastedFirst =
+                Comparator.comparingLong(DuplicateGroup::getWastedBytes).reversed();
+        batch.sort(mostWastedFirst);
+        for (DuplicateGroup newGroup : batch) {
+            int index = Collections.binarySearch(groups, newGroup, mostWastedFirst);
+            groups.add(index < 0 ? -index - 1 : index, newGroup);
+        }
+        updateSummary();
+    }
+
+    private void finishSearch(AtomicBoolean searchCancelled, int fileCount) {
+        if (cancelled != searchCancelled)
+            return;
+        cancelled = null;
+        searchingProperty.set(false);
+
+        if (fileCount < 0)
+            statusProperty.setValue("Could not read " + folderProperty.getValue());
+        else
+            statusProperty.setValue(describeGroups() + " among " + fileCount + " files.");
+    }
+
+    private void updateSummary() {
+        String summary = describeGroups();
+        statusProperty.setValue(searchingProperty.get() ? summary + " so far..." : summary + ".");
+    }
+
+    /**
+     * Gets a sentence describing how many groups were found and how much
+     * space they waste.
+     */
+    private String describeGroups() {
+        long wasted = 0;
+        for (DuplicateGroup group : groups)
+            wasted += group.getWastedBytes();
+        return groups.size() + " groups of duplicates wasting "
+                + FileUtils.byteCountToDisplaySize(wasted);
+    }
+
+    /**
+     * Picks the files to trash, leaving out those already being trashed and
+     * keeping one copy of every group that would otherwise lose all of its
+     * copies.
+     *
+     * @return Each file to trash, with a copy that stays to compare it with
+     * first, or null for files that aren't in any group.
+     */
+    private Map<Path, Path> keepOneCopy(Collection<Path> files) {
+        LinkedHashSet<Path> requested = new LinkedHashSet<>(files);
+        requested.removeAll(trashing);
+        LinkedHashMap<Path, Path> toTrash = new LinkedHashMap<>();
+        for (Path file : requested)
+            toTrash.put(file, null);
+
+        for (DuplicateGroup group : groups) {
+            Path kept = null;
+            for (Path file : group.files()) {
+                if (!trashing.contains(file) && !requested.contains(file)) {
+                    kept = file;
+                    break;
+                }
+            }
+            if (kept == null) {
+                // Every copy would be gone, so the first one that isn't
+                // already being trashed stays.
+                for (Path file : group.files()) {
+                    if (!trashing.contains(file)) {
+                        kept = file;
+                        break;
+                    }
+                }
+                if (kept == null)
+                    continue;
+                toTrash.remove(kept);
+            }
+            for (Path file : group.files()) {
+                if (toTrash.containsKey(file))
+                    toTrash.put(file, kept);
+            }
+        }
+        return toTrash;
+    }
+
+    /**
+     * Checks whether two files still have the same contents. This reads both
+     * files, so it mustn't be called on the UI thread.
+     */
+    private static boolean isSameContent(Path kept, Path duplicate) {
+        try {
+            return Files.mismatch(kept, duplicate) == -1;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Takes files out of their groups, dropping the groups that are left
+     * with a single file.
+     */
+    private void removeFiles(Collection<Path> files) {
+        HashSet<Path> removed = new HashSet<>(files);
+        for (int i = groups.size() - 1; i >= 0; i--) {
+            DuplicateGroup group = groups.get(i);
+            ArrayList<Path> remaining = new ArrayList<>(group.files());
+            if (!remaining.removeAll(removed))
+                continue;
+            if (remaining.size() < 2)
+                groups.remove(i);
+            else
+                groups.set(i, new DuplicateGroup(group.size(), List.copyOf(remaining)));
+        }
+        updateSummary();
+    }
+
+    //endregion
+}
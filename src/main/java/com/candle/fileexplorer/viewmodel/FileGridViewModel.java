@@ -1,15 +1,75 @@
 package com.candle.fileexplorer.viewmodel;
 
+import com.candle.fileexplorer.core.TaskPriority;
+import com.candle.fileexplorer.core.TaskScheduler;
 import com.candle.fileexplorer.model.data.FileItem;
+import com.candle.fileexplorer.model.data.FileType;
 import com.candle.fileexplorer.model.helpers.DirectoryStructure;
-import com.candle.fileexplorer.model.observer.DataListener;
+import com.candle.fileexplorer.model.history.ListingSnapshot;
+import com.candle.fileexplorer.model.io.DeviceExecutor;
+import com.candle.fileexplorer.model.data.CachedFileItem;
+import com.candle.fileexplorer.model.data.DefaultFileItem;
+import com.candle.fileexplorer.model.observer.ModelEvent;
+import com.candle.fileexplorer.model.observer.ModelEventListener;
 import com.candle.fileexplorer.model.FilesModel;
+import com.candle.fileexplorer.model.search.DirectoryTrie;
+import com.candle.fileexplorer.model.search.NameFilter;
+import com.candle.fileexplorer.model.usage.FolderSizeCalculator;
+import javafx.application.Platform;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.collections.ObservableMap;
+
+import java.io.File;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FileGridViewModel implements ModelEventListener {
+    //region Public Members/Properties
+
+    /**
+     * The text typed into the filter box. Only items whose names match it
+     * are shown.
+     */
+    private final StringProperty filterProperty;
+
+    /**
+     * Whether the filter text only has to appear in order, rather than as
+     * one piece.
+     */
+    private final BooleanProperty fuzzyFilterProperty;
+
+    /**
+     * How far down the grid is scrolled, from 0 to 1. Kept up to date by
+     * the view, and set here when a listing is restored from the history.
+     */
+    private final DoubleProperty scrollPositionProperty;
+
+    /**
+     * The path of the selected item, or null if nothing is selected. Kept
+     * up to date by the view, and set here when a listing is restored from
+     * the history.
+     */
+    private final StringProperty selectedPathProperty;
+
+    //endregion
 
-public class FileGridViewModel implements DataListener {
     //region Private Members
 
+    /**
+     * Listings with more candidates than this are filtered on a background
+     * thread, so typing never waits on the filter.
+     */
+    private static final int backgroundFilterThreshold = 10000;
+
     /**
      * The data model containing information about the explorer's current
      * directory.
@@ -21,6 +81,81 @@ public class FileGridViewModel implements DataListener {
      */
     private final ObservableList<FileItem> items;
 
+    /**
+     * The cache of directory names used to complete paths in the location
+     * bar. Every listing shown in the grid is recorded in it.
+     */
+    private final DirectoryTrie directoryTrie;
+
+    /**
+     * Calculates the sizes of the folders in the current directory.
+     */
+    private final FolderSizeCalculator folderSizeCalculator;
+
+    /**
+     * The known sizes of the folders in the current directory, by path.
+     * Sizes are added as their calculations finish.
+     */
+    private final ObservableMap<String, Long> folderSizes;
+
+    /**
+     * Incremented whenever a different directory is listed, so contents and
+     * folder sizes read for an earlier listing are thrown away.
+     */
+    private int listingId;
+
+    /**
+     * The directory the listing was read from.
+     */
+    private String listedDirectory;
+
+    /**
+     * Every item in the current directory, before filtering.
+     */
+    private List<FileItem> allItems;
+
+    /**
+     * The lowercase name of each item in {@link #allItems}, computed once
+     * per listing.
+     */
+    private String[] lowerNames;
+
+    /**
+     * The filter that produced the items currently shown, or null if
+     * nothing is filtered.
+     */
+    private NameFilter appliedFilter;
+
+    /**
+     * The positions in {@link #allItems} of the items currently shown.
+     */
+    private int[] matchedIndices;
+
+    /**
+     * Incremented whenever the filter changes, so results from an outdated
+     * background run are thrown away.
+     */
+    private final AtomicInteger filterGeneration;
+
+    /**
+     * Runs the filtering of large listings, and the checking of listings
+     * restored from the history against the disk.
+     */
+    private final TaskScheduler scheduler;
+
+    /**
+     * The background read of the directory being listed, or the check of a
+     * listing restored from the history, which is cancelled when another
+     * directory is listed.
+     */
+    private TaskScheduler.ScheduledTask<?> listingRead;
+
+    /**
+     * Set while the filter is being cleared for a new directory, so the old
+     * listing isn't filtered for nothing.
+     */
+    private boolean clearingFilter;
+
     /**
      * A boolean variable that is used to determine whether hidden
      * files/folders should be displayed.
@@ -35,10 +170,31 @@ public class FileGridViewModel implements DataListener {
      * Initializes the view model and sets the current directory to the
      * user's home folder.
      */
-    public FileGridViewModel(FilesModel dataModel) {
+    public FileGridViewModel(FilesModel dataModel, DirectoryTrie directoryTrie,
+                             FolderSizeCalculator folderSizeCalculator,
+                             TaskScheduler scheduler) {
         items = FXCollections.observableArrayList();
+        folderSizes = FXCollections.observableHashMap();
+        allItems = new ArrayList<>();
+        lowerNames = new String[0];
+        filterGeneration = new AtomicInteger();
+        filterProperty = new SimpleStringProperty("");
+        fuzzyFilterProperty = new SimpleBooleanProperty(false);
+        scrollPositionProperty = new SimpleDoubleProperty(0);
+        selectedPathProperty = new SimpleStringProperty(null);
+
         this.dataModel = dataModel;
-        dataModel.addListener(this);
+        this.directoryTrie = directoryTrie;
+        this.folderSizeCalculator = folderSizeCalculator;
+        this.scheduler = scheduler;
+        dataModel.addEventListener(this);
+        dataModel.setSnapshotSource(this::takeSnapshot);
+
+        filterProperty.addListener((observable, oldValue, newValue) -> {
+            if (!clearingFilter)
+                applyFilter();
+        });
+        fuzzyFilterProperty.addListener((observable, oldValue, newValue) -> applyFilter());
     }
 
     //endregion
@@ -49,10 +205,46 @@ public class FileGridViewModel implements DataListener {
         return items;
     }
 
+    public StringProperty filterProperty() {
+        return filterProperty;
+    }
+
+    public BooleanProperty fuzzyFilterProperty() {
+        return fuzzyFilterProperty;
+    }
+
+    public DoubleProperty scrollPositionProperty() {
+        return scrollPositionProperty;
+    }
+
+    public StringProperty selectedPathProperty() {
+        return selectedPathProperty;
+    }
+
+    public ObservableMap<String, Long> getFolderSizes() {
+        return folderSizes;
+    }
+
+    /**
+     * Gets the size of a folder in the current directory.
+     *
+     * @return The size in bytes, or -1 if it hasn't been calculated yet.
+     */
+    public long getFolderSize(String path) {
+        return folderSizes.getOrDefault(path, -1L);
+    }
+
     public FilesModel getFilesModel() {
         return dataModel;
     }
 
+    /**
+     * Gets the executor that reads and saves the previews of images.
+     */
+    public DeviceExecutor getThumbnailExecutor() {
+        return scheduler.deviceExecutor(TaskPriority.Thumbnail);
+    }
+
     public String getCurrentDirectory() {
         return dataModel.getCurrentDirectory();
     }
@@ -75,20 +267,337 @@ public class FileGridViewModel implements DataListener {
 
     /**
      * Updates the file items in the view model using the new current
-     * directory value.
+     * directory value. The directory is read on a background thread, and
+     * the items are replaced once it's done.
      */
     public void updateContents() {
-        if (items.size() > 0)
-            items.clear();
-
-        // Get the files/folders.
-        items.addAll(DirectoryStructure.getDirectoryContents(
-                dataModel.getCurrentDirectory(), showHiddenItems));
+        String directory = dataModel.getCurrentDirectory();
+        boolean includeHidden = showHiddenItems;
+        int requestedListing = ++listingId;
+        folderSizes.clear();
+        if (listingRead != null)
+            listingRead.cancel(false);
+        listingRead = scheduler.submit(TaskPriority.Interactive, toPath(directory), token -> {
+            ArrayList<FileItem> contents = readListing(directory, includeHidden);
+            Platform.runLater(() -> {
+                if (requestedListing == listingId)
+                    showListing(directory, contents);
+            });
+            return null;
+        });
     }
 
+    /**
+     * Updates the listing for the changes made to the data model. Items that
+     * are added, removed or renamed in the current directory are patched into
+     * the listing; moving to another directory or tab reads it from scratch.
+     */
     @Override
-    public void currentDirectoryChanged() {
-        updateContents();
+    public void modelChanged(List<ModelEvent> events) {
+        for (ModelEvent event : events) {
+            if (event.replacesListing()) {
+                currentDirectoryChanged();
+                return;
+            }
+        }
+
+        String directory = dataModel.getCurrentDirectory();
+        // The directory is still being read, and the read will see the
+        // changes.
+        if (!isSameDirectory(listedDirectory, directory))
+            return;
+
+        ArrayList<FileItem> contents = new ArrayList<>(allItems);
+        boolean changed = false;
+        for (ModelEvent event : events) {
+            if (event instanceof ModelEvent.ItemsAdded added
+                    && isSameDirectory(added.directory(), directory)) {
+                for (String path : added.paths())
+                    changed |= addItem(contents, path);
+            } else if (event instanceof ModelEvent.ItemsRemoved removed
+                    && isSameDirectory(removed.directory(), directory)) {
+                for (String path : removed.paths())
+                    changed |= removeItem(contents, path);
+            } else if (event instanceof ModelEvent.ItemRenamed renamed
+                    && isSameDirectory(renamed.directory(), directory)) {
+                changed |= removeItem(contents, renamed.oldPath());
+                changed |= addItem(contents, renamed.newPath());
+            }
+        }
+        if (changed)
+            showListing(directory, contents);
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    /**
+     * Clears the filter and lists the current directory. A directory that
+     * was visited before is shown straight from its snapshot in the history,
+     * scrolled and selected the way the user left it, and then checked
+     * against the disk in the background.
+     */
+    private void currentDirectoryChanged() {
+        // A filter typed for one folder rarely makes sense in the next one.
+        clearingFilter = true;
+        filterProperty.setValue("");
+        clearingFilter = false;
+
+        ListingSnapshot snapshot = dataModel.getCurrentSnapshot();
+        if (snapshot == null && listedDirectory == null) {
+            // Nothing has been listed since the app started. Rather than
+            // hold up the window's first paint, the grid starts out empty
+            // and the listing is read in the background.
+            snapshot = new ListingSnapshot(List.of(), 0, null);
+        }
+        if (snapshot == null) {
+            selectedPathProperty.setValue(null);
+            updateContents();
+            scrollPositionProperty.set(0);
+            return;
+        }
+
+        String directory = dataModel.getCurrentDirectory();
+        listingId++;
+        folderSizes.clear();
+        selectedPathProperty.setValue(snapshot.selectedPath());
+        showListing(directory, snapshot.items());
+        scrollPositionProperty.set(snapshot.scrollPosition());
+        revalidateListing(directory);
+    }
+
+    /**
+     * Reads the directory again on a background thread, and patches in
+     * whatever changed since its snapshot was taken.
+     */
+    private void revalidateListing(String directory) {
+        int restoredListing = listingId;
+        boolean includeHidden = showHiddenItems;
+        List<FileItem> shown = allItems;
+        if (listingRead != null)
+            listingRead.cancel(false);
+        listingRead = scheduler.submit(TaskPriority.Interactive, toPath(directory), token -> {
+            ArrayList<FileItem> contents = readListing(directory, includeHidden);
+            if (!hasChanged(shown, contents))
+                return null;
+            Platform.runLater(() -> {
+                if (restoredListing == listingId)
+                    showListing(directory, contents);
+            });
+            return null;
+        });
+    }
+
+    /**
+     * Reads a directory, recording each item's modification time and size
+     * so the listing can be sorted, and later compared with the disk,
+     * without reading them again. This reads from the disk, so it mustn't
+     * be called on the UI thread.
+     */
+    private static ArrayList<FileItem> readListing(String directory, boolean includeHidden) {
+        ArrayList<FileItem> contents = new ArrayList<>();
+        for (FileItem item : DirectoryStructure.getDirectoryContents(directory, includeHidden))
+            contents.add(cacheAttributes(item));
+        return contents;
+    }
+
+    private static FileItem cacheAttributes(FileItem item) {
+        return new CachedFileItem(item.getFileType(), item.getItemDirectory(),
+                item.getLastModifiedTime(), item.getSize());
+    }
+
+    /**
+     * Checks whether a fresh listing differs from the one that was shown,
+     * comparing the modification times and sizes recorded when each was
+     * read.
+     */
+    private static boolean hasChanged(List<FileItem> shown, List<FileItem> contents) {
+        if (contents.size() != shown.size())
+            return true;
+        HashMap<String, FileItem> shownItems = new HashMap<>();
+        for (FileItem item : shown)
+            shownItems.put(item.getItemDirectory(), item);
+        for (FileItem item : contents) {
+            FileItem shownItem = shownItems.get(item.getItemDirectory());
+            if (shownItem == null || shownItem.getFileType() != item.getFileType()
+                    || shownItem.getLastModifiedTime() != item.getLastModifiedTime()
+                    || shownItem.getSize() != item.getSize())
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Takes a snapshot of the listing for the history, as long as it's the
+     * listing of the given directory.
+     */
+    private ListingSnapshot takeSnapshot(String directory) {
+        if (listedDirectory == null || !isSameDirectory(listedDirectory, directory))
+            return null;
+        return new ListingSnapshot(List.copyOf(allItems), scrollPositionProperty.get(),
+                selectedPathProperty.getValue());
+    }
+
+    /**
+     * Shows the given items as the contents of the directory, and records
+     * the directory's folders for path completion and size calculation.
+     */
+    private void showListing(String directory, List<FileItem> contents) {
+        String[] names = new String[contents.size()];
+        ArrayList<String> folderNames = new ArrayList<>();
+        ArrayList<String> folderPaths = new ArrayList<>();
+        for (int i = 0; i < contents.size(); i++) {
+            FileItem item = contents.get(i);
+            names[i] = item.getFileName().toLowerCase(Locale.ROOT);
+            if (item.getFileType() == FileType.Folder) {
+                folderNames.add(item.getFileName());
+                folderPaths.add(item.getItemDirectory());
+            }
+        }
+        directoryTrie.putListing(directory, folderNames);
+
+        listedDirectory = directory;
+        allItems = contents;
+        lowerNames = names;
+        appliedFilter = null;
+        matchedIndices = null;
+        requestFolderSizes(folderPaths);
+        applyFilter();
+    }
+
+    /**
+     * Adds the item at the given path to a listing, unless it's hidden and
+     * hidden items aren't shown, or it's already listed.
+     *
+     * @return Whether the item was added.
+     */
+    private boolean addItem(List<FileItem> contents, String path) {
+        File file = new File(path);
+        if (!file.exists() || (!showHiddenItems && file.isHidden())
+                || indexOf(contents, path) >= 0)
+            return false;
+        contents.add(cacheAttributes(new DefaultFileItem(file.getAbsolutePath())));
+        return true;
+    }
+
+    /**
+     * Removes the item at the given path from a listing.
+     *
+     * @return Whether the item was listed.
+     */
+    private boolean removeItem(List<FileItem> contents, String path) {
+        int index = indexOf(contents, path);
+        if (index < 0)
+            return false;
+        folderSizes.remove(contents.get(index).getItemDirectory());
+        contents.remove(index);
+        return true;
+    }
+
+    private static int indexOf(List<FileItem> contents, String path) {
+        for (int i = 0; i < contents.size(); i++) {
+            if (isSameDirectory(contents.get(i).getItemDirectory(), path))
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether two paths point at the same place, ignoring trailing
+     * slashes and the like.
+     */
+    private static boolean isSameDirectory(String first, String second) {
+        if (first == null || second == null)
+            return false;
+        try {
+            return Path.of(first).normalize().equals(Path.of(second).normalize());
+        } catch (InvalidPathException e) {
+            return first.equals(second);
+        }
+    }
+
+    /**
+     * Shows the items that match the current filter text.
+     * When a character is added to the end of the text, only the items that
+     * are already shown get checked again.
+     */
+    private void applyFilter() {
+        int generation = filterGeneration.incrementAndGet();
+        String text = filterProperty.getValue();
+        if (text == null || text.isEmpty()) {
+            appliedFilter = null;
+            matchedIndices = null;
+            items.setAll(allItems);
+            return;
+        }
+
+        NameFilter filter = new NameFilter(text, fuzzyFilterProperty.get());
+        int[] candidates = filter.isNarrowerThan(appliedFilter) ? matchedIndices : null;
+        List<FileItem> source = allItems;
+        String[] names = lowerNames;
+
+        int workSize = (candidates == null) ? names.length : candidates.length;
+        if (workSize < backgroundFilterThreshold) {
+            showFilteredItems(filter, filter.apply(names, candidates, () -> false),
+                    source, generation);
+            return;
+        }
+
+        scheduler.submit(TaskPriority.Interactive, null, token -> {
+            int[] result = filter.apply(names, candidates,
+                    () -> filterGeneration.get() != generation);
+            if (result != null)
+                Platform.runLater(() -> showFilteredItems(filter, result,
+                        source, generation));
+            return null;
+        });
+    }
+
+    /**
+     * Shows the last known sizes of the listed folders straight away, then
+     * recalculates them in the background. Each size is added as soon as it
+     * is ready, as long as a different directory hasn't been listed in the
+     * meantime.
+     */
+    private void requestFolderSizes(List<String> folderPaths) {
+        for (String path : folderPaths) {
+            long cachedSize = folderSizeCalculator.getCachedSize(path);
+            if (cachedSize >= 0 && !folderSizes.containsKey(path))
+                folderSizes.put(path, cachedSize);
+        }
+
+        int requestedListing = listingId;
+        folderSizeCalculator.requestSizes(folderPaths, (path, size) ->
+                Platform.runLater(() -> {
+                    if (requestedListing == listingId)
+                        folderSizes.put(path, size);
+                }));
+    }
+
+    /**
+     * Replaces the shown items with the filtered ones, unless the filter or
+     * the listing has changed since they were computed.
+     */
+    private void showFilteredItems(NameFilter filter, int[] indices,
+                                   List<FileItem> source, int generation) {
+        if (generation != filterGeneration.get() || source != allItems)
+            return;
+
+        appliedFilter = filter;
+        matchedIndices = indices;
+        ArrayList<FileItem> result = new ArrayList<>(indices.length);
+        for (int index : indices)
+            result.add(source.get(index));
+        items.setAll(result);
+    }
+
+    private static Path toPath(String directory) {
+        try {
+            return Path.of(directory);
+        } catch (InvalidPathException e) {
+            return null;
+        }
     }
 
     //endregion
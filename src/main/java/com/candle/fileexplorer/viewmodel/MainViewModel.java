@@ -1,12 +1,27 @@
 package com.candle.fileexplorer.viewmodel;
 
+import com.candle.fileexplorer.core.FlightRecording;
+import com.candle.fileexplorer.core.TaskPriority;
+import com.candle.fileexplorer.core.TaskScheduler;
 import com.candle.fileexplorer.model.FilesModel;
+import com.candle.fileexplorer.model.helpers.DirectoryStructure;
 import com.candle.fileexplorer.model.helpers.FileOperations;
+import com.candle.fileexplorer.model.history.SessionState;
+import com.candle.fileexplorer.model.history.SessionStore;
 import com.candle.fileexplorer.model.observer.DataListener;
+import com.candle.fileexplorer.model.search.DirectoryTrie;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * The view model used by the main view.
@@ -40,6 +55,43 @@ public class MainViewModel implements DataListener {
      */
     private final QuickAccessViewModel quickAccessViewModel;
 
+    /**
+     * The maximum number of path suggestions shown under the location bar.
+     */
+    private static final int maxLocationSuggestions = 10;
+
+    /**
+     * The cache of directory names used to complete the location bar.
+     */
+    private final DirectoryTrie directoryTrie;
+
+    /**
+     * The full paths suggested for the text in the location bar.
+     */
+    private final ObservableList<String> locationSuggestions;
+
+    /**
+     * Lists directories that aren't in the cache yet, so the UI thread
+     * never waits on the disk.
+     */
+    private final TaskScheduler scheduler;
+
+    /**
+     * The listing for the last suggestions that weren't in the cache,
+     * which is cancelled when the text changes again.
+     */
+    private TaskScheduler.ScheduledTask<?> suggestionListing;
+
+    /**
+     * Where the open tabs are saved when the app closes.
+     */
+    private final Path sessionFile;
+
+    /**
+     * The location bar text that the suggestions were last requested for.
+     */
+    private String lastSuggestionText = "";
+
     //endregion
 
     //region Constructors
@@ -55,16 +107,24 @@ public class MainViewModel implements DataListener {
      *                             model factory.
      * @param dataModel            A reference to an existing data model,
      *                             which is created in the model factory.
+     * @param directoryTrie        The cache of directory names used for
+     *                             completing paths in the location bar.
+     * @param scheduler            Runs the listings for the location bar.
      */
     public MainViewModel(FileGridViewModel gridVM,
                          QuickAccessViewModel quickAccessViewModel,
-                         FilesModel dataModel) {
+                         FilesModel dataModel, DirectoryTrie directoryTrie,
+                         TaskScheduler scheduler) {
         currentDirectoryProperty = new SimpleStringProperty();
         tabNameProperties = new ArrayList<>();
+        locationSuggestions = FXCollections.observableArrayList();
 
         this.fileGridViewModel = gridVM;
         this.quickAccessViewModel = quickAccessViewModel;
         this.dataModel = dataModel;
+        this.directoryTrie = directoryTrie;
+        this.scheduler = scheduler;
+        sessionFile = Path.of(FileOperations.getCacheDirectory(), "session.bin");
 
         dataModel.addListener(this);
     }
@@ -96,6 +156,10 @@ public class MainViewModel implements DataListener {
         return quickAccessViewModel;
     }
 
+    public ObservableList<String> getLocationSuggestions() {
+        return locationSuggestions;
+    }
+
     public int getTabIndex() {
         return dataModel.getTabIndex();
     }
@@ -115,6 +179,65 @@ public class MainViewModel implements DataListener {
         dataModel.addTab();
     }
 
+    /**
+     * Tells the data model to add a tab from a saved session.
+     */
+    public void restoreTab(SessionState.TabState state) {
+        dataModel.restoreTab(state);
+    }
+
+    /**
+     * Reads the tabs that were open when the app was last closed. Tabs
+     * whose directory has since gone away are left out.
+     *
+     * @return The saved session, or null if there is none.
+     */
+    public SessionState loadSession() {
+        if (!Files.exists(sessionFile))
+            return null;
+
+        SessionState session;
+        try {
+            session = SessionStore.load(sessionFile);
+        } catch (IOException e) {
+            System.err.println("Could not restore the last session: " + e.getMessage());
+            return null;
+        }
+
+        ArrayList<SessionState.TabState> tabs = new ArrayList<>();
+        int selectedTab = 0;
+        for (int i = 0; i < session.tabs().size(); i++) {
+            SessionState.TabState tab = session.tabs().get(i);
+            if (!Files.isDirectory(Path.of(tab.getCurrentDirectory())))
+                continue;
+            if (i <= session.selectedTab())
+                selectedTab = tabs.size();
+            tabs.add(tab);
+        }
+        return new SessionState(tabs, selectedTab);
+    }
+
+    /**
+     * Saves the open tabs, their histories and their current listings, so
+     * they can be restored the next time the app starts.
+     *
+     * @param sortOrders The name of the order each tab's items are sorted
+     *                   in.
+     */
+    public void saveSession(List<String> sortOrders) {
+        ArrayList<SessionState.TabState> tabs = new ArrayList<>();
+        for (int i = 0; i < dataModel.getTabCount(); i++) {
+            String sortOrder = (i < sortOrders.size()) ? sortOrders.get(i) : null;
+            tabs.add(dataModel.getTabState(i).withSortOrder(sortOrder));
+        }
+
+        try {
+            SessionStore.save(sessionFile, new SessionState(tabs, dataModel.getTabIndex()));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
     /**
      * Tells the data model to remove the tab at the given index.
      */
@@ -161,6 +284,74 @@ public class MainViewModel implements DataListener {
         dataModel.setCurrentDirectory(currentDirectoryProperty.getValue());
     }
 
+    /**
+     * Updates the path suggestions for the text typed into the location bar.
+     * Directories in the cache are completed right away. Otherwise, the
+     * suggestions are cleared and the parent directory is listed in the
+     * background, after which the suggestions are filled in if the text
+     * hasn't changed in the meantime.
+     *
+     * @param text The current text in the location bar.
+     */
+    public void updateLocationSuggestions(String text) {
+        lastSuggestionText = text;
+
+        int separator = (text == null) ? -1 : text.replace("\\", "/").lastIndexOf('/');
+        if (separator == -1) {
+            locationSuggestions.clear();
+            return;
+        }
+
+        String parent = text.substring(0, separator + 1);
+        String prefix = text.substring(separator + 1);
+        List<String> names = directoryTrie.complete(parent, prefix,
+                maxLocationSuggestions * 2);
+        if (names != null) {
+            setLocationSuggestions(parent, prefix, names);
+            return;
+        }
+
+        locationSuggestions.clear();
+        if (suggestionListing != null)
+            suggestionListing.cancel(false);
+        suggestionListing = scheduler.submit(TaskPriority.Interactive, toPath(parent), token -> {
+            directoryTrie.putListing(parent,
+                    DirectoryStructure.getSubDirectoryNames(parent));
+            Platform.runLater(() -> {
+                if (text.equals(lastSuggestionText))
+                    updateLocationSuggestions(text);
+            });
+            return null;
+        });
+    }
+
+    /**
+     * Stops the flight recording and saves it in the background, since
+     * writing it out can take a while. Once it's saved, its folder is opened
+     * with the recording selected.
+     *
+     * @param onFinished Called on the UI thread once the recording is saved,
+     *                   or couldn't be.
+     */
+    public void stopFlightRecording(Runnable onFinished) {
+        scheduler.submit(TaskPriority.Transfer, null, token -> {
+            Path recording = null;
+            try {
+                recording = FlightRecording.stop();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            } finally {
+                Path saved = recording;
+                Platform.runLater(() -> {
+                    if (saved != null)
+                        showFile(saved);
+                    onFinished.run();
+                });
+            }
+            return null;
+        });
+    }
+
     @Override
     public void currentDirectoryChanged() {
         currentDirectoryProperty.setValue(dataModel.getCurrentDirectory());
@@ -171,6 +362,41 @@ public class MainViewModel implements DataListener {
 
     //region Private Helper Methods
 
+    /**
+     * Opens the folder of a file, selecting the file once it's listed.
+     */
+    private void showFile(Path file) {
+        String folder = file.getParent().toString();
+        if (folder.equals(dataModel.getCurrentDirectory()))
+            getFileGridViewModel().updateContents();
+        else
+            dataModel.setCurrentDirectory(folder);
+        // The grid clears its selection when the directory change is
+        // delivered, which is queued on the UI thread ahead of this.
+        Platform.runLater(() ->
+                getFileGridViewModel().selectedPathProperty().setValue(file.toString()));
+    }
+
+    /**
+     * Fills in the suggestion list with full paths. Hidden folders are only
+     * suggested once the user starts typing a name with a dot.
+     */
+    private void setLocationSuggestions(String parent, String prefix,
+                                        List<String> names) {
+        ArrayList<String> paths = new ArrayList<>();
+        for (String name : names) {
+            if (paths.size() == maxLocationSuggestions)
+                break;
+            if (name.startsWith(".") && !prefix.startsWith("."))
+                continue;
+            // An exact match is already in the location bar.
+            if (name.equals(prefix))
+                continue;
+            paths.add(parent + name);
+        }
+        locationSuggestions.setAll(paths);
+    }
+
     /**
      * Updates the name of the currently viewed tab, and adds new entries to
      * the property list when necessary.
@@ -190,5 +416,13 @@ public class MainViewModel implements DataListener {
         tabNameProperty.setValue(tabName);
     }
 
+    private static Path toPath(String directory) {
+        try {
+            return Path.of(directory);
+        } catch (InvalidPathException e) {
+            return null;
+        }
+    }
+
     //endregion
 }
@@ -3,14 +3,23 @@ package com.candle.fileexplorer.viewmodel;
 import com.candle.fileexplorer.model.FilesModel;
 import com.candle.fileexplorer.model.data.FileItem;
 import com.candle.fileexplorer.model.data.DefaultFileItem;
+import com.candle.fileexplorer.model.data.FileType;
 import com.candle.fileexplorer.model.helpers.FileOperations;
+import com.candle.fileexplorer.model.mounts.MountEntry;
+import com.candle.fileexplorer.model.mounts.MountMonitor;
+import com.candle.fileexplorer.model.observer.MountListener;
+import com.candle.fileexplorer.model.usage.DriveSpaceMonitor;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * The view model class for the Quick Access view.
  */
-public class QuickAccessViewModel {
+public class QuickAccessViewModel implements MountListener {
     //region Private Members
 
     /**
@@ -21,7 +30,19 @@ public class QuickAccessViewModel {
     /**
      * A list of drives on the computer.
      */
-    private ArrayList<DirectoryButtonViewModel> drives;
+    private final ObservableList<DirectoryButtonViewModel> drives;
+
+    /**
+     * Reads the space on each drive in the background, or null if the drive
+     * buttons don't show their space.
+     */
+    private final DriveSpaceMonitor driveSpaceMonitor;
+
+    /**
+     * Reports drives being plugged in and removed, or null if the list of
+     * drives is only read once.
+     */
+    private final MountMonitor mountMonitor;
 
     //endregion
 
@@ -31,8 +52,21 @@ public class QuickAccessViewModel {
      * Initializes the view model and gets a list of drives on the computer.
      */
     public QuickAccessViewModel(FilesModel dataModel) {
+        this(dataModel, null, null);
+        showDrives(dataModel.getDrives());
+    }
+
+    /**
+     * Initializes the view model with an empty list of drives, which is
+     * filled in once {@link #discoverDrives()} has run. The drive space and
+     * mount monitors keep the list up to date after that.
+     */
+    public QuickAccessViewModel(FilesModel dataModel, DriveSpaceMonitor driveSpaceMonitor,
+                                MountMonitor mountMonitor) {
         this.dataModel = dataModel;
-        updateDrives();
+        this.driveSpaceMonitor = driveSpaceMonitor;
+        this.mountMonitor = mountMonitor;
+        drives = FXCollections.observableArrayList();
     }
 
     //endregion
@@ -41,12 +75,40 @@ public class QuickAccessViewModel {
 
     /**
      * Returns a list of directory button view models for each drive found on
-     * the pc.
+     * the pc. The list changes as drives are mounted and unmounted.
      */
-    public ArrayList<DirectoryButtonViewModel> getDriveVms() {
+    public ObservableList<DirectoryButtonViewModel> getDriveVms() {
         return drives;
     }
 
+    /**
+     * Starts keeping track of drives being mounted, and reads the drives
+     * that are on the computer. This reads the mount table, so it's meant
+     * to be run in the background while the window is being shown.
+     *
+     * @return The drives, to be passed to {@link #showDrives(List)} on the
+     * UI thread.
+     */
+    public List<FileItem> discoverDrives() {
+        if (mountMonitor != null) {
+            mountMonitor.addListener(this);
+            mountMonitor.start();
+        }
+        return dataModel.getDrives();
+    }
+
+    /**
+     * Replaces the drives in the list with the given ones.
+     */
+    public void showDrives(List<FileItem> newDrives) {
+        ArrayList<DirectoryButtonViewModel> currentDrives = new ArrayList<>();
+        for (FileItem drive : newDrives) {
+            currentDrives.add(new DirectoryButtonViewModel(dataModel, drive));
+        }
+        drives.setAll(currentDrives);
+        watchDriveSpace();
+    }
+
     /**
      * Creates a new directory button view model for the given directory name.
      *
@@ -67,23 +129,70 @@ public class QuickAccessViewModel {
         return new DirectoryButtonViewModel(dataModel, item);
     }
 
+    @Override
+    public void mountAdded(MountEntry entry) {
+        if (!entry.isDrive())
+            return;
+        FileItem drive = new DefaultFileItem(FileType.Drive,
+                FileOperations.sanitizePath(entry.mountPoint()));
+        Platform.runLater(() -> {
+            if (findDrive(drive.getItemDirectory()) != null)
+                return;
+            drives.add(new DirectoryButtonViewModel(dataModel, drive));
+            watchDriveSpace();
+        });
+    }
+
+    @Override
+    public void mountRemoved(MountEntry entry) {
+        if (!entry.isDrive())
+            return;
+        // A remount (such as switching to read-only) shows up as a removal
+        // and an addition, so only drop the drive if nothing is mounted
+        // there anymore.
+        String mountPoint = FileOperations.sanitizePath(entry.mountPoint());
+        for (MountEntry mount : mountMonitor.getMounts()) {
+            if (mount.isDrive() && FileOperations.sanitizePath(mount.mountPoint()).equals(mountPoint))
+                return;
+        }
+        String path = new DefaultFileItem(FileType.Drive, mountPoint).getItemDirectory();
+        Platform.runLater(() -> {
+            DirectoryButtonViewModel drive = findDrive(path);
+            if (drive == null)
+                return;
+            drives.remove(drive);
+            watchDriveSpace();
+        });
+    }
+
     //endregion
 
     //region Private Methods
 
     /**
-     * Updates the drive array by getting a list of logical drives from the
-     * computer.
+     * Points the drive space monitor at the drives in the list, passing the
+     * space it reads on to each drive's view model.
      */
-    private void updateDrives() {
-        if (drives == null)
-            drives = new ArrayList<>();
-        else
-            drives.clear();
+    private void watchDriveSpace() {
+        if (driveSpaceMonitor == null)
+            return;
+
+        ArrayList<String> paths = new ArrayList<>();
+        for (DirectoryButtonViewModel drive : drives)
+            paths.add(drive.getDirectoryPath());
+        driveSpaceMonitor.watch(paths, (path, space) -> Platform.runLater(() -> {
+            DirectoryButtonViewModel drive = findDrive(path);
+            if (drive != null)
+                drive.driveSpaceProperty().set(space);
+        }));
+    }
 
-        for (FileItem drive : dataModel.getDrives()) {
-            drives.add(new DirectoryButtonViewModel(dataModel, drive));
+    private DirectoryButtonViewModel findDrive(String path) {
+        for (DirectoryButtonViewModel drive : drives) {
+            if (drive.getDirectoryPath().equals(path))
+                return drive;
         }
+        return null;
     }
 
     //endregion
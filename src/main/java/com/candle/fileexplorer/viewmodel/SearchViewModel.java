@@ -0,0 +1,355 @@
+package com.candle.fileexplorer.viewmodel;
+
+import com.candle.fileexplorer.model.FilesModel;
+import com.candle.fileexplorer.model.data.FileType;
+import com.candle.fileexplorer.model.helpers.FileOperations;
+import com.candle.fileexplorer.model.search.ContentQuery;
+import com.candle.fileexplorer.model.search.ContentSearcher;
+import com.candle.fileexplorer.model.search.FilenameIndexer;
+import com.candle.fileexplorer.model.search.SearchResult;
+import javafx.application.Platform;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * The view model for the search view.
+ * File names are looked up in the drive index as the user types. File
+ * contents are searched in the current directory when the user presses
+ * enter, and the matches are streamed into the results as they're found.
+ */
+public class SearchViewModel {
+    //region Public Members/Properties
+
+    /**
+     * The text that the user is searching for.
+     */
+    private final StringProperty queryProperty;
+
+    /**
+     * A short description of the indexer state or the last search.
+     */
+    private final StringProperty statusProperty;
+
+    /**
+     * Whether the drives should be indexed in the background.
+     */
+    private final BooleanProperty indexEnabledProperty;
+
+    /**
+     * Whether the contents of the files in the current directory should be
+     * searched instead of the names in the index.
+     */
+    private final BooleanProperty searchContentsProperty;
+
+    /**
+     * Whether the query is a regular expression (content searches only).
+     */
+    private final BooleanProperty regexProperty;
+
+    /**
+     * Whether upper and lower case letters should be treated differently
+     * (content searches only).
+     */
+    private final BooleanProperty matchCaseProperty;
+
+    //endregion
+
+    //region Private Members
+
+    /**
+     * The maximum number of results shown for a single query.
+     */
+    private static final int maxResults = 500;
+
+    private final FilesModel dataModel;
+
+    private final FilenameIndexer indexer;
+
+    private final ContentSearcher contentSearcher;
+
+    /**
+     * The items that matched the last query.
+     */
+    private final ObservableList<SearchResult> results;
+
+    /**
+     * The content search that is currently running, if any.
+     */
+    private ContentSearchJob currentJob;
+
+    //endregion
+
+    //region Constructors
+
+    /**
+     * Creates the search view model. If an index was saved by a previous
+     * session, indexing is resumed right away.
+     */
+    public SearchViewModel(FilesModel dataModel, FilenameIndexer indexer,
+                           ContentSearcher contentSearcher) {
+        this.dataModel = dataModel;
+        this.indexer = indexer;
+        this.contentSearcher = contentSearcher;
+
+        queryProperty = new SimpleStringProperty("");
+        statusProperty = new SimpleStringProperty("");
+        indexEnabledProperty = new SimpleBooleanProperty(indexer.hasSavedIndex());
+        searchContentsProperty = new SimpleBooleanProperty(false);
+        regexProperty = new SimpleBooleanProperty(false);
+        matchCaseProperty = new SimpleBooleanProperty(false);
+        results = FXCollections.observableArrayList();
+
+        if (indexEnabledProperty.get())
+            indexer.start();
+        indexEnabledProperty.addListener((observable, oldValue, newValue) ->
+                setIndexEnabled(newValue));
+        searchContentsProperty.addListener((observable, oldValue, newValue) -> {
+            cancelSearch();
+            results.clear();
+            updateStatus();
+        });
+        updateStatus();
+    }
+
+    //endregion
+
+    //region Accessors/Mutators
+
+    public StringProperty queryProperty() {
+        return queryProperty;
+    }
+
+    public StringProperty statusProperty() {
+        return statusProperty;
+    }
+
+    public BooleanProperty indexEnabledProperty() {
+        return indexEnabledProperty;
+    }
+
+    public BooleanProperty searchContentsProperty() {
+        return searchContentsProperty;
+    }
+
+    public BooleanProperty regexProperty() {
+        return regexProperty;
+    }
+
+    public BooleanProperty matchCaseProperty() {
+        return matchCaseProperty;
+    }
+
+    public ObservableList<SearchResult> getResults() {
+        return results;
+    }
+
+    /**
+     * Checks to see if the current mode is fast enough to search on every
+     * keystroke.
+     */
+    public boolean isSearchAsYouType() {
+        return !searchContentsProperty.get();
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Runs the current query in the current search mode.
+     */
+    public void search() {
+        if (searchContentsProperty.get())
+            searchContents();
+        else
+            searchNames();
+    }
+
+    /**
+     * Stops the content search that is currently running, if any.
+     */
+    public void cancelSearch() {
+        if (currentJob != null) {
+            currentJob.cancelled.set(true);
+            currentJob = null;
+        }
+    }
+
+    /**
+     * Takes the user to the given search result. Folders are opened, and
+     * files are shown in the folder that contains them.
+     *
+     * @param result The result to go to.
+     */
+    public void openResult(SearchResult result) {
+        if (result == null)
+            return;
+
+        String path = result.path();
+        if (FileOperations.determineType(path) == FileType.Folder) {
+            dataModel.setCurrentDirectory(path);
+        } else {
+            String parent = new File(path).getParent();
+            if (parent != null)
+                dataModel.setCurrentDirectory(parent);
+        }
+    }
+
+    /**
+     * Updates the status text with the state of the indexer.
+     */
+    public void updateStatus() {
+        String status;
+        if (searchContentsProperty.get())
+            status = "Press Enter to search the files in this folder.";
+        else if (!indexEnabledProperty.get())
+            status = "Enable indexing to search every drive.";
+        else if (!indexer.isReady())
+            status = "Indexing drives... (" + indexer.getIndexedCount() + " items so far)";
+        else if (queryProperty.getValue() == null || queryProperty.getValue().isEmpty())
+            status = indexer.getIndexedCount() + " items indexed.";
+        else if (results.size() == maxResults)
+            status = "Showing the first " + maxResults + " results.";
+        else
+            status = results.size() + " results.";
+        statusProperty.setValue(status);
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    /**
+     * Looks up the current query in the filename index.
+     */
+    private void searchNames() {
+        String query = queryProperty.getValue();
+        if (query == null || query.isEmpty() || !indexer.isReady()) {
+            results.clear();
+        } else {
+            ArrayList<SearchResult> found = new ArrayList<>();
+            for (String path : indexer.search(query, maxResults))
+                found.add(new SearchResult(path));
+            results.setAll(found);
+        }
+        updateStatus();
+    }
+
+    /**
+     * Starts searching the contents of the files in the current directory
+     * on a background thread.
+     */
+    private void searchContents() {
+        cancelSearch();
+        results.clear();
+
+        String text = queryProperty.getValue();
+        if (text == null || text.isEmpty())
+            return;
+
+        ContentQuery query;
+        try {
+            query = new ContentQuery(text, regexProperty.get(),
+                    !matchCaseProperty.get());
+        } catch (PatternSyntaxException e) {
+            statusProperty.setValue("Invalid regular expression: " + e.getDescription());
+            return;
+        }
+
+        ContentSearchJob job = new ContentSearchJob();
+        currentJob = job;
+        Path root = Path.of(dataModel.getCurrentDirectory());
+        statusProperty.setValue("Searching " + root + "...");
+
+        contentSearcher.start(root, query, false, job::addResult, job.cancelled)
+                .whenComplete((searchedFiles, error) -> {
+                    if (error != null)
+                        error.printStackTrace();
+                    int finalCount = (error == null) ? searchedFiles : 0;
+                    Platform.runLater(() -> finishContentSearch(job, finalCount));
+                });
+    }
+
+    /**
+     * Moves the matches found so far into the results list.
+     */
+    private void flushResults(ContentSearchJob job) {
+        job.flushScheduled.set(false);
+        if (job != currentJob)
+            return;
+
+        ArrayList<SearchResult> batch = new ArrayList<>();
+        SearchResult result;
+        while (results.size() + batch.size() < maxResults
+                && (result = job.pending.poll()) != null)
+            batch.add(result);
+        results.addAll(batch);
+
+        if (results.size() >= maxResults)
+            job.cancelled.set(true);
+    }
+
+    private void finishContentSearch(ContentSearchJob job, int searchedFiles) {
+        flushResults(job);
+        if (job != currentJob)
+            return;
+
+        currentJob = null;
+        String status = results.size() + " matching files out of " +
+                searchedFiles + " searched.";
+        if (results.size() >= maxResults)
+            status = "Showing the first " + maxResults + " matching files.";
+        statusProperty.setValue(status);
+    }
+
+    /**
+     * Starts the indexer, or stops it and removes the saved index so it
+     * stays off in future sessions.
+     */
+    private void setIndexEnabled(boolean enabled) {
+        if (enabled)
+            indexer.start();
+        else
+            indexer.deleteIndex();
+        if (!searchContentsProperty.get())
+            searchNames();
+    }
+
+    //endregion
+
+    //region Helper Classes
+
+    /**
+     * The state of a single content search. Matches arrive from the search
+     * threads and are handed to the UI thread in batches, with at most one
+     * batch waiting at a time.
+     */
+    private class ContentSearchJob {
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private final AtomicBoolean flushScheduled = new AtomicBoolean();
+        private final ConcurrentLinkedQueue<SearchResult> pending =
+                new ConcurrentLinkedQueue<>();
+
+        /**
+         * Called from the search threads whenever a file matches.
+         */
+        void addResult(SearchResult result) {
+            pending.add(result);
+            if (flushScheduled.compareAndSet(false, true))
+                Platform.runLater(() -> flushResults(this));
+        }
+    }
+
+    //endregion
+}
@@ -0,0 +1,167 @@
+package com.candle.fileexplorer.viewmodel;
+
+import com.candle.fileexplorer.model.io.IoGovernor;
+import com.candle.fileexplorer.model.io.TransferJob;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import org.apache.commons.io.FileUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The view model for the transfers view, which shows the copies and moves
+ * that are running with their current speeds, and sets how fast they may
+ * go.
+ */
+public class TransfersViewModel {
+    //region Public Members/Properties
+
+    /**
+     * A summary of the running transfers, or the result of the last change
+     * to the speed limit.
+     */
+    private final StringProperty statusProperty;
+
+    /**
+     * The speed limit typed in by the user, in MB/s. Empty means no limit.
+     */
+    private final StringProperty rateLimitProperty;
+
+    //endregion
+
+    //region Private Members
+
+    private static final long bytesPerMegabyte = 1024 * 1024;
+
+    private final IoGovernor governor;
+
+    private final ObservableList<Row> rows;
+
+    //endregion
+
+    //region Constructors
+
+    public TransfersViewModel(IoGovernor governor) {
+        this.governor = governor;
+        statusProperty = new SimpleStringProperty("");
+        rateLimitProperty = new SimpleStringProperty(formatLimitInput(governor.getDefaultRateLimit()));
+        rows = FXCollections.observableArrayList();
+    }
+
+    //endregion
+
+    //region Accessors/Mutators
+
+    public StringProperty statusProperty() {
+        return statusProperty;
+    }
+
+    public StringProperty rateLimitProperty() {
+        return rateLimitProperty;
+    }
+
+    public ObservableList<Row> getRows() {
+        return rows;
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Reads the progress and speed of every running transfer into the rows.
+     */
+    public void refresh() {
+        ArrayList<Row> updated = new ArrayList<>();
+        double totalSpeed = 0;
+        for (TransferJob job : governor.getTransfers()) {
+            double speed = job.getBytesPerSecond();
+            totalSpeed += speed;
+            updated.add(createRow(job, speed));
+        }
+        rows.setAll(updated);
+
+        if (updated.isEmpty())
+            statusProperty.setValue("No transfers running");
+        else
+            statusProperty.setValue(updated.size() + (updated.size() == 1 ? " transfer, " : " transfers, ")
+                    + formatSpeed(totalSpeed));
+    }
+
+    /**
+     * Sets the typed speed limit for new transfers and for the given
+     * running ones.
+     *
+     * @return Whether the limit could be read.
+     */
+    public boolean applyRateLimit(List<Row> selectedRows) {
+        long limit;
+        try {
+            limit = parseLimit(rateLimitProperty.getValue());
+        } catch (NumberFormatException e) {
+            statusProperty.setValue("Enter a speed in MB/s, or leave it empty for no limit");
+            return false;
+        }
+
+        governor.setDefaultRateLimit(limit);
+        for (Row row : selectedRows)
+            row.job().setRateLimit(limit);
+        refresh();
+        return true;
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    private static Row createRow(TransferJob job, double speed) {
+        long done = job.getTransferredBytes();
+        long total = job.getTotalBytes();
+        double progress = total > 0 ? Math.min(1, (double) done / total) : -1;
+        String progressText = FileUtils.byteCountToDisplaySize(done)
+                + (total > 0 ? " of " + FileUtils.byteCountToDisplaySize(total) : "");
+        String limit = job.getRateLimit() > 0 ? formatSpeed(job.getRateLimit()) : "None";
+        return new Row(job, job.getDescription(), progress, progressText, formatSpeed(speed), limit);
+    }
+
+    private static String formatSpeed(double bytesPerSecond) {
+        return FileUtils.byteCountToDisplaySize((long) bytesPerSecond) + "/s";
+    }
+
+    /**
+     * Reads a speed in MB/s into bytes per second, where an empty or zero
+     * speed means no limit.
+     */
+    private static long parseLimit(String text) {
+        if (text == null || text.isBlank())
+            return 0;
+        double megabytes = Double.parseDouble(text.trim());
+        if (megabytes < 0 || Double.isNaN(megabytes) || Double.isInfinite(megabytes))
+            throw new NumberFormatException(text);
+        return (long) (megabytes * bytesPerMegabyte);
+    }
+
+    private static String formatLimitInput(long bytesPerSecond) {
+        if (bytesPerSecond <= 0)
+            return "";
+        return String.format(Locale.ROOT, "%.1f", (double) bytesPerSecond / bytesPerMegabyte);
+    }
+
+    //endregion
+
+    //region Helper Classes
+
+    /**
+     * A transfer as shown in the table. The progress is from 0 to 1, or -1
+     * if the size of the transfer isn't known.
+     */
+    public record Row(TransferJob job, String description, double progress, String progressText,
+                      String speed, String limit) {
+    }
+
+    //endregion
+}
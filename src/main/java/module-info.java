@@ -4,7 +4,10 @@ module FileExplorer.main {
     requires javafx.controls;
     requires org.apache.commons.io;
     requires java.desktop;
+    requires jdk.jfr;
 
     exports com.candle.fileexplorer to javafx.graphics;
     opens com.candle.fileexplorer.view to javafx.fxml;
+    // The app's flight recorder events
+    exports com.candle.fileexplorer.model.profiling to jdk.jfr;
 }
\ No newline at end of file
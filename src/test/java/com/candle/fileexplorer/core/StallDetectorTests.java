@@ -0,0 +1,87 @@
+package com.candle.fileexplorer.core;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class StallDetectorTests {
+    @TempDir
+    Path tempFolder;
+
+    @Test
+    public void classify_shouldNameFirstKnownOperation_fromTopOfStack() {
+        StackTraceElement[] listing = {
+                new StackTraceElement("java.io.UnixFileSystem", "list", null, -1),
+                new StackTraceElement("com.candle.fileexplorer.model.helpers.DirectoryStructure",
+                        "getDirectoryContents", null, 90),
+                new StackTraceElement("com.candle.fileexplorer.viewmodel.FileGridViewModel",
+                        "updateContents", null, 258)};
+        StackTraceElement[] trash = {
+                new StackTraceElement("java.lang.ProcessImpl", "waitFor", null, -1),
+                new StackTraceElement("com.candle.fileexplorer.model.helpers.FileOperations",
+                        "runTrashShellCommand", null, 210),
+                new StackTraceElement("com.candle.fileexplorer.model.helpers.FileOperations",
+                        "sendItemToTrash", null, 140)};
+        StackTraceElement[] idle = {
+                new StackTraceElement("com.sun.glass.ui.gtk.GtkApplication", "_runLoop", null, -1)};
+
+        Assertions.assertEquals("listing", StallDetector.classify(listing));
+        Assertions.assertEquals("trash subprocess", StallDetector.classify(trash));
+        Assertions.assertEquals("other", StallDetector.classify(idle));
+    }
+
+    @Test
+    public void start_shouldLogStack_whenUiThreadIsBlocked() throws Exception {
+        ExecutorService uiThread = Executors.newSingleThreadExecutor();
+        Path logFile = tempFolder.resolve("stalls.log");
+        StallDetector detector = new StallDetector(uiThread, logFile, 50);
+        detector.start();
+
+        try {
+            Thread.sleep(200);
+            uiThread.execute(StallDetectorTests::blockUiThread);
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!Files.exists(logFile) && System.currentTimeMillis() < deadline)
+                Thread.sleep(50);
+            String log = Files.readString(logFile);
+
+            Assertions.assertTrue(log.contains(" in other at com.candle.fileexplorer.core"
+                    + ".StallDetectorTests.blockUiThread"), log);
+            Assertions.assertTrue(log.contains("java.lang.Thread.sleep("), log);
+        } finally {
+            detector.stop();
+            uiThread.shutdownNow();
+        }
+    }
+
+    @Test
+    public void append_shouldRollLogOver_whenItWouldGrowTooLarge() throws IOException {
+        Path logFile = tempFolder.resolve("stalls.log");
+        StallLog log = new StallLog(logFile, 10, 2);
+
+        log.append("first\n");
+        log.append("second\n");
+        log.append("third\n");
+        log.append("fourth\n");
+
+        Assertions.assertEquals("fourth\n", Files.readString(logFile));
+        Assertions.assertEquals("third\n", Files.readString(tempFolder.resolve("stalls.log.1")));
+        Assertions.assertEquals("second\n", Files.readString(tempFolder.resolve("stalls.log.2")));
+        Assertions.assertFalse(Files.exists(tempFolder.resolve("stalls.log.3")));
+    }
+
+    private static void blockUiThread() {
+        try {
+            Thread.sleep(400);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.candle.fileexplorer.core;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TaskSchedulerTests {
+    @TempDir
+    Path tempFolder;
+
+    @Test
+    public void submit_shouldSkipTask_whenCancelledBeforeItStarts() throws Exception {
+        TaskScheduler scheduler = new TaskScheduler(false);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean ran = new AtomicBoolean();
+
+        // Prefetch work can only use the same device one task at a time.
+        TaskScheduler.ScheduledTask<Void> blocker = scheduler.submit(TaskPriority.Prefetch,
+                tempFolder, token -> {
+                    release.await();
+                    return null;
+                });
+        TaskScheduler.ScheduledTask<Void> waiting = scheduler.submit(TaskPriority.Prefetch,
+                tempFolder, token -> {
+                    ran.set(true);
+                    return null;
+                });
+        waiting.cancel(false);
+        release.countDown();
+        blocker.get(5, TimeUnit.SECONDS);
+        Thread.sleep(100);
+
+        Assertions.assertTrue(waiting.isCancelled());
+        Assertions.assertTrue(waiting.getToken().isCancelled());
+        Assertions.assertFalse(ran.get());
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void submit_shouldCancelTask_whenItsFlagIsSet() {
+        TaskScheduler scheduler = new TaskScheduler(false);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        CountDownLatch started = new CountDownLatch(1);
+
+        TaskScheduler.ScheduledTask<Integer> task = scheduler.submit(TaskPriority.Indexing,
+                tempFolder, cancelled, token -> {
+                    started.countDown();
+                    while (true) {
+                        token.throwIfCancelled();
+                        Thread.sleep(5);
+                    }
+                });
+        Assertions.assertDoesNotThrow(() -> started.await(5, TimeUnit.SECONDS));
+        cancelled.set(true);
+
+        Assertions.assertThrows(CancellationException.class, () -> task.get(5, TimeUnit.SECONDS));
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void submit_shouldLimitTasksOnTheSameDevice() throws Exception {
+        TaskScheduler scheduler = new TaskScheduler(false);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger mostRunning = new AtomicInteger();
+
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            tasks.add(scheduler.submit(TaskPriority.Interactive, tempFolder, token -> {
+                mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(20);
+                running.decrementAndGet();
+                return null;
+            }));
+        }
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(TaskPriority.Interactive.getPerDeviceLimit(), mostRunning.get());
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void submit_shouldRunOtherWork_whileTasksWaitForABusyDevice() throws Exception {
+        TaskScheduler scheduler = new TaskScheduler(false);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Prefetch has two threads, and one place on each device, so
+        // waiting tasks mustn't hold the second thread.
+        List<CompletableFuture<Void>> blocked = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            blocked.add(scheduler.submit(TaskPriority.Prefetch, tempFolder, token -> {
+                release.await();
+                return null;
+            }));
+        }
+        TaskScheduler.ScheduledTask<String> other = scheduler.submit(TaskPriority.Prefetch, null,
+                token -> "done");
+
+        try {
+            Assertions.assertEquals("done", other.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+        CompletableFuture.allOf(blocked.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.SECONDS);
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void shutdown_shouldCancelTasksWaitingForTheirDevice() throws Exception {
+        TaskScheduler scheduler = new TaskScheduler(false);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        // Prefetch work can only use the same device one task at a time.
+        TaskScheduler.ScheduledTask<Void> blocker = scheduler.submit(TaskPriority.Prefetch,
+                tempFolder, token -> {
+                    started.countDown();
+                    release.await();
+                    return null;
+                });
+        List<TaskScheduler.ScheduledTask<Void>> waiting = new ArrayList<>();
+        for (int i = 0; i < 2; i++)
+            waiting.add(scheduler.submit(TaskPriority.Prefetch, tempFolder, token -> null));
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        scheduler.shutdown();
+        release.countDown();
+
+        blocker.get(5, TimeUnit.SECONDS);
+        for (TaskScheduler.ScheduledTask<Void> task : waiting)
+            Assertions.assertThrows(CancellationException.class, () -> task.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void executor_shouldRunOnLaneThread_whenVirtualThreadsAreOff() throws Exception {
+        TaskScheduler scheduler = new TaskScheduler(false);
+        CompletableFuture<Thread> thread = new CompletableFuture<>();
+
+        scheduler.executor(TaskPriority.Indexing).execute(() -> thread.complete(Thread.currentThread()));
+
+        Thread worker = thread.get(5, TimeUnit.SECONDS);
+        Assertions.assertFalse(scheduler.usesVirtualThreads());
+        Assertions.assertTrue(worker.isDaemon());
+        Assertions.assertTrue(worker.getName().startsWith("Scheduler Indexing"));
+        Assertions.assertEquals(Thread.MIN_PRIORITY, worker.getPriority());
+        scheduler.shutdown();
+    }
+}
@@ -0,0 +1,464 @@
+package com.candle.fileexplorer.fixtures;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A generated directory tree for tests and benchmarks, built from a seed so
+ * the same settings always give the same names, sizes and links.
+ * The whole tree is planned up front, then the folders are created and the
+ * files written in parallel. It's built in a RAM-backed folder where there
+ * is one, and deleted when it's closed, or when the JVM exits if it never
+ * was.
+ * <pre>{@code
+ * try (FixtureTree tree = FixtureTree.builder().depth(3).fanOut(5).build()) {
+ *     ...
+ * }
+ * }</pre>
+ */
+public class FixtureTree implements AutoCloseable {
+    //region Private Members
+
+    /**
+     * Trees that haven't been closed yet, deleted when the JVM exits.
+     */
+    private static final Set<Path> openTrees = ConcurrentHashMap.newKeySet();
+
+    private static boolean shutdownHookAdded;
+
+    private final Path root;
+
+    private final List<Entry> entries;
+
+    //endregion
+
+    //region Constructors
+
+    private FixtureTree(Path root, List<Entry> entries) {
+        this.root = root;
+        this.entries = entries;
+    }
+
+    //endregion
+
+    //region Accessors/Mutators
+
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Gets everything in the tree, parents before their contents. The root
+     * itself isn't included.
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public int getFolderCount() {
+        return count(Kind.Folder);
+    }
+
+    public int getFileCount() {
+        return count(Kind.File);
+    }
+
+    public int getSymlinkCount() {
+        return count(Kind.Symlink);
+    }
+
+    /**
+     * Gets the combined size of every file in the tree, in bytes.
+     */
+    public long getTotalBytes() {
+        long total = 0;
+        for (Entry entry : entries)
+            total += entry.size();
+        return total;
+    }
+
+    /**
+     * Gets the entries directly inside a folder of the tree.
+     *
+     * @param folder        The folder, relative to the root. An empty path
+     *                      is the root.
+     * @param includeHidden Whether entries whose names start with a dot are
+     *                      included.
+     */
+    public List<Entry> getChildren(Path folder, boolean includeHidden) {
+        ArrayList<Entry> children = new ArrayList<>();
+        for (Entry entry : entries) {
+            Path parent = entry.path().getParent();
+            if (Objects.equals(parent == null ? Path.of("") : parent, folder)
+                    && (includeHidden || !entry.isHidden()))
+                children.add(entry);
+        }
+        return children;
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Deletes the tree. Symbolic links are deleted without following them.
+     */
+    @Override
+    public void close() throws IOException {
+        delete(root);
+        openTrees.remove(root);
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    private int count(Kind kind) {
+        int count = 0;
+        for (Entry entry : entries) {
+            if (entry.kind() == kind)
+                count++;
+        }
+        return count;
+    }
+
+    private static void delete(Path root) throws IOException {
+        if (!Files.exists(root, LinkOption.NOFOLLOW_LINKS))
+            return;
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static synchronized void deleteOnExit(Path root) {
+        openTrees.add(root);
+        if (shutdownHookAdded)
+            return;
+        shutdownHookAdded = true;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            for (Path tree : openTrees) {
+                try {
+                    delete(tree);
+                } catch (IOException e) {
+                    System.err.println("Could not delete fixture tree " + tree + ": " + e.getMessage());
+                }
+            }
+        }, "Fixture tree cleanup"));
+    }
+
+    //endregion
+
+    //region Helper Classes
+
+    public enum Kind {
+        Folder,
+        File,
+        Symlink
+    }
+
+    /**
+     * Something in the tree.
+     *
+     * @param path   The path relative to the root.
+     * @param kind   Whether it's a folder, a file or a symbolic link.
+     * @param size   The size of a file in bytes, or 0 for anything else.
+     * @param target Where a symbolic link points, relative to the link's
+     *               folder, or null for anything else.
+     */
+    public record Entry(Path path, Kind kind, long size, Path target) {
+        public boolean isHidden() {
+            return path.getFileName().toString().startsWith(".");
+        }
+    }
+
+    /**
+     * The settings for a tree. Every folder above the deepest level holds
+     * {@link #fanOut(int)} folders, and every folder holds
+     * {@link #filesPerFolder(int)} files or links.
+     */
+    public static class Builder {
+        private static final String nameCharacters = "abcdefghijklmnopqrstuvwxyz0123456789_-";
+
+        /**
+         * The block that file contents are made of.
+         */
+        private static final int blockSize = 64 * 1024;
+
+        private Path parent;
+        private int depth = 2;
+        private int fanOut = 4;
+        private int filesPerFolder = 16;
+        private SizeDistribution sizes = SizeDistribution.fixed(1024);
+        private double hiddenRatio;
+        private double symlinkRatio;
+        private int minNameLength = 8;
+        private int maxNameLength = 16;
+        private long seed = 1;
+        private int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the folder the tree is built in. By default it's a RAM-backed
+         * folder if there is one, or else the temporary directory. The
+         * {@code files.fixtureDir} system property overrides the default.
+         */
+        public Builder parent(Path parent) {
+            this.parent = parent;
+            return this;
+        }
+
+        /**
+         * Sets how many levels of folders there are below the root.
+         */
+        public Builder depth(int depth) {
+            this.depth = depth;
+            return this;
+        }
+
+        /**
+         * Sets how many folders each folder above the deepest level holds.
+         */
+        public Builder fanOut(int fanOut) {
+            this.fanOut = fanOut;
+            return this;
+        }
+
+        /**
+         * Sets how many files or links each folder holds.
+         */
+        public Builder filesPerFolder(int filesPerFolder) {
+            this.filesPerFolder = filesPerFolder;
+            return this;
+        }
+
+        public Builder fileSizes(SizeDistribution sizes) {
+            this.sizes = sizes;
+            return this;
+        }
+
+        /**
+         * Sets the share of files and folders, from 0 to 1, whose names start
+         * with a dot.
+         */
+        public Builder hiddenRatio(double hiddenRatio) {
+            this.hiddenRatio = hiddenRatio;
+            return this;
+        }
+
+        /**
+         * Sets the share of files, from 0 to 1, that are symbolic links to
+         * something created before them instead.
+         */
+        public Builder symlinkRatio(double symlinkRatio) {
+            this.symlinkRatio = symlinkRatio;
+            return this;
+        }
+
+        /**
+         * Sets the range of name lengths, including any leading dot.
+         */
+        public Builder nameLength(int min, int max) {
+            if (min < 2 || max < min)
+                throw new IllegalArgumentException("Name lengths must be at least 2, and min <= max");
+            this.minNameLength = min;
+            this.maxNameLength = max;
+            return this;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Sets how many files are written at once.
+         */
+        public Builder threads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Creates the tree on disk. If anything goes wrong, whatever was
+         * created is deleted again.
+         */
+        public FixtureTree build() throws IOException {
+            List<Entry> entries = plan();
+            Path root = Files.createTempDirectory(getParent(), "files-fixture-");
+            deleteOnExit(root);
+            try {
+                write(root, entries);
+            } catch (IOException | RuntimeException e) {
+                delete(root);
+                openTrees.remove(root);
+                throw e;
+            }
+            return new FixtureTree(root, List.copyOf(entries));
+        }
+
+        /**
+         * Works out every entry in the tree, using the seed alone.
+         */
+        private List<Entry> plan() {
+            Random random = new Random(seed);
+            ArrayList<Entry> entries = new ArrayList<>();
+            ArrayList<Path> linkTargets = new ArrayList<>();
+
+            // Breadth first, so every folder is listed before its contents.
+            ArrayDeque<Path> folders = new ArrayDeque<>();
+            folders.add(Path.of(""));
+            while (!folders.isEmpty()) {
+                Path folder = folders.poll();
+                int level = folder.toString().isEmpty() ? 0 : folder.getNameCount();
+                HashSet<String> names = new HashSet<>();
+
+                if (level < depth) {
+                    for (int i = 0; i < fanOut; i++) {
+                        Path path = folder.resolve(createName(random, names));
+                        entries.add(new Entry(path, Kind.Folder, 0, null));
+                        linkTargets.add(path);
+                        folders.add(path);
+                    }
+                }
+                for (int i = 0; i < filesPerFolder; i++) {
+                    Path path = folder.resolve(createName(random, names));
+                    Path target = null;
+                    if (!linkTargets.isEmpty() && random.nextDouble() < symlinkRatio) {
+                        target = linkTargets.get(random.nextInt(linkTargets.size()));
+                        // A link to its own folder or one above it would make
+                        // a loop for anything that follows links.
+                        if (folder.startsWith(target))
+                            target = null;
+                    }
+                    if (target != null) {
+                        entries.add(new Entry(path, Kind.Symlink, 0, folder.relativize(target)));
+                    } else {
+                        entries.add(new Entry(path, Kind.File, Math.max(0, sizes.nextSize(random)), null));
+                        linkTargets.add(path);
+                    }
+                }
+            }
+            return entries;
+        }
+
+        private String createName(Random random, Set<String> takenNames) {
+            while (true) {
+                int length = minNameLength + random.nextInt(maxNameLength - minNameLength + 1);
+                StringBuilder name = new StringBuilder(length);
+                if (random.nextDouble() < hiddenRatio)
+                    name.append('.');
+                while (name.length() < length)
+                    name.append(nameCharacters.charAt(random.nextInt(nameCharacters.length())));
+                if (takenNames.add(name.toString()))
+                    return name.toString();
+            }
+        }
+
+        /**
+         * Creates the planned entries below the root. The folders are made
+         * first, then the files are written in parallel, and the links are
+         * made last, once everything they point at exists.
+         */
+        private void write(Path root, List<Entry> entries) throws IOException {
+            for (Entry entry : entries) {
+                if (entry.kind() == Kind.Folder)
+                    Files.createDirectory(root.resolve(entry.path()));
+            }
+
+            byte[] block = new byte[blockSize];
+            new Random(seed).nextBytes(block);
+            ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "Fixture writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                ArrayList<Future<?>> writes = new ArrayList<>();
+                for (int i = 0; i < entries.size(); i++) {
+                    Entry entry = entries.get(i);
+                    if (entry.kind() != Kind.File)
+                        continue;
+                    long fileNumber = i;
+                    writes.add(pool.submit(() -> {
+                        writeFile(root.resolve(entry.path()), entry.size(), block, fileNumber);
+                        return null;
+                    }));
+                }
+                for (Future<?> write : writes)
+                    write.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while writing the fixture tree", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException cause)
+                    throw cause;
+                throw new IOException(e.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+
+            for (Entry entry : entries) {
+                if (entry.kind() == Kind.Symlink)
+                    Files.createSymbolicLink(root.resolve(entry.path()), entry.target());
+            }
+        }
+
+        /**
+         * Writes a file made of the shared block, starting with the file's
+         * number so no two files have the same contents.
+         */
+        private static void writeFile(Path file, long size, byte[] block, long fileNumber)
+                throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocate(block.length);
+                long written = 0;
+                while (written < size) {
+                    buffer.clear();
+                    buffer.put(block);
+                    if (written == 0)
+                        buffer.putLong(0, fileNumber);
+                    buffer.flip();
+                    buffer.limit((int) Math.min(block.length, size - written));
+                    while (buffer.hasRemaining())
+                        written += channel.write(buffer);
+                }
+            }
+        }
+
+        private Path getParent() throws IOException {
+            if (parent != null)
+                return Files.createDirectories(parent);
+            String configured = System.getProperty("files.fixtureDir");
+            if (configured != null)
+                return Files.createDirectories(Path.of(configured));
+            Path shm = Path.of("/dev/shm");
+            if (Files.isDirectory(shm) && Files.isWritable(shm))
+                return shm;
+            return Path.of(System.getProperty("java.io.tmpdir"));
+        }
+    }
+
+    //endregion
+}
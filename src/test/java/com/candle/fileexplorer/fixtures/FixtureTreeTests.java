@@ -0,0 +1,72 @@
+package com.candle.fileexplorer.fixtures;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class FixtureTreeTests {
+    @TempDir
+    Path tempFolder;
+
+    @Test
+    public void build_shouldCreateSameTree_whenSeedIsSame() throws IOException {
+        FixtureTree.Builder builder = FixtureTree.builder().parent(tempFolder)
+                .depth(2).fanOut(3).filesPerFolder(5).hiddenRatio(0.3).symlinkRatio(0.2)
+                .fileSizes(SizeDistribution.logUniform(1, 200_000)).seed(7);
+
+        try (FixtureTree first = builder.build(); FixtureTree second = builder.build()) {
+            Assertions.assertEquals(first.getEntries(), second.getEntries());
+            Assertions.assertEquals(listRelativePaths(first.getRoot()),
+                    listRelativePaths(second.getRoot()));
+            Assertions.assertEquals(1 + 3 + 9, first.getFolderCount() + 1);
+            Assertions.assertEquals(13 * 5, first.getFileCount() + first.getSymlinkCount());
+        }
+    }
+
+    @Test
+    public void build_shouldWriteEntriesAsPlanned() throws IOException {
+        try (FixtureTree tree = FixtureTree.builder().parent(tempFolder).depth(1).fanOut(2)
+                .filesPerFolder(4).symlinkRatio(0.5).fileSizes(SizeDistribution.uniform(0, 100_000))
+                .build()) {
+            for (FixtureTree.Entry entry : tree.getEntries()) {
+                Path path = tree.getRoot().resolve(entry.path());
+                switch (entry.kind()) {
+                    case Folder -> Assertions.assertTrue(Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS));
+                    case File -> Assertions.assertEquals(entry.size(), Files.size(path));
+                    case Symlink -> {
+                        Assertions.assertTrue(Files.isSymbolicLink(path));
+                        Assertions.assertTrue(Files.exists(path));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void close_shouldDeleteTree_withoutFollowingLinks() throws IOException {
+        Path outside = Files.createFile(tempFolder.resolve("outside.txt"));
+        FixtureTree tree = FixtureTree.builder().parent(tempFolder.resolve("trees")).build();
+        Files.createSymbolicLink(tree.getRoot().resolve("outside-link"), outside);
+
+        tree.close();
+
+        Assertions.assertFalse(Files.exists(tree.getRoot()));
+        Assertions.assertTrue(Files.exists(outside));
+    }
+
+    private static List<String> listRelativePaths(Path root) throws IOException {
+        ArrayList<String> paths = new ArrayList<>();
+        try (var stream = Files.walk(root)) {
+            stream.forEach(path -> paths.add(root.relativize(path).toString()));
+        }
+        paths.sort(null);
+        return paths;
+    }
+}
@@ -0,0 +1,49 @@
+package com.candle.fileexplorer.fixtures;
+
+import java.util.Random;
+
+/**
+ * Picks the size of each file in a {@link FixtureTree}.
+ */
+@FunctionalInterface
+public interface SizeDistribution {
+    /**
+     * Picks the size of the next file.
+     *
+     * @param random The tree's random generator, so the sizes are the same
+     *               every time the tree is built.
+     * @return The size in bytes.
+     */
+    long nextSize(Random random);
+
+    /**
+     * Makes every file the same size.
+     */
+    static SizeDistribution fixed(long bytes) {
+        return random -> bytes;
+    }
+
+    /**
+     * Spreads the sizes evenly between two bounds.
+     *
+     * @param minBytes The smallest size, inclusive.
+     * @param maxBytes The largest size, inclusive.
+     */
+    static SizeDistribution uniform(long minBytes, long maxBytes) {
+        return random -> minBytes + (long) (random.nextDouble() * (maxBytes - minBytes + 1));
+    }
+
+    /**
+     * Spreads the sizes evenly across orders of magnitude, so most files are
+     * small and a few are large, the way real folders tend to be.
+     *
+     * @param minBytes The smallest size, at least 1.
+     * @param maxBytes The largest size.
+     */
+    static SizeDistribution logUniform(long minBytes, long maxBytes) {
+        double logMin = Math.log(Math.max(1, minBytes));
+        double logMax = Math.log(Math.max(1, maxBytes));
+        return random -> Math.min(maxBytes,
+                Math.round(Math.exp(logMin + random.nextDouble() * (logMax - logMin))));
+    }
+}
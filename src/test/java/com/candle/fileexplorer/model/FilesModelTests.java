@@ -1,16 +1,28 @@
 package com.candle.fileexplorer.model;
 
+import com.candle.fileexplorer.fixtures.FixtureTree;
 import com.candle.fileexplorer.model.data.ClipboardMode;
 import com.candle.fileexplorer.model.data.FileType;
+import com.candle.fileexplorer.model.history.ListingSnapshot;
+import com.candle.fileexplorer.model.history.SessionState;
 import com.candle.fileexplorer.model.observer.DataListener;
+import com.candle.fileexplorer.model.observer.ModelEvent;
+import com.candle.fileexplorer.model.observer.ModelEventListener;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.mockito.Mockito.*;
 
@@ -182,4 +194,115 @@ public class FilesModelTests {
     private String replaceWindowsBackslashes(String path) {
         return path.replace("\\", "/");
     }
+
+    @Test
+    public void renameItem_shouldPublishRename_whenItemIsRenamed() throws IOException {
+        ModelEventListener listener = mock(ModelEventListener.class);
+        FilesModel dataModel = new DefaultFilesModel();
+        dataModel.addTab();
+        dataModel.addEventListener(listener);
+        Files.createFile(tempFile);
+
+        dataModel.renameItem(tempFile.toString(), "renamed.txt");
+
+        verify(listener).modelChanged(List.of(new ModelEvent.ItemRenamed(
+                tempFolder.toString(), tempFile.toString(),
+                tempFolder.resolve("renamed.txt").toString())));
+    }
+
+    @Test
+    public void pasteAll_shouldPasteIntoStartingDirectory_whenUserMovesOn() throws Exception {
+        ModelEventListener listener = mock(ModelEventListener.class);
+        FilesModel dataModel = new DefaultFilesModel();
+        dataModel.addTab();
+        Path source = Files.createDirectory(tempFolder.resolve("source"));
+        Path target = Files.createDirectory(tempFolder.resolve("target"));
+        Files.writeString(source.resolve("a.txt"), "a");
+        Files.writeString(source.resolve("b.txt"), "b");
+        dataModel.setCurrentDirectory(target.toString());
+        dataModel.addEventListener(listener);
+
+        CompletableFuture<Void> paste = dataModel.pasteAll(List.of(
+                source.resolve("a.txt").toString(), source.resolve("b.txt").toString()));
+        dataModel.setCurrentDirectory(source.toString());
+        paste.get(5, TimeUnit.SECONDS);
+
+        Assertions.assertEquals("a", Files.readString(target.resolve("a.txt")));
+        Assertions.assertEquals("b", Files.readString(target.resolve("b.txt")));
+        verify(listener).modelChanged(List.of(new ModelEvent.ItemsAdded(target.toString(),
+                List.of(target.resolve("b.txt").toString()))));
+    }
+
+    @Test
+    public void pasteAll_shouldPasteRemainingItems_whenOneIsAlreadyInTarget() throws Exception {
+        FilesModel dataModel = new DefaultFilesModel();
+        dataModel.addTab();
+        Path source = Files.createDirectory(tempFolder.resolve("source"));
+        Path target = Files.createDirectory(tempFolder.resolve("target"));
+        Files.writeString(target.resolve("a.txt"), "a");
+        Files.writeString(source.resolve("b.txt"), "b");
+        dataModel.setCurrentDirectory(target.toString());
+
+        CompletableFuture<Void> paste = dataModel.pasteAll(List.of(
+                target.resolve("a.txt").toString(), source.resolve("b.txt").toString()));
+
+        ExecutionException error = Assertions.assertThrows(ExecutionException.class,
+                () -> paste.get(5, TimeUnit.SECONDS));
+        Assertions.assertInstanceOf(IllegalStateException.class, error.getCause());
+        Assertions.assertEquals("b", Files.readString(target.resolve("b.txt")));
+    }
+
+    @Test
+    public void goBackward_shouldRestoreSnapshot_takenWhenLeavingDir() {
+        FilesModel model = new DefaultFilesModel();
+        model.addTab();
+        ListingSnapshot homeSnapshot = new ListingSnapshot(List.of(), 0.25, null);
+        model.setSnapshotSource(directory ->
+                directory.equals(System.getProperty("user.home")) ? homeSnapshot : null);
+
+        model.setCurrentDirectory(tempFolder.toString());
+        Assertions.assertNull(model.getCurrentSnapshot());
+        model.goBackwardInDirectoryHistory();
+
+        Assertions.assertSame(homeSnapshot, model.getCurrentSnapshot());
+    }
+
+    @Test
+    public void restoreTab_shouldShowSavedSnapshot_whenTabIsAdded() {
+        FilesModel model = new DefaultFilesModel();
+        model.addTab();
+        ListingSnapshot snapshot = new ListingSnapshot(List.of(), 0.75, null);
+
+        model.restoreTab(new SessionState.TabState(
+                List.of(System.getProperty("user.home"), tempFolder.toString()), 1, "Name", snapshot));
+
+        Assertions.assertEquals(2, model.getTabCount());
+        Assertions.assertEquals(1, model.getTabIndex());
+        Assertions.assertEquals(tempFolder.toString(), model.getCurrentDirectory());
+        Assertions.assertSame(snapshot, model.getCurrentSnapshot());
+        SessionState.TabState saved = model.getTabState(1);
+        Assertions.assertEquals(1, saved.historyIndex());
+        Assertions.assertSame(snapshot, saved.snapshot());
+    }
+
+    @Test
+    public void currentDirectory_shouldFollowNestedFolders_inGeneratedTree() throws IOException {
+        try (FixtureTree tree = FixtureTree.builder().parent(tempFolder).depth(3).fanOut(2)
+                .filesPerFolder(3).build()) {
+            FilesModel model = new DefaultFilesModel();
+            model.addTab();
+            ArrayList<String> visited = new ArrayList<>();
+            for (FixtureTree.Entry entry : tree.getEntries()) {
+                if (entry.kind() != FixtureTree.Kind.Folder)
+                    continue;
+                String folder = tree.getRoot().resolve(entry.path()).toString();
+                model.setCurrentDirectory(folder);
+                visited.add(folder);
+            }
+
+            Assertions.assertEquals(visited.get(visited.size() - 1), model.getCurrentDirectory());
+            model.goBackwardInDirectoryHistory();
+            Assertions.assertEquals(visited.get(visited.size() - 2), model.getCurrentDirectory());
+        }
+    }
 }
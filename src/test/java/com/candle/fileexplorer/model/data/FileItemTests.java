@@ -299,4 +299,16 @@ public class FileItemTests {
         Assertions.assertEquals(file.getLastModifiedTime(),
                 new File(tempFile).lastModified());
     }
+
+    @Test
+    public void getSize_shouldReturnMinusOne_whenCalledOnFolder() {
+        FileItem folder = new DefaultFileItem(tempFolder);
+        Assertions.assertEquals(-1, folder.getSize());
+    }
+
+    @Test
+    public void getSize_shouldReturnLength_whenCalledOnFile() {
+        FileItem file = new DefaultFileItem(tempFile);
+        Assertions.assertEquals(new File(tempFile).length(), file.getSize());
+    }
 }
@@ -1,5 +1,6 @@
 package com.candle.fileexplorer.model.helpers;
 
+import com.candle.fileexplorer.fixtures.FixtureTree;
 import com.candle.fileexplorer.model.data.DefaultFileItem;
 import com.candle.fileexplorer.model.data.FileItem;
 import com.candle.fileexplorer.model.data.FileType;
@@ -11,11 +12,27 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.List;
 
 public class DirectoryStructureTests {
     @TempDir
     Path tempFolderPath;
 
+    @Test
+    public void getContents_shouldSkipHiddenItems_whenNotShowingHidden() throws IOException {
+        try (FixtureTree tree = FixtureTree.builder().parent(tempFolderPath).depth(1).fanOut(6)
+                .filesPerFolder(40).hiddenRatio(0.25).seed(3).build()) {
+            List<FixtureTree.Entry> visible = tree.getChildren(Path.of(""), false);
+
+            ArrayList<FileItem> actualContents =
+                    DirectoryStructure.getDirectoryContents(tree.getRoot().toString(), false);
+
+            Assertions.assertEquals(visible.size(), actualContents.size());
+            Assertions.assertEquals(tree.getChildren(Path.of(""), true).size(),
+                    DirectoryStructure.getDirectoryContents(tree.getRoot().toString(), true).size());
+        }
+    }
+
     @Test
     public void getContents_shouldReturnFolderContents_whenFolderHasContents() {
         String subFolderName = "testFolder";
@@ -0,0 +1,80 @@
+package com.candle.fileexplorer.model.history;
+
+import com.candle.fileexplorer.model.data.DefaultFileItem;
+import com.candle.fileexplorer.model.data.FileItem;
+import com.candle.fileexplorer.model.data.FileType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class NavigationHistoryTests {
+    @Test
+    public void visit_shouldDropOldestEntry_whenFull() {
+        NavigationHistory history = new NavigationHistory(3, "/a", new SnapshotBudget(1 << 20));
+        history.visit("/b");
+        history.visit("/c");
+        history.visit("/d");
+
+        Assertions.assertEquals(3, history.size());
+        Assertions.assertTrue(history.goBack());
+        Assertions.assertTrue(history.goBack());
+        Assertions.assertFalse(history.goBack());
+        Assertions.assertEquals("/b", history.getCurrentDirectory());
+    }
+
+    @Test
+    public void visit_shouldForgetForwardEntries_afterGoingBack() {
+        NavigationHistory history = new NavigationHistory(5, "/a", new SnapshotBudget(1 << 20));
+        history.visit("/b");
+        history.visit("/c");
+        history.goBack();
+        history.goBack();
+
+        history.visit("/d");
+
+        Assertions.assertFalse(history.canGoForward());
+        Assertions.assertEquals(2, history.size());
+        history.goBack();
+        Assertions.assertEquals("/a", history.getCurrentDirectory());
+    }
+
+    @Test
+    public void constructor_shouldKeepNewestDirectories_whenRestoringMoreThanFit() {
+        NavigationHistory history = new NavigationHistory(2, List.of("/a", "/b", "/c"), 2,
+                new SnapshotBudget(1 << 20));
+
+        Assertions.assertEquals(List.of("/b", "/c"), history.getDirectories());
+        Assertions.assertEquals("/c", history.getCurrentDirectory());
+        Assertions.assertTrue(history.goBack());
+        Assertions.assertFalse(history.canGoBack());
+    }
+
+    @Test
+    public void setSnapshot_shouldDropLeastRecentlyUsed_whenOverBudget() {
+        ListingSnapshot snapshot = createSnapshot(10);
+        SnapshotBudget budget = new SnapshotBudget(snapshot.estimateBytes() * 2);
+        NavigationHistory history = new NavigationHistory(5, "/a", budget);
+
+        history.setSnapshot(snapshot);
+        history.visit("/b");
+        history.setSnapshot(snapshot);
+        history.visit("/c");
+        history.setSnapshot(snapshot);
+
+        Assertions.assertEquals(snapshot.estimateBytes() * 2, budget.getUsedBytes());
+        Assertions.assertSame(snapshot, history.getSnapshot());
+        history.goBack();
+        Assertions.assertSame(snapshot, history.getSnapshot());
+        history.goBack();
+        Assertions.assertNull(history.getSnapshot());
+    }
+
+    private static ListingSnapshot createSnapshot(int itemCount) {
+        List<FileItem> items = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++)
+            items.add(new DefaultFileItem(FileType.File, "/dir/file" + i));
+        return new ListingSnapshot(items, 0.5, null);
+    }
+}
@@ -0,0 +1,59 @@
+package com.candle.fileexplorer.model.history;
+
+import com.candle.fileexplorer.model.data.DefaultFileItem;
+import com.candle.fileexplorer.model.data.FileItem;
+import com.candle.fileexplorer.model.data.FileType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+public class SessionStoreTests {
+    @TempDir
+    Path tempFolder;
+
+    @Test
+    public void load_shouldRestoreTabsAndListings_whenSaved() throws IOException {
+        Path file = tempFolder.resolve("notes.txt");
+        Files.writeString(file, "hello");
+        FileItem item = new DefaultFileItem(FileType.File, file.toString());
+        ListingSnapshot snapshot = new ListingSnapshot(List.of(item), 0.5, file.toString());
+        SessionState session = new SessionState(List.of(
+                new SessionState.TabState(List.of("/a", tempFolder.toString()), 1, "Size", snapshot),
+                new SessionState.TabState(List.of("/b"), 0, null, null)), 1);
+        Path sessionFile = tempFolder.resolve("session.bin");
+
+        SessionStore.save(sessionFile, session);
+        SessionState loaded = SessionStore.load(sessionFile);
+
+        Assertions.assertEquals(1, loaded.selectedTab());
+        SessionState.TabState first = loaded.tabs().get(0);
+        Assertions.assertEquals(tempFolder.toString(), first.getCurrentDirectory());
+        Assertions.assertEquals("Size", first.sortOrder());
+        Assertions.assertEquals(0.5, first.snapshot().scrollPosition());
+        Assertions.assertEquals(file.toString(), first.snapshot().selectedPath());
+        FileItem loadedItem = first.snapshot().items().get(0);
+        Assertions.assertEquals(item, loadedItem);
+        Assertions.assertEquals(item.getLastModifiedTime(), loadedItem.getLastModifiedTime());
+        Assertions.assertEquals(5, loadedItem.getSize());
+        Assertions.assertNull(loaded.tabs().get(1).sortOrder());
+        Assertions.assertNull(loaded.tabs().get(1).snapshot());
+    }
+
+    @Test
+    public void load_shouldThrow_whenFileIsTruncated() throws IOException {
+        SessionState session = new SessionState(List.of(
+                new SessionState.TabState(List.of("/a", "/b"), 0, "Name", null)), 0);
+        Path sessionFile = tempFolder.resolve("session.bin");
+        SessionStore.save(sessionFile, session);
+        byte[] bytes = Files.readAllBytes(sessionFile);
+        Files.write(sessionFile, Arrays.copyOf(bytes, bytes.length - 3));
+
+        Assertions.assertThrows(IOException.class, () -> SessionStore.load(sessionFile));
+    }
+}
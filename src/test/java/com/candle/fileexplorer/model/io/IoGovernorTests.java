@@ -0,0 +1,90 @@
+package com.candle.fileexplorer.model.io;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+public class IoGovernorTests {
+    @TempDir
+    Path tempFolder;
+
+    @Test
+    public void acquire_shouldWait_whenBytesGoOverTheLimit() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(400 * 1024);
+
+        long start = System.nanoTime();
+        // The first second's worth is taken straight away.
+        bucket.acquire(400 * 1024);
+        long burstMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        bucket.acquire(200 * 1024);
+        long totalMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Assertions.assertTrue(burstMillis < 100, "Burst took " + burstMillis + " ms");
+        Assertions.assertTrue(totalMillis >= 400, "Limited bytes took " + totalMillis + " ms");
+    }
+
+    @Test
+    public void yieldToInteractive_shouldWait_whileDeviceIsBrowsed() throws Exception {
+        IoGovernor governor = new IoGovernor(0, 50, 2000);
+        Object device = DeviceKeys.of(tempFolder);
+
+        IoGovernor.Interaction browsing = governor.beginInteractive(tempFolder);
+        Thread closer = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException ignored) {
+            }
+            browsing.close();
+        });
+        closer.start();
+
+        long start = System.nanoTime();
+        governor.yieldToInteractive(device);
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        closer.join();
+
+        // The listing ran for 200 ms, then the device had to stay quiet.
+        Assertions.assertTrue(waitedMillis >= 240, "Waited " + waitedMillis + " ms");
+        Assertions.assertTrue(waitedMillis < 2000, "Waited " + waitedMillis + " ms");
+    }
+
+    @Test
+    @SuppressWarnings("try")
+    public void yieldToInteractive_shouldStopWaiting_afterLongestWait() throws Exception {
+        IoGovernor governor = new IoGovernor(0, 50, 100);
+
+        try (IoGovernor.Interaction ignored = governor.beginInteractive(tempFolder)) {
+            long start = System.nanoTime();
+            governor.yieldToInteractive(DeviceKeys.of(tempFolder));
+            long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            Assertions.assertTrue(waitedMillis >= 100 && waitedMillis < 1000,
+                    "Waited " + waitedMillis + " ms");
+        }
+    }
+
+    @Test
+    public void copyDirectory_shouldCopyTreeAndCountBytes_throughJob() throws Exception {
+        IoGovernor governor = new IoGovernor(0, 50, 100);
+        Path source = Files.createDirectories(tempFolder.resolve("source/nested"));
+        Files.write(source.resolve("data.bin"), new byte[3 * 1024 * 1024 + 5]);
+        Files.writeString(tempFolder.resolve("source/top.txt"), "top");
+        Path target = tempFolder.resolve("copy");
+
+        TransferJob job = governor.startTransfer("Copying source", -1, tempFolder, target);
+        Assertions.assertEquals(1, governor.getTransfers().size());
+        ThrottledCopy.copyDirectory(tempFolder.resolve("source").toFile(), target.toFile(), job);
+        job.finish();
+
+        Assertions.assertEquals(3 * 1024 * 1024 + 5, Files.size(target.resolve("nested/data.bin")));
+        Assertions.assertEquals("top", Files.readString(target.resolve("top.txt")));
+        Assertions.assertEquals(3 * 1024 * 1024 + 8, job.getTransferredBytes());
+        Assertions.assertEquals(Files.getLastModifiedTime(tempFolder.resolve("source/top.txt")),
+                Files.getLastModifiedTime(target.resolve("top.txt")));
+        Assertions.assertTrue(governor.getTransfers().isEmpty());
+    }
+}
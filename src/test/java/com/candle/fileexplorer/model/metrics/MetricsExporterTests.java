@@ -0,0 +1,50 @@
+package com.candle.fileexplorer.model.metrics;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class MetricsExporterTests {
+    @TempDir
+    Path tempFolder;
+
+    @Test
+    public void toPrometheus_shouldWriteCumulativeBuckets() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("files_copy_bytes_total", "Bytes copied").add(2048);
+        Histogram histogram = registry.histogram("files_rate", "Rate", "items_per_second", 1, 2);
+        histogram.record(0.5);
+        histogram.record(1.5);
+        histogram.record(10);
+
+        String text = MetricsExporter.toPrometheus(registry);
+
+        Assertions.assertTrue(text.contains("# TYPE files_copy_bytes_total counter\nfiles_copy_bytes_total 2048\n"));
+        Assertions.assertTrue(text.contains("files_rate_bucket{le=\"1\"} 1\n"));
+        Assertions.assertTrue(text.contains("files_rate_bucket{le=\"2\"} 2\n"));
+        Assertions.assertTrue(text.contains("files_rate_bucket{le=\"+Inf\"} 3\n"));
+        Assertions.assertTrue(text.contains("files_rate_sum 12\n"));
+        Assertions.assertTrue(text.contains("files_rate_count 3\n"));
+    }
+
+    @Test
+    public void write_shouldSaveJson_withEveryMetric() throws IOException {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("files_trash_failures_total", "Items that \"failed\"").increment();
+        registry.timer("files_sort_seconds", "Sorting").record(1_500_000);
+        Path file = tempFolder.resolve("metrics.json");
+
+        MetricsExporter.write(registry, MetricsExporter.Format.Json, file);
+
+        String json = Files.readString(file);
+        Assertions.assertTrue(json.contains("\"name\": \"files_sort_seconds\""));
+        Assertions.assertTrue(json.contains("\"type\": \"timer\", \"unit\": \"seconds\", \"count\": 1"));
+        Assertions.assertTrue(json.contains("\"help\": \"Items that \\\"failed\\\"\""));
+        Assertions.assertTrue(json.contains("\"value\": 1"));
+        Assertions.assertFalse(Files.exists(tempFolder.resolve("metrics.json.tmp")));
+    }
+}
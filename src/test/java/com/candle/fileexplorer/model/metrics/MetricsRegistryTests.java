@@ -0,0 +1,49 @@
+package com.candle.fileexplorer.model.metrics;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class MetricsRegistryTests {
+    @Test
+    public void timer_shouldReturnSameTimer_whenAskedTwice() {
+        MetricsRegistry registry = new MetricsRegistry();
+
+        Timer first = registry.timer("files_test_seconds", "Test");
+        Timer second = registry.timer("files_test_seconds", "Test");
+
+        Assertions.assertSame(first, second);
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> registry.counter("files_test_seconds", "Test"));
+    }
+
+    @Test
+    public void histogram_shouldEstimatePercentiles_fromItsRanges() {
+        Histogram histogram = new MetricsRegistry().histogram("files_test", "Test", "items", 1, 10);
+        for (int i = 1; i <= 100; i++)
+            histogram.record(i);
+        histogram.record(-5);
+
+        Histogram.Snapshot snapshot = histogram.snapshot();
+
+        Assertions.assertEquals(100, snapshot.count());
+        Assertions.assertEquals(50.5, snapshot.getMean(), 1e-9);
+        // 50 falls in the range from 32 to 64, and 95 in the one from 64
+        // to 128, which is capped at the largest value.
+        Assertions.assertEquals(64, snapshot.getPercentile(0.5));
+        Assertions.assertEquals(100, snapshot.getPercentile(0.95));
+        Assertions.assertEquals(100, snapshot.max());
+    }
+
+    @Test
+    public void getMetrics_shouldSortByName() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("files_b_total", "B");
+        registry.timer("files_a_seconds", "A");
+
+        List<String> names = registry.getMetrics().stream().map(Metric::getName).toList();
+
+        Assertions.assertEquals(List.of("files_a_seconds", "files_b_total"), names);
+    }
+}
@@ -0,0 +1,63 @@
+package com.candle.fileexplorer.model.mounts;
+
+import com.candle.fileexplorer.model.observer.MountListener;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MountMonitorTests {
+    private static final String rootLine =
+            "28 1 254:0 / / rw,relatime - ext4 /dev/sda1 rw,discard\n";
+    private static final String procLine =
+            "23 28 0:22 / /proc rw,relatime - proc proc rw\n";
+    private static final String usbLine =
+            "90 28 8:17 / /media/user/My\\040Drive rw,nosuid shared:5 master:2 - vfat /dev/sdb1 rw\n";
+
+    @TempDir
+    Path tempFolder;
+
+    @Test
+    public void parse_shouldReadFieldsAfterOptionalFields() {
+        List<MountEntry> mounts = MountTable.parse(rootLine + procLine + usbLine);
+
+        Assertions.assertEquals(3, mounts.size());
+        Assertions.assertEquals(new MountEntry("/dev/sdb1", "/media/user/My Drive", "vfat",
+                "rw,nosuid"), mounts.get(2));
+        Assertions.assertTrue(mounts.get(0).isDrive());
+        Assertions.assertFalse(mounts.get(1).isDrive());
+    }
+
+    @Test
+    public void poll_shouldReportAddedAndRemovedMounts_whenTableChanges() throws IOException {
+        Path mountInfo = Files.writeString(tempFolder.resolve("mountinfo"), rootLine + procLine);
+        MountMonitor monitor = new MountMonitor(mountInfo);
+        ArrayList<String> events = new ArrayList<>();
+        monitor.addListener(new MountListener() {
+            @Override
+            public void mountAdded(MountEntry entry) {
+                events.add("+" + entry.mountPoint());
+            }
+
+            @Override
+            public void mountRemoved(MountEntry entry) {
+                events.add("-" + entry.mountPoint());
+            }
+        });
+        Assertions.assertEquals(2, monitor.getMounts().size());
+
+        Files.writeString(mountInfo, rootLine + procLine + usbLine);
+        monitor.poll();
+        monitor.poll();
+        Files.writeString(mountInfo, rootLine + usbLine);
+        monitor.poll();
+
+        Assertions.assertEquals(List.of("+/media/user/My Drive", "-/proc"), events);
+        Assertions.assertEquals(2, monitor.getMounts().size());
+    }
+}
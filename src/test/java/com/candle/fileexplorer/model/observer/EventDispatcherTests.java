@@ -0,0 +1,74 @@
+package com.candle.fileexplorer.model.observer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class EventDispatcherTests {
+    @Test
+    public void publish_shouldDeliverEachEvent_whenDeliveringStraightAway() {
+        EventDispatcher dispatcher = new EventDispatcher();
+        ArrayList<List<ModelEvent>> batches = new ArrayList<>();
+        dispatcher.addListener(batches::add);
+
+        dispatcher.publish(new ModelEvent.ItemsAdded("/dir", List.of("/dir/a")));
+        dispatcher.publish(new ModelEvent.ItemsAdded("/dir", List.of("/dir/b")));
+
+        Assertions.assertEquals(2, batches.size());
+    }
+
+    @Test
+    public void publish_shouldMergeItemsInSameDirectory_whenBatched() {
+        ArrayList<Runnable> scheduled = new ArrayList<>();
+        EventDispatcher dispatcher = new EventDispatcher(scheduled::add);
+        ArrayList<List<ModelEvent>> batches = new ArrayList<>();
+        dispatcher.addListener(batches::add);
+
+        dispatcher.publish(new ModelEvent.ItemsAdded("/dir", List.of("/dir/a")));
+        dispatcher.publish(new ModelEvent.ItemsAdded("/dir", List.of("/dir/b")));
+        dispatcher.publish(new ModelEvent.ItemsRemoved("/dir", List.of("/dir/c")));
+        scheduled.forEach(Runnable::run);
+
+        Assertions.assertEquals(1, scheduled.size());
+        Assertions.assertEquals(List.of(List.of(
+                new ModelEvent.ItemsAdded("/dir", List.of("/dir/a", "/dir/b")),
+                new ModelEvent.ItemsRemoved("/dir", List.of("/dir/c")))), batches);
+    }
+
+    @Test
+    public void publish_shouldKeepOnlyDirectoryChange_whenItReplacesTheListing() {
+        ArrayList<Runnable> scheduled = new ArrayList<>();
+        EventDispatcher dispatcher = new EventDispatcher(scheduled::add);
+        ArrayList<List<ModelEvent>> batches = new ArrayList<>();
+        dispatcher.addListener(batches::add);
+
+        dispatcher.publish(new ModelEvent.ItemsAdded("/other", List.of("/other/a")));
+        dispatcher.publish(new ModelEvent.DirectoryChanged(0, "/dir"));
+        dispatcher.publish(new ModelEvent.DirectoryChanged(0, "/other"));
+        dispatcher.publish(new ModelEvent.ItemRenamed("/other", "/other/a", "/other/b"));
+        scheduled.forEach(Runnable::run);
+
+        Assertions.assertEquals(List.of(List.of(new ModelEvent.DirectoryChanged(0, "/other"))),
+                batches);
+    }
+
+    @Test
+    public void publish_shouldKeepOtherDirectories_whenListingIsReplaced() {
+        ArrayList<Runnable> scheduled = new ArrayList<>();
+        EventDispatcher dispatcher = new EventDispatcher(scheduled::add);
+        ArrayList<List<ModelEvent>> batches = new ArrayList<>();
+        dispatcher.addListener(batches::add);
+
+        dispatcher.publish(new ModelEvent.ItemsAdded("/dir", List.of("/dir/a")));
+        dispatcher.publish(new ModelEvent.DirectoryChanged(0, "/other"));
+        dispatcher.publish(new ModelEvent.ItemsRemoved("/dir", List.of("/dir/b")));
+        scheduled.forEach(Runnable::run);
+
+        Assertions.assertEquals(List.of(List.of(
+                new ModelEvent.ItemsAdded("/dir", List.of("/dir/a")),
+                new ModelEvent.DirectoryChanged(0, "/other"),
+                new ModelEvent.ItemsRemoved("/dir", List.of("/dir/b")))), batches);
+    }
+}
@@ -0,0 +1,44 @@
+package com.candle.fileexplorer.model.profiling;
+
+import com.candle.fileexplorer.model.helpers.DirectoryStructure;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class FilesEventsTests {
+    @TempDir
+    Path tempFolder;
+
+    @Test
+    public void getDirectoryContents_shouldRecordListingEvent_whenRecording() throws IOException {
+        Path folder = Files.createDirectory(tempFolder.resolve("listed"));
+        Files.createFile(folder.resolve("a.txt"));
+        Files.createFile(folder.resolve("b.txt"));
+        Path file = tempFolder.resolve("listing.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable(FilesEvents.DirectoryListing.class);
+            recording.start();
+            DirectoryStructure.getDirectoryContents(folder.toString(), false);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName()
+                        .equals("com.candle.files.DirectoryListing"))
+                .toList();
+        Assertions.assertEquals(1, events.size());
+        Assertions.assertEquals(folder.toString(), events.get(0).getString("path"));
+        Assertions.assertEquals(2, events.get(0).getInt("itemCount"));
+        Assertions.assertFalse(events.get(0).getDuration().isNegative());
+    }
+}
@@ -0,0 +1,114 @@
+package com.candle.fileexplorer.model.search;
+
+import com.candle.fileexplorer.model.io.DeviceExecutor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ContentSearcherTests {
+    @TempDir
+    Path tempFolder;
+
+    @Test
+    public void findFirstMatch_shouldReturnLineNumber_whenTextIsFound() throws IOException {
+        Path file = tempFolder.resolve("config.ini");
+        Files.writeString(file, "[main]\nname = files\nport = 8080\n");
+        ContentSearcher searcher = new ContentSearcher(1);
+
+        SearchResult result = searcher.findFirstMatch(file,
+                new ContentQuery("PORT", false, true), new AtomicBoolean());
+
+        Assertions.assertEquals(3, result.lineNumber());
+        Assertions.assertEquals("port = 8080", result.line());
+    }
+
+    @Test
+    public void findFirstMatch_shouldRespectCase_whenMatchCaseIsSet() throws IOException {
+        Path file = tempFolder.resolve("notes.txt");
+        Files.writeString(file, "Port\nport\n");
+        ContentSearcher searcher = new ContentSearcher(1);
+
+        SearchResult result = searcher.findFirstMatch(file,
+                new ContentQuery("port", false, false), new AtomicBoolean());
+
+        Assertions.assertEquals(2, result.lineNumber());
+    }
+
+    @Test
+    public void findFirstMatch_shouldMatchRegex() throws IOException {
+        Path file = tempFolder.resolve("app.properties");
+        Files.writeString(file, "version=1\ntimeout=30s\n");
+        ContentSearcher searcher = new ContentSearcher(1);
+
+        SearchResult result = searcher.findFirstMatch(file,
+                new ContentQuery("^time\\w+=\\d+", true, false), new AtomicBoolean());
+
+        Assertions.assertEquals(2, result.lineNumber());
+        Assertions.assertEquals("timeout=30s", result.line());
+    }
+
+    @Test
+    public void findFirstMatch_shouldSkipBinaryFiles() throws IOException {
+        Path file = tempFolder.resolve("image.bin");
+        Files.write(file, new byte[]{'a', 'b', 0, 'k', 'e', 'y'});
+        ContentSearcher searcher = new ContentSearcher(1);
+
+        Assertions.assertNull(searcher.findFirstMatch(file,
+                new ContentQuery("key", false, true), new AtomicBoolean()));
+    }
+
+    @Test
+    public void search_shouldReportEachMatchingFileOnce() throws IOException {
+        Files.writeString(tempFolder.resolve("a.txt"), "key\nkey\nkey\n");
+        Files.createDirectory(tempFolder.resolve("sub"));
+        Files.writeString(tempFolder.resolve("sub/b.txt"), "no match\nkey here\n");
+        Files.writeString(tempFolder.resolve("c.txt"), "nothing\n");
+        Files.writeString(tempFolder.resolve(".hidden.txt"), "key\n");
+        ContentSearcher searcher = new ContentSearcher(2);
+        List<SearchResult> results = Collections.synchronizedList(new ArrayList<>());
+
+        int searched = searcher.search(tempFolder, new ContentQuery("key",
+                false, true), false, results::add, new AtomicBoolean());
+
+        Assertions.assertEquals(3, searched);
+        Assertions.assertEquals(2, results.size());
+    }
+
+    @Test
+    public void start_shouldFinish_whenStartedFromItsOnlySearchThread() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            Path folder = Files.createDirectories(tempFolder.resolve("folder" + i));
+            Files.writeString(folder.resolve("file.txt"), "key\n");
+        }
+        ExecutorService thread = Executors.newSingleThreadExecutor();
+        ContentSearcher searcher = new ContentSearcher(DeviceExecutor.of(thread), 1);
+
+        try {
+            // Each search is started from the thread its files are searched
+            // on, as the scheduler's lanes do.
+            CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> searcher.start(
+                    tempFolder, new ContentQuery("key", false, true), false,
+                    result -> { }, new AtomicBoolean()), thread).thenCompose(search -> search);
+            CompletableFuture<Integer> second = CompletableFuture.supplyAsync(() -> searcher.start(
+                    tempFolder, new ContentQuery("key", false, true), false,
+                    result -> { }, new AtomicBoolean()), thread).thenCompose(search -> search);
+
+            Assertions.assertEquals(20, first.get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals(20, second.get(5, TimeUnit.SECONDS));
+        } finally {
+            thread.shutdownNow();
+        }
+    }
+}
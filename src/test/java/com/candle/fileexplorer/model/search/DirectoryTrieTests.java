@@ -0,0 +1,64 @@
+package com.candle.fileexplorer.model.search;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class DirectoryTrieTests {
+    @Test
+    public void complete_shouldReturnNull_whenDirectoryWasNotListed() {
+        DirectoryTrie trie = new DirectoryTrie();
+
+        Assertions.assertNull(trie.complete("/home", "us", 10));
+    }
+
+    @Test
+    public void complete_shouldReturnNamesWithPrefix_ignoringCase() {
+        DirectoryTrie trie = new DirectoryTrie();
+        trie.putListing("/home/user", List.of("Documents", "downloads",
+                "Desktop", "Music", "DOCS"));
+
+        List<String> result = trie.complete("/home/user/", "do", 10);
+
+        Assertions.assertEquals(List.of("DOCS", "Documents", "downloads"), result);
+    }
+
+    @Test
+    public void complete_shouldKeepNamesThatOnlyDifferByCase() {
+        DirectoryTrie trie = new DirectoryTrie();
+        trie.putListing("/data", List.of("test", "Test"));
+
+        Assertions.assertEquals(2, trie.complete("/data", "t", 10).size());
+    }
+
+    @Test
+    public void complete_shouldRespectLimit() {
+        DirectoryTrie trie = new DirectoryTrie();
+        trie.putListing("/", List.of("a1", "a2", "a3", "a4"));
+
+        Assertions.assertEquals(List.of("a1", "a2"), trie.complete("/", "a", 2));
+    }
+
+    @Test
+    public void putListing_shouldReplaceOldNames() {
+        DirectoryTrie trie = new DirectoryTrie();
+        trie.putListing("/data", List.of("old", "kept"));
+        trie.putListing("/data", List.of("kept", "new"));
+
+        Assertions.assertEquals(List.of("kept", "new"), trie.complete("/data", "", 10));
+    }
+
+    @Test
+    public void putListing_shouldForgetLeastRecentDirectory_whenLimitIsReached() {
+        DirectoryTrie trie = new DirectoryTrie(2);
+        trie.putListing("/a", List.of("x"));
+        trie.putListing("/b", List.of("y"));
+        trie.complete("/a", "", 10);
+        trie.putListing("/c", List.of("z"));
+
+        Assertions.assertTrue(trie.isListed("/a"));
+        Assertions.assertFalse(trie.isListed("/b"));
+        Assertions.assertTrue(trie.isListed("/c"));
+    }
+}
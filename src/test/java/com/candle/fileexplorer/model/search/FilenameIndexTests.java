@@ -0,0 +1,181 @@
+package com.candle.fileexplorer.model.search;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+public class FilenameIndexTests {
+    @TempDir
+    Path tempFolder;
+
+    @Test
+    public void search_shouldReturnMatchingPaths_whenQueryIsSubstring() {
+        FilenameIndex index = new FilenameIndex();
+        index.add("/home/user/Documents/Report.pdf");
+        index.add("/home/user/Documents/Notes.txt");
+        index.add("/home/user/report-draft.odt");
+
+        List<String> results = index.search("REPORT", 10);
+
+        Assertions.assertEquals(List.of("/home/user/Documents/Report.pdf",
+                "/home/user/report-draft.odt"), results);
+    }
+
+    @Test
+    public void search_shouldMatchShortQueries_withoutTrigrams() {
+        FilenameIndex index = new FilenameIndex();
+        index.add("/a/xy.txt");
+        index.add("/a/zz.txt");
+
+        Assertions.assertEquals(List.of("/a/xy.txt"), index.search("xy", 10));
+    }
+
+    @Test
+    public void search_shouldNotMatch_whenTrigramsAreOutOfOrder() {
+        FilenameIndex index = new FilenameIndex();
+        index.add("/a/defabc");
+
+        Assertions.assertTrue(index.search("abcdef", 10).isEmpty());
+    }
+
+    @Test
+    public void search_shouldRespectLimit() {
+        FilenameIndex index = new FilenameIndex();
+        for (int i = 0; i < 20; i++)
+            index.add("/a/file" + i);
+
+        Assertions.assertEquals(5, index.search("file", 5).size());
+    }
+
+    @Test
+    public void remove_shouldRemoveChildren_whenPathIsDirectory() {
+        FilenameIndex index = new FilenameIndex();
+        index.updateDirectory("/a", List.of("folder"), List.of("folder"), 1);
+        index.updateDirectory("/a/folder", List.of("inner.txt"), List.of(), 1);
+
+        index.remove("/a/folder");
+
+        Assertions.assertTrue(index.search("inner", 10).isEmpty());
+        Assertions.assertEquals(0, index.size());
+        Assertions.assertEquals(-1, index.getDirectoryTime("/a/folder"));
+    }
+
+    @Test
+    public void add_shouldReuseIds_whenPathsWereRemoved() {
+        FilenameIndex index = new FilenameIndex();
+        for (int i = 0; i < 10; i++)
+            index.add("/a/old" + i);
+        for (int i = 0; i < 5; i++)
+            index.remove("/a/old" + i);
+
+        for (int i = 0; i < 5; i++)
+            index.add("/a/new" + i);
+
+        Assertions.assertEquals(10, index.getIdCapacity());
+        Assertions.assertEquals(5, index.search("new", 10).size());
+        Assertions.assertTrue(index.search("old0", 10).isEmpty());
+        Assertions.assertEquals(List.of("/a/old5"), index.search("old5", 10));
+    }
+
+    @Test
+    public void remove_shouldCompact_whenMostIdsAreFree() {
+        FilenameIndex index = new FilenameIndex();
+        for (int i = 0; i < 2000; i++)
+            index.add("/a/file" + i);
+
+        for (int i = 0; i < 1500; i++)
+            index.remove("/a/file" + i);
+
+        Assertions.assertEquals(500, index.size());
+        Assertions.assertTrue(index.getIdCapacity() < 2000);
+        Assertions.assertEquals(List.of("/a/file1999"), index.search("file1999", 10));
+        Assertions.assertTrue(index.search("file1499", 10).isEmpty());
+    }
+
+    @Test
+    public void updateDirectory_shouldRemoveMissingItems() {
+        FilenameIndex index = new FilenameIndex();
+        index.updateDirectory("/a", List.of("old.txt", "kept.txt"), List.of(), 1);
+
+        index.updateDirectory("/a", List.of("kept.txt", "new.txt"), List.of(), 2);
+
+        Assertions.assertFalse(index.contains("/a/old.txt"));
+        Assertions.assertTrue(index.contains("/a/kept.txt"));
+        Assertions.assertTrue(index.contains("/a/new.txt"));
+        Assertions.assertEquals(2, index.getDirectoryTime("/a"));
+    }
+
+    @Test
+    public void load_shouldRestoreSavedIndex() throws IOException {
+        FilenameIndex index = new FilenameIndex();
+        index.updateDirectory("/a", List.of("photo.png", "folder"),
+                List.of("folder"), 42);
+        index.remove("/a/photo.png");
+        Path indexFile = tempFolder.resolve("test.index");
+
+        index.save(indexFile);
+        FilenameIndex loaded = FilenameIndex.load(indexFile);
+
+        Assertions.assertEquals(1, loaded.size());
+        Assertions.assertTrue(loaded.contains("/a/folder"));
+        Assertions.assertEquals(42, loaded.getDirectoryTime("/a"));
+        Assertions.assertEquals(List.of("folder"), loaded.getSubDirectories("/a"));
+    }
+
+    @Test
+    public void load_shouldThrow_whenFileIsNotAnIndex() throws IOException {
+        Path indexFile = tempFolder.resolve("bad.index");
+        Files.writeString(indexFile, "not an index");
+
+        Assertions.assertThrows(IOException.class,
+                () -> FilenameIndex.load(indexFile));
+    }
+
+    @Test
+    public void reconcile_shouldIndexNewFiles_afterDirectoryChanges() throws IOException {
+        Path root = Files.createDirectory(tempFolder.resolve("root"));
+        Files.createDirectory(root.resolve("sub"));
+        Files.createFile(root.resolve("sub/first.txt"));
+        FilenameIndexer indexer = new FilenameIndexer(tempFolder.resolve(
+                "files.index"), () -> List.of(root.toString()), 30, 0);
+
+        indexer.reconcile();
+        Files.createFile(root.resolve("sub/second.txt"));
+        // Make sure the change is visible at millisecond resolution.
+        Files.setLastModifiedTime(root.resolve("sub"),
+                FileTime.fromMillis(System.currentTimeMillis() + 1000));
+        indexer.reconcile();
+
+        Assertions.assertEquals(1, indexer.search("first", 10).size());
+        Assertions.assertEquals(1, indexer.search("second", 10).size());
+    }
+
+    @Test
+    public void deleteIndex_shouldRemoveSavedIndex_whenPassIsStillRunning() throws Exception {
+        Path root = Files.createDirectory(tempFolder.resolve("root"));
+        Files.createFile(root.resolve("file.txt"));
+        Path indexFile = tempFolder.resolve("files.index");
+        FilenameIndexer indexer = new FilenameIndexer(indexFile,
+                () -> List.of(root.toString()), 30, 0);
+        indexer.start();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!indexer.isReady() && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+
+        // The first pass may not have saved the index yet.
+        indexer.deleteIndex();
+        while (indexer.hasSavedIndex() && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        Thread.sleep(100);
+
+        Assertions.assertFalse(indexer.hasSavedIndex());
+        Assertions.assertFalse(indexer.isReady());
+        Assertions.assertEquals(0, indexer.getIndexedCount());
+    }
+}
@@ -0,0 +1,50 @@
+package com.candle.fileexplorer.model.search;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class NameFilterTests {
+    private static final String[] names = {"documents", "downloads",
+            "desktop", "music", "readme.md"};
+
+    @Test
+    public void apply_shouldReturnSubstringMatches_ignoringCase() {
+        NameFilter filter = new NameFilter("DO", false);
+
+        Assertions.assertArrayEquals(new int[]{0, 1},
+                filter.apply(names, null, () -> false));
+    }
+
+    @Test
+    public void apply_shouldMatchCharactersInOrder_whenFuzzy() {
+        NameFilter filter = new NameFilter("dmt", true);
+
+        Assertions.assertArrayEquals(new int[]{0},
+                filter.apply(names, null, () -> false));
+    }
+
+    @Test
+    public void apply_shouldOnlyCheckCandidates_whenGiven() {
+        NameFilter filter = new NameFilter("s", false);
+
+        Assertions.assertArrayEquals(new int[]{1, 3},
+                filter.apply(names, new int[]{1, 3, 4}, () -> false));
+    }
+
+    @Test
+    public void apply_shouldReturnNull_whenCancelled() {
+        NameFilter filter = new NameFilter("d", false);
+
+        Assertions.assertNull(filter.apply(names, null, () -> true));
+    }
+
+    @Test
+    public void isNarrowerThan_shouldBeTrue_whenTextWasExtended() {
+        NameFilter previous = new NameFilter("do", false);
+
+        Assertions.assertTrue(new NameFilter("dow", false).isNarrowerThan(previous));
+        Assertions.assertFalse(new NameFilter("d", false).isNarrowerThan(previous));
+        Assertions.assertFalse(new NameFilter("dow", true).isNarrowerThan(previous));
+        Assertions.assertFalse(new NameFilter("dow", false).isNarrowerThan(null));
+    }
+}
@@ -0,0 +1,35 @@
+package com.candle.fileexplorer.model.search;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class TypeAheadIndexTests {
+    @Test
+    public void find_shouldReturnFirstMatch_ignoringCase() {
+        TypeAheadIndex index = new TypeAheadIndex(List.of("apps", "Desktop",
+                "documents", "Downloads", "music"));
+
+        Assertions.assertEquals(1, index.find("d"));
+        Assertions.assertEquals(3, index.find("DOW"));
+    }
+
+    @Test
+    public void find_shouldReturnMinusOne_whenNothingMatches() {
+        TypeAheadIndex index = new TypeAheadIndex(List.of("apps", "music"));
+
+        Assertions.assertEquals(-1, index.find("z"));
+        Assertions.assertEquals(-1, index.find("apple"));
+    }
+
+    @Test
+    public void find_shouldReturnFirstMatchInListingOrder_whenListingIsNotSortedByName() {
+        // Sorted by modified date, for example.
+        TypeAheadIndex index = new TypeAheadIndex(List.of("zebra.txt",
+                "notes-2.txt", "apple.txt", "notes-1.txt"));
+
+        Assertions.assertEquals(1, index.find("notes"));
+        Assertions.assertEquals(2, index.find("a"));
+    }
+}
@@ -0,0 +1,45 @@
+package com.candle.fileexplorer.model.thumbnails;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ByteBoundedCacheTests {
+    @Test
+    public void put_shouldDropLeastRecentlyUsed_whenOverBudget() {
+        ByteBoundedCache<String, byte[]> cache = new ByteBoundedCache<>(100, value -> value.length);
+        cache.put("a", new byte[40]);
+        cache.put("b", new byte[40]);
+        // "a" is now used more recently than "b".
+        cache.get("a");
+
+        cache.put("c", new byte[40]);
+
+        Assertions.assertNotNull(cache.get("a"));
+        Assertions.assertNull(cache.get("b"));
+        Assertions.assertNotNull(cache.get("c"));
+        Assertions.assertEquals(80, cache.getUsedBytes());
+    }
+
+    @Test
+    public void put_shouldNotCache_whenValueIsLargerThanBudget() {
+        ByteBoundedCache<String, byte[]> cache = new ByteBoundedCache<>(100, value -> value.length);
+        cache.put("a", new byte[40]);
+
+        cache.put("huge", new byte[101]);
+
+        Assertions.assertNull(cache.get("huge"));
+        Assertions.assertEquals(1, cache.size());
+        Assertions.assertEquals(40, cache.getUsedBytes());
+    }
+
+    @Test
+    public void put_shouldReplaceSize_whenKeyIsCachedAlready() {
+        ByteBoundedCache<String, byte[]> cache = new ByteBoundedCache<>(100, value -> value.length);
+        cache.put("a", new byte[40]);
+
+        cache.put("a", new byte[10]);
+
+        Assertions.assertEquals(10, cache.get("a").length);
+        Assertions.assertEquals(10, cache.getUsedBytes());
+    }
+}
@@ -0,0 +1,74 @@
+package com.candle.fileexplorer.model.thumbnails;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+public class ThumbnailStoreTests {
+    @TempDir
+    Path tempFolder;
+
+    @Test
+    public void locate_shouldUseMd5OfUri_whenNamingThumbnail() {
+        ThumbnailStore store = new ThumbnailStore(tempFolder.resolve("thumbnails"));
+
+        // The example given in the freedesktop.org thumbnail spec.
+        Path thumbnail = store.locate(Path.of("/home/jens/photos/me.png"));
+
+        Assertions.assertEquals(tempFolder.resolve("thumbnails/normal/c6ee772d9e49320e97ec29a7eb5b1697.png"),
+                thumbnail);
+    }
+
+    @Test
+    public void find_shouldReturnThumbnail_whenStoredForSameModificationTime() throws IOException {
+        ThumbnailStore store = new ThumbnailStore(tempFolder.resolve("thumbnails"));
+        Path photo = Files.writeString(tempFolder.resolve("photo.png"), "not really a photo");
+        long lastModified = Files.getLastModifiedTime(photo).toMillis();
+        int[] pixels = {0xffff0000, 0xff00ff00, 0xff0000ff, 0x80ffffff, 0xff000000, 0xffffffff};
+
+        store.store(photo, lastModified, 3, 2, pixels);
+        Path thumbnail = store.find(photo, lastModified);
+
+        Assertions.assertEquals(store.locate(photo), thumbnail);
+        BufferedImage image = ImageIO.read(thumbnail.toFile());
+        Assertions.assertEquals(3, image.getWidth());
+        Assertions.assertEquals(2, image.getHeight());
+        Assertions.assertEquals(0xff0000ff, image.getRGB(2, 0));
+        try (var files = Files.list(thumbnail.getParent())) {
+            Assertions.assertEquals(1, files.count(), "The temporary file was left behind");
+        }
+    }
+
+    @Test
+    public void find_shouldReturnNull_whenFileChangedSinceStored() throws IOException {
+        ThumbnailStore store = new ThumbnailStore(tempFolder.resolve("thumbnails"));
+        Path photo = Files.writeString(tempFolder.resolve("photo.png"), "before");
+        long lastModified = Files.getLastModifiedTime(photo).toMillis();
+        store.store(photo, lastModified, 1, 1, new int[]{0xffffffff});
+
+        Files.setLastModifiedTime(photo, FileTime.fromMillis(lastModified + 5000));
+
+        Assertions.assertNull(store.find(photo, Files.getLastModifiedTime(photo).toMillis()));
+        Assertions.assertNull(store.find(tempFolder.resolve("other.png"), lastModified));
+    }
+
+    @Test
+    public void store_shouldSkipFiles_whenInsideThumbnailFolder() throws IOException {
+        Path cache = Files.createDirectories(tempFolder.resolve("thumbnails/normal"));
+        ThumbnailStore store = new ThumbnailStore(tempFolder.resolve("thumbnails"));
+        Path thumbnail = Files.writeString(cache.resolve("existing.png"), "thumbnail");
+
+        store.store(thumbnail, 0, 1, 1, new int[]{0xffffffff});
+
+        try (var files = Files.list(cache)) {
+            Assertions.assertEquals(1, files.count());
+        }
+    }
+}
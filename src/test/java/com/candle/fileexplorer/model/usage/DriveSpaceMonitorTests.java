@@ -0,0 +1,43 @@
+package com.candle.fileexplorer.model.usage;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class DriveSpaceMonitorTests {
+    @TempDir
+    Path tempFolder;
+
+    @Test
+    public void readSpace_shouldReturnNull_whenPathIsMissing() {
+        Assertions.assertNull(DriveSpaceMonitor.readSpace(tempFolder.resolve("missing")));
+    }
+
+    @Test
+    public void watch_shouldReportEachReadableDrive() throws InterruptedException {
+        DriveSpaceMonitor monitor = new DriveSpaceMonitor();
+        Map<String, DriveSpace> results = new ConcurrentHashMap<>();
+        CountDownLatch reported = new CountDownLatch(1);
+
+        monitor.watch(List.of(tempFolder.toString(), tempFolder.resolve("missing").toString()),
+                (drive, space) -> {
+                    results.put(drive, space);
+                    reported.countDown();
+                });
+
+        Assertions.assertTrue(reported.await(5, TimeUnit.SECONDS));
+        monitor.stop();
+        DriveSpace space = results.get(tempFolder.toString());
+        Assertions.assertNotNull(space);
+        Assertions.assertTrue(space.totalBytes() > 0);
+        Assertions.assertTrue(space.getUsedFraction() >= 0 && space.getUsedFraction() <= 1);
+        Assertions.assertEquals(1, results.size());
+    }
+}
@@ -0,0 +1,89 @@
+package com.candle.fileexplorer.model.usage;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class DuplicateFinderTests {
+    @TempDir
+    Path tempFolder;
+
+    @Test
+    public void find_shouldGroupIdenticalFiles() throws IOException {
+        Files.writeString(tempFolder.resolve("a.txt"), "same contents");
+        Files.createDirectory(tempFolder.resolve("sub"));
+        Files.writeString(tempFolder.resolve("sub/b.txt"), "same contents");
+        Files.writeString(tempFolder.resolve("c.txt"), "other content");
+
+        List<DuplicateGroup> groups = findDuplicates();
+
+        Assertions.assertEquals(1, groups.size());
+        Assertions.assertEquals(List.of(tempFolder.resolve("a.txt"), tempFolder.resolve("sub/b.txt")),
+                groups.get(0).files());
+        Assertions.assertEquals(13, groups.get(0).getWastedBytes());
+    }
+
+    @Test
+    public void find_shouldNotGroupLargeFiles_whenOnlyTheMiddleDiffers() throws IOException {
+        byte[] contents = new byte[DuplicateFinder.sampleSize * 3];
+        Arrays.fill(contents, (byte) 'x');
+        Files.write(tempFolder.resolve("a.bin"), contents);
+        Files.write(tempFolder.resolve("b.bin"), contents);
+        contents[contents.length / 2] = 'y';
+        Files.write(tempFolder.resolve("c.bin"), contents);
+
+        List<DuplicateGroup> groups = findDuplicates();
+
+        Assertions.assertEquals(1, groups.size());
+        Assertions.assertEquals(List.of(tempFolder.resolve("a.bin"), tempFolder.resolve("b.bin")),
+                groups.get(0).files());
+    }
+
+    @Test
+    public void find_shouldCountHardLinksOnce() throws IOException {
+        Path original = Files.writeString(tempFolder.resolve("a.txt"), "linked");
+        Files.createLink(tempFolder.resolve("b.txt"), original);
+
+        Assertions.assertTrue(findDuplicates().isEmpty());
+    }
+
+    @Test
+    public void replaceWithHardLink_shouldMakeBothPathsTheSameFile() throws IOException {
+        Path kept = Files.writeString(tempFolder.resolve("a.txt"), "same contents");
+        Path duplicate = Files.writeString(tempFolder.resolve("b.txt"), "same contents");
+
+        DuplicateFinder.replaceWithHardLink(kept, duplicate);
+
+        Assertions.assertTrue(Files.isSameFile(kept, duplicate));
+        Assertions.assertEquals("same contents", Files.readString(duplicate));
+        Assertions.assertTrue(findDuplicates().isEmpty());
+    }
+
+    @Test
+    public void replaceWithHardLink_shouldKeepDuplicate_whenEditedSinceSearch() throws IOException {
+        Path kept = Files.writeString(tempFolder.resolve("a.txt"), "same contents");
+        Path duplicate = Files.writeString(tempFolder.resolve("b.txt"), "same contents");
+        Assertions.assertEquals(1, findDuplicates().size());
+        Files.writeString(duplicate, "same contentz");
+
+        Assertions.assertThrows(IOException.class, () -> DuplicateFinder.replaceWithHardLink(kept, duplicate));
+
+        Assertions.assertFalse(Files.isSameFile(kept, duplicate));
+        Assertions.assertEquals("same contentz", Files.readString(duplicate));
+    }
+
+    private List<DuplicateGroup> findDuplicates() throws IOException {
+        List<DuplicateGroup> groups = Collections.synchronizedList(new ArrayList<>());
+        new DuplicateFinder(2).find(tempFolder, false, groups::add, new AtomicBoolean());
+        return groups;
+    }
+}
@@ -0,0 +1,79 @@
+package com.candle.fileexplorer.model.usage;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+public class FolderSizeCalculatorTests {
+    @TempDir
+    Path tempFolder;
+
+    @Test
+    public void calculate_shouldAddUpNestedFiles() throws IOException {
+        Path tree = createTree();
+        FolderSizeCalculator calculator =
+                new FolderSizeCalculator(tempFolder.resolve("sizes.cache"), 2);
+
+        Assertions.assertEquals(175, calculator.calculate(tree.toString()));
+        Assertions.assertEquals(75, calculator.getCachedSize(tree.resolve("a").toString()));
+    }
+
+    @Test
+    public void calculate_shouldNoticeChangesBelowUnchangedDirectories() throws IOException {
+        Path tree = createTree();
+        FolderSizeCalculator calculator =
+                new FolderSizeCalculator(tempFolder.resolve("sizes.cache"), 2);
+        calculator.calculate(tree.toString());
+
+        Path deepFolder = tree.resolve("a/b");
+        Files.write(deepFolder.resolve("new.bin"), new byte[25]);
+        // The modification time only has millisecond precision on some file
+        // systems, so make sure it visibly changed.
+        Files.setLastModifiedTime(deepFolder, FileTime.fromMillis(
+                Files.getLastModifiedTime(deepFolder).toMillis() + 5000));
+
+        Assertions.assertEquals(200, calculator.calculate(tree.toString()));
+    }
+
+    @Test
+    public void getCachedSize_shouldUseSavedCache_afterRestart() throws IOException {
+        Path tree = createTree();
+        Path cacheFile = tempFolder.resolve("sizes.cache");
+        FolderSizeCalculator calculator = new FolderSizeCalculator(cacheFile, 2);
+        calculator.calculate(tree.toString());
+        calculator.saveCache();
+
+        FolderSizeCalculator restarted = new FolderSizeCalculator(cacheFile, 2);
+        // The cache is read by the first calculation.
+        Assertions.assertEquals(-1, restarted.getCachedSize(tree.toString()));
+        restarted.calculate(tree.resolve("c").toString());
+        Assertions.assertEquals(175, restarted.getCachedSize(tree.toString()));
+    }
+
+    @Test
+    public void load_shouldRejectUnknownFiles() throws IOException {
+        Path cacheFile = tempFolder.resolve("sizes.cache");
+        Files.writeString(cacheFile, "not a cache");
+
+        Assertions.assertThrows(IOException.class, () -> FolderSizeCache.load(cacheFile));
+    }
+
+    /**
+     * Creates tree/one.bin (100 bytes), tree/a/two.bin (50 bytes),
+     * tree/a/b/three.bin (25 bytes) and an empty tree/c.
+     */
+    private Path createTree() throws IOException {
+        Path tree = tempFolder.resolve("tree");
+        Files.createDirectories(tree.resolve("a/b"));
+        Files.createDirectories(tree.resolve("c"));
+        Files.write(tree.resolve("one.bin"), new byte[100]);
+        Files.write(tree.resolve("a/two.bin"), new byte[50]);
+        Files.write(tree.resolve("a/b/three.bin"), new byte[25]);
+        return tree;
+    }
+}
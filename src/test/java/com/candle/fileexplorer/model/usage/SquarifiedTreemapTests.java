@@ -0,0 +1,39 @@
+package com.candle.fileexplorer.model.usage;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SquarifiedTreemapTests {
+    @Test
+    public void layout_shouldGiveEachItemAnAreaInProportionToItsSize() {
+        long[] sizes = {6, 6, 4, 3, 2, 2, 1};
+
+        double[] rectangles = SquarifiedTreemap.layout(sizes, 0, 0, 6, 4);
+
+        for (int i = 0; i < sizes.length; i++) {
+            double area = rectangles[i * 4 + 2] * rectangles[i * 4 + 3];
+            Assertions.assertEquals(sizes[i], area, 1e-9);
+        }
+    }
+
+    @Test
+    public void layout_shouldStayInsideTheGivenSpace() {
+        long[] sizes = {500, 120, 80, 80, 30, 5, 1};
+
+        double[] rectangles = SquarifiedTreemap.layout(sizes, 10, 20, 300, 200);
+
+        for (int i = 0; i < sizes.length; i++) {
+            Assertions.assertTrue(rectangles[i * 4] >= 10 - 1e-9);
+            Assertions.assertTrue(rectangles[i * 4 + 1] >= 20 - 1e-9);
+            Assertions.assertTrue(rectangles[i * 4] + rectangles[i * 4 + 2] <= 310 + 1e-9);
+            Assertions.assertTrue(rectangles[i * 4 + 1] + rectangles[i * 4 + 3] <= 220 + 1e-9);
+        }
+    }
+
+    @Test
+    public void layout_shouldReturnEmptyRectangles_whenEverythingIsEmpty() {
+        double[] rectangles = SquarifiedTreemap.layout(new long[]{0, 0}, 0, 0, 100, 100);
+
+        Assertions.assertArrayEquals(new double[8], rectangles);
+    }
+}
@@ -0,0 +1,69 @@
+package com.candle.fileexplorer.model.usage;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class UsageScannerTests {
+    @TempDir
+    Path tempFolder;
+
+    @Test
+    public void scan_shouldAddUpSizesAndFileCounts() throws IOException {
+        createTree();
+        UsageScanner scanner = new UsageScanner(2);
+
+        UsageTree tree = scanner.scan(tempFolder, new AtomicBoolean(), count -> {
+        });
+
+        Assertions.assertEquals(4, tree.size());
+        Assertions.assertEquals(1000 + 300 + 200 + 10, tree.getBytes(UsageTree.root));
+        Assertions.assertEquals(4, tree.getFileCount(UsageTree.root));
+    }
+
+    @Test
+    public void getChildren_shouldReturnLargestFirst() throws IOException {
+        createTree();
+        UsageTree tree = new UsageScanner(2).scan(tempFolder, new AtomicBoolean(),
+                count -> {
+                });
+
+        int[] children = tree.getChildren(UsageTree.root);
+
+        Assertions.assertEquals(2, children.length);
+        Assertions.assertEquals("big", tree.getName(children[0]));
+        Assertions.assertEquals("small", tree.getName(children[1]));
+        Assertions.assertEquals(tempFolder.resolve("big/nested").toString(),
+                tree.getPath(tree.getChildren(children[0])[0]));
+    }
+
+    @Test
+    public void scan_shouldStopEarly_whenCancelled() throws IOException {
+        createTree();
+        AtomicBoolean cancelled = new AtomicBoolean(true);
+
+        UsageTree tree = new UsageScanner(2).scan(tempFolder, cancelled, count -> {
+        });
+
+        Assertions.assertEquals(1, tree.size());
+        Assertions.assertEquals(0, tree.getBytes(UsageTree.root));
+    }
+
+    /**
+     * Creates big (1000 bytes, plus nested with 300 bytes), small (200
+     * bytes) and a 10 byte file in the temporary folder.
+     */
+    private void createTree() throws IOException {
+        Files.createDirectories(tempFolder.resolve("big/nested"));
+        Files.createDirectories(tempFolder.resolve("small"));
+        Files.write(tempFolder.resolve("big/a.bin"), new byte[1000]);
+        Files.write(tempFolder.resolve("big/nested/b.bin"), new byte[300]);
+        Files.write(tempFolder.resolve("small/c.bin"), new byte[200]);
+        Files.write(tempFolder.resolve("d.txt"), new byte[10]);
+    }
+}
@@ -0,0 +1,246 @@
+package com.candle.fileexplorer.view;
+
+import com.candle.fileexplorer.core.ModelFactory;
+import com.candle.fileexplorer.core.ViewHandler;
+import com.candle.fileexplorer.core.ViewModelFactory;
+import com.candle.fileexplorer.fixtures.FixtureTree;
+import com.candle.fileexplorer.fixtures.SizeDistribution;
+import com.candle.fileexplorer.view.harness.HeadlessFx;
+import com.candle.fileexplorer.view.harness.PulseRecorder;
+import com.candle.fileexplorer.view.harness.SceneProbe;
+import com.candle.fileexplorer.view.harness.UiBudgets;
+import com.candle.fileexplorer.viewmodel.FileGridViewModel;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives the main window against generated folders and holds the grid to
+ * the budgets in ui-perf-budgets.properties. These run on a headless screen
+ * with `gradlew uiPerfTest`, and are left out of the normal test run.
+ */
+@Tag("ui-perf")
+public class GridPerformanceTests {
+    private static final long timeoutSeconds = 60;
+
+    private static UiBudgets budgets;
+    private static FixtureTree tree;
+    private static String previousHome;
+    private static Stage stage;
+    private static Scene scene;
+    private static PulseRecorder pulses;
+    private static FileGridViewModel gridViewModel;
+
+    /**
+     * The two folders that are switched between, and how many items each
+     * one shows.
+     */
+    private static Path firstFolder;
+    private static Path secondFolder;
+    private static int firstFolderSize;
+    private static int secondFolderSize;
+
+    @BeforeAll
+    public static void openMainWindow() throws Exception {
+        Assumptions.assumeTrue(HeadlessFx.start(), "JavaFX can't start without a screen");
+        budgets = UiBudgets.load();
+
+        // The window starts in the home folder, and keeps its session and
+        // caches below it, so a generated tree stands in for it.
+        tree = FixtureTree.builder().depth(1).fanOut(2)
+                .filesPerFolder((int) budgets.get("entries")).hiddenRatio(0).symlinkRatio(0)
+                .fileSizes(SizeDistribution.fixed(0)).seed(43).build();
+        previousHome = System.getProperty("user.home");
+        System.setProperty("user.home", tree.getRoot().toString());
+
+        List<FixtureTree.Entry> folders = tree.getChildren(Path.of(""), false).stream()
+                .filter(entry -> entry.kind() == FixtureTree.Kind.Folder).toList();
+        firstFolder = tree.getRoot().resolve(folders.get(0).path());
+        secondFolder = tree.getRoot().resolve(folders.get(1).path());
+        firstFolderSize = tree.getChildren(folders.get(0).path(), false).size();
+        secondFolderSize = tree.getChildren(folders.get(1).path(), false).size();
+
+        stage = HeadlessFx.call(() -> {
+            ViewModelFactory viewModelFactory = new ViewModelFactory(new ModelFactory());
+            gridViewModel = viewModelFactory.getMainViewModel().getFileGridViewModel();
+
+            Stage window = new Stage();
+            window.setWidth(budgets.get("windowWidth"));
+            window.setHeight(budgets.get("windowHeight"));
+            ViewHandler.getInstance().init(window, viewModelFactory);
+            ViewHandler.getInstance().start();
+            return window;
+        });
+        scene = HeadlessFx.call(stage::getScene);
+        pulses = PulseRecorder.attach(scene);
+
+        int homeSize = tree.getChildren(Path.of(""), false).size();
+        await(HeadlessFx.call(() -> pulses.when(() -> showsAllOf(tree.getRoot(), homeSize))));
+    }
+
+    @AfterAll
+    public static void closeMainWindow() throws Exception {
+        if (pulses != null)
+            pulses.detach();
+        if (stage != null)
+            HeadlessFx.run(stage::hide);
+        if (previousHome != null)
+            System.setProperty("user.home", previousHome);
+        if (tree != null)
+            tree.close();
+    }
+
+    @Test
+    public void navigation_shouldShowGrid_withinBudgets() throws Exception {
+        navigate(secondFolder, secondFolderSize);
+        HeadlessFx.run(pulses::reset);
+
+        long[] start = new long[1];
+        List<CompletableFuture<Long>> milestones = HeadlessFx.call(() -> {
+            CompletableFuture<Long> firstTile = pulses.when(() -> showsAnyOf(firstFolder));
+            CompletableFuture<Long> fullBuild = pulses.when(() -> showsAllOf(firstFolder, firstFolderSize));
+            start[0] = System.nanoTime();
+            gridViewModel.setCurrentDirectory(firstFolder.toString());
+            return List.of(firstTile, fullBuild);
+        });
+        long firstTile = await(milestones.get(0)) - start[0];
+        long fullBuild = await(milestones.get(1)) - start[0];
+        long longestPulse = HeadlessFx.call(pulses::getLongestPulseMillis);
+        int nodes = HeadlessFx.call(() -> SceneProbe.countNodes(scene.getRoot()));
+
+        Assertions.assertAll(
+                () -> budgets.check("firstTileMillis", firstTile / 1_000_000),
+                () -> budgets.check("fullBuildMillis", fullBuild / 1_000_000),
+                () -> budgets.check("maxPulseMillis", longestPulse),
+                () -> budgets.check("maxNodes", nodes));
+    }
+
+    @Test
+    public void navigation_shouldNotKeepHeap_whenRepeated() throws Exception {
+        // Warm up first, so classes, icons and caches that are loaded once
+        // don't count as growth.
+        navigate(firstFolder, firstFolderSize);
+        navigate(secondFolder, secondFolderSize);
+        long before = SceneProbe.usedHeapAfterGc();
+
+        long navigations = budgets.get("navigations");
+        for (int i = 0; i < navigations; i++) {
+            navigate(firstFolder, firstFolderSize);
+            navigate(secondFolder, secondFolderSize);
+        }
+        long growth = SceneProbe.usedHeapAfterGc() - before;
+
+        budgets.check("heapGrowthMegabytes", Math.max(0, growth) / (1024 * 1024));
+    }
+
+    @Test
+    public void resize_shouldKeepPulses_withinBudget() throws Exception {
+        navigate(firstFolder, firstFolderSize);
+        HeadlessFx.run(pulses::reset);
+
+        // Shrink to the narrowest window and widen it again, a step at a
+        // time, waiting for each width to be laid out.
+        double startWidth = HeadlessFx.call(stage::getWidth);
+        double minWidth = HeadlessFx.call(stage::getMinWidth);
+        long steps = budgets.get("resizeSteps");
+        for (int i = 1; i <= steps; i++) {
+            double fraction = i <= steps / 2 ? i / (steps / 2.0) : (steps - i) / (steps / 2.0);
+            double width = startWidth - (startWidth - minWidth) * fraction;
+            await(HeadlessFx.call(() -> {
+                stage.setWidth(width);
+                return pulses.when(() -> findGrid().getWidth() > 0
+                        && Math.abs(stage.getScene().getWidth() - width) < 50);
+            }));
+        }
+        int pulseCount = HeadlessFx.call(pulses::getPulseCount);
+        long longestPulse = HeadlessFx.call(pulses::getLongestPulseMillis);
+        int nodes = HeadlessFx.call(() -> SceneProbe.countNodes(scene.getRoot()));
+
+        Assertions.assertTrue(pulseCount >= steps);
+        Assertions.assertAll(
+                () -> budgets.check("maxPulseMillis", longestPulse),
+                () -> budgets.check("maxNodes", nodes));
+    }
+
+    @Test
+    public void refresh_shouldRebuildGrid_withinBudget() throws Exception {
+        navigate(firstFolder, firstFolderSize);
+        HeadlessFx.run(pulses::reset);
+
+        long[] start = new long[1];
+        CompletableFuture<Long> rebuilt = HeadlessFx.call(() -> {
+            start[0] = System.nanoTime();
+            findGrid().refresh();
+            return pulses.when(() -> showsAllOf(firstFolder, firstFolderSize));
+        });
+        long refresh = await(rebuilt) - start[0];
+        long longestPulse = HeadlessFx.call(pulses::getLongestPulseMillis);
+
+        Assertions.assertAll(
+                () -> budgets.check("refreshMillis", refresh / 1_000_000),
+                () -> budgets.check("maxPulseMillis", longestPulse));
+    }
+
+    //region Helper Methods
+
+    /**
+     * Opens a folder and waits until the grid shows all of it.
+     */
+    private static void navigate(Path folder, int itemCount) throws Exception {
+        await(HeadlessFx.call(() -> {
+            gridViewModel.setCurrentDirectory(folder.toString());
+            return pulses.when(() -> showsAllOf(folder, itemCount));
+        }));
+    }
+
+    private static long await(CompletableFuture<Long> milestone) throws Exception {
+        return milestone.get(timeoutSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Gets the grid of the selected tab.
+     */
+    private static FileGridController findGrid() {
+        for (FileGridController grid : SceneProbe.findAll(scene.getRoot(), FileGridController.class)) {
+            if (grid.isVisible())
+                return grid;
+        }
+        throw new IllegalStateException("The window has no grid");
+    }
+
+    /**
+     * Checks whether the grid shows at least one item of a folder.
+     */
+    private static boolean showsAnyOf(Path folder) {
+        String prefix = folder + File.separator;
+        for (FileItemController cell : SceneProbe.findAll(findGrid(), FileItemController.class)) {
+            if (cell.getItemDirectory().startsWith(prefix))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the grid has all of a folder's items, and every cell
+     * on screen shows one of them.
+     */
+    private static boolean showsAllOf(Path folder, int itemCount) {
+        if (gridViewModel.getItems().size() != itemCount)
+            return false;
+        String prefix = folder + File.separator;
+        List<FileItemController> cells = SceneProbe.findAll(findGrid(), FileItemController.class);
+        for (FileItemController cell : cells) {
+            if (!cell.getItemDirectory().startsWith(prefix))
+                return false;
+        }
+        return !cells.isEmpty();
+    }
+
+    //endregion
+}
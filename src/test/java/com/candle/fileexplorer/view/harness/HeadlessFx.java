@@ -0,0 +1,117 @@
+package com.candle.fileexplorer.view.harness;
+
+import javafx.application.Platform;
+
+import java.util.Locale;
+import java.util.concurrent.*;
+
+/**
+ * Starts the JavaFX toolkit once for the UI tests, and runs code on its
+ * thread. The tests are meant to run on Monocle's headless screen, which
+ * the uiPerfTest task selects. Anywhere else they need a real display, and
+ * without one the toolkit isn't started at all.
+ */
+public final class HeadlessFx {
+    //region Private Members
+
+    /**
+     * How long to wait for the toolkit, or for code run on its thread.
+     */
+    private static final long timeoutSeconds = 30;
+
+    /**
+     * Whether the toolkit is running, or null before the first try.
+     */
+    private static Boolean started;
+
+    //endregion
+
+    //region Constructors
+
+    private HeadlessFx() {
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Starts the toolkit, unless it's already running.
+     *
+     * @return Whether the toolkit is running, so tests can be skipped where
+     * it can't start.
+     */
+    public static synchronized boolean start() {
+        if (started != null)
+            return started;
+
+        if (!"Monocle".equals(System.getProperty("glass.platform")) && !hasDisplay()) {
+            started = false;
+            return false;
+        }
+
+        CountDownLatch latch = new CountDownLatch(1);
+        try {
+            Platform.startup(latch::countDown);
+            started = latch.await(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (IllegalStateException e) {
+            // Another test class already started it.
+            started = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            started = false;
+        } catch (RuntimeException | LinkageError e) {
+            System.err.println("Could not start JavaFX: " + e);
+            started = false;
+        }
+        // Test classes open and close their own windows.
+        if (started)
+            Platform.setImplicitExit(false);
+        return started;
+    }
+
+    /**
+     * Runs code on the JavaFX thread and waits for its result.
+     */
+    public static <T> T call(Callable<T> task) throws Exception {
+        if (Platform.isFxApplicationThread())
+            return task.call();
+
+        FutureTask<T> future = new FutureTask<>(task);
+        Platform.runLater(future);
+        try {
+            return future.get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause)
+                throw cause;
+            throw e;
+        }
+    }
+
+    /**
+     * Runs code on the JavaFX thread and waits for it to finish.
+     */
+    public static void run(Runnable task) throws Exception {
+        call(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    /**
+     * Checks whether there's a screen to open windows on. Only Linux and the
+     * other Unix systems can be without one.
+     */
+    private static boolean hasDisplay() {
+        String os = System.getProperty("os.name", "").toLowerCase(Locale.ROOT);
+        if (os.contains("win") || os.contains("mac"))
+            return true;
+        return System.getenv("DISPLAY") != null || System.getenv("WAYLAND_DISPLAY") != null;
+    }
+
+    //endregion
+}
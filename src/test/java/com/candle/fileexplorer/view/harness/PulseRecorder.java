@@ -0,0 +1,141 @@
+package com.candle.fileexplorer.view.harness;
+
+import javafx.application.Platform;
+import javafx.scene.Scene;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Times every pulse of a scene, from just before its CSS and layout pass to
+ * just after it, and tells tests which pulse first showed what they were
+ * waiting for. Everything but {@link #attach} and {@link #detach} must be
+ * called on the JavaFX thread.
+ */
+public class PulseRecorder {
+    //region Private Members
+
+    private final Scene scene;
+
+    private final Runnable preLayoutListener = this::pulseStarted;
+
+    private final Runnable postLayoutListener = this::pulseFinished;
+
+    /**
+     * How long each pulse took since the last {@link #reset}, in
+     * nanoseconds.
+     */
+    private final List<Long> durations = new ArrayList<>();
+
+    /**
+     * The conditions that haven't been met yet.
+     */
+    private final List<Milestone> milestones = new ArrayList<>();
+
+    private long pulseStart;
+
+    //endregion
+
+    //region Constructors
+
+    private PulseRecorder(Scene scene) {
+        this.scene = scene;
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Starts recording the pulses of a scene.
+     */
+    public static PulseRecorder attach(Scene scene) throws Exception {
+        PulseRecorder recorder = new PulseRecorder(scene);
+        HeadlessFx.run(() -> {
+            scene.addPreLayoutPulseListener(recorder.preLayoutListener);
+            scene.addPostLayoutPulseListener(recorder.postLayoutListener);
+        });
+        return recorder;
+    }
+
+    /**
+     * Stops recording.
+     */
+    public void detach() throws Exception {
+        HeadlessFx.run(() -> {
+            scene.removePreLayoutPulseListener(preLayoutListener);
+            scene.removePostLayoutPulseListener(postLayoutListener);
+        });
+    }
+
+    /**
+     * Gets when the first pulse that ends with a condition met finished.
+     * Pulses are requested until it's met, even if nothing else changes.
+     *
+     * @return A future completed with the pulse's {@link System#nanoTime}.
+     */
+    public CompletableFuture<Long> when(BooleanSupplier condition) {
+        Milestone milestone = new Milestone(condition, new CompletableFuture<>());
+        milestones.add(milestone);
+        Platform.requestNextPulse();
+        return milestone.reached();
+    }
+
+    /**
+     * Forgets the pulses recorded so far.
+     */
+    public void reset() {
+        durations.clear();
+    }
+
+    public int getPulseCount() {
+        return durations.size();
+    }
+
+    /**
+     * Gets the longest pulse since the last {@link #reset}, in
+     * milliseconds.
+     */
+    public long getLongestPulseMillis() {
+        long longest = 0;
+        for (long duration : durations)
+            longest = Math.max(longest, duration);
+        return longest / 1_000_000;
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    private void pulseStarted() {
+        pulseStart = System.nanoTime();
+    }
+
+    private void pulseFinished() {
+        long now = System.nanoTime();
+        durations.add(now - pulseStart);
+
+        Iterator<Milestone> pending = milestones.iterator();
+        while (pending.hasNext()) {
+            Milestone milestone = pending.next();
+            if (milestone.condition().getAsBoolean()) {
+                milestone.reached().complete(now);
+                pending.remove();
+            }
+        }
+        if (!milestones.isEmpty())
+            Platform.requestNextPulse();
+    }
+
+    //endregion
+
+    //region Helper Classes
+
+    private record Milestone(BooleanSupplier condition, CompletableFuture<Long> reached) {
+    }
+
+    //endregion
+}
@@ -0,0 +1,75 @@
+package com.candle.fileexplorer.view.harness;
+
+import javafx.scene.Node;
+import javafx.scene.Parent;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures what a window is made of: its nodes, and the heap it keeps.
+ */
+public final class SceneProbe {
+    //region Constructors
+
+    private SceneProbe() {
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    /**
+     * Counts a node and everything below it. Must be called on the JavaFX
+     * thread.
+     */
+    public static int countNodes(Node node) {
+        int count = 1;
+        if (node instanceof Parent parent) {
+            for (Node child : parent.getChildrenUnmodifiable())
+                count += countNodes(child);
+        }
+        return count;
+    }
+
+    /**
+     * Finds every node of a type below a node, including the node itself.
+     * Must be called on the JavaFX thread.
+     */
+    public static <T extends Node> List<T> findAll(Node node, Class<T> type) {
+        ArrayList<T> found = new ArrayList<>();
+        collect(node, type, found);
+        return found;
+    }
+
+    /**
+     * Gets the heap in use once garbage has been collected, in bytes. A few
+     * collections are asked for, since one isn't guaranteed to free
+     * everything that could be.
+     */
+    public static long usedHeapAfterGc() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    //endregion
+
+    //region Private Helper Methods
+
+    private static <T extends Node> void collect(Node node, Class<T> type, List<T> found) {
+        if (type.isInstance(node))
+            found.add(type.cast(node));
+        if (node instanceof Parent parent) {
+            for (Node child : parent.getChildrenUnmodifiable())
+                collect(child, type, found);
+        }
+    }
+
+    //endregion
+}
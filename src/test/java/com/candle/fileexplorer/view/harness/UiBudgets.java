@@ -0,0 +1,70 @@
+package com.candle.fileexplorer.view.harness;
+
+import org.opentest4j.AssertionFailedError;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * The limits the UI performance tests hold the app to, read from
+ * ui-perf-budgets.properties. Any of them can be overridden with a system
+ * property named after it with a "uiperf." prefix, which the uiPerfTest task
+ * passes on from -Puiperf.&lt;name&gt;=&lt;value&gt;.
+ */
+public class UiBudgets {
+    //region Private Members
+
+    private static final String resourceName = "/ui-perf-budgets.properties";
+
+    private static final String overridePrefix = "uiperf.";
+
+    private final Properties values;
+
+    //endregion
+
+    //region Constructors
+
+    private UiBudgets(Properties values) {
+        this.values = values;
+    }
+
+    //endregion
+
+    //region Public Methods
+
+    public static UiBudgets load() throws IOException {
+        Properties values = new Properties();
+        try (InputStream stream = UiBudgets.class.getResourceAsStream(resourceName)) {
+            if (stream == null)
+                throw new IOException("Missing " + resourceName);
+            values.load(stream);
+        }
+        return new UiBudgets(values);
+    }
+
+    /**
+     * Gets a setting or budget.
+     *
+     * @throws IllegalArgumentException If it isn't set, or isn't a number.
+     */
+    public long get(String name) {
+        String value = System.getProperty(overridePrefix + name, values.getProperty(name));
+        if (value == null)
+            throw new IllegalArgumentException("No budget named " + name);
+        return Long.parseLong(value.trim());
+    }
+
+    /**
+     * Prints a measurement next to its budget, and fails if it's over.
+     */
+    public void check(String name, long measured) {
+        long budget = get(name);
+        System.out.printf("ui-perf: %s = %d (budget %d)%n", name, measured, budget);
+        if (measured > budget)
+            throw new AssertionFailedError(name + " was " + measured
+                    + ", over its budget of " + budget, budget, measured);
+    }
+
+    //endregion
+}
@@ -2,6 +2,7 @@ package com.candle.fileexplorer.viewmodel;
 
 import com.candle.fileexplorer.model.FilesModel;
 import com.candle.fileexplorer.model.data.FileItem;
+import com.candle.fileexplorer.model.usage.DriveSpace;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -49,4 +50,16 @@ public class DirectoryButtonViewModelTests {
         vm.goToDirectory();
         verify(mockModel).setCurrentDirectory(newDirectory);
     }
+
+    @Test
+    public void getDriveSpaceDescription_shouldDescribeFreeSpace_whenSpaceIsKnown() {
+        DirectoryButtonViewModel vm = new DirectoryButtonViewModel(mock(FilesModel.class),
+                mock(FileItem.class));
+        Assertions.assertEquals("", vm.getDriveSpaceDescription());
+
+        vm.driveSpaceProperty().set(new DriveSpace(500L * 1024 * 1024 * 1024,
+                120L * 1024 * 1024 * 1024));
+
+        Assertions.assertEquals("120 GB free of 500 GB", vm.getDriveSpaceDescription());
+    }
 }
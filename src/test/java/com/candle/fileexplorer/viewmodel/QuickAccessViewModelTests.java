@@ -9,6 +9,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -38,6 +39,22 @@ public class QuickAccessViewModelTests {
         Assertions.assertEquals(expectedResult, viewModel.getDriveVms());
     }
 
+    @Test
+    public void showDrives_shouldFillDrives_onlyOnceDiscovered() {
+        ArrayList<FileItem> drives = new ArrayList<>();
+        FileItem drive = new DefaultFileItem(FileType.Drive, "drive1");
+        drives.add(drive);
+        FilesModel dataModel = mock(FilesModel.class);
+        when(dataModel.getDrives()).thenReturn(drives);
+
+        QuickAccessViewModel viewModel = new QuickAccessViewModel(dataModel, null, null);
+        Assertions.assertTrue(viewModel.getDriveVms().isEmpty());
+        viewModel.showDrives(viewModel.discoverDrives());
+
+        Assertions.assertEquals(List.of(new DirectoryButtonViewModel(dataModel, drive)),
+                viewModel.getDriveVms());
+    }
+
     @Test
     public void getQuickAccess_shouldReturnHome_inHomePath() {
         FilesModel dataModel = new DefaultFilesModel();